@@ -0,0 +1,93 @@
+/**
+ * @author : Yuuji
+ * BalanceBenchmark.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary JMH annotations
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The BalanceBenchmark class measures charging patient balances from
+ * eight threads at once, comparing the atomic cents counter of
+ * {@link Patient#addBalance(double)} with a synchronized baseline.
+ * The shared variants charge one patient from every thread, the
+ * own variants give every thread its own patient.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class BalanceBenchmark {
+    // Charge applied by every call, as for a clinic consultation
+    private static final double CHARGE = 55.0;
+
+    /**
+     * The SynchronizedBalance class is the baseline: a cents balance
+     * guarded by the monitor of the object.
+     */
+    static final class SynchronizedBalance {
+        // Balance in cents
+        private long cents;
+
+        /**
+         * Adds an amount rounded to the cent.
+         */
+        synchronized void add(double amount) {
+            cents += Math.round(amount * 100);
+        }
+    }
+
+    /**
+     * One patient and one baseline balance shared by all threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final Patient patient = new Patient("Shared", true);
+        final SynchronizedBalance baseline = new SynchronizedBalance();
+    }
+
+    /**
+     * One patient and one baseline balance per thread.
+     */
+    @State(Scope.Thread)
+    public static class Own {
+        final Patient patient = new Patient("Own", true);
+        final SynchronizedBalance baseline = new SynchronizedBalance();
+    }
+
+    @Benchmark
+    public void atomicShared(Shared state) {
+        state.patient.addBalance(CHARGE);
+    }
+
+    @Benchmark
+    public void synchronizedShared(Shared state) {
+        state.baseline.add(CHARGE);
+    }
+
+    @Benchmark
+    public void atomicOwn(Own state) {
+        state.patient.addBalance(CHARGE);
+    }
+
+    @Benchmark
+    public void synchronizedOwn(Own state) {
+        state.baseline.add(CHARGE);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * @author : Yuuji
+ * ChargingBenchmark.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary JMH annotations
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The ChargingBenchmark class measures a single thread charging
+ * patients through {@link Clinic#visit(Patient)} and
+ * {@link Hospital#performProcedure(Patient, Procedure)}, for public
+ * and private patients, and deciding an admission with
+ * {@link Hospital#visit(Patient)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChargingBenchmark {
+    // Facilities and procedure charged for
+    private final HealthService service = new HealthService();
+    private final Clinic clinic = new Clinic("Benchmark Clinic", 55, 12.5);
+    private final Hospital hospital = new Hospital("Benchmark Hospital", 0.5);
+    private final Procedure elective =
+        new Procedure("Knee Replacement", "Replacement of the knee", true, 0);
+    // Patients charged, registered and at the hospital
+    private final Patient publicPatient = new Patient("Public", false);
+    private final Patient privatePatient = new Patient("Private", true);
+
+    /**
+     * Registers the patients so that every clinic visit is charged,
+     * and places them at the hospital.
+     */
+    @Setup
+    public void setUp() {
+        elective.setCostCents(123_456);
+        hospital.addProcedure(elective);
+        service.addFacility(clinic);
+        service.addFacility(hospital);
+        for (Patient patient : new Patient[] {
+                publicPatient, privatePatient}) {
+            service.addPatient(patient);
+            clinic.visit(patient);
+            patient.setCurrentFacility(hospital);
+        }
+    }
+
+    @Benchmark
+    public boolean clinicVisitPublic() {
+        return clinic.visit(publicPatient);
+    }
+
+    @Benchmark
+    public boolean clinicVisitPrivate() {
+        return clinic.visit(privatePatient);
+    }
+
+    @Benchmark
+    public boolean procedurePublic() {
+        return hospital.performProcedure(publicPatient, elective);
+    }
+
+    @Benchmark
+    public boolean procedurePrivate() {
+        return hospital.performProcedure(privatePatient, elective);
+    }
+
+    /**
+     * Decides an admission. The patient stays at the hospital whether
+     * or not they are admitted, so procedures remain possible.
+     */
+    @Benchmark
+    public boolean hospitalVisit() {
+        return hospital.visit(publicPatient);
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * @author : Yuuji
+ * HttpLoadClient.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for HTTP requests and virtual threads
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The HttpLoadClient class puts load on a running {@link HttpApi}
+ * and reports the throughput and latency it sustains. Each client
+ * runs on a virtual thread and sends requests back to back: mostly
+ * patient lookups, then visits, then facility lookups, with patients
+ * and facilities picked at random.
+ * <p>
+ * Start the server with {@code HeadlessLauncher <snapshot> --port
+ * 8080}, then run
+ * {@code java -cp target/benchmarks.jar com.medical.HttpLoadClient
+ * [url] [clients] [seconds]}, by default against
+ * {@code http://localhost:8080} with 64 clients for 30 seconds.
+ */
+public class HttpLoadClient {
+    // Percentage of requests that are patient lookups and visits
+    private static final int LOOKUP_PERCENT = 70;
+    private static final int VISIT_PERCENT = 20;
+    // Member of the status response holding a count
+    private static final String COUNT = "\"%s\":(\\d+)";
+
+    /**
+     * The latencies and errors seen by one client.
+     *
+     * @param latencies the latency of every successful request in
+     *        nanoseconds
+     * @param errors the number of failed requests
+     */
+    record Samples(long[] latencies, long errors) {
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args the server URL, number of clients and seconds
+     * @throws Exception if the server cannot be reached
+     */
+    public static void main(String[] args) throws Exception {
+        URI base = URI.create(
+            args.length > 0 ? args[0] : "http://localhost:8080"
+        );
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        String status = http.send(
+            HttpRequest.newBuilder(base.resolve("/")).build(),
+            HttpResponse.BodyHandlers.ofString()
+        ).body();
+        int patients = count(status, "patients");
+        int facilities = count(status, "facilities");
+        if (patients == 0 || facilities == 0) {
+            System.err.println("The server has no patients or facilities");
+            return;
+        }
+        System.out.printf(
+            "%d clients for %d s against %s (%d patients, %d facilities)%n",
+            clients, seconds, base, patients, facilities
+        );
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<Samples>> results = new ArrayList<>();
+        try (ExecutorService threads =
+                Executors.newVirtualThreadPerTaskExecutor()) {
+            SplittableRandom root = new SplittableRandom(1);
+            for (int c = 0; c < clients; c++) {
+                SplittableRandom random = root.split();
+                results.add(threads.submit(() -> run(
+                    http, base, patients, facilities, deadline, random
+                )));
+            }
+        }
+
+        long errors = 0;
+        long[] all = new long[0];
+        for (Future<Samples> result : results) {
+            Samples samples = result.get();
+            errors += samples.errors();
+            int before = all.length;
+            all = Arrays.copyOf(all, before + samples.latencies().length);
+            System.arraycopy(
+                samples.latencies(), 0, all, before,
+                samples.latencies().length
+            );
+        }
+        Arrays.sort(all);
+        System.out.printf(
+            "%d requests, %d errors, %.0f requests/s%n",
+            all.length, errors, all.length / (double) seconds
+        );
+        if (all.length > 0) {
+            System.out.printf(
+                "latency ms: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                percentile(all, 50), percentile(all, 90),
+                percentile(all, 99), all[all.length - 1] / 1e6
+            );
+        }
+    }
+
+    /**
+     * Sends requests back to back until the deadline.
+     */
+    private static Samples run(
+        HttpClient http,
+        URI base,
+        int patients,
+        int facilities,
+        long deadline,
+        SplittableRandom random
+    ) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        long errors = 0;
+        while (System.nanoTime() < deadline) {
+            // IDs of generated data run from 1 without gaps
+            int patient = 1 + random.nextInt(patients);
+            int facility = 1 + random.nextInt(facilities);
+            int kind = random.nextInt(100);
+            HttpRequest request;
+            if (kind < LOOKUP_PERCENT) {
+                request = HttpRequest.newBuilder(
+                    base.resolve("/patients/" + patient)).build();
+            } else if (kind < LOOKUP_PERCENT + VISIT_PERCENT) {
+                request = HttpRequest.newBuilder(base.resolve("/visits"))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"patientId\":" + patient
+                            + ",\"facilityId\":" + facility + "}"))
+                    .build();
+            } else {
+                request = HttpRequest.newBuilder(
+                    base.resolve("/facilities/" + facility)).build();
+            }
+            long start = System.nanoTime();
+            try {
+                int code = http.send(
+                    request, HttpResponse.BodyHandlers.discarding()
+                ).statusCode();
+                if (code != 200) {
+                    errors++;
+                    continue;
+                }
+            } catch (IOException e) {
+                errors++;
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return new Samples(Arrays.copyOf(latencies, count), errors);
+    }
+
+    /**
+     * Reads a count from the status response.
+     */
+    private static int count(String status, String name) {
+        Matcher matcher = Pattern.compile(String.format(COUNT, name))
+            .matcher(status);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    /**
+     * Returns a percentile of sorted latencies in milliseconds.
+     */
+    private static double percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * @author : Yuuji
+ * JournalBenchmark.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for temporary files and JMH annotations
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The JournalBenchmark class measures charging patients of a health
+ * service from eight threads while a {@link Journal} records the
+ * changes, as in the running application, and without one for
+ * comparison. {@link BalanceBenchmark} charges bare patients instead.
+ * The shared variant charges one patient from every thread, the own
+ * variant gives every thread its own patient.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+    // Charge applied by every call, as for a clinic consultation
+    private static final long CHARGE_CENTS = 5_500;
+
+    // Whether a journal records the charges
+    @Param({"true", "false"})
+    public boolean journaled;
+
+    // Health service holding the patients
+    private HealthService service;
+    // Patient charged by every thread
+    private Patient shared;
+    // Journal recording the changes, or null
+    private Journal journal;
+    // Directory of the snapshot and journal
+    private Path directory;
+    // Hands every thread its own patient
+    private final AtomicInteger threads = new AtomicInteger();
+
+    /**
+     * One patient per thread, taken from the health service.
+     */
+    @State(Scope.Thread)
+    public static class Own {
+        // Patient charged by this thread only
+        Patient patient;
+
+        /**
+         * Picks the next patient of the health service.
+         *
+         * @param benchmark the shared benchmark state
+         */
+        @Setup
+        public void setUp(JournalBenchmark benchmark) {
+            patient = benchmark.service.getPatients().get(
+                benchmark.threads.getAndIncrement() + 1
+            );
+        }
+    }
+
+    /**
+     * Builds a health service with one patient per thread and a
+     * shared one, and opens a journal on it if asked to.
+     *
+     * @throws IOException if the journal cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        service = new HealthService();
+        for (int i = 0; i <= 64; i++) {
+            service.addPatient(new Patient("Patient " + i, i % 2 == 0));
+        }
+        shared = service.getPatients().get(0);
+        if (journaled) {
+            directory = Files.createTempDirectory("journal-benchmark");
+            journal = Journal.checkpoint(
+                service, directory.resolve("benchmark.hsm")
+            );
+        }
+    }
+
+    /**
+     * Closes the journal and deletes its files.
+     *
+     * @throws IOException if the files cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        journal.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void chargeShared() {
+        shared.addBalanceCents(CHARGE_CENTS);
+    }
+
+    @Benchmark
+    public void chargeOwn(Own state) {
+        state.patient.addBalanceCents(CHARGE_CENTS);
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * @author : Yuuji
+ * LookupBenchmark.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary JMH annotations
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The LookupBenchmark class measures finding patients and facilities
+ * by ID and by name in a generated health service. Keys are drawn
+ * from a fixed shuffled table, so every call looks up a different
+ * entity without measuring the random generator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class LookupBenchmark {
+    // Number of keys cycled through, a power of two
+    private static final int KEYS = 1 << 12;
+
+    // Number of patients in the service
+    @Param({"1000", "100000", "1000000"})
+    public int patients;
+
+    // Generated service being searched
+    private HealthService service;
+    // Name search over the patients of the service
+    private PatientIndex index;
+    // Keys looked up in turn
+    private final int[] patientIds = new int[KEYS];
+    private final int[] facilityIds = new int[KEYS];
+    private final String[] facilityNames = new String[KEYS];
+    private final String[] hospitalNames = new String[KEYS];
+    private final String[] patientQueries = new String[KEYS];
+    // Position of the next key
+    private int next;
+
+    /**
+     * Generates the health service, builds the name index and picks
+     * the keys.
+     */
+    @Setup
+    public void setUp() {
+        service = DataGenerator.build(
+            new DataGenerator.Settings(patients, 100, 200, 20, 1)
+        );
+        index = new PatientIndex();
+        index.setService(service);
+        index.prepare();
+
+        SplittableRandom random = new SplittableRandom(2);
+        List<MedicalFacility> facilities = service.getFacilities();
+        List<Hospital> hospitals = facilities.stream()
+            .filter(Hospital.class::isInstance)
+            .map(Hospital.class::cast)
+            .toList();
+        for (int i = 0; i < KEYS; i++) {
+            Patient patient = service.getPatients()
+                .get(random.nextInt(patients));
+            MedicalFacility facility = facilities
+                .get(random.nextInt(facilities.size()));
+            patientIds[i] = patient.getId();
+            facilityIds[i] = facility.getId();
+            facilityNames[i] = facility.getName();
+            hospitalNames[i] = hospitals
+                .get(random.nextInt(hospitals.size()))
+                .getName();
+            patientQueries[i] = patient.getName();
+        }
+    }
+
+    /**
+     * Returns the position of the next key.
+     */
+    private int nextKey() {
+        return next = (next + 1) & (KEYS - 1);
+    }
+
+    @Benchmark
+    public Patient findPatient() {
+        return service.findPatient(patientIds[nextKey()]);
+    }
+
+    @Benchmark
+    public MedicalFacility findFacility() {
+        return service.findFacility(facilityIds[nextKey()]);
+    }
+
+    @Benchmark
+    public MedicalFacility findFacilityByName() {
+        return service.findFacilityByName(facilityNames[nextKey()]);
+    }
+
+    @Benchmark
+    public Hospital findHospitalByName() {
+        return service.findHospitalByName(hospitalNames[nextKey()]);
+    }
+
+    /**
+     * Searches patients by full name, as the type-ahead picker does.
+     */
+    @Benchmark
+    public List<Patient> searchPatientByName() {
+        return index.search(patientQueries[nextKey()], 20);
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * @author : Yuuji
+ * RegistryBenchmark.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary JMH annotations
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The RegistryBenchmark class measures adding and removing patients
+ * and facilities in a generated health service, and compacting their
+ * IDs with the reassign methods. Every add is paired with a remove,
+ * so the service keeps its size while it is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class RegistryBenchmark {
+    // Number of patients in the service
+    @Param({"1000", "100000", "1000000"})
+    public int patients;
+
+    // Generated service being changed
+    private HealthService service;
+    // Lowest patient ID still in the service
+    private int oldest;
+
+    /**
+     * Generates the health service.
+     */
+    @Setup
+    public void setUp() {
+        service = DataGenerator.build(
+            new DataGenerator.Settings(patients, 20, 40, 20, 1)
+        );
+        oldest = 1;
+    }
+
+    /**
+     * Adds a patient and removes the newest one again, which only
+     * touches the end of the patient list.
+     */
+    @Benchmark
+    public void addAndRemoveNewestPatient() {
+        Patient patient = new Patient("Benchmark Patient", false);
+        service.addPatient(patient);
+        service.removePatient(patient.getId());
+    }
+
+    /**
+     * Adds a patient and removes the oldest one, which shifts the
+     * whole patient list.
+     */
+    @Benchmark
+    public void addAndRemoveOldestPatient() {
+        service.addPatient(new Patient("Benchmark Patient", false));
+        service.removePatient(oldest++);
+    }
+
+    @Benchmark
+    public void addAndRemoveClinic() {
+        Clinic clinic = new Clinic("Benchmark Clinic", 60, 10);
+        service.addFacility(clinic);
+        service.removeFacility(clinic.getId());
+    }
+
+    @Benchmark
+    public void reassignPatientIds() {
+        service.reassignPatientIds();
+        oldest = 1;
+    }
+
+    @Benchmark
+    public void reassignFacilityIds() {
+        service.reassignFacilityIds();
+    }
+}
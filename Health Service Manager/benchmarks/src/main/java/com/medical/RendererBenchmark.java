@@ -0,0 +1,149 @@
+/**
+ * @author : Yuuji
+ * RendererBenchmark.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary Swing classes and JMH annotations
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.CellRendererPane;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableColumn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The RendererBenchmark class measures the word-wrap renderer of the
+ * procedure descriptions in a headless table: painting a cell whose
+ * lines are cached, as during scrolling, and resizing the column,
+ * which lays out and refits every row. The table is only used by the
+ * benchmark thread, so it is driven off the Event Dispatch Thread.
+ * <p>
+ * Run with {@code -prof gc} to see the allocations per cell in
+ * {@code gc.alloc.rate.norm}. Painting through the CellRendererPane,
+ * as the table UI does, includes the graphics copy Swing makes for
+ * every cell; painting the renderer alone measures only its own work,
+ * which allocates nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RendererBenchmark {
+    // Rows in the table
+    private static final int ROWS = 1000;
+    // Width of the description column and the smallest row height
+    private static final int WIDTH = 300;
+    private static final int MIN_HEIGHT = 50;
+    // Words the descriptions are made of
+    private static final String[] WORDS = {
+        "replacement", "of", "the", "knee", "joint", "under", "general",
+        "anaesthetic", "with", "an", "overnight", "stay", "and", "a",
+        "follow-up", "consultation", "minimally", "invasive", "approach"
+    };
+
+    // Table showing the descriptions
+    private JTable table;
+    // Pane the table paints renderers through
+    private final CellRendererPane pane = new CellRendererPane();
+    // Image the cells are painted on
+    private BufferedImage image;
+    private Graphics2D graphics;
+    // Next row painted, and whether the column is widened
+    private int row;
+    private boolean widened;
+
+    /**
+     * Fills the table with descriptions of 5 to 60 words and installs
+     * the renderer.
+     */
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(1);
+        DefaultTableModel model = new DefaultTableModel(
+            new Object[] {"Description"}, 0
+        );
+        for (int i = 0; i < ROWS; i++) {
+            StringBuilder text = new StringBuilder("Description");
+            for (int words = 5 + random.nextInt(56); words > 0; words--) {
+                text.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            model.addRow(new Object[] {text.toString()});
+        }
+        table = new JTable(model);
+        table.getColumnModel().getColumn(0).setWidth(WIDTH);
+        MedicalGUI.WordWrapCellRenderer.install(table, 0, MIN_HEIGHT);
+        table.setSize(WIDTH, ROWS * MIN_HEIGHT);
+        image = new BufferedImage(
+            WIDTH, 20 * MIN_HEIGHT, BufferedImage.TYPE_INT_RGB
+        );
+        graphics = image.createGraphics();
+    }
+
+    /**
+     * Releases the graphics context.
+     */
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    /**
+     * Paints the next cell the way the table UI does.
+     */
+    @Benchmark
+    public void paintCachedCell() {
+        row = (row + 1) % ROWS;
+        Component cell = table.prepareRenderer(
+            table.getCellRenderer(row, 0), row, 0
+        );
+        pane.paintComponent(
+            graphics, cell, table, 0, 0, WIDTH, table.getRowHeight(row), true
+        );
+    }
+
+    /**
+     * Prepares the next cell and paints the renderer straight onto
+     * the graphics context, without the copy the table UI makes.
+     */
+    @Benchmark
+    public void paintRenderer() {
+        row = (row + 1) % ROWS;
+        Component cell = table.prepareRenderer(
+            table.getCellRenderer(row, 0), row, 0
+        );
+        cell.setBounds(0, 0, WIDTH, table.getRowHeight(row));
+        cell.paint(graphics);
+    }
+
+    /**
+     * Changes the column width, which clears the cached layouts and
+     * refits the height of every row.
+     */
+    @Benchmark
+    public void resizeColumn() {
+        widened = !widened;
+        TableColumn column = table.getColumnModel().getColumn(0);
+        column.setWidth(widened ? WIDTH + 20 : WIDTH);
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * @author : Yuuji
+ * SimulationBenchmark.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for random streams and JMH annotations
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The SimulationBenchmark class measures simulating a year of patient
+ * flow through 100 facilities, 40 hospitals and 60 clinics, of a
+ * generated health service. Each run is a replica on a shared model,
+ * so the generated patients are left unchanged between iterations.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SimulationBenchmark {
+    // Number of patients in the service
+    @Param({"10000", "1000000"})
+    public int patients;
+
+    // Patients and facilities every run starts from
+    private Simulation.Model model;
+    // Settings of every run
+    private final Simulation.Settings settings =
+        Simulation.Settings.year(1);
+    // Seed of the stream of the next run
+    private long seed;
+
+    /**
+     * Generates the health service and its simulation model.
+     */
+    @Setup
+    public void setUp() {
+        model = new Simulation.Model(DataGenerator.build(
+            new DataGenerator.Settings(patients, 40, 60, 20, 1)
+        ));
+    }
+
+    @Benchmark
+    public Simulation.Report simulateYear() {
+        return Simulation.replica(
+            model, settings, new SplittableRandom(seed++)
+        );
+    }
+}
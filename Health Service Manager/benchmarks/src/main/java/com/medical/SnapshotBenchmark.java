@@ -0,0 +1,174 @@
+/**
+ * @author : Yuuji
+ * SnapshotBenchmark.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for file handling and JMH annotations
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The SnapshotBenchmark class measures saving and loading a generated
+ * health service as a binary snapshot, as saveData() and loadData()
+ * do, against the Java serialization the application used before,
+ * and as a snapshot compressed in parallel blocks with the fast
+ * Deflate codec. Each operation runs once per iteration on a file in
+ * a temporary directory; the largest size needs a machine with plenty
+ * of memory.
+ * <p>
+ * The service is loaded from a fixture snapshot streamed to disk by
+ * {@link DataGenerator#write}, which is kept between runs so each size
+ * and format version is only generated once. The setup prints the
+ * size of the plain, compressed and serialized files for each number
+ * of patients, as the file sizes are compared as well as the times.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+    // Number of patients in the service
+    @Param({"10000", "1000000", "10000000"})
+    public int patients;
+
+    // Directory of the fixtures kept between runs
+    private static final Path FIXTURES =
+        Path.of(System.getProperty("java.io.tmpdir"), "hsm-fixtures");
+
+    // Generated service being saved
+    private HealthService service;
+    // Directory of the files written and read
+    private Path directory;
+    // Files read back, the fixture and the ones written during setup
+    private Path snapshot;
+    private Path compressed;
+    private Path serialized;
+
+    /**
+     * Generates the fixture of this size unless it exists, loads the
+     * health service from it and writes the other files the read
+     * benchmarks load.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        snapshot = FIXTURES.resolve(
+            "patients-" + patients + "-v" + SnapshotCodec.VERSION + ".hsm"
+        );
+        if (!Files.exists(snapshot)) {
+            Files.createDirectories(FIXTURES);
+            DataGenerator.write(
+                new DataGenerator.Settings(patients, 100, 200, 20, 1),
+                snapshot,
+                null
+            );
+        }
+        service = SnapshotCodec.read(snapshot);
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        compressed = directory.resolve("read.hsz");
+        serialized = directory.resolve("read.ser");
+        SnapshotCodec.write(
+            service, compressed, 1, BlockCompression.Codec.DEFLATE_FAST, null
+        );
+        serialize(service, serialized);
+        System.out.printf(
+            "%n%d patients: snapshot %d bytes, compressed %d bytes,"
+                + " serialized %d bytes%n",
+            patients,
+            Files.size(snapshot),
+            Files.size(compressed),
+            Files.size(serialized)
+        );
+    }
+
+    /**
+     * Deletes the temporary files, keeping the fixture.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Writes a service with Java serialization, as saveData() did.
+     */
+    private static void serialize(HealthService service, Path file)
+            throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(
+                new FileOutputStream(file.toFile()))) {
+            oos.writeObject(service);
+        }
+    }
+
+    @Benchmark
+    public long snapshotWrite() throws IOException {
+        return SnapshotCodec.write(service, directory.resolve("write.hsm"));
+    }
+
+    @Benchmark
+    public HealthService snapshotRead() throws IOException {
+        return SnapshotCodec.read(snapshot);
+    }
+
+    @Benchmark
+    public void compressedWrite() throws IOException {
+        SnapshotCodec.write(
+            service,
+            directory.resolve("write.hsz"),
+            1,
+            BlockCompression.Codec.DEFLATE_FAST,
+            null
+        );
+    }
+
+    @Benchmark
+    public HealthService compressedRead() throws IOException {
+        return SnapshotCodec.read(compressed);
+    }
+
+    @Benchmark
+    public void serializationWrite() throws IOException {
+        serialize(service, directory.resolve("write.ser"));
+    }
+
+    @Benchmark
+    public HealthService serializationRead()
+            throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new FileInputStream(serialized.toFile()))) {
+            return (HealthService) ois.readObject();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * @author : Yuuji
+ * AdmissionSource.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for random streams and atomic updates
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.SplittableRandom;
+
+/**
+ * The AdmissionSource interface decides whether a hospital admits a
+ * visiting patient. A hospital uses {@link #perThread()} unless it
+ * is given another source with
+ * {@link Hospital#setAdmissionSource(AdmissionSource)}.
+ * <p>
+ * Sources are called concurrently by batches and simulations, so
+ * every implementation must be safe to share between threads. Neither
+ * source below allocates per decision.
+ */
+@FunctionalInterface
+interface AdmissionSource {
+    /**
+     * Decides one admission.
+     *
+     * @param probability the probability of admitting the patient
+     * @return true if the patient is admitted
+     */
+    boolean admit(double probability);
+
+    /**
+     * Returns the shared source drawing from a separate
+     * SplittableRandom stream on every thread, so threads never
+     * contend for a common seed.
+     *
+     * @return the per-thread source
+     */
+    static AdmissionSource perThread() {
+        return PerThread.INSTANCE;
+    }
+
+    /**
+     * Returns a new deterministic source. It makes the same decisions
+     * as {@code new SplittableRandom(seed)} would, in the order they
+     * are asked for, so replaying the same visits in the same order
+     * with the same seed reproduces every decision.
+     *
+     * @param seed the seed of the decisions
+     * @return the seeded source
+     */
+    static AdmissionSource seeded(long seed) {
+        return new Seeded(seed);
+    }
+
+    /**
+     * The PerThread class gives every thread its own stream split
+     * from a common root. A thread can run work on a stream of its
+     * choosing with {@link #runWith}, which is how seeded batches
+     * stay reproducible whatever thread runs each partition.
+     */
+    final class PerThread implements AdmissionSource {
+        // The shared instance
+        private static final PerThread INSTANCE = new PerThread();
+        // Root the streams of new threads are split from
+        private static final SplittableRandom ROOT = new SplittableRandom();
+        // Stream of each thread
+        private static final ThreadLocal<SplittableRandom> STREAM =
+            ThreadLocal.withInitial(PerThread::split);
+
+        /**
+         * Prevents instantiation outside {@link #perThread()}.
+         */
+        private PerThread() {
+        }
+
+        /**
+         * Splits a new stream off the root, which is not thread-safe.
+         */
+        private static SplittableRandom split() {
+            synchronized (ROOT) {
+                return ROOT.split();
+            }
+        }
+
+        /**
+         * Runs a task with the current thread drawing from the given
+         * stream, then restores the thread's own stream.
+         *
+         * @param stream the stream to draw from
+         * @param task the task to run
+         */
+        static void runWith(SplittableRandom stream, Runnable task) {
+            SplittableRandom own = STREAM.get();
+            STREAM.set(stream);
+            try {
+                task.run();
+            } finally {
+                STREAM.set(own);
+            }
+        }
+
+        @Override
+        public boolean admit(double probability) {
+            return STREAM.get().nextDouble() <= probability;
+        }
+    }
+
+    /**
+     * The Seeded class draws the decisions of one SplittableRandom
+     * sequence. The state advances with a single atomic add, so
+     * concurrent callers never block and never see the same value.
+     */
+    final class Seeded implements AdmissionSource {
+        // Increment of the state, as used by SplittableRandom
+        private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+        // Scale turning the top 53 bits into a double in [0, 1)
+        private static final double DOUBLE_UNIT = 0x1.0p-53;
+        // Handle for atomic updates of the state
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(
+                    Seeded.class, "state", long.class
+                );
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        // State of the sequence, advanced once per decision
+        private volatile long state;
+
+        /**
+         * Constructs a Seeded source starting at the given seed.
+         */
+        private Seeded(long seed) {
+            state = seed;
+        }
+
+        /**
+         * Scrambles a state into a random value, as SplittableRandom
+         * does.
+         */
+        private static long mix64(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+
+        @Override
+        public boolean admit(double probability) {
+            long next = (long) STATE.getAndAdd(this, GOLDEN_GAMMA)
+                + GOLDEN_GAMMA;
+            return (mix64(next) >>> 11) * DOUBLE_UNIT <= probability;
+        }
+    }
+}
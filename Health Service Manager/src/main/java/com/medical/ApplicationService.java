@@ -0,0 +1,498 @@
+/**
+ * @author : Yuuji
+ * ApplicationService.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for file handling and serialization
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * The ApplicationService class runs the business flows of the
+ * application on a health service without any user interface:
+ * visits, procedures, bulk imports and exports, and saving and
+ * loading with the journal that records changes between saves,
+ * saving only those changes as deltas of a snapshot, and compressing
+ * snapshots. Both
+ * {@link MedicalGUI} and {@link HeadlessLauncher} go through it, so
+ * the flows behave the same whichever front end started them.
+ * <p>
+ * Visits and procedures can run on any thread. Saving, saving
+ * changes, loading and closing are synchronized with each other, and
+ * changes are saved as a delta only once the snapshot they follow has
+ * been written, as both use the same pending journal file. Once a
+ * snapshot has
+ * {@value #MERGE_THRESHOLD} deltas they are merged into it on a
+ * background thread.
+ */
+final class ApplicationService implements Closeable {
+    // Number of deltas after which they are merged into the snapshot
+    static final int MERGE_THRESHOLD = 8;
+
+    // Health service the flows run on
+    private volatile HealthService service;
+    // Codec compressing the snapshots saved from now on
+    private volatile BlockCompression.Codec compression =
+        BlockCompression.Codec.NONE;
+    // Journal recording changes since the last snapshot, if any
+    private Journal journal;
+    // Held while a snapshot file is written, by saves and merges
+    private final Object snapshotLock = new Object();
+    // Held while a delta is saved, so deltas are chained in order and
+    // no save or load starts in between; taken before this
+    private final Object deltaLock = new Object();
+    // Whether a background merge is queued or running
+    private final AtomicBoolean merging = new AtomicBoolean();
+    // Background thread merging deltas, started on first use
+    private ExecutorService merger;
+
+    /**
+     * Constructs an ApplicationService for a health service that has
+     * not been saved yet.
+     *
+     * @param service the health service
+     */
+    ApplicationService(HealthService service) {
+        this.service = service;
+    }
+
+    /**
+     * Constructs an ApplicationService for a recovered snapshot.
+     */
+    private ApplicationService(Journal journal) {
+        this.service = journal.service();
+        this.journal = journal;
+    }
+
+    /**
+     * Opens a saved file. Binary snapshots are loaded with the changes
+     * recorded in their journal, which then records further changes,
+     * and later saves are compressed as the snapshot was; files saved
+     * by earlier versions with Java serialization are read without a
+     * journal.
+     *
+     * @param file the file to open
+     * @param progress receives the percentage read, or null
+     * @return the application service of the loaded data
+     * @throws IOException if the file cannot be read
+     */
+    static ApplicationService open(Path file, IntConsumer progress)
+            throws IOException {
+        if (SnapshotCodec.isSnapshot(file)) {
+            // Decode the snapshot and replay its journal
+            ApplicationService application =
+                new ApplicationService(Journal.recover(file, progress));
+            application.compression = BlockCompression.codecOf(file);
+            return application;
+        }
+        return new ApplicationService(readHealthService(file));
+    }
+
+    /**
+     * Reads a health service from a file written with Java
+     * serialization by earlier versions.
+     */
+    private static HealthService readHealthService(Path file)
+            throws IOException {
+        // Read the legacy serialized format
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new FileInputStream(file.toFile()))) {
+            return (HealthService) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in " + file, e);
+        }
+    }
+
+    /**
+     * Returns the health service the flows currently run on.
+     *
+     * @return the health service
+     */
+    HealthService getHealthService() {
+        return service;
+    }
+
+    /**
+     * Returns the codec compressing the snapshots that are saved.
+     *
+     * @return the codec, {@link BlockCompression.Codec#NONE} by default
+     */
+    BlockCompression.Codec getCompression() {
+        return compression;
+    }
+
+    /**
+     * Sets the codec compressing the snapshots saved from now on.
+     * Merging deltas keeps the codec of the snapshot they belong to.
+     *
+     * @param compression the codec
+     */
+    void setCompression(BlockCompression.Codec compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Returns whether changes are recorded in the journal of a
+     * snapshot, so that the snapshot can be reopened with them.
+     *
+     * @return true if a journal is open
+     */
+    synchronized boolean isJournaled() {
+        return journal != null;
+    }
+
+    /**
+     * Records a visit of a patient to a hospital or clinic.
+     *
+     * @param patientId the ID of the visiting patient
+     * @param facilityId the ID of the visited facility
+     * @return the outcome of the visit and the amount charged
+     */
+    BatchProcessor.Result visit(int patientId, int facilityId) {
+        return new BatchProcessor(service).run(
+            new BatchProcessor.Visit(patientId, facilityId)
+        );
+    }
+
+    /**
+     * Performs a procedure on a patient at a hospital.
+     *
+     * @param patientId the ID of the patient
+     * @param hospitalId the ID of the hospital
+     * @param procedureId the ID of the procedure at that hospital
+     * @return the outcome of the procedure and the amount charged
+     */
+    BatchProcessor.Result performProcedure(
+        int patientId,
+        int hospitalId,
+        int procedureId
+    ) {
+        return new BatchProcessor(service).run(
+            new BatchProcessor.Treatment(patientId, hospitalId, procedureId)
+        );
+    }
+
+    /**
+     * Adds the patients, hospitals, clinics or procedures of a CSV
+     * file with {@link CsvImporter}, all rows in one batch. Changes
+     * are journaled like any others.
+     *
+     * @param file the CSV file
+     * @param progress receives the percentage read, or null
+     * @return the number of rows imported and rejected
+     * @throws IOException if the file cannot be read
+     */
+    CsvImporter.Summary importCsv(Path file, IntConsumer progress)
+            throws IOException {
+        return CsvImporter.importFile(service, file, progress);
+    }
+
+    /**
+     * Writes an extract of the balances or procedures with
+     * {@link DataExporter}, in the format the file name suggests.
+     *
+     * @param extract the rows to write
+     * @param file the file to write
+     * @param filter the rows to include
+     * @param progress receives the percentage written, or null
+     * @return the number of rows written
+     * @throws IOException if the file cannot be written
+     */
+    long export(
+        DataExporter.Extract extract,
+        Path file,
+        DataExporter.Filter filter,
+        IntConsumer progress
+    ) throws IOException {
+        return DataExporter.export(
+            service, extract, file, DataExporter.Format.of(file), filter,
+            progress
+        );
+    }
+
+    /**
+     * Starts saving the health service as a snapshot. The state to
+     * save is copied now, on the thread that changes the health
+     * service, and the journal of the new snapshot records every
+     * change after this point. The snapshot itself is written by
+     * {@link PendingSave#commit}, which can run on any thread. Waits
+     * for a delta being saved to finish first.
+     *
+     * @param file the snapshot file
+     * @return the save to commit
+     * @throws IOException if the journal cannot be created
+     */
+    PendingSave beginSave(Path file) throws IOException {
+        synchronized (deltaLock) {
+            synchronized (this) {
+                // Stop recording changes for the previous snapshot
+                closeJournal();
+                // Take a consistent copy to write in the background
+                HealthService copy = service.copy();
+                // Record changes made while the copy is being written
+                journal = Journal.begin(service, file);
+                return new PendingSave(journal, copy, compression);
+            }
+        }
+    }
+
+    /**
+     * Saves the health service as a snapshot on the calling thread.
+     *
+     * @param file the snapshot file
+     * @param progress receives the percentage written, or null
+     * @throws IOException if the snapshot cannot be written
+     */
+    void save(Path file, IntConsumer progress) throws IOException {
+        PendingSave pending = beginSave(file);
+        try {
+            pending.commit(progress);
+        } catch (IOException e) {
+            pending.abandon();
+            throw e;
+        }
+    }
+
+    /**
+     * Saves the changes since the last save as a delta of the current
+     * snapshot, on the calling thread. Only the entities changed since
+     * then are written, so this takes time in proportion to the edits
+     * rather than to the data. Starts a background merge once the
+     * snapshot has {@value #MERGE_THRESHOLD} deltas. If a save of the
+     * snapshot has begun but not yet been committed, waits for it.
+     *
+     * @param progress receives the percentage written, or null
+     * @return the number of changed entities saved
+     * @throws IOException if the delta cannot be written
+     * @throws IllegalStateException if no snapshot has been saved or
+     *         opened with a journal
+     */
+    int saveDelta(IntConsumer progress) throws IOException {
+        synchronized (deltaLock) {
+            Journal previous;
+            Journal next;
+            synchronized (this) {
+                while (journal != null && !journal.isCommitted()) {
+                    // Deltas chain from the snapshot being saved
+                    waitForSave();
+                }
+                if (journal == null) {
+                    throw new IllegalStateException(
+                        "Save a snapshot before saving changes"
+                    );
+                }
+                previous = journal;
+                if (previous.changeCount() == 0) {
+                    return 0;
+                }
+                try {
+                    next = previous.beginDelta();
+                } catch (IOException e) {
+                    // The previous journal may have stopped recording
+                    closeJournal();
+                    throw e;
+                }
+                journal = next;
+            }
+            try {
+                next.commitDelta(previous, progress);
+            } catch (IOException e) {
+                synchronized (this) {
+                    // It has no delta to belong to
+                    if (journal == next) {
+                        closeJournal();
+                    }
+                }
+                throw e;
+            }
+            if (DeltaSnapshots.sequences(next.snapshot()).length
+                    >= MERGE_THRESHOLD) {
+                mergeLater(next.snapshot());
+            }
+            return previous.changeCount();
+        }
+    }
+
+    /**
+     * Waits until a pending save is committed or abandoned, keeping
+     * the interrupt status if interrupted.
+     */
+    private void waitForSave() throws IOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a save", e);
+        }
+    }
+
+    /**
+     * Merges the deltas of the current snapshot into it on the calling
+     * thread, as {@link DeltaSnapshots#merge} does.
+     *
+     * @param progress receives the percentage written, or null
+     * @return the number of deltas merged
+     * @throws IOException if the snapshot cannot be merged
+     * @throws IllegalStateException if no snapshot has been saved or
+     *         opened with a journal
+     */
+    int mergeDeltas(IntConsumer progress) throws IOException {
+        Path snapshot;
+        synchronized (this) {
+            if (journal == null) {
+                throw new IllegalStateException("No snapshot to merge");
+            }
+            snapshot = journal.snapshot();
+        }
+        synchronized (snapshotLock) {
+            return DeltaSnapshots.merge(snapshot, progress);
+        }
+    }
+
+    /**
+     * Merges the deltas of a snapshot on the background thread, unless
+     * a merge is already queued or running.
+     */
+    private synchronized void mergeLater(Path snapshot) {
+        if (!merging.compareAndSet(false, true)) {
+            return;
+        }
+        if (merger == null) {
+            merger = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "delta-merge");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        merger.execute(() -> {
+            try {
+                synchronized (snapshotLock) {
+                    DeltaSnapshots.merge(snapshot, null);
+                }
+            } catch (IOException e) {
+                System.err.println("Error merging deltas: " + e.getMessage());
+            } finally {
+                merging.set(false);
+            }
+        });
+    }
+
+    /**
+     * Replaces the health service with the contents of a saved file,
+     * as {@link #open} reads it. The current journal is closed first,
+     * once a delta being saved has finished, so changes made while
+     * the file loads are not recorded; if the
+     * file cannot be read, the current health service is kept.
+     *
+     * @param file the file to load
+     * @param progress receives the percentage read, or null
+     * @throws IOException if the file cannot be read
+     */
+    void load(Path file, IntConsumer progress) throws IOException {
+        // Let a delta being saved finish, later ones find no journal
+        synchronized (deltaLock) {
+            synchronized (this) {
+                // Stop recording changes for the current data
+                closeJournal();
+            }
+        }
+        ApplicationService loaded = open(file, progress);
+        synchronized (this) {
+            // A save started meanwhile would journal the old data
+            closeJournal();
+            service = loaded.service;
+            journal = loaded.journal;
+            compression = loaded.compression;
+        }
+    }
+
+    /**
+     * Stops recording changes and syncs the journal.
+     */
+    @Override
+    public synchronized void close() {
+        closeJournal();
+    }
+
+    /**
+     * Closes the journal, if any, reporting a failure to sync it.
+     */
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error closing journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+
+    /**
+     * The PendingSave class is a save begun with {@link #beginSave}
+     * whose snapshot is still to be written.
+     */
+    final class PendingSave {
+        // Journal of the snapshot being saved
+        private final Journal next;
+        // State of the health service when the save began
+        private final HealthService copy;
+        // Codec compressing the snapshot
+        private final BlockCompression.Codec codec;
+
+        /**
+         * Constructs a PendingSave writing a copy for a journal.
+         */
+        private PendingSave(
+            Journal next,
+            HealthService copy,
+            BlockCompression.Codec codec
+        ) {
+            this.next = next;
+            this.copy = copy;
+            this.codec = codec;
+        }
+
+        /**
+         * Writes the snapshot and puts its journal in place.
+         *
+         * @param progress receives the percentage written, or null
+         * @throws IOException if the snapshot cannot be written
+         */
+        void commit(IntConsumer progress) throws IOException {
+            // A merge must not overwrite the new snapshot
+            synchronized (snapshotLock) {
+                next.commit(copy, codec, progress);
+            }
+            synchronized (ApplicationService.this) {
+                // Let a delta waiting for the snapshot go ahead
+                ApplicationService.this.notifyAll();
+            }
+        }
+
+        /**
+         * Stops the journal of a save that failed, unless another
+         * save or load has replaced it already, since it has no
+         * snapshot to belong to.
+         */
+        void abandon() {
+            synchronized (ApplicationService.this) {
+                if (journal == next) {
+                    closeJournal();
+                }
+                ApplicationService.this.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/**
+ * @author : Yuuji
+ * BatchProcessor.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for parallel streams and result lists
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The BatchProcessor class runs many visits and procedures at once,
+ * such as the referral visits replayed from upstream systems.
+ * <p>
+ * Requests are split into partitions by patient, and the partitions
+ * run in parallel on the common fork/join pool. All requests of one
+ * patient land in the same partition and run there in the order they
+ * were given, so a procedure always sees the admission that came
+ * before it. Requests of different patients run concurrently, which
+ * relies on patients being charged and registered atomically.
+ * <p>
+ * Facilities and procedures must not be added or removed while a
+ * batch runs; patients may be changed, since every change to a
+ * patient is atomic.
+ * <p>
+ * A batch can be given a seed. Its partitions are then fixed by the
+ * number of requests rather than the number of cores, and each one
+ * draws the admissions of hospitals using
+ * {@link AdmissionSource#perThread()} from its own stream split off
+ * the seed, so running the same batch again on the same data makes
+ * the same decisions.
+ */
+final class BatchProcessor {
+    // Partitions per worker thread, so uneven partitions even out
+    private static final int PARTITIONS_PER_THREAD = 4;
+    // Partitions of a seeded batch, the same on every machine
+    private static final int SEEDED_PARTITIONS = 256;
+
+    // Health service the requests are applied to
+    private final HealthService service;
+
+    /**
+     * A visit or procedure to run for a patient.
+     */
+    sealed interface Request permits Visit, Treatment {
+        /**
+         * Returns the ID of the patient the request is for.
+         *
+         * @return the patient ID
+         */
+        int patientId();
+    }
+
+    /**
+     * A visit of a patient to a hospital or clinic.
+     *
+     * @param patientId the ID of the visiting patient
+     * @param facilityId the ID of the visited facility
+     */
+    record Visit(int patientId, int facilityId) implements Request {
+    }
+
+    /**
+     * A procedure performed on a patient at a hospital.
+     *
+     * @param patientId the ID of the patient
+     * @param hospitalId the ID of the hospital
+     * @param procedureId the ID of the procedure at that hospital
+     */
+    record Treatment(int patientId, int hospitalId, int procedureId)
+            implements Request {
+    }
+
+    /**
+     * What happened when a request was run.
+     */
+    enum Outcome {
+        // The patient was admitted at a hospital
+        ADMITTED,
+        // The patient visited a hospital but was not admitted
+        NOT_ADMITTED,
+        // The patient visited a clinic for the first time
+        REGISTERED,
+        // The patient was charged for a clinic consultation
+        CONSULTED,
+        // The procedure was performed
+        PERFORMED,
+        // The patient was not at the hospital of the procedure
+        NOT_PERFORMED,
+        // The patient, facility or procedure does not exist
+        NOT_FOUND
+    }
+
+    /**
+     * The result of one request.
+     *
+     * @param request the request that was run
+     * @param outcome what happened
+     * @param patient the patient, or null if not found
+     * @param facility the facility, or null if not found
+     * @param procedure the procedure of a treatment, or null
+     * @param chargedCents the amount this request added to the balance
+     */
+    record Result(
+        Request request,
+        Outcome outcome,
+        Patient patient,
+        MedicalFacility facility,
+        Procedure procedure,
+        long chargedCents
+    ) {
+        /**
+         * Returns the line written to the visit log for the result,
+         * worded like the lines of single visits and procedures.
+         *
+         * @return the log line, without a line break
+         */
+        String message() {
+            return switch (outcome) {
+                case ADMITTED, REGISTERED -> "> Patient " + patient.getName()
+                    + " was admitted at " + facility.getName();
+                case NOT_ADMITTED -> "> Patient " + patient.getName()
+                    + " was not admitted at " + facility.getName();
+                case CONSULTED -> "> Patient " + patient.getName()
+                    + " was charged for a consultation at "
+                    + facility.getName();
+                case PERFORMED -> "> Procedure " + procedure.getName()
+                    + " performed on patient " + patient.getName() + ".";
+                case NOT_PERFORMED -> "> Procedure " + procedure.getName()
+                    + " could not be performed on patient "
+                    + patient.getName() + ".";
+                case NOT_FOUND -> request instanceof Visit
+                    ? "> Patient or Facility not found."
+                    : "> Patient, Hospital or Procedure not found.";
+            };
+        }
+    }
+
+    /**
+     * The Summary class holds the results of a batch in the order
+     * the requests were given, with counts per outcome and the total
+     * amount charged.
+     */
+    static final class Summary {
+        // Results in request order
+        private final List<Result> results;
+        // Number of results per outcome, indexed by ordinal
+        private final long[] counts = new long[Outcome.values().length];
+        // Total amount charged in cents
+        private long chargedCents;
+
+        /**
+         * Constructs a Summary of the given results.
+         */
+        private Summary(List<Result> results) {
+            this.results = results;
+            for (Result result : results) {
+                counts[result.outcome().ordinal()]++;
+                chargedCents += result.chargedCents();
+            }
+        }
+
+        /**
+         * Returns the number of requests run.
+         *
+         * @return the request count
+         */
+        int size() {
+            return results.size();
+        }
+
+        /**
+         * Returns the number of requests with the given outcome.
+         *
+         * @param outcome the outcome to count
+         * @return the number of requests
+         */
+        long count(Outcome outcome) {
+            return counts[outcome.ordinal()];
+        }
+
+        /**
+         * Returns the total amount charged to patients by the batch.
+         *
+         * @return the total charge in cents
+         */
+        long chargedCents() {
+            return chargedCents;
+        }
+
+        /**
+         * Returns the results in the order the requests were given.
+         *
+         * @return the results
+         */
+        Stream<Result> results() {
+            return results.stream();
+        }
+
+        /**
+         * Returns the visit log lines of the results, in request order.
+         *
+         * @return the log lines, without line breaks
+         */
+        Stream<String> log() {
+            return results.stream().map(Result::message);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(
+                "Batch of " + results.size() + " requests:"
+            );
+            for (Outcome outcome : Outcome.values()) {
+                text.append(' ').append(outcome).append('=')
+                    .append(counts[outcome.ordinal()]);
+            }
+            return text.append(", charged $")
+                .append(Money.format(chargedCents))
+                .toString();
+        }
+    }
+
+    /**
+     * Constructs a BatchProcessor for a health service.
+     *
+     * @param service the health service to apply requests to
+     */
+    BatchProcessor(HealthService service) {
+        this.service = service;
+    }
+
+    /**
+     * Runs a batch of requests in parallel, keeping the order of the
+     * requests of each patient. Returns once every request has run.
+     *
+     * @param requests the requests, in the order they should run
+     * @return the summary of the batch
+     */
+    Summary process(Stream<? extends Request> requests) {
+        return process(
+            requests.toArray(Request[]::new),
+            Runtime.getRuntime().availableProcessors()
+                * PARTITIONS_PER_THREAD,
+            null
+        );
+    }
+
+    /**
+     * Runs a batch of requests in parallel like
+     * {@link #process(Stream)}, with reproducible admissions.
+     *
+     * @param requests the requests, in the order they should run
+     * @param seed the seed of the admission decisions
+     * @return the summary of the batch
+     */
+    Summary process(Stream<? extends Request> requests, long seed) {
+        return process(
+            requests.toArray(Request[]::new),
+            SEEDED_PARTITIONS,
+            new SplittableRandom(seed)
+        );
+    }
+
+    /**
+     * Runs a batch split into at most the given number of partitions,
+     * giving each partition a stream split off the root if there is
+     * one.
+     */
+    private Summary process(
+        Request[] batch,
+        int maxPartitions,
+        SplittableRandom root
+    ) {
+        int partitions = Math.max(1, Math.min(batch.length, maxPartitions));
+
+        // Group the request positions by partition, in request order
+        int[] sizes = new int[partitions];
+        int[] partitionOf = new int[batch.length];
+        for (int i = 0; i < batch.length; i++) {
+            partitionOf[i] = Math.floorMod(batch[i].patientId(), partitions);
+            sizes[partitionOf[i]]++;
+        }
+        int[][] members = new int[partitions][];
+        for (int p = 0; p < partitions; p++) {
+            members[p] = new int[sizes[p]];
+        }
+        Arrays.fill(sizes, 0);
+        for (int i = 0; i < batch.length; i++) {
+            members[partitionOf[i]][sizes[partitionOf[i]]++] = i;
+        }
+
+        // Split the streams in partition order, before any thread runs
+        SplittableRandom[] streams = new SplittableRandom[partitions];
+        for (int p = 0; root != null && p < partitions; p++) {
+            streams[p] = root.split();
+        }
+
+        // Each partition fills in the results of its own requests
+        Result[] results = new Result[batch.length];
+        IntStream.range(0, partitions).parallel().forEach(p -> {
+            Runnable partition = () -> {
+                for (int i : members[p]) {
+                    results[i] = run(batch[i]);
+                }
+            };
+            if (streams[p] == null) {
+                partition.run();
+            } else {
+                AdmissionSource.PerThread.runWith(streams[p], partition);
+            }
+        });
+        return new Summary(Arrays.asList(results));
+    }
+
+    /**
+     * Runs a single request on the calling thread.
+     *
+     * @param request the request to run
+     * @return the result of the request
+     */
+    Result run(Request request) {
+        Patient patient = service.findPatient(request.patientId());
+        return switch (request) {
+            case Visit visit -> visit(
+                visit,
+                patient,
+                service.findFacility(visit.facilityId())
+            );
+            case Treatment treatment -> treat(treatment, patient);
+        };
+    }
+
+    /**
+     * Runs a visit to a hospital or clinic.
+     */
+    private static Result visit(
+        Visit visit,
+        Patient patient,
+        MedicalFacility facility
+    ) {
+        if (patient == null || facility == null) {
+            return new Result(
+                visit, Outcome.NOT_FOUND, patient, facility, null, 0
+            );
+        }
+        // Other requests may charge the same patient meanwhile, so the
+        // charge is taken from the visit rather than the balance
+        Charge charge = facility.chargeVisit(patient);
+        boolean first = charge.result();
+        Outcome outcome = facility instanceof Hospital
+            ? (first ? Outcome.ADMITTED : Outcome.NOT_ADMITTED)
+            : (first ? Outcome.REGISTERED : Outcome.CONSULTED);
+        return new Result(
+            visit,
+            outcome,
+            patient,
+            facility,
+            null,
+            charge.cents()
+        );
+    }
+
+    /**
+     * Runs a procedure at a hospital.
+     */
+    private Result treat(Treatment treatment, Patient patient) {
+        Hospital hospital =
+            service.findFacility(treatment.hospitalId())
+                instanceof Hospital found ? found : null;
+        Procedure procedure = hospital == null
+            ? null
+            : hospital.findProcedure(treatment.procedureId());
+        if (patient == null || procedure == null) {
+            return new Result(
+                treatment, Outcome.NOT_FOUND, patient, hospital, procedure, 0
+            );
+        }
+        Charge charge = hospital.chargeProcedure(patient, procedure);
+        return new Result(
+            treatment,
+            charge.result() ? Outcome.PERFORMED : Outcome.NOT_PERFORMED,
+            patient,
+            hospital,
+            procedure,
+            charge.cents()
+        );
+    }
+}
@@ -0,0 +1,549 @@
+/**
+ * @author : Yuuji
+ * BlockCompression.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for channels, compression and threads
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The BlockCompression class stores a snapshot as a sequence of
+ * independently compressed blocks, so that blocks can be compressed
+ * and decompressed on all cores at once while the snapshot is
+ * written and read as a single stream.
+ * <p>
+ * A compressed file starts with its own magic number, the format
+ * version, the {@link Codec} and the block size, and the length of
+ * the uncompressed data. Each block holds its uncompressed and
+ * compressed lengths and a CRC32C checksum of the uncompressed bytes,
+ * which the reader checks as it decompresses, so a load verifies the
+ * whole file without a second pass. An empty block ends the file.
+ * <p>
+ * {@link Output} and {@link Input} are channels, so
+ * {@link SnapshotCodec.Writer} and {@link SnapshotCodec.Reader} work
+ * on compressed files unchanged. Journals and deltas are small and
+ * appended to, and are never compressed.
+ */
+final class BlockCompression {
+    // Magic number at the start of every compressed file ("HSMZ")
+    static final int MAGIC = 0x48534D5A;
+    // Current container version
+    static final int VERSION = 1;
+    // Uncompressed size of every block but the last
+    static final int BLOCK_SIZE = 1 << 20;
+
+    // Size of the file header: magic, version, codec, block size, length
+    private static final int HEADER_SIZE = 21;
+    // Position of the uncompressed length in the file header
+    private static final int LENGTH_OFFSET = 13;
+    // Size of a block header: both lengths and the checksum
+    private static final int BLOCK_HEADER_SIZE = 12;
+    // Number of threads compressing and decompressing blocks
+    private static final int THREADS =
+        Runtime.getRuntime().availableProcessors();
+    // Blocks in flight per channel, enough to keep every thread busy
+    private static final int IN_FLIGHT = THREADS * 2;
+    // Threads shared by all compressed files
+    private static final ExecutorService WORKERS =
+        Executors.newFixedThreadPool(THREADS, task -> {
+            Thread thread = new Thread(task, "block-codec");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private BlockCompression() {
+        // Utility class, not instantiated
+    }
+
+    /**
+     * The Codec enum lists the ways a block can be compressed. Every
+     * codec has a stable ID stored in the file, so codecs can be
+     * added without breaking existing files.
+     */
+    enum Codec {
+        /**
+         * No compression: snapshots are written in the plain format,
+         * which {@link MappedSnapshot} can browse.
+         */
+        NONE(0, "None", 0) {
+            @Override
+            byte[] compress(byte[] data, int length) {
+                return Arrays.copyOf(data, length);
+            }
+
+            @Override
+            void decompress(byte[] data, byte[] out) throws IOException {
+                if (data.length != out.length) {
+                    throw new IOException("Stored block has wrong length");
+                }
+                System.arraycopy(data, 0, out, 0, out.length);
+            }
+        },
+        /**
+         * Deflate at its fastest level, for large snapshots saved often.
+         */
+        DEFLATE_FAST(1, "Deflate (fast)", Deflater.BEST_SPEED),
+        /**
+         * Deflate at its default level, for smaller files.
+         */
+        DEFLATE(2, "Deflate", Deflater.DEFAULT_COMPRESSION);
+
+        // ID of the codec stored in compressed files
+        private final byte id;
+        // Name shown to the user
+        private final String label;
+        // Deflate compression level
+        private final int level;
+
+        /**
+         * Constructs a Codec.
+         */
+        Codec(int id, String label, int level) {
+            this.id = (byte) id;
+            this.label = label;
+            this.level = level;
+        }
+
+        /**
+         * Returns the codec with the given stored ID.
+         *
+         * @param id the ID stored in a compressed file
+         * @return the codec
+         * @throws IOException if no codec has that ID
+         */
+        static Codec of(byte id) throws IOException {
+            for (Codec codec : values()) {
+                if (codec.id == id) {
+                    return codec;
+                }
+            }
+            throw new IOException("Unknown compression codec " + id);
+        }
+
+        /**
+         * Compresses a block. Called on the worker threads.
+         *
+         * @param data the array holding the block
+         * @param length the length of the block
+         * @return the compressed block
+         */
+        byte[] compress(byte[] data, int length) {
+            // Raw deflate, as every block carries its own checksum
+            Deflater deflater = new Deflater(level, true);
+            try {
+                deflater.setInput(data, 0, length);
+                deflater.finish();
+                byte[] out = new byte[length / 2 + 64];
+                int size = 0;
+                while (!deflater.finished()) {
+                    if (size == out.length) {
+                        out = Arrays.copyOf(out, out.length * 2);
+                    }
+                    size += deflater.deflate(out, size, out.length - size);
+                }
+                return Arrays.copyOf(out, size);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        /**
+         * Decompresses a block. Called on the worker threads.
+         *
+         * @param data the compressed block
+         * @param out receives the block, sized to its stored length
+         * @throws IOException if the block is corrupt
+         */
+        void decompress(byte[] data, byte[] out) throws IOException {
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(data);
+                int size = 0;
+                while (size < out.length && !inflater.finished()) {
+                    int inflated =
+                        inflater.inflate(out, size, out.length - size);
+                    if (inflated == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    size += inflated;
+                }
+                if (size != out.length) {
+                    throw new IOException("Compressed block is truncated");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt compressed block", e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        /**
+         * Returns the name shown to the user.
+         *
+         * @return the name of the codec
+         */
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Checks whether a channel holds a compressed file, leaving the
+     * channel at the start.
+     *
+     * @param channel the channel of the file
+     * @return true if the file starts with the compressed magic number
+     * @throws IOException if the file cannot be read
+     */
+    static boolean isCompressed(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        while (magic.hasRemaining()) {
+            if (channel.read(magic, magic.position()) < 0) {
+                return false;
+            }
+        }
+        return magic.getInt(0) == MAGIC;
+    }
+
+    /**
+     * Returns the codec a snapshot file was written with.
+     *
+     * @param file the snapshot file
+     * @return the codec, {@link Codec#NONE} for a plain snapshot
+     * @throws IOException if the file cannot be read
+     */
+    static Codec codecOf(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            if (!isCompressed(channel)) {
+                return Codec.NONE;
+            }
+            ByteBuffer id = ByteBuffer.allocate(1);
+            // The codec follows the magic number and version
+            if (channel.read(id, 8) < 1) {
+                throw new EOFException("Compressed snapshot is truncated");
+            }
+            return Codec.of(id.get(0));
+        }
+    }
+
+    /**
+     * Waits for a block being compressed or decompressed.
+     */
+    private static byte[] await(Future<byte[]> block) throws IOException {
+        try {
+            return block.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Block compression failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    /**
+     * The Output class is a channel that compresses everything written
+     * to it into blocks of a file. Full blocks are handed to the
+     * worker threads and written in order as they complete.
+     */
+    static final class Output implements WritableByteChannel {
+        // File the blocks are written to
+        private final FileChannel file;
+        // Codec compressing the blocks
+        private final Codec codec;
+        // Blocks being compressed, in file order
+        private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+        // Block being filled
+        private byte[] block = new byte[BLOCK_SIZE];
+        // Bytes in the block being filled
+        private int filled;
+        // Uncompressed bytes written so far
+        private long length;
+        // Whether the channel was closed
+        private boolean closed;
+
+        /**
+         * Constructs an Output writing the file header to an empty
+         * file.
+         *
+         * @param file the file to write to
+         * @param codec the codec compressing the blocks
+         * @throws IOException if the header cannot be written
+         */
+        Output(FileChannel file, Codec codec) throws IOException {
+            this.file = file;
+            this.codec = codec;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.put(codec.id);
+            header.putInt(BLOCK_SIZE);
+            // The length is filled in on close
+            header.putLong(0);
+            writeFully(header.flip());
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            int written = source.remaining();
+            while (source.hasRemaining()) {
+                int count = Math.min(source.remaining(), BLOCK_SIZE - filled);
+                source.get(block, filled, count);
+                filled += count;
+                if (filled == BLOCK_SIZE) {
+                    submit();
+                }
+            }
+            length += written;
+            return written;
+        }
+
+        /**
+         * Hands the filled block to a worker, then writes completed
+         * blocks until few enough are in flight.
+         */
+        private void submit() throws IOException {
+            byte[] data = block;
+            int size = filled;
+            pending.add(WORKERS.submit(() -> frame(data, size)));
+            block = new byte[BLOCK_SIZE];
+            filled = 0;
+            while (pending.size() > IN_FLIGHT) {
+                writeFully(ByteBuffer.wrap(await(pending.poll())));
+            }
+        }
+
+        /**
+         * Compresses a block and prefixes it with its block header.
+         */
+        private byte[] frame(byte[] data, int size) {
+            byte[] compressed = codec.compress(data, size);
+            CRC32C crc = new CRC32C();
+            crc.update(data, 0, size);
+            return ByteBuffer.allocate(BLOCK_HEADER_SIZE + compressed.length)
+                .putInt(size)
+                .putInt(compressed.length)
+                .putInt((int) crc.getValue())
+                .put(compressed)
+                .array();
+        }
+
+        /**
+         * Writes a buffer to the file completely.
+         */
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                file.write(buffer);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        /**
+         * Compresses the last block, writes every remaining block and
+         * the end of the file, fills in the length, and forces the
+         * file to storage before closing it.
+         *
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try (var _ = file) {
+                if (filled > 0) {
+                    submit();
+                }
+                while (!pending.isEmpty()) {
+                    writeFully(ByteBuffer.wrap(await(pending.poll())));
+                }
+                // An empty block ends the file
+                writeFully(ByteBuffer.allocate(BLOCK_HEADER_SIZE));
+                file.write(
+                    ByteBuffer.allocate(8).putLong(0, length),
+                    LENGTH_OFFSET
+                );
+                file.force(false);
+            } finally {
+                // Drop the blocks of a failed write
+                for (Future<byte[]> block : pending) {
+                    block.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * The Input class is a channel that reads the blocks of a
+     * compressed file ahead, has the worker threads decompress and
+     * verify them, and returns their bytes in order.
+     */
+    static final class Input implements ReadableByteChannel {
+        // File the blocks are read from
+        private final FileChannel file;
+        // Codec the blocks were compressed with
+        private final Codec codec;
+        // Uncompressed length of the whole file
+        private final long length;
+        // Largest uncompressed size of a block
+        private final int blockSize;
+        // Blocks being decompressed, in file order
+        private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+        // Decompressed block being returned
+        private ByteBuffer current = ByteBuffer.allocate(0);
+        // Uncompressed bytes of the blocks read so far
+        private long blocksLength;
+        // Whether the empty block ending the file was read
+        private boolean ended;
+
+        /**
+         * Constructs an Input reading the file header.
+         *
+         * @param file the file to read, positioned at its start
+         * @throws IOException if the file is not a compressed snapshot
+         */
+        Input(FileChannel file) throws IOException {
+            this.file = file;
+            ByteBuffer header = readFully(HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a compressed snapshot");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(
+                    "Unsupported compressed snapshot version: " + version
+                );
+            }
+            codec = Codec.of(header.get());
+            blockSize = header.getInt();
+            length = header.getLong();
+            if (blockSize <= 0) {
+                throw new IOException("Corrupt compressed snapshot header");
+            }
+        }
+
+        /**
+         * Returns the uncompressed length of the file.
+         *
+         * @return the number of bytes the channel returns in total
+         */
+        long size() {
+            return length;
+        }
+
+        @Override
+        public int read(ByteBuffer target) throws IOException {
+            while (!current.hasRemaining()) {
+                readAhead();
+                if (pending.isEmpty()) {
+                    return -1;
+                }
+                current = ByteBuffer.wrap(await(pending.poll()));
+            }
+            int count = Math.min(current.remaining(), target.remaining());
+            target.put(target.position(), current, current.position(), count);
+            current.position(current.position() + count);
+            target.position(target.position() + count);
+            return count;
+        }
+
+        /**
+         * Reads compressed blocks and hands them to the workers until
+         * enough are in flight or the end of the file is reached.
+         */
+        private void readAhead() throws IOException {
+            while (!ended && pending.size() < IN_FLIGHT) {
+                ByteBuffer header = readFully(BLOCK_HEADER_SIZE);
+                int size = header.getInt();
+                int compressedSize = header.getInt();
+                int checksum = header.getInt();
+                if (size == 0) {
+                    if (blocksLength != length) {
+                        throw new IOException(
+                            "Compressed snapshot length does not match"
+                        );
+                    }
+                    ended = true;
+                    return;
+                }
+                // Refuse lengths no writer produces before allocating
+                if (size < 0 || size > blockSize || compressedSize < 0
+                        || compressedSize > blockSize * 2 + 1024) {
+                    throw new IOException("Corrupt compressed block header");
+                }
+                byte[] data = readFully(compressedSize).array();
+                blocksLength += size;
+                pending.add(WORKERS.submit(() -> {
+                    byte[] out = new byte[size];
+                    codec.decompress(data, out);
+                    CRC32C crc = new CRC32C();
+                    crc.update(out);
+                    if ((int) crc.getValue() != checksum) {
+                        throw new IOException(
+                            "Compressed block fails its checksum"
+                        );
+                    }
+                    return out;
+                }));
+            }
+        }
+
+        /**
+         * Reads the given number of bytes from the file.
+         */
+        private ByteBuffer readFully(int size) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining()) {
+                if (file.read(buffer) < 0) {
+                    throw new EOFException("Compressed snapshot is truncated");
+                }
+            }
+            return buffer.flip();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file.isOpen();
+        }
+
+        /**
+         * Closes the file.
+         *
+         * @throws IOException if closing fails
+         */
+        @Override
+        public void close() throws IOException {
+            for (Future<byte[]> block : pending) {
+                block.cancel(false);
+            }
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * @author : Yuuji
+ * ChangeSet.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for concurrent sets
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ChangeSet class tracks which entities of a health service are
+ * dirty: the IDs of patients, facilities and procedures that were
+ * added, changed or removed since it started listening. Each entity
+ * is kept once however often it changes, so a delta snapshot written
+ * from the set holds one record per dirty entity and its size follows
+ * the number of entities edited, not the number of edits.
+ * <p>
+ * Only IDs are kept. Whether an entity was changed or removed is
+ * decided when the delta is written, by looking the ID up. Renumbering
+ * with {@code reassign*Ids} is not reported to listeners and needs a
+ * full snapshot, as it does for the journal.
+ */
+final class ChangeSet implements HealthServiceListener {
+    // IDs of dirty patients
+    private final Set<Integer> patients = ConcurrentHashMap.newKeySet();
+    // IDs of dirty facilities
+    private final Set<Integer> facilities = ConcurrentHashMap.newKeySet();
+    // Hospital and procedure IDs of dirty procedures, see key
+    private final Set<Long> procedures = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Marks a patient as dirty.
+     *
+     * @param id the patient ID
+     */
+    void markPatient(int id) {
+        patients.add(id);
+    }
+
+    /**
+     * Marks a facility as dirty.
+     *
+     * @param id the facility ID
+     */
+    void markFacility(int id) {
+        facilities.add(id);
+    }
+
+    /**
+     * Marks a procedure of a hospital as dirty.
+     *
+     * @param hospitalId the ID of the hospital
+     * @param id the procedure ID
+     */
+    void markProcedure(int hospitalId, int id) {
+        procedures.add(key(hospitalId, id));
+    }
+
+    /**
+     * Returns the number of dirty entities.
+     *
+     * @return the number of patients, facilities and procedures
+     */
+    int size() {
+        return patients.size() + facilities.size() + procedures.size();
+    }
+
+    /**
+     * Returns the IDs of the dirty patients in increasing order.
+     *
+     * @return the patient IDs
+     */
+    int[] patients() {
+        return sorted(patients);
+    }
+
+    /**
+     * Returns the IDs of the dirty facilities in increasing order.
+     *
+     * @return the facility IDs
+     */
+    int[] facilities() {
+        return sorted(facilities);
+    }
+
+    /**
+     * Returns the dirty procedures ordered by hospital and ID, each
+     * as a key from which {@link #hospitalOf} and {@link #procedureOf}
+     * take the IDs.
+     *
+     * @return the procedure keys
+     */
+    long[] procedures() {
+        long[] keys = new long[procedures.size()];
+        int count = 0;
+        for (long key : procedures) {
+            if (count == keys.length) {
+                // Added while copying
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count++] = key;
+        }
+        keys = Arrays.copyOf(keys, count);
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Returns the hospital ID of a procedure key.
+     *
+     * @param key the procedure key
+     * @return the hospital ID
+     */
+    static int hospitalOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Returns the procedure ID of a procedure key.
+     *
+     * @param key the procedure key
+     * @return the procedure ID
+     */
+    static int procedureOf(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Combines a hospital ID and a procedure ID into one key that
+     * sorts by hospital first. IDs are positive.
+     */
+    private static long key(int hospitalId, int id) {
+        return (long) hospitalId << 32 | id;
+    }
+
+    /**
+     * Copies a set of IDs into a sorted array.
+     */
+    private static int[] sorted(Set<Integer> ids) {
+        int[] array = ids.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Override
+    public void patientAdded(Patient patient) {
+        markPatient(patient.getId());
+    }
+
+    @Override
+    public void patientsAdded(List<Patient> patients) {
+        for (Patient patient : patients) {
+            markPatient(patient.getId());
+        }
+    }
+
+    @Override
+    public void patientRemoved(Patient patient) {
+        markPatient(patient.getId());
+    }
+
+    @Override
+    public void patientChanged(Patient patient) {
+        markPatient(patient.getId());
+    }
+
+    @Override
+    public void facilityAdded(MedicalFacility facility) {
+        markFacility(facility.getId());
+        if (facility instanceof Hospital hospital) {
+            // Procedures added before the hospital raised no events
+            for (Procedure procedure
+                    : hospital.getProcedureSnapshot()) {
+                markProcedure(hospital.getId(), procedure.getId());
+            }
+        }
+    }
+
+    @Override
+    public void facilityRemoved(MedicalFacility facility) {
+        markFacility(facility.getId());
+    }
+
+    @Override
+    public void facilityChanged(MedicalFacility facility) {
+        markFacility(facility.getId());
+    }
+
+    @Override
+    public void procedureAdded(Hospital hospital, Procedure procedure) {
+        // The hospital record carries the next procedure ID
+        markFacility(hospital.getId());
+        markProcedure(hospital.getId(), procedure.getId());
+    }
+
+    @Override
+    public void procedureRemoved(Hospital hospital, Procedure procedure) {
+        markProcedure(hospital.getId(), procedure.getId());
+    }
+
+    @Override
+    public void procedureChanged(Hospital hospital, Procedure procedure) {
+        markProcedure(hospital.getId(), procedure.getId());
+    }
+}
@@ -1,20 +1,271 @@
 /**
  * @author : Yuuji
  * CoreClasses.java
- * Latest Update: 12-19-2024
+ * Latest Update: 10-17-2026
  */
 
 package com.medical;
 
 // Importing necessary utilities for serialization, formatting, and data structures
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serial;
 import java.io.Serializable;
-import java.text.DecimalFormat;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * The HealthServiceListener interface receives notifications about
+ * changes to the patients, facilities and procedures of a health
+ * service. All methods have empty default implementations, so
+ * listeners only override the events they care about.
+ */
+interface HealthServiceListener {
+    /**
+     * Called after a patient has been added.
+     * 
+     * @param patient the added patient
+     */
+    default void patientAdded(Patient patient) {
+    }
+
+    /**
+     * Called after many patients have been added at once, for example
+     * by a bulk import. By default each one is reported to
+     * {@link #patientAdded(Patient)}.
+     * 
+     * @param patients the added patients, in ID order
+     */
+    default void patientsAdded(List<Patient> patients) {
+        for (Patient patient : patients) {
+            patientAdded(patient);
+        }
+    }
+
+    /**
+     * Called after a patient has been removed.
+     * 
+     * @param patient the removed patient
+     */
+    default void patientRemoved(Patient patient) {
+    }
+
+    /**
+     * Called after a patient's name, balance, current facility or
+     * registrations have changed.
+     * 
+     * @param patient the changed patient
+     */
+    default void patientChanged(Patient patient) {
+    }
+
+    /**
+     * Called after a facility has been added.
+     * 
+     * @param facility the added facility
+     */
+    default void facilityAdded(MedicalFacility facility) {
+    }
+
+    /**
+     * Called after many facilities have been added at once, for
+     * example by a bulk import. By default each one is reported to
+     * {@link #facilityAdded(MedicalFacility)}.
+     * 
+     * @param facilities the added facilities, in ID order
+     */
+    default void facilitiesAdded(List<MedicalFacility> facilities) {
+        for (MedicalFacility facility : facilities) {
+            facilityAdded(facility);
+        }
+    }
+
+    /**
+     * Called after a facility has been removed.
+     * 
+     * @param facility the removed facility
+     */
+    default void facilityRemoved(MedicalFacility facility) {
+    }
+
+    /**
+     * Called after a facility's name or charging details have changed.
+     * 
+     * @param facility the changed facility
+     */
+    default void facilityChanged(MedicalFacility facility) {
+    }
+
+    /**
+     * Called after a procedure has been added to a hospital.
+     * 
+     * @param hospital the hospital offering the procedure
+     * @param procedure the added procedure
+     */
+    default void procedureAdded(Hospital hospital, Procedure procedure) {
+    }
+
+    /**
+     * Called after a procedure has been removed from a hospital.
+     * 
+     * @param hospital the hospital that offered the procedure
+     * @param procedure the removed procedure
+     */
+    default void procedureRemoved(Hospital hospital, Procedure procedure) {
+    }
+
+    /**
+     * Called after a procedure's details have changed.
+     * 
+     * @param hospital the hospital offering the procedure
+     * @param procedure the changed procedure
+     */
+    default void procedureChanged(Hospital hospital, Procedure procedure) {
+    }
+}
+
+/**
+ * The IdAllocator class hands out stable, monotonically increasing
+ * identifiers. An ID is never reused once allocated, so removing an
+ * entity never renumbers the others and external references to an ID
+ * stay valid.
+ */
+class IdAllocator implements Serializable {
+    @Serial
+    // Unique identifier for serialization
+    private static final long serialVersionUID = 1L;
+    // Next identifier to hand out
+    private int next;
+
+    /**
+     * Constructs an IdAllocator whose first ID is 1.
+     */
+    public IdAllocator() {
+        // IDs start from 1
+        this.next = 1; 
+    }
+
+    /**
+     * Returns a new identifier that has never been handed out before.
+     * 
+     * @return the allocated ID
+     */
+    public int allocate() {
+        // Hand out the next ID and advance the counter
+        return next++; 
+    }
+
+    /**
+     * Marks an existing identifier as used, so that it is never
+     * allocated again. Used when restoring entities with known IDs.
+     * 
+     * @param id the ID that is already in use
+     */
+    public void reserve(int id) {
+        // Move the counter past the reserved ID
+        next = Math.max(next, id + 1); 
+    }
+
+    /**
+     * Resets the allocator so that the next ID handed out is the
+     * given value. Only used after compacting IDs to 1..n.
+     * 
+     * @param next the next ID to hand out
+     */
+    public void reset(int next) {
+        // Restart the counter at the given ID
+        this.next = next; 
+    }
+
+    /**
+     * Returns the next identifier that will be handed out.
+     * 
+     * @return the next ID
+     */
+    public int peek() {
+        // Return the next ID without allocating it
+        return next; 
+    }
+
+    /**
+     * Creates an allocator that continues after the highest ID
+     * of the given entities.
+     * 
+     * @param entities the entities whose IDs are already in use
+     * @param idOf function returning the ID of an entity
+     * @param <T> the entity type
+     * @return an allocator that never returns an existing ID
+     */
+    public static <T> IdAllocator after(
+            List<T> entities, ToIntFunction<T> idOf) {
+        IdAllocator allocator = new IdAllocator();
+        for (T entity : entities) {
+            // Reserve every ID that is already taken
+            allocator.reserve(idOf.applyAsInt(entity)); 
+        }
+        return allocator;
+    }
+
+    /**
+     * Finds the position of the entity with the given ID in a list
+     * that is ordered by ID. Lists filled from an allocator are always
+     * ordered, because new entities are appended with larger IDs, and
+     * restored entities are kept in order by {@link IdList}.
+     * 
+     * @param entities the entities ordered by ID
+     * @param id the ID to look for
+     * @param idOf function returning the ID of an entity
+     * @param <T> the entity type
+     * @return the position of the entity, or -1 if it is not found
+     */
+    public static <T> int positionOf(
+            List<T> entities, int id, ToIntFunction<T> idOf) {
+        int low = 0;
+        int high = entities.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = idOf.applyAsInt(entities.get(mid));
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                // Found the entity with the ID
+                return mid; 
+            }
+        }
+        return -1;
+    }
+}
+
+/**
+ * The Charge record is the outcome of one visit or procedure: the
+ * value {@link MedicalFacility#visit(Patient)} or
+ * {@link Hospital#performProcedure(Patient, Procedure)} returns, and
+ * the amount that call alone added to the patient's balance. Other
+ * threads may charge the same patient meanwhile, so the amount cannot
+ * be read back from the balance afterwards.
+ *
+ * @param result the value the visit or procedure returns
+ * @param cents the amount charged in cents
+ */
+record Charge(boolean result, long cents) {
+}
 
 /**
  * The MedicalFacility class is an abstract representation of a
@@ -32,6 +283,8 @@ abstract class MedicalFacility implements Serializable {
     private int id; 
     // Name of the facility
     private String name; 
+    // Health service notified about changes, set when added to one
+    private transient HealthService service; 
 
     /**
      * Constructs a MedicalFacility with the specified name.
@@ -79,18 +332,83 @@ abstract class MedicalFacility implements Serializable {
      * @param name the facility name to set
      */
     public void setName(String name) {
+        // Set the facility name
+        assignName(name); 
+        // Report the change
+        changed(); 
+    }
+
+    /**
+     * Sets the name of the facility without notifying anyone, for
+     * callers that report the change themselves once they have
+     * released their locks.
+     * 
+     * @param name the facility name to set
+     */
+    void assignName(String name) {
         // Set the facility name
         this.name = name; 
     }
 
     /**
-     * Abstract method to handle patient visits to the facility.
+     * Links the facility to the health service that manages it,
+     * or unlinks it when null is passed.
+     * 
+     * @param service the owning health service, or null
+     */
+    void attach(HealthService service) {
+        // Remember the owning health service
+        this.service = service; 
+    }
+
+    /**
+     * Returns the health service that manages the facility.
+     * 
+     * @return the owning health service, or null if not added to one
+     */
+    HealthService getService() {
+        // Return the owning health service
+        return service; 
+    }
+
+    /**
+     * Notifies the owning health service that the facility changed.
+     */
+    void changed() {
+        if (service != null) {
+            // Notify listeners of the owning health service
+            service.fireFacilityChanged(this); 
+        }
+    }
+
+    /**
+     * Handles a patient visit to the facility.
      * 
      * @param patient the patient visiting the facility
      * @return true if the visit is successful, false otherwise
      */
+    public boolean visit(Patient patient) {
+        // Run the visit and keep its result
+        return chargeVisit(patient).result(); 
+    }
+
+    /**
+     * Handles a patient visit to the facility like
+     * {@link #visit(Patient)}, and returns the amount it charged.
+     * 
+     * @param patient the patient visiting the facility
+     * @return the result of the visit and the amount charged
+     */
     // Abstract method to be implemented by subclasses
-    public abstract boolean visit(Patient patient); 
+    abstract Charge chargeVisit(Patient patient); 
+
+    /**
+     * Returns a copy of the facility with the same ID that is not
+     * linked to any health service.
+     * 
+     * @return the detached copy
+     */
+    abstract MedicalFacility copy(); 
 
     @Override
     public String toString() {
@@ -104,15 +422,33 @@ abstract class MedicalFacility implements Serializable {
  * The Hospital class represents a hospital facility, extending
  * MedicalFacility. It manages procedures and patient admissions
  * based on a probability of admission.
+ * <p>
+ * The procedures are guarded by a StampedLock like the patients and
+ * facilities of {@link HealthService}, so they can be read while
+ * another thread adds, removes or edits them.
  */
 class Hospital extends MedicalFacility {
     @Serial
     // Unique identifier for serialization
     private static final long serialVersionUID = 1L; 
+    // Charge for an elective procedure on a private patient, in cents
+    private static final long PRIVATE_ELECTIVE_CENTS = 400_000; 
+    // Charge for a non-elective procedure on a private patient, in cents
+    private static final long PRIVATE_NON_ELECTIVE_CENTS = 250_000; 
     // Probability of admitting a patient
     private double probAdmit; 
     // List of procedures available at the hospital
     private final List<Procedure> procedures = new ArrayList<>();
+    // Allocator for stable procedure IDs
+    private IdAllocator procedureIds = new IdAllocator();
+    // Lock guarding the procedures and their allocator
+    private transient StampedLock procedureLock = new StampedLock();
+    // Read-only view of the procedures handed out to callers
+    private transient List<Procedure> procedureView =
+        new HealthService.GuardedView<>(procedures, procedureLock);
+    // Source deciding admissions, not saved with the hospital
+    private transient AdmissionSource admissionSource = 
+        AdmissionSource.perThread();
 
     /**
      * Constructs a Hospital with the specified name and
@@ -134,44 +470,185 @@ class Hospital extends MedicalFacility {
      * @param procedure the procedure to add
      */
     public void addProcedure(Procedure procedure) {
-        // Add the procedure to the list
-        procedures.add(procedure); 
-        // Reassign IDs after adding
-        reassignProcedureIds(); 
+        long stamp = procedureLock.writeLock();
+        try {
+            // Give the procedure a stable ID
+            procedure.setId(procedureIds.allocate()); 
+            // Add the procedure to the list
+            procedures.add(procedure); 
+            // Link the procedure to this hospital
+            procedure.attach(this); 
+        } finally {
+            procedureLock.unlockWrite(stamp);
+        }
+        if (getService() != null) {
+            // Notify listeners of the owning health service
+            getService().fireProcedureAdded(this, procedure); 
+        }
     }
 
     /**
      * Removes a procedure from the hospital's list by its ID.
+     * The IDs of the remaining procedures are not changed.
      * 
      * @param id the ID of the procedure to remove
      */
     public void removeProcedure(int id) {
-        // Remove the procedure if the ID matches
-        procedures.removeIf(p -> p.getId() == id); 
-        // Reassign IDs after removal
-        reassignProcedureIds(); 
+        Procedure procedure;
+        long stamp = procedureLock.writeLock();
+        try {
+            // Locate the procedure in the ID-ordered list
+            int position = IdAllocator.positionOf(
+                procedures, id, Procedure::getId
+            );
+            if (position < 0) {
+                return;
+            }
+            // Remove the procedure if the ID matches
+            procedure = procedures.remove(position); 
+            // Unlink the procedure from this hospital
+            procedure.attach(null); 
+        } finally {
+            procedureLock.unlockWrite(stamp);
+        }
+        if (getService() != null) {
+            // Notify listeners of the owning health service
+            getService().fireProcedureRemoved(this, procedure); 
+        }
+    }
+
+    /**
+     * Finds a procedure of this hospital by its ID.
+     * 
+     * @param id the procedure ID
+     * @return the procedure, or null if the hospital has no such ID
+     */
+    public Procedure findProcedure(int id) {
+        long stamp = procedureLock.readLock();
+        try {
+            // Locate the procedure in the ID-ordered list
+            int position = IdAllocator.positionOf(
+                procedures, id, Procedure::getId
+            );
+            return position < 0 ? null : procedures.get(position);
+        } finally {
+            procedureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Notifies the owning health service that one of the
+     * hospital's procedures changed.
+     * 
+     * @param procedure the changed procedure
+     */
+    void procedureChanged(Procedure procedure) {
+        if (getService() != null) {
+            // Notify listeners of the owning health service
+            getService().fireProcedureChanged(this, procedure); 
+        }
+    }
+
+    /**
+     * Adds a procedure that already has an ID, for example one read
+     * back from a snapshot. The ID is kept and never allocated again.
+     * 
+     * @param procedure the procedure to restore
+     */
+    void restoreProcedure(Procedure procedure) {
+        long stamp = procedureLock.writeLock();
+        try {
+            // Keep the saved ID out of future allocations
+            procedureIds.reserve(procedure.getId()); 
+            // Add the procedure to the list
+            procedures.add(procedure); 
+            // Link the procedure to this hospital
+            procedure.attach(this); 
+        } finally {
+            procedureLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns a copy of the hospital and its procedures with the
+     * same IDs, not linked to any health service.
+     * 
+     * @return the detached copy
+     */
+    @Override
+    Hospital copy() {
+        // Copy the hospital details and ID
+        Hospital copy = new Hospital(getName(), probAdmit); 
+        copy.setId(getId()); 
+        long stamp = procedureLock.readLock();
+        try {
+            for (Procedure procedure : procedures) {
+                // Copy each procedure with its ID
+                copy.restoreProcedure(procedure.copy()); 
+            }
+            // Continue allocating where this hospital does
+            copy.procedureIds.reset(procedureIds.peek()); 
+        } finally {
+            procedureLock.unlockRead(stamp);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the allocator for this hospital's procedure IDs.
+     * 
+     * @return the procedure ID allocator
+     */
+    IdAllocator procedureIds() {
+        // Return the procedure ID allocator
+        return procedureIds; 
     }
 
     /**
      * Reassigns IDs to the procedures in the hospital.
-     * This ensures that procedure IDs are sequential 
-     * after additions or removals.
+     * This compacts procedure IDs to 1..n. IDs are otherwise
+     * stable, so this is only needed on explicit request.
+     * Renumbering is not reported to listeners, so a full snapshot
+     * should be saved afterwards.
      */
     public void reassignProcedureIds() {
-        for (int i = 0; i < procedures.size(); i++) {
-            // Set new IDs starting from 1
-            procedures.get(i).setId(i + 1); 
+        long stamp = procedureLock.writeLock();
+        try {
+            for (int i = 0; i < procedures.size(); i++) {
+                // Set new IDs starting from 1
+                procedures.get(i).setId(i + 1); 
+            }
+            // Continue allocating after the compacted IDs
+            procedureIds.reset(procedures.size() + 1); 
+        } finally {
+            procedureLock.unlockWrite(stamp);
         }
     }
 
     /**
      * Returns the list of procedures available at the hospital.
+     * The list is a read-only view that reflects later changes.
      * 
-     * @return the list of procedures
+     * @return the list of procedures, ordered by ID
      */
     public List<Procedure> getProcedures() {
-        // Return the list of procedures
-        return procedures; 
+        // Return the view of the procedures
+        return procedureView; 
+    }
+
+    /**
+     * Returns the procedures as they are at this moment. The copy can
+     * be iterated while procedures keep being added and removed.
+     * 
+     * @return an unmodifiable copy of the procedures, ordered by ID
+     */
+    public List<Procedure> getProcedureSnapshot() {
+        long stamp = procedureLock.readLock();
+        try {
+            return List.copyOf(procedures);
+        } finally {
+            procedureLock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -192,24 +669,71 @@ class Hospital extends MedicalFacility {
     public void setProbAdmit(double probAdmit) {
         // Set the admission probability
         this.probAdmit = probAdmit; 
+        // Report the change
+        changed(); 
+    }
+
+    /**
+     * Returns the source deciding admissions at the hospital.
+     * 
+     * @return the admission source
+     */
+    AdmissionSource getAdmissionSource() {
+        // Return the admission source
+        return admissionSource; 
+    }
+
+    /**
+     * Sets the source deciding admissions at the hospital, such as a
+     * seeded source to replay the decisions of a day.
+     * 
+     * @param admissionSource the admission source to use
+     */
+    void setAdmissionSource(AdmissionSource admissionSource) {
+        // Set the admission source
+        this.admissionSource = admissionSource; 
     }
 
     @Override
-    public boolean visit(Patient patient) {
-        // Create a random number generator
-        Random random = new Random(); 
+    Charge chargeVisit(Patient patient) {
         // Determine if the patient is admitted based on probability
-        boolean admitted = random.nextDouble() <= probAdmit; 
+        boolean admitted = admissionSource.admit(probAdmit); 
 
         if (admitted) {
             // Set the current facility for the patient
             patient.setCurrentFacility(this); 
-            // Return true if admitted
-            return true; 
         }
 
-        // Return false if not admitted
-        return false; 
+        // Admission itself is free
+        return new Charge(admitted, 0); 
+    }
+
+    /**
+     * Restores the procedure ID allocator for hospitals saved before
+     * IDs became stable, and the default admission source.
+     * 
+     * @param in the stream to read the hospital from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if a serialized class is missing
+     */
+    @Serial
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        procedureLock = new StampedLock();
+        procedureView = new HealthService.GuardedView<>(
+            procedures, procedureLock
+        );
+        // Decide admissions like a new hospital
+        admissionSource = AdmissionSource.perThread(); 
+        if (procedureIds == null) {
+            // Continue after the highest saved procedure ID
+            procedureIds = IdAllocator.after(procedures, Procedure::getId);
+        }
+        for (Procedure procedure : procedures) {
+            // Restore the links of the procedures to this hospital
+            procedure.attach(this); 
+        }
     }
 
     /**
@@ -221,23 +745,39 @@ class Hospital extends MedicalFacility {
      * @return true if the procedure is performed, false otherwise
      */
     public boolean performProcedure(Patient patient, Procedure procedure) {
+        // Perform the procedure and keep its result
+        return chargeProcedure(patient, procedure).result(); 
+    }
+
+    /**
+     * Performs a procedure on a patient like
+     * {@link #performProcedure(Patient, Procedure)}, and returns the
+     * amount it charged.
+     * 
+     * @param patient the patient undergoing the procedure
+     * @param procedure the procedure to perform
+     * @return whether the procedure was performed and the amount charged
+     */
+    Charge chargeProcedure(Patient patient, Procedure procedure) {
         if (patient.getCurrentFacility() != this) {
-            // Return false if the patient is not at this hospital
-            return false; 
+            // Nothing is performed if the patient is not at this hospital
+            return new Charge(false, 0); 
         }
-        double procedureCost; // Variable to hold the cost of the procedure
+        long procedureCents; // Cost of the procedure in cents
         if (patient.isPrivate()) {
             // Updated costs for private patients
-            procedureCost = procedure.isElective() ? 4000 : 2500; 
+            procedureCents = procedure.isElective() ? 
+                             PRIVATE_ELECTIVE_CENTS : 
+                             PRIVATE_NON_ELECTIVE_CENTS; 
         } else {
             // Cost for public patients
-            procedureCost = procedure.isElective() ? 
-                            procedure.getCost() : 0; 
+            procedureCents = procedure.isElective() ? 
+                             procedure.getCostCents() : 0; 
         }
         // Adjust the patient's balance
-        patient.addBalance(procedureCost); 
-        // Return true indicating the procedure was performed
-        return true; 
+        patient.addBalanceCents(procedureCents); 
+        // Report the procedure as performed with its charge
+        return new Charge(true, procedureCents); 
     }
 
 }
@@ -248,12 +788,20 @@ class Hospital extends MedicalFacility {
  * based on consultation fees and gap percentages.
  */
 class Clinic extends MedicalFacility {
-    // Fee for a consultation at the clinic
+    @Serial
+    /*
+     * Unique identifier for serialization, pinned to the value the
+     * JVM computed for earlier releases so their saved files still load
+     */
+    private static final long serialVersionUID = 4833600806264981216L;
+    // Fee in dollars as written by serialization, see writeObject
     private double consultationFee; 
-    // Additional percentage charged for private patients
+    // Gap percentage as written by serialization, see writeObject
     private double gapPercent; 
-    // Decimal format for displaying fees
-    private static final DecimalFormat df = new DecimalFormat("0.0"); 
+    // Fee for a consultation at the clinic in cents
+    private transient long feeCents; 
+    // Additional percentage charged for private patients, in basis points
+    private transient int gapBasisPoints; 
 
     /**
      * Constructs a Clinic with the specified name, consultation fee,
@@ -268,52 +816,88 @@ class Clinic extends MedicalFacility {
         // Call the superclass constructor to set the name
         super(name); 
         // Initialize the consultation fee
-        this.consultationFee = consultationFee; 
+        this.feeCents = Money.cents(consultationFee); 
         // Initialize the gap percentage
-        this.gapPercent = gapPercent; 
+        this.gapBasisPoints = Money.basisPoints(gapPercent); 
     }
 
     @Override
-    public boolean visit(Patient patient) {
-        if (!patient.isRegisteredAt(this)) {
-            // Register the patient at the clinic
-            patient.registerAt(this); 
+    Charge chargeVisit(Patient patient) {
+        // Register the patient at the clinic unless already registered
+        if (patient.registerAt(this)) {
             // Set the current facility for the patient
             patient.setCurrentFacility(this); 
-            // Return true for first-time visit
-            return true; 
+            // Return true for first-time visit, which is free
+            return new Charge(true, 0); 
         } else {
             // Base charge for consultation
-            double charge = consultationFee;
+            long charge = feeCents;
             if (patient.isPrivate()) {
                 // Add gap percentage for private patients
-                charge += consultationFee * (gapPercent / 100); 
+                charge += Money.percentOf(feeCents, gapBasisPoints); 
             }
             // Adjust the patient's balance
-            patient.addBalance(charge); 
-            // Return false for subsequent visits
-            return false; 
+            patient.addBalanceCents(charge); 
+            // Return false for subsequent visits, with the charge
+            return new Charge(false, charge); 
         }
     }
 
     /**
-     * Returns the consultation fee, formatted to one decimal place.
+     * Returns a copy of the clinic with the same ID, not linked to
+     * any health service.
+     * 
+     * @return the detached copy
+     */
+    @Override
+    Clinic copy() {
+        // Copy the clinic details and ID
+        Clinic copy = new Clinic(getName(), 0, 0); 
+        copy.feeCents = feeCents; 
+        copy.gapBasisPoints = gapBasisPoints; 
+        copy.setId(getId()); 
+        return copy;
+    }
+
+    /**
+     * Returns the consultation fee in dollars.
      * 
      * @return the consultation fee
      */
     public double getConsultationFee() {
-        // Return formatted consultation fee
-        return Double.parseDouble(df.format(consultationFee)); 
+        // Return the consultation fee in dollars
+        return Money.dollars(feeCents); 
+    }
+
+    /**
+     * Returns the consultation fee in cents.
+     * 
+     * @return the consultation fee in cents
+     */
+    long getConsultationFeeCents() {
+        // Return the exact consultation fee
+        return feeCents; 
     }
 
     /**
-     * Sets the consultation fee for the clinic.
+     * Sets the consultation fee for the clinic, rounded to the cent.
      * 
      * @param consultationFee the consultation fee to set
      */
     public void setConsultationFee(double consultationFee) {
+        setConsultationFeeCents(Money.cents(consultationFee)); 
+    }
+
+    /**
+     * Sets the consultation fee for the clinic in cents.
+     * 
+     * @param feeCents the consultation fee to set in cents
+     */
+    void setConsultationFeeCents(long feeCents) {
         // Set the consultation fee
-        this.consultationFee = consultationFee; 
+        this.feeCents = feeCents; 
+        // Report the change
+        changed(); 
     }
 
     /**
@@ -323,17 +907,71 @@ class Clinic extends MedicalFacility {
      */
     public double getGapPercent() {
         // Return the gap percentage
-        return gapPercent; 
+        return Money.percent(gapBasisPoints); 
+    }
+
+    /**
+     * Returns the gap percentage charged for private patients in
+     * basis points.
+     * 
+     * @return the gap percentage in basis points
+     */
+    int getGapBasisPoints() {
+        // Return the exact gap percentage
+        return gapBasisPoints; 
     }
 
     /**
-     * Sets the gap percentage charged for private patients.
+     * Sets the gap percentage charged for private patients, rounded
+     * to a hundredth of a percent.
      * 
      * @param gapPercent the gap percentage to set
      */
     public void setGapPercent(double gapPercent) {
+        setGapBasisPoints(Money.basisPoints(gapPercent)); 
+    }
+
+    /**
+     * Sets the gap percentage charged for private patients in basis
+     * points.
+     * 
+     * @param gapBasisPoints the gap percentage to set in basis points
+     */
+    void setGapBasisPoints(int gapBasisPoints) {
         // Set the gap percentage
-        this.gapPercent = gapPercent; 
+        this.gapBasisPoints = gapBasisPoints; 
+        // Report the change
+        changed(); 
+    }
+
+    /**
+     * Writes the clinic with the fee in dollars and the gap as a
+     * percentage, keeping the serialized form of earlier versions.
+     * 
+     * @param out the stream to write the clinic to
+     * @throws IOException if the stream cannot be written
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        consultationFee = getConsultationFee();
+        gapPercent = getGapPercent();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * Reads the clinic and converts the saved fee and gap to their
+     * fixed-point values.
+     * 
+     * @param in the stream to read the clinic from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if a serialized class is missing
+     */
+    @Serial
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        feeCents = Money.cents(consultationFee);
+        gapBasisPoints = Money.basisPoints(gapPercent);
     }
 }
 
@@ -351,12 +989,31 @@ class Patient implements Serializable {
     private String name; 
     // Indicates if the patient is private
     private final boolean isPrivate;
-    // Current balance of the patient
+    // Balance in dollars as written by serialization, see writeObject
     private double balance = 0.0; 
+    // Current balance of the patient in cents, updated atomically
+    private transient volatile long balanceCents; 
     // Current facility the patient is associated with
     private MedicalFacility currentFacility; 
-    // Facilities the patient is registered at
-    private final Set<MedicalFacility> registeredFacilities;
+    // Facilities the patient is registered at, safe for concurrent visits
+    private Set<MedicalFacility> registeredFacilities;
+    // Health service notified about changes, set when added to one
+    private transient HealthService service; 
+
+    // Registrations a new set has room for, most patients have few
+    private static final int REGISTRATIONS = 2;
+    // Handle for atomic updates of the balance in cents
+    private static final VarHandle BALANCE_CENTS;
+
+    static {
+        try {
+            BALANCE_CENTS = MethodHandles.lookup().findVarHandle(
+                Patient.class, "balanceCents", long.class
+            );
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     /**
      * Constructs a Patient with the specified name and privacy status.
@@ -370,7 +1027,8 @@ class Patient implements Serializable {
         // Initialize the privacy status
         this.isPrivate = isPrivate; 
         // Initialize the set of registered facilities
-        this.registeredFacilities = new HashSet<>(); 
+        this.registeredFacilities =
+            ConcurrentHashMap.newKeySet(REGISTRATIONS); 
     }
 
     /**
@@ -411,6 +1069,8 @@ class Patient implements Serializable {
     public void setName(String name) {
         // Set the patient's name
         this.name = name; 
+        // Report the change
+        changed(); 
     }
 
     /**
@@ -429,28 +1089,72 @@ class Patient implements Serializable {
      * @return the patient balance
      */
     public double getBalance() {
-        // Return the patient's balance
-        return balance; 
+        // Return the patient's balance in dollars
+        return Money.dollars(balanceCents); 
     }
 
     /**
-     * Adds an amount to the patient's balance.
+     * Returns the current balance of the patient in cents.
      * 
-     * @param amount the amount to add
+     * @return the patient balance in cents
      */
-    public void addBalance(double amount) {
-        // Increase the patient's balance
-        this.balance += amount; 
+    public long getBalanceCents() {
+        // Return the patient's exact balance
+        return balanceCents; 
+    }
+
+    /**
+     * Adds an amount to the patient's balance. The amount is rounded
+     * to the cent. Safe to call from several threads at once: the
+     * balance is updated with a single atomic add, so no charge is
+     * lost and charging one patient never waits for another.
+     * 
+     * @param amount the amount to add
+     */
+    public void addBalance(double amount) {
+        addBalanceCents(Money.cents(amount)); 
+    }
+
+    /**
+     * Adds an amount in cents to the patient's balance atomically.
+     * 
+     * @param cents the amount to add in cents
+     */
+    public void addBalanceCents(long cents) {
+        // Increase the patient's balance
+        BALANCE_CENTS.getAndAdd(this, cents); 
+        // Report the change
+        changed(); 
+    }
+
+    /**
+     * Replaces the patient's balance in cents. Only used when
+     * restoring saved data; charges go through
+     * {@link #addBalanceCents(long)}.
+     * 
+     * @param balanceCents the balance to restore in cents
+     */
+    void setBalanceCents(long balanceCents) {
+        // Replace the patient's balance
+        this.balanceCents = balanceCents; 
+        // Report the change
+        changed(); 
     }
 
     /**
      * Registers the patient at a specified medical facility.
      * 
      * @param facility the facility to register at
+     * @return true if the patient was not registered there before
      */
-    public void registerAt(MedicalFacility facility) {
+    public boolean registerAt(MedicalFacility facility) {
         // Add the facility to the registered set
-        registeredFacilities.add(facility); 
+        if (registeredFacilities.add(facility)) {
+            // Report the change
+            changed(); 
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -464,6 +1168,16 @@ class Patient implements Serializable {
         return registeredFacilities.contains(facility); 
     }
 
+    /**
+     * Returns the facilities the patient is registered at.
+     * 
+     * @return a read-only view of the registered facilities
+     */
+    public Set<MedicalFacility> getRegisteredFacilities() {
+        // Return a read-only view of the registered set
+        return Collections.unmodifiableSet(registeredFacilities); 
+    }
+
     /**
      * Returns the current facility the patient is associated with.
      * 
@@ -482,13 +1196,107 @@ class Patient implements Serializable {
     public void setCurrentFacility(MedicalFacility currentFacility) {
         // Set the current facility
         this.currentFacility = currentFacility; 
+        // Report the change
+        changed(); 
+    }
+
+    /**
+     * Links the patient to the health service that manages them,
+     * or unlinks them when null is passed.
+     * 
+     * @param service the owning health service, or null
+     */
+    void attach(HealthService service) {
+        // Remember the owning health service
+        this.service = service; 
+    }
+
+    /**
+     * Returns a copy of the patient with the same ID whose facility
+     * references point to the facilities of the given health service.
+     * Facilities that service does not hold are left out.
+     * 
+     * @param service the health service holding the copied facilities
+     * @return the detached copy
+     */
+    Patient copy(HealthService service) {
+        // Copy the patient details, ID and balance
+        Patient copy = new Patient(name, isPrivate); 
+        copy.id = id; 
+        copy.balanceCents = balanceCents; 
+        if (currentFacility != null) {
+            // Point to the copy of the current facility
+            copy.currentFacility = 
+                service.findFacility(currentFacility.getId()); 
+        }
+        for (MedicalFacility facility : registeredFacilities) {
+            // Point to the copy of each registered facility
+            MedicalFacility registered = 
+                service.findFacility(facility.getId()); 
+            if (registered != null) {
+                copy.registeredFacilities.add(registered); 
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Notifies the owning health service that the patient changed.
+     */
+    private void changed() {
+        if (service != null) {
+            // Notify listeners of the owning health service
+            service.firePatientChanged(this); 
+        }
+    }
+
+    /**
+     * Writes the patient with the balance in dollars and the
+     * registrations as a plain set, keeping the serialized form of
+     * earlier versions. A concurrent set would write its whole map.
+     * 
+     * @param out the stream to write the patient to
+     * @throws IOException if the stream cannot be written
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        balance = getBalance();
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", id);
+        fields.put("name", name);
+        fields.put("isPrivate", isPrivate);
+        fields.put("balance", balance);
+        fields.put("currentFacility", currentFacility);
+        fields.put(
+            "registeredFacilities", new HashSet<>(registeredFacilities)
+        );
+        out.writeFields();
+    }
+
+    /**
+     * Reads the patient and converts the saved balance to cents.
+     * 
+     * @param in the stream to read the patient from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if a serialized class is missing
+     */
+    @Serial
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        balanceCents = Money.cents(balance);
+        // Older files hold a plain set that is not safe to share
+        Set<MedicalFacility> registered =
+            ConcurrentHashMap.newKeySet(REGISTRATIONS);
+        registered.addAll(registeredFacilities);
+        registeredFacilities = registered;
     }
 
     @Override
     public String toString() {
         // String representation of the patient
         return "ID: " + id + ", Name: " + name + ", Private: "
-                + isPrivate + ", Balance: " + balance;
+                + isPrivate + ", Balance: " + getBalance();
     }
 
 }
@@ -510,8 +1318,12 @@ class Procedure implements Serializable {
     private String description; 
     // Indicates if the procedure is elective
     private boolean isElective; 
-    // Cost of the procedure
+    // Cost in dollars as written by serialization, see writeObject
     private double cost; 
+    // Cost of the procedure in cents
+    private transient long costCents; 
+    // Hospital notified about changes, set when added to one
+    private transient Hospital hospital; 
 
     /**
      * Constructs a Procedure with the specified details.
@@ -530,7 +1342,7 @@ class Procedure implements Serializable {
         // Initialize the elective status
         this.isElective = isElective; 
         // Initialize the procedure cost
-        this.cost = cost; 
+        this.costCents = Money.cents(cost); 
     }
 
     /**
@@ -571,6 +1383,8 @@ class Procedure implements Serializable {
     public void setName(String name) {
         // Set the procedure name
         this.name = name; 
+        // Report the change
+        changed(); 
     }
 
     /**
@@ -591,6 +1405,8 @@ class Procedure implements Serializable {
     public void setDescription(String description) {
         // Set the procedure description
         this.description = description; 
+        // Report the change
+        changed(); 
     }
 
     /**
@@ -611,26 +1427,84 @@ class Procedure implements Serializable {
     public void setElective(boolean isElective) {
         // Set the elective status
         this.isElective = isElective; 
+        // Report the change
+        changed(); 
     }
 
     /**
-     * Returns the cost of the procedure.
+     * Returns the cost of the procedure in dollars.
      * 
      * @return the procedure cost
      */
     public double getCost() {
-        // Return the procedure cost
-        return cost; 
+        // Return the procedure cost in dollars
+        return Money.dollars(costCents); 
     }
 
     /**
-     * Sets the cost of the procedure.
+     * Returns the cost of the procedure in cents.
+     * 
+     * @return the procedure cost in cents
+     */
+    long getCostCents() {
+        // Return the exact procedure cost
+        return costCents; 
+    }
+
+    /**
+     * Sets the cost of the procedure, rounded to the cent.
      * 
      * @param cost the procedure cost to set
      */
     public void setCost(double cost) {
+        setCostCents(Money.cents(cost)); 
+    }
+
+    /**
+     * Sets the cost of the procedure in cents.
+     * 
+     * @param costCents the procedure cost to set in cents
+     */
+    void setCostCents(long costCents) {
         // Set the procedure cost
-        this.cost = cost; 
+        this.costCents = costCents; 
+        // Report the change
+        changed(); 
+    }
+
+    /**
+     * Links the procedure to the hospital offering it, or unlinks
+     * it when null is passed.
+     * 
+     * @param hospital the owning hospital, or null
+     */
+    void attach(Hospital hospital) {
+        // Remember the owning hospital
+        this.hospital = hospital; 
+    }
+
+    /**
+     * Returns a copy of the procedure with the same ID that is not
+     * linked to any hospital.
+     * 
+     * @return the detached copy
+     */
+    Procedure copy() {
+        // Copy the procedure details and ID
+        Procedure copy = new Procedure(name, description, isElective, 0); 
+        copy.id = id; 
+        copy.costCents = costCents; 
+        return copy;
+    }
+
+    /**
+     * Notifies the owning hospital that the procedure changed.
+     */
+    private void changed() {
+        if (hospital != null) {
+            // Let the hospital notify its health service
+            hospital.procedureChanged(this); 
+        }
     }
 
     @Override
@@ -638,22 +1512,184 @@ class Procedure implements Serializable {
         // String representation of the procedure
         return "ID: " + id + ", Name: " + name + ", Description: "
                 + description + ", Elective: " + isElective
-                + ", Cost: $" + cost;
+                + ", Cost: $" + getCost();
+    }
+
+    /**
+     * Writes the procedure with the cost in dollars, keeping the
+     * serialized form of earlier versions.
+     * 
+     * @param out the stream to write the procedure to
+     * @throws IOException if the stream cannot be written
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        cost = getCost();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * Reads the procedure and converts the saved cost to cents.
+     * 
+     * @param in the stream to read the procedure from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if a serialized class is missing
+     */
+    @Serial
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        costCents = Money.cents(cost);
     }
 }
 
 /**
  * The HealthService class manages medical facilities and patients.
  * It provides methods to add, remove, and display facilities and patients.
+ * Patients and facilities are additionally indexed by their primary
+ * keys so that lookups do not have to scan the lists.
+ * <p>
+ * The health service can be read and changed from several threads.
+ * Patients and facilities are guarded by separate locks, so changing
+ * one never waits for the other, and each hospital guards its own
+ * procedures. Lookups by ID or name need no lock,
+ * and the lists returned by {@link #getPatients()} and
+ * {@link #getFacilities()} read optimistically, taking a read lock
+ * only when a change got in the way. Listeners are notified after the
+ * lock is released, on the thread that made the change.
  */
 class HealthService implements Serializable {
     @Serial
     // Unique identifier for serialization
     private static final long serialVersionUID = 1L;
+    @Serial
+    // Serialized fields, the lists are written as plain lists
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("facilities", List.class),
+        new ObjectStreamField("patients", List.class),
+        new ObjectStreamField("facilityIds", IdAllocator.class),
+        new ObjectStreamField("patientIds", IdAllocator.class)
+    };
     // List of facilities managed by the health service
-    private final List<MedicalFacility> facilities = new ArrayList<>();
+    private transient IdList<MedicalFacility> facilities =
+        new IdList<>(MedicalFacility::getId);
     // List of patients managed by the health service
-    private final List<Patient> patients = new ArrayList<>();
+    private transient IdList<Patient> patients =
+        new IdList<>(Patient::getId);
+    // Allocator for stable facility IDs
+    private IdAllocator facilityIds = new IdAllocator();
+    // Allocator for stable patient IDs
+    private IdAllocator patientIds = new IdAllocator();
+    // Index of patients by ID, rebuilt after deserialization
+    private transient Map<Integer, Patient> patientIndex =
+        new ConcurrentHashMap<>();
+    // Index of facilities by ID, rebuilt after deserialization
+    private transient Map<Integer, MedicalFacility> facilityIndex =
+        new ConcurrentHashMap<>();
+    // Index of facilities by name, first facility with a name wins
+    private transient Map<String, MedicalFacility> facilityNameIndex =
+        new ConcurrentHashMap<>();
+    // Index of hospitals by name, first hospital with a name wins
+    private transient Map<String, Hospital> hospitalNameIndex =
+        new ConcurrentHashMap<>();
+    // Listeners notified about changes
+    private transient List<HealthServiceListener> listeners =
+        new CopyOnWriteArrayList<>();
+    // Lock guarding the patients, their index and allocator
+    private transient StampedLock patientLock = new StampedLock();
+    // Lock guarding the facilities, their indexes and allocator
+    private transient StampedLock facilityLock = new StampedLock();
+    // Read-only view of the patients handed out to callers
+    private transient List<Patient> patientView =
+        new GuardedView<>(patients, patientLock);
+    // Read-only view of the facilities handed out to callers
+    private transient List<MedicalFacility> facilityView =
+        new GuardedView<>(facilities, facilityLock);
+
+    /**
+     * The GuardedView class is a read-only view of a list guarded by
+     * a StampedLock. Single reads are made optimistically and are
+     * repeated under the read lock only if a writer got in between,
+     * so readers do not block each other or writers. Iterating the
+     * view while it changes may skip or repeat elements; copies made
+     * with toArray are consistent.
+     *
+     * @param <T> the type of the elements
+     */
+    static final class GuardedView<T> extends AbstractList<T>
+            implements RandomAccess {
+        // List the view reads from
+        private final List<T> list;
+        // Lock guarding the list
+        private final StampedLock lock;
+
+        /**
+         * Constructs a GuardedView of a list.
+         */
+        GuardedView(List<T> list, StampedLock lock) {
+            this.list = list;
+            this.lock = lock;
+        }
+
+        @Override
+        public T get(int index) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    T element = list.get(index);
+                    if (lock.validate(stamp)) {
+                        return element;
+                    }
+                } catch (IndexOutOfBoundsException e) {
+                    if (lock.validate(stamp)) {
+                        throw e;
+                    }
+                    // The list shrank meanwhile, read again under the lock
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return list.get(index);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public int size() {
+            long stamp = lock.tryOptimisticRead();
+            int size = list.size();
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    size = list.size();
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            long stamp = lock.readLock();
+            try {
+                return list.toArray();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public <A> A[] toArray(A[] array) {
+            long stamp = lock.readLock();
+            try {
+                return list.toArray(array);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
 
     /**
      * Constructs a HealthService with the specified name.
@@ -663,16 +1699,41 @@ class HealthService implements Serializable {
 
     }
 
+    /**
+     * Constructs an empty HealthService whose patient index is sized
+     * for the given number of patients, so reading back a snapshot
+     * does not grow it one resize at a time.
+     *
+     * @param expectedPatients the number of patients expected
+     */
+    HealthService(int expectedPatients) {
+        // Replace the default index with one sized for the patients
+        patientIndex = new ConcurrentHashMap<>(expectedPatients);
+    }
+
     /**
      * Adds a medical facility to the health service.
      * 
      * @param facility the facility to add
      */
     public void addFacility(MedicalFacility facility) {
-        // Add the facility to the list
-        facilities.add(facility); 
-        // Reassign IDs after adding
-        reassignFacilityIds(); 
+        long stamp = facilityLock.writeLock();
+        try {
+            // Give the facility a stable ID
+            facility.setId(facilityIds.allocate()); 
+            // Add the facility to the list
+            facilities.add(facility); 
+            // Index the facility by ID and name
+            facilityIndex.put(facility.getId(), facility);
+            indexFacilityName(facility);
+            // Link the facility to this health service
+            facility.attach(this); 
+        } finally {
+            facilityLock.unlockWrite(stamp);
+        }
+        for (HealthServiceListener listener : listeners) {
+            listener.facilityAdded(facility);
+        }
     }
 
     /**
@@ -681,78 +1742,653 @@ class HealthService implements Serializable {
      * @param patient the patient to add
      */
     public void addPatient(Patient patient) {
-        // Add the patient to the list
-        patients.add(patient); 
-        // Reassign IDs after adding
-        reassignPatientIds(); 
+        long stamp = patientLock.writeLock();
+        try {
+            // Give the patient a stable ID
+            patient.setId(patientIds.allocate()); 
+            // Add the patient to the list
+            patients.add(patient); 
+            // Index the patient by ID
+            patientIndex.put(patient.getId(), patient);
+            // Link the patient to this health service
+            patient.attach(this); 
+        } finally {
+            patientLock.unlockWrite(stamp);
+        }
+        for (HealthServiceListener listener : listeners) {
+            listener.patientAdded(patient);
+        }
+    }
+
+    /**
+     * Adds many medical facilities at once. The facilities get
+     * consecutive new IDs under a single lock, and listeners are told
+     * about all of them with one event.
+     * 
+     * @param batch the facilities to add, in the order to number them
+     */
+    public void addFacilities(List<? extends MedicalFacility> batch) {
+        List<MedicalFacility> added = List.copyOf(batch);
+        long stamp = facilityLock.writeLock();
+        try {
+            for (MedicalFacility facility : added) {
+                // Give the facility a stable ID
+                facility.setId(facilityIds.allocate()); 
+                // Index the facility by ID and name
+                facilityIndex.put(facility.getId(), facility);
+                indexFacilityName(facility);
+                // Link the facility to this health service
+                facility.attach(this); 
+            }
+            // Append the whole batch in one step
+            facilities.addAll(added); 
+        } finally {
+            facilityLock.unlockWrite(stamp);
+        }
+        for (HealthServiceListener listener : listeners) {
+            listener.facilitiesAdded(added);
+        }
+    }
+
+    /**
+     * Adds many patients at once. The patients get consecutive new
+     * IDs under a single lock, and listeners are told about all of
+     * them with one event.
+     * 
+     * @param batch the patients to add, in the order to number them
+     */
+    public void addPatients(List<Patient> batch) {
+        List<Patient> added = List.copyOf(batch);
+        long stamp = patientLock.writeLock();
+        try {
+            for (Patient patient : added) {
+                // Give the patient a stable ID
+                patient.setId(patientIds.allocate()); 
+                // Index the patient by ID
+                patientIndex.put(patient.getId(), patient);
+                // Link the patient to this health service
+                patient.attach(this); 
+            }
+            // Append the whole batch in one step
+            patients.addAll(added); 
+        } finally {
+            patientLock.unlockWrite(stamp);
+        }
+        for (HealthServiceListener listener : listeners) {
+            listener.patientsAdded(added);
+        }
     }
 
     /**
      * Removes a medical facility from the health service by its ID.
+     * The IDs of the remaining facilities are not changed.
      * 
      * @param id the ID of the facility to remove
      */
     public void removeFacility(int id) {
-        // Remove the facility if the ID matches
-        facilities.removeIf(f -> f.getId() == id); 
-        // Reassign IDs after removal
-        reassignFacilityIds(); 
+        MedicalFacility facility;
+        long stamp = facilityLock.writeLock();
+        try {
+            // Remove the facility from the ID index
+            facility = facilityIndex.remove(id);
+            if (facility == null) {
+                return;
+            }
+            // Leave a tombstone in the ID-ordered list
+            facilities.removeId(id);
+            unindexFacilityName(facility);
+            // Unlink the facility from this health service
+            facility.attach(null); 
+        } finally {
+            facilityLock.unlockWrite(stamp);
+        }
+        for (HealthServiceListener listener : listeners) {
+            listener.facilityRemoved(facility);
+        }
     }
 
     /**
      * Removes a patient from the health service by their ID.
+     * The IDs of the remaining patients are not changed.
      * 
      * @param id the ID of the patient to remove
      */
     public void removePatient(int id) {
-        // Remove the patient if the ID matches
-        patients.removeIf(p -> p.getId() == id); 
-        // Reassign IDs after removal
-        reassignPatientIds(); 
+        Patient patient;
+        long stamp = patientLock.writeLock();
+        try {
+            // Remove the patient from the ID index
+            patient = patientIndex.remove(id);
+            if (patient == null) {
+                return;
+            }
+            // Leave a tombstone in the ID-ordered list
+            patients.removeId(id);
+            // Unlink the patient from this health service
+            patient.attach(null); 
+        } finally {
+            patientLock.unlockWrite(stamp);
+        }
+        for (HealthServiceListener listener : listeners) {
+            listener.patientRemoved(patient);
+        }
+    }
+
+    /**
+     * Adds a facility that already has an ID, for example one read
+     * back from a snapshot. The ID is kept and never allocated again.
+     * Facilities must be restored in increasing ID order.
+     * 
+     * @param facility the facility to restore
+     */
+    void restoreFacility(MedicalFacility facility) {
+        long stamp = facilityLock.writeLock();
+        try {
+            // Keep the saved ID out of future allocations
+            facilityIds.reserve(facility.getId()); 
+            // Add the facility to the list
+            facilities.add(facility); 
+            // Index the facility by ID and name
+            facilityIndex.put(facility.getId(), facility);
+            indexFacilityName(facility);
+            // Link the facility to this health service
+            facility.attach(this); 
+        } finally {
+            facilityLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds a patient that already has an ID, for example one read
+     * back from a snapshot. The ID is kept and never allocated again.
+     * Patients must be restored in increasing ID order.
+     * 
+     * @param patient the patient to restore
+     */
+    void restorePatient(Patient patient) {
+        long stamp = patientLock.writeLock();
+        try {
+            // Keep the saved ID out of future allocations
+            patientIds.reserve(patient.getId()); 
+            // Add the patient to the list
+            patients.add(patient); 
+            // Index the patient by ID
+            patientIndex.put(patient.getId(), patient);
+            // Link the patient to this health service
+            patient.attach(this); 
+        } finally {
+            patientLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the allocator for facility IDs.
+     * 
+     * @return the facility ID allocator
+     */
+    IdAllocator facilityIds() {
+        // Return the facility ID allocator
+        return facilityIds; 
+    }
+
+    /**
+     * Returns the allocator for patient IDs.
+     * 
+     * @return the patient ID allocator
+     */
+    IdAllocator patientIds() {
+        // Return the patient ID allocator
+        return patientIds; 
+    }
+
+    /**
+     * Renames a facility and keeps the name indexes in sync.
+     * Facilities should be renamed through this method rather than
+     * through {@link MedicalFacility#setName(String)} directly.
+     * 
+     * @param facility the facility to rename
+     * @param newName the new facility name
+     */
+    public void renameFacility(MedicalFacility facility, String newName) {
+        long stamp = facilityLock.writeLock();
+        try {
+            // Drop the old name from the indexes
+            unindexFacilityName(facility); 
+            // Apply the new name, listeners are told below
+            facility.assignName(newName); 
+            // Index the facility under its new name
+            indexFacilityName(facility); 
+        } finally {
+            facilityLock.unlockWrite(stamp);
+        }
+        // Report the change once the lock is released, as listeners
+        // may read the facilities
+        facility.changed(); 
     }
 
     /**
      * Reassigns IDs to the facilities in the health service.
-     * This ensures that facility IDs are sequential after
-     * additions or removals.
+     * This compacts facility IDs to 1..n. IDs are otherwise stable,
+     * so this is only needed on explicit request. Renumbering is not
+     * reported to listeners, so a full snapshot should be saved
+     * afterwards.
      */
     public void reassignFacilityIds() {
-        for (int i = 0; i < facilities.size(); i++) {
-            // Set new IDs starting from 1
-            facilities.get(i).setId(i + 1); 
+        long stamp = facilityLock.writeLock();
+        try {
+            // Drop the tombstones, which keep their old IDs
+            facilities.compact();
+            // Rebuild the ID and name indexes alongside the new IDs
+            facilityIndex.clear();
+            facilityNameIndex.clear();
+            hospitalNameIndex.clear();
+            for (int i = 0; i < facilities.size(); i++) {
+                MedicalFacility facility = facilities.get(i);
+                // Set new IDs starting from 1
+                facility.setId(i + 1); 
+                facilityIndex.put(facility.getId(), facility);
+                indexFacilityName(facility);
+            }
+            // Continue allocating after the compacted IDs
+            facilityIds.reset(facilities.size() + 1); 
+        } finally {
+            facilityLock.unlockWrite(stamp);
         }
     }
 
     /**
      * Reassigns IDs to the patients in the health service.
-     * This ensures that patient IDs are sequential after
-     * additions or removals.
+     * This compacts patient IDs to 1..n. IDs are otherwise stable,
+     * so this is only needed on explicit request. Renumbering is not
+     * reported to listeners, so a full snapshot should be saved
+     * afterwards.
      */
     public void reassignPatientIds() {
-        for (int i = 0; i < patients.size(); i++) {
-            // Set new IDs starting from 1
-            patients.get(i).setId(i + 1); 
+        long stamp = patientLock.writeLock();
+        try {
+            // Drop the tombstones, which keep their old IDs
+            patients.compact();
+            // Rebuild the ID index alongside the new IDs
+            patientIndex.clear();
+            for (int i = 0; i < patients.size(); i++) {
+                Patient patient = patients.get(i);
+                // Set new IDs starting from 1
+                patient.setId(i + 1); 
+                patientIndex.put(patient.getId(), patient);
+            }
+            // Continue allocating after the compacted IDs
+            patientIds.reset(patients.size() + 1); 
+        } finally {
+            patientLock.unlockWrite(stamp);
         }
     }
 
+    /**
+     * Finds a patient by ID in constant time.
+     * 
+     * @param id the patient ID
+     * @return the patient, or null if no patient has the ID
+     */
+    public Patient findPatient(int id) {
+        // Look the patient up in the ID index
+        return patientIndex.get(id); 
+    }
+
+    /**
+     * Finds a facility by ID in constant time.
+     * 
+     * @param id the facility ID
+     * @return the facility, or null if no facility has the ID
+     */
+    public MedicalFacility findFacility(int id) {
+        // Look the facility up in the ID index
+        return facilityIndex.get(id); 
+    }
+
+    /**
+     * Finds the first facility registered under the given name.
+     * 
+     * @param name the facility name
+     * @return the facility, or null if no facility has the name
+     */
+    public MedicalFacility findFacilityByName(String name) {
+        // Look the facility up in the name index
+        return name == null ? null : facilityNameIndex.get(name); 
+    }
+
+    /**
+     * Finds the first hospital registered under the given name.
+     * 
+     * @param name the hospital name
+     * @return the hospital, or null if no hospital has the name
+     */
+    public Hospital findHospitalByName(String name) {
+        // Look the hospital up in the hospital name index
+        return name == null ? null : hospitalNameIndex.get(name); 
+    }
+
     /**
      * Returns the list of facilities managed by the health service.
+     * The list is a read-only view that reflects later changes.
      * 
-     * @return the list of facilities
+     * @return the list of facilities, ordered by ID
      */
     public List<MedicalFacility> getFacilities() {
-        // Return the list of facilities
-        return facilities; 
+        // Return the view of the facilities
+        return facilityView; 
     }
 
     /**
      * Returns the list of patients managed by the health service.
+     * The list is a read-only view that reflects later changes.
      * 
-     * @return the list of patients
+     * @return the list of patients, ordered by ID
      */
     public List<Patient> getPatients() {
-        // Return the list of patients
-        return patients; 
+        // Return the view of the patients
+        return patientView; 
+    }
+
+    /**
+     * Returns the facilities as they are at this moment. The copy
+     * can be iterated while the health service keeps changing.
+     * 
+     * @return an unmodifiable copy of the facilities, ordered by ID
+     */
+    public List<MedicalFacility> getFacilitySnapshot() {
+        long stamp = facilityLock.readLock();
+        try {
+            return List.copyOf(facilities);
+        } finally {
+            facilityLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the patients as they are at this moment. The copy can
+     * be iterated while the health service keeps changing.
+     * 
+     * @return an unmodifiable copy of the patients, ordered by ID
+     */
+    public List<Patient> getPatientSnapshot() {
+        long stamp = patientLock.readLock();
+        try {
+            return List.copyOf(patients);
+        } finally {
+            patientLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs a batch of visits and procedures in parallel, partitioned
+     * by patient so that the requests of each patient run in the
+     * order given. Facilities and procedures must not be added or
+     * removed until it returns.
+     * 
+     * @param requests the visits and procedures to run
+     * @return the results and totals of the batch
+     */
+    public BatchProcessor.Summary processBatch(
+        Stream<? extends BatchProcessor.Request> requests
+    ) {
+        // Run the requests on the common fork/join pool
+        return new BatchProcessor(this).process(requests); 
+    }
+
+    /**
+     * Runs a batch of visits and procedures in parallel like
+     * {@link #processBatch(Stream)}, drawing admissions from streams
+     * split off a seed so that the same batch on the same data makes
+     * the same decisions.
+     * 
+     * @param requests the visits and procedures to run
+     * @param seed the seed of the admission decisions
+     * @return the results and totals of the batch
+     */
+    public BatchProcessor.Summary processBatch(
+        Stream<? extends BatchProcessor.Request> requests,
+        long seed
+    ) {
+        // Run the requests with reproducible admissions
+        return new BatchProcessor(this).process(requests, seed); 
+    }
+
+    /**
+     * Returns a deep copy of the health service that shares no
+     * mutable state with it and has no listeners. The copy can be
+     * saved on a background thread while this one keeps changing.
+     * 
+     * @return the detached copy
+     */
+    HealthService copy() {
+        HealthService copy = new HealthService();
+        long stamp = facilityLock.readLock();
+        try {
+            // Continue allocating IDs where this service does
+            copy.facilityIds.reset(facilityIds.peek()); 
+            for (MedicalFacility facility : facilities) {
+                // Copy each facility with its ID
+                copy.restoreFacility(facility.copy()); 
+            }
+        } finally {
+            facilityLock.unlockRead(stamp);
+        }
+        stamp = patientLock.readLock();
+        try {
+            copy.patientIds.reset(patientIds.peek()); 
+            for (Patient patient : patients) {
+                // Copy each patient, pointing to the copied facilities
+                copy.restorePatient(patient.copy(copy)); 
+            }
+        } finally {
+            patientLock.unlockRead(stamp);
+        }
+        return copy;
+    }
+
+    /**
+     * Registers a listener to be notified about changes.
+     * 
+     * @param listener the listener to add
+     */
+    public void addListener(HealthServiceListener listener) {
+        // Add the listener to the list
+        listeners.add(listener); 
+    }
+
+    /**
+     * Unregisters a listener.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removeListener(HealthServiceListener listener) {
+        // Remove the listener from the list
+        listeners.remove(listener); 
+    }
+
+    /**
+     * Notifies listeners that a patient changed.
+     * 
+     * @param patient the changed patient
+     */
+    void firePatientChanged(Patient patient) {
+        for (HealthServiceListener listener : listeners) {
+            listener.patientChanged(patient);
+        }
+    }
+
+    /**
+     * Notifies listeners that a facility changed.
+     * 
+     * @param facility the changed facility
+     */
+    void fireFacilityChanged(MedicalFacility facility) {
+        for (HealthServiceListener listener : listeners) {
+            listener.facilityChanged(facility);
+        }
+    }
+
+    /**
+     * Notifies listeners that a procedure was added to a hospital.
+     * 
+     * @param hospital the hospital offering the procedure
+     * @param procedure the added procedure
+     */
+    void fireProcedureAdded(Hospital hospital, Procedure procedure) {
+        for (HealthServiceListener listener : listeners) {
+            listener.procedureAdded(hospital, procedure);
+        }
+    }
+
+    /**
+     * Notifies listeners that a procedure was removed from a hospital.
+     * 
+     * @param hospital the hospital that offered the procedure
+     * @param procedure the removed procedure
+     */
+    void fireProcedureRemoved(Hospital hospital, Procedure procedure) {
+        for (HealthServiceListener listener : listeners) {
+            listener.procedureRemoved(hospital, procedure);
+        }
+    }
+
+    /**
+     * Notifies listeners that a procedure changed.
+     * 
+     * @param hospital the hospital offering the procedure
+     * @param procedure the changed procedure
+     */
+    void fireProcedureChanged(Hospital hospital, Procedure procedure) {
+        for (HealthServiceListener listener : listeners) {
+            listener.procedureChanged(hospital, procedure);
+        }
+    }
+
+    /**
+     * Adds a facility to the name indexes unless another facility
+     * already claimed its name.
+     * 
+     * @param facility the facility to index
+     */
+    private void indexFacilityName(MedicalFacility facility) {
+        if (facility.getName() == null) {
+            // Facilities without a name cannot be found by name
+            return;
+        }
+        facilityNameIndex.putIfAbsent(facility.getName(), facility);
+        if (facility instanceof Hospital hospital) {
+            hospitalNameIndex.putIfAbsent(hospital.getName(), hospital);
+        }
+    }
+
+    /**
+     * Removes a facility from the name indexes. If another facility
+     * shares the name it takes over the index entry, preserving the
+     * first-match semantics of a list scan.
+     * 
+     * @param facility the facility to remove from the indexes
+     */
+    private void unindexFacilityName(MedicalFacility facility) {
+        String name = facility.getName();
+        if (name == null) {
+            return;
+        }
+        if (facilityNameIndex.remove(name, facility)) {
+            // Hand the name over to the next facility that uses it
+            for (MedicalFacility other : facilities) {
+                if (other != facility && other.getName().equals(name)) {
+                    facilityNameIndex.put(name, other);
+                    break;
+                }
+            }
+        }
+        if (hospitalNameIndex.remove(name, facility)) {
+            // Hand the name over to the next hospital that uses it
+            for (MedicalFacility other : facilities) {
+                if (other != facility && other instanceof Hospital hospital
+                    && hospital.getName().equals(name)) {
+                    hospitalNameIndex.put(name, hospital);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores the lists, the transient indexes and links after
+     * deserialization, and the ID allocators for data saved
+     * before IDs became stable.
+     * 
+     * @param in the stream to read the health service from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if a serialized class is missing
+     */
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        facilities = new IdList<>(MedicalFacility::getId);
+        facilities.addAll(
+            (List<MedicalFacility>) fields.get("facilities", List.of())
+        );
+        patients = new IdList<>(Patient::getId);
+        patients.addAll((List<Patient>) fields.get("patients", List.of()));
+        facilityIds = (IdAllocator) fields.get("facilityIds", null);
+        patientIds = (IdAllocator) fields.get("patientIds", null);
+        patientLock = new StampedLock();
+        facilityLock = new StampedLock();
+        patientView = new GuardedView<>(patients, patientLock);
+        facilityView = new GuardedView<>(facilities, facilityLock);
+        if (facilityIds == null) {
+            // Continue after the highest saved facility ID
+            facilityIds = IdAllocator.after(
+                facilities, MedicalFacility::getId
+            );
+        }
+        if (patientIds == null) {
+            // Continue after the highest saved patient ID
+            patientIds = IdAllocator.after(patients, Patient::getId);
+        }
+        patientIndex = new ConcurrentHashMap<>();
+        facilityIndex = new ConcurrentHashMap<>();
+        facilityNameIndex = new ConcurrentHashMap<>();
+        hospitalNameIndex = new ConcurrentHashMap<>();
+        listeners = new CopyOnWriteArrayList<>();
+        for (MedicalFacility facility : facilities) {
+            facilityIndex.put(facility.getId(), facility);
+            indexFacilityName(facility);
+            facility.attach(this);
+        }
+        for (Patient patient : patients) {
+            patientIndex.put(patient.getId(), patient);
+            patient.attach(this);
+        }
+    }
+
+    /**
+     * Writes the health service while holding both read locks, so
+     * the lists are not changed while they are serialized. The lists
+     * are written as array lists, like earlier versions did.
+     * 
+     * @param out the stream to write the health service to
+     * @throws IOException if the stream cannot be written
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        long facilityStamp = facilityLock.readLock();
+        long patientStamp = patientLock.readLock();
+        try {
+            ObjectOutputStream.PutField fields = out.putFields();
+            fields.put("facilities", new ArrayList<>(facilities));
+            fields.put("patients", new ArrayList<>(patients));
+            fields.put("facilityIds", facilityIds);
+            fields.put("patientIds", patientIds);
+            out.writeFields();
+        } finally {
+            patientLock.unlockRead(patientStamp);
+            facilityLock.unlockRead(facilityStamp);
+        }
     }
 
 }
\ No newline at end of file
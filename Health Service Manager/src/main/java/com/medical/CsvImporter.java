@@ -0,0 +1,762 @@
+/**
+ * @author : Yuuji
+ * CsvImporter.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for channels, buffers and file handling
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * The CsvImporter class loads patients, hospitals, clinics or
+ * procedures in bulk from a CSV file, such as when a new region is
+ * onboarded. The header row tells what the file holds:
+ * <ul>
+ * <li>{@code name,private,balance} for patients</li>
+ * <li>{@code name,probAdmit} for hospitals</li>
+ * <li>{@code name,consultationFee,gapPercent} for clinics</li>
+ * <li>{@code hospital,name,description,elective,cost} for procedures,
+ * offered by the existing hospital of that name</li>
+ * </ul>
+ * <p>
+ * The file is read through a {@link FileChannel} into a reusable
+ * buffer and rows are split into fields in place, so numbers and
+ * booleans are parsed straight from the bytes and only names and
+ * descriptions become strings. Fields may be quoted, with doubled
+ * quotes inside; money has at most two decimals and is kept exact in
+ * cents.
+ * <p>
+ * Invalid rows are counted and skipped with the reason for the first
+ * few, and the valid rows are added together at the end, so the
+ * health service gets a single batch of consecutive IDs and a file
+ * that cannot be read adds nothing.
+ */
+final class CsvImporter {
+    // Bytes read from the file at a time, grown for longer rows
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Rejected rows whose reason is kept for the summary
+    private static final int MAX_ERRORS = 20;
+    // Byte order mark some editors write at the start of UTF-8 files
+    private static final byte[] BOM = {
+        (byte) 0xEF, (byte) 0xBB, (byte) 0xBF
+    };
+
+    /**
+     * The kinds of file the importer reads, with their columns.
+     */
+    enum Kind {
+        PATIENTS("name", "private", "balance"),
+        HOSPITALS("name", "probAdmit"),
+        CLINICS("name", "consultationFee", "gapPercent"),
+        PROCEDURES("hospital", "name", "description", "elective", "cost");
+
+        // Columns of the header row, in order
+        private final List<String> columns;
+
+        /**
+         * Constructs a Kind with its header columns.
+         */
+        Kind(String... columns) {
+            this.columns = List.of(columns);
+        }
+
+        /**
+         * Returns the header columns of the kind.
+         *
+         * @return the column names, in order
+         */
+        List<String> columns() {
+            return columns;
+        }
+
+        /**
+         * Finds the kind whose columns a header row names, ignoring
+         * case.
+         */
+        private static Kind of(List<String> header) {
+            for (Kind kind : values()) {
+                if (kind.columns.size() == header.size()) {
+                    boolean matches = true;
+                    for (int i = 0; i < header.size() && matches; i++) {
+                        matches = kind.columns.get(i)
+                            .equalsIgnoreCase(header.get(i));
+                    }
+                    if (matches) {
+                        return kind;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * The outcome of an import.
+     *
+     * @param kind what the file held
+     * @param imported the number of rows added
+     * @param rejected the number of invalid rows skipped
+     * @param errors the reasons of the first rejected rows
+     */
+    record Summary(Kind kind, int imported, int rejected, List<String> errors) {
+        /**
+         * Returns a one-line description of the import.
+         *
+         * @return the description
+         */
+        String describe() {
+            return String.format(
+                "Imported %,d %s, rejected %,d rows",
+                imported, kind, rejected
+            );
+        }
+    }
+
+    /**
+     * A procedure read from the file with the hospital to offer it.
+     */
+    private record Offered(Hospital hospital, Procedure procedure) {
+    }
+
+    /**
+     * The Batch class holds the valid rows of a file that has been
+     * read, ready to be added to the health service in one step.
+     */
+    static final class Batch {
+        // What the file held
+        private final Kind kind;
+        // Patients read, if the file holds patients
+        private final List<Patient> patients = new ArrayList<>();
+        // Hospitals or clinics read, if the file holds facilities
+        private final List<MedicalFacility> facilities = new ArrayList<>();
+        // Procedures read, if the file holds procedures
+        private final List<Offered> procedures = new ArrayList<>();
+        // Reasons of the first rejected rows
+        private final List<String> errors = new ArrayList<>();
+        // Number of rejected rows
+        private int rejected;
+
+        /**
+         * Constructs an empty Batch of a kind.
+         */
+        private Batch(Kind kind) {
+            this.kind = kind;
+        }
+
+        /**
+         * Returns what the file held.
+         *
+         * @return the kind of rows
+         */
+        Kind kind() {
+            return kind;
+        }
+
+        /**
+         * Records a rejected row.
+         */
+        private void reject(int line, String reason) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("Line " + line + ": " + reason);
+            }
+        }
+
+        /**
+         * Adds the rows to a health service: patients and facilities
+         * as one batch each with consecutive new IDs, procedures to
+         * their hospitals. Procedures must be added on the thread
+         * that owns the hospitals' procedure lists.
+         *
+         * @param service the health service to add to
+         * @return the outcome of the import
+         */
+        Summary apply(HealthService service) {
+            switch (kind) {
+                case PATIENTS -> service.addPatients(patients);
+                case HOSPITALS, CLINICS -> service.addFacilities(facilities);
+                case PROCEDURES -> {
+                    for (Offered offered : procedures) {
+                        offered.hospital().addProcedure(offered.procedure());
+                    }
+                }
+            }
+            int imported = patients.size() + facilities.size()
+                + procedures.size();
+            return new Summary(
+                kind, imported, rejected, List.copyOf(errors)
+            );
+        }
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private CsvImporter() {
+    }
+
+    /**
+     * Reads a CSV file and adds its valid rows to a health service.
+     *
+     * @param service the health service to add to
+     * @param file the CSV file
+     * @param progress receives the percentage read, or null
+     * @return the outcome of the import
+     * @throws IOException if the file cannot be read or its header is
+     *         not recognised
+     */
+    static Summary importFile(
+        HealthService service,
+        Path file,
+        IntConsumer progress
+    ) throws IOException {
+        return read(service, file, progress).apply(service);
+    }
+
+    /**
+     * Reads and checks the rows of a CSV file without changing the
+     * health service, which is only consulted for existing facility
+     * names and for the hospitals procedures belong to.
+     *
+     * @param service the health service the rows are meant for
+     * @param file the CSV file
+     * @param progress receives the percentage read, or null
+     * @return the valid rows, to add with {@link Batch#apply}
+     * @throws IOException if the file cannot be read or its header is
+     *         not recognised
+     */
+    static Batch read(HealthService service, Path file, IntConsumer progress)
+            throws IOException {
+        try (Rows rows = new Rows(file, progress)) {
+            if (!rows.next()) {
+                throw new IOException("The file is empty");
+            }
+            List<String> header = new ArrayList<>();
+            for (int i = 0; i < rows.count; i++) {
+                header.add(rows.text(i));
+            }
+            rows.header = header;
+            Kind kind = Kind.of(header);
+            if (kind == null) {
+                throw new IOException(
+                    "Unrecognised header " + String.join(",", header)
+                        + "; expected the columns of patients, hospitals,"
+                        + " clinics or procedures"
+                );
+            }
+            Batch batch = new Batch(kind);
+            // Facility names taken so far, including those in the file
+            Set<String> names = new HashSet<>();
+            while (rows.next()) {
+                if (rows.count != kind.columns().size()) {
+                    batch.reject(rows.line, "Expected "
+                        + kind.columns().size() + " fields but found "
+                        + rows.count);
+                    continue;
+                }
+                try {
+                    switch (kind) {
+                        case PATIENTS -> batch.patients.add(patient(rows));
+                        case HOSPITALS, CLINICS -> batch.facilities.add(
+                            facility(kind, rows, service, names)
+                        );
+                        case PROCEDURES -> batch.procedures.add(
+                            procedure(rows, service)
+                        );
+                    }
+                } catch (IllegalArgumentException e) {
+                    batch.reject(rows.line, e.getMessage());
+                }
+            }
+            if (progress != null) {
+                progress.accept(100);
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * Creates the patient of a row.
+     */
+    private static Patient patient(Rows rows) {
+        String name = name(rows, 0);
+        boolean isPrivate = rows.bool(1, "private");
+        long balanceCents = rows.isEmpty(2) ? 0 : rows.fixed(2, 2, "balance");
+        if (balanceCents < 0) {
+            throw new IllegalArgumentException("Negative balance");
+        }
+        Patient patient = new Patient(name, isPrivate);
+        patient.setBalanceCents(balanceCents);
+        return patient;
+    }
+
+    /**
+     * Creates the hospital or clinic of a row, rejecting names that
+     * are already taken.
+     */
+    private static MedicalFacility facility(
+        Kind kind,
+        Rows rows,
+        HealthService service,
+        Set<String> names
+    ) {
+        String name = name(rows, 0);
+        if (service.findFacilityByName(name) != null || !names.add(name)) {
+            throw new IllegalArgumentException(
+                "A facility named " + name + " already exists"
+            );
+        }
+        if (kind == Kind.HOSPITALS) {
+            // Admission probability to a hundredth of a percent
+            long probAdmit = rows.fixed(1, 4, "probAdmit");
+            if (probAdmit < 0 || probAdmit > 10_000) {
+                throw new IllegalArgumentException(
+                    "probAdmit must be between 0 and 1"
+                );
+            }
+            return new Hospital(name, probAdmit / 10_000.0);
+        }
+        long feeCents = rows.fixed(1, 2, "consultationFee");
+        long gapBasisPoints = rows.fixed(2, 2, "gapPercent");
+        if (feeCents < 0) {
+            throw new IllegalArgumentException("Negative consultationFee");
+        }
+        // A gap of 100 percent is 10,000 basis points
+        if (gapBasisPoints < 0 || gapBasisPoints > 10_000) {
+            throw new IllegalArgumentException(
+                "gapPercent must be between 0 and 100"
+            );
+        }
+        Clinic clinic = new Clinic(name, 0, 0);
+        clinic.setConsultationFeeCents(feeCents);
+        clinic.setGapBasisPoints((int) gapBasisPoints);
+        return clinic;
+    }
+
+    /**
+     * Creates the procedure of a row for its existing hospital.
+     */
+    private static Offered procedure(Rows rows, HealthService service) {
+        String hospitalName = name(rows, 0);
+        Hospital hospital = service.findHospitalByName(hospitalName);
+        if (hospital == null) {
+            throw new IllegalArgumentException(
+                "No hospital named " + hospitalName
+            );
+        }
+        String name = name(rows, 1);
+        String description = rows.text(2);
+        boolean elective = rows.bool(3, "elective");
+        long costCents = rows.fixed(4, 2, "cost");
+        if (costCents < 0) {
+            throw new IllegalArgumentException("Negative cost");
+        }
+        Procedure procedure = new Procedure(name, description, elective, 0);
+        procedure.setCostCents(costCents);
+        return new Offered(hospital, procedure);
+    }
+
+    /**
+     * Returns a text field that must not be blank.
+     */
+    private static String name(Rows rows, int field) {
+        String value = rows.text(field);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(
+                "Missing " + rows.column(field)
+            );
+        }
+        return value;
+    }
+
+    /**
+     * The Rows class splits a CSV file into rows of fields. The
+     * fields of the current row are offsets into the read buffer,
+     * valid until the next call to {@link #next}.
+     */
+    private static final class Rows implements Closeable {
+        // Channel of the file being read
+        private final FileChannel channel;
+        // Size of the file in bytes
+        private final long size;
+        // Receives the percentage read, or null
+        private final IntConsumer progress;
+        // Bytes read from the file and not yet consumed
+        private byte[] bytes = new byte[BUFFER_SIZE];
+        // Position of the next row in the buffer
+        private int position;
+        // End of the bytes read into the buffer
+        private int limit;
+        // Whether the whole file has been read
+        private boolean eof;
+        // File offset of the start of the buffer
+        private long offset;
+        // Last percentage reported
+        private int reported = -1;
+        // Line number of the next row
+        private int nextLine = 1;
+        // Whether the bytes before the first row have been checked
+        private boolean started;
+        // Header of the file, for naming columns in errors
+        List<String> header;
+
+        // Line number of the current row
+        int line;
+        // Number of fields in the current row
+        int count;
+        // Whether the current row is a blank line
+        private boolean blank;
+        // Start and end of each field in the buffer
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        // Whether each field holds doubled quotes to undo
+        private boolean[] escaped = new boolean[8];
+
+        /**
+         * Opens a file for reading rows.
+         */
+        Rows(Path file, IntConsumer progress) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.progress = progress;
+        }
+
+        /**
+         * Moves to the next row that is not blank.
+         *
+         * @return false at the end of the file
+         */
+        boolean next() throws IOException {
+            while (true) {
+                int end = split();
+                if (end < 0) {
+                    if (eof) {
+                        return false;
+                    }
+                    fill();
+                    continue;
+                }
+                position = end;
+                if (!blank) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Splits the row at the current position into fields.
+         *
+         * @return the position after the row, or -1 if the buffer
+         *         does not hold the whole row yet
+         */
+        private int split() {
+            if (position >= limit) {
+                return -1;
+            }
+            int i = position;
+            int lines = 0;
+            count = 0;
+            blank = true;
+            while (true) {
+                boolean quoted = i < limit && bytes[i] == '"';
+                boolean doubled = false;
+                int start;
+                int end;
+                if (quoted) {
+                    start = ++i;
+                    while (true) {
+                        if (i >= limit) {
+                            return -1;
+                        }
+                        byte b = bytes[i];
+                        if (b == '"') {
+                            if (i + 1 >= limit && !eof) {
+                                // The next byte decides what this is
+                                return -1;
+                            }
+                            if (i + 1 < limit && bytes[i + 1] == '"') {
+                                doubled = true;
+                                i += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        if (b == '\n') {
+                            lines++;
+                        }
+                        i++;
+                    }
+                    end = i++;
+                    // Ignore anything between the closing quote and
+                    // the separator
+                    while (i < limit && bytes[i] != ','
+                            && bytes[i] != '\n' && bytes[i] != '\r') {
+                        i++;
+                    }
+                } else {
+                    start = i;
+                    while (i < limit && bytes[i] != ','
+                            && bytes[i] != '\n' && bytes[i] != '\r') {
+                        i++;
+                    }
+                    end = i;
+                }
+                if (i >= limit && !eof) {
+                    return -1;
+                }
+                add(start, end, doubled);
+                blank &= !quoted && start == end;
+                if (i >= limit) {
+                    // The last row has no line break
+                    break;
+                }
+                byte separator = bytes[i++];
+                if (separator == ',') {
+                    continue;
+                }
+                if (separator == '\r') {
+                    if (i >= limit && !eof) {
+                        return -1;
+                    }
+                    if (i < limit && bytes[i] == '\n') {
+                        i++;
+                    }
+                }
+                break;
+            }
+            line = nextLine;
+            nextLine += lines + 1;
+            return i;
+        }
+
+        /**
+         * Records a field of the current row.
+         */
+        private void add(int start, int end, boolean doubled) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+                escaped = Arrays.copyOf(escaped, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            escaped[count] = doubled;
+            count++;
+        }
+
+        /**
+         * Moves the unread bytes to the start of the buffer and reads
+         * more of the file after them, growing the buffer if a single
+         * row fills it.
+         */
+        private void fill() throws IOException {
+            int remaining = limit - position;
+            if (position == 0 && limit == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            } else {
+                System.arraycopy(bytes, position, bytes, 0, remaining);
+                offset += position;
+                position = 0;
+                limit = remaining;
+            }
+            int read = channel.read(
+                ByteBuffer.wrap(bytes, limit, bytes.length - limit)
+            );
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+            if (!started && (limit >= BOM.length || eof)) {
+                started = true;
+                if (Arrays.equals(bytes, 0, BOM.length, BOM, 0, BOM.length)) {
+                    // Skip the byte order mark
+                    position = BOM.length;
+                }
+            }
+            if (progress != null && size > 0) {
+                int percent = (int) ((offset + limit) * 100 / size);
+                if (percent != reported && percent < 100) {
+                    reported = percent;
+                    progress.accept(percent);
+                }
+            }
+        }
+
+        /**
+         * Returns the name of a column, for error messages.
+         */
+        String column(int field) {
+            return header != null && field < header.size()
+                ? header.get(field)
+                : "field " + (field + 1);
+        }
+
+        /**
+         * Returns whether a field is empty or only spaces.
+         */
+        boolean isEmpty(int field) {
+            for (int i = starts[field]; i < ends[field]; i++) {
+                if (bytes[i] != ' ' && bytes[i] != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns a field as text without surrounding spaces.
+         */
+        String text(int field) {
+            String value = new String(
+                bytes,
+                starts[field],
+                ends[field] - starts[field],
+                StandardCharsets.UTF_8
+            );
+            if (escaped[field]) {
+                value = value.replace("\"\"", "\"");
+            }
+            return value.strip();
+        }
+
+        /**
+         * Parses a boolean field: true, false, yes, no, 1 or 0 in any
+         * case.
+         */
+        boolean bool(int field, String name) {
+            int start = starts[field];
+            int end = ends[field];
+            // Ignore surrounding spaces
+            while (start < end && bytes[start] == ' ') {
+                start++;
+            }
+            while (end > start && bytes[end - 1] == ' ') {
+                end--;
+            }
+            if (matches(start, end, "true") || matches(start, end, "yes")
+                    || matches(start, end, "1")) {
+                return true;
+            }
+            if (matches(start, end, "false") || matches(start, end, "no")
+                    || matches(start, end, "0")) {
+                return false;
+            }
+            throw new IllegalArgumentException(
+                "Expected true or false for " + name
+            );
+        }
+
+        /**
+         * Returns whether the bytes spell a lowercase word in any
+         * case.
+         */
+        private boolean matches(int start, int end, String word) {
+            if (end - start != word.length()) {
+                return false;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                int b = bytes[start + i];
+                if (b >= 'A' && b <= 'Z') {
+                    b += 'a' - 'A';
+                }
+                if (b != word.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Parses a decimal field as a fixed-point number with a given
+         * number of decimals, such as dollars as cents with two.
+         * Fewer decimals are padded; more are rejected rather than
+         * rounded.
+         */
+        long fixed(int field, int decimals, String name) {
+            int i = starts[field];
+            int end = ends[field];
+            // Ignore surrounding spaces
+            while (i < end && bytes[i] == ' ') {
+                i++;
+            }
+            while (end > i && bytes[end - 1] == ' ') {
+                end--;
+            }
+            boolean negative = i < end && bytes[i] == '-';
+            if (negative) {
+                i++;
+            }
+            long value = 0;
+            int digits = 0;
+            int fraction = -1;
+            for (; i < end; i++) {
+                byte b = bytes[i];
+                if (b == '.' && fraction < 0) {
+                    fraction = 0;
+                } else if (b >= '0' && b <= '9') {
+                    if (digits == 18) {
+                        throw new IllegalArgumentException(
+                            "Number too large for " + name
+                        );
+                    }
+                    value = value * 10 + (b - '0');
+                    digits++;
+                    if (fraction >= 0 && ++fraction > decimals) {
+                        throw new IllegalArgumentException(
+                            "Too many decimals in " + name
+                        );
+                    }
+                } else {
+                    throw new IllegalArgumentException(
+                        "Expected a number for " + name
+                    );
+                }
+            }
+            if (digits == 0) {
+                throw new IllegalArgumentException(
+                    "Expected a number for " + name
+                );
+            }
+            try {
+                // Pad the missing decimals, which may overflow
+                for (int k = Math.max(fraction, 0); k < decimals; k++) {
+                    value = Math.multiplyExact(value, 10);
+                }
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException(
+                    "Number too large for " + name
+                );
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * Closes the file.
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -1,7 +1,7 @@
 /**
  * @author : Yuuji
  * DarkLightSwitchIcon.java
- * Latest Update: 12-25-2024
+ * Latest Update: 10-17-2026
  */
 
 package com.medical;
@@ -14,11 +14,9 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.geom.RoundRectangle2D;
-import java.awt.image.BufferedImage;
 
 import javax.swing.AbstractButton;
 import javax.swing.Icon;
-import javax.swing.ImageIcon;
 import javax.swing.JComponent;
 
 import com.formdev.flatlaf.ui.FlatUIUtils;
@@ -36,14 +34,10 @@ public class DarkLightSwitchIcon implements AnimatedIcon {
     private final int iconGap = 3;
 
     // The dark icon representation.
-    private final Icon darkIcon = resizeIcon(
-        new ImageIcon("src/main/resources/dark.png")
-    );
+    private final Icon darkIcon = IconService.icon("dark.png", 20);
 
     // The light icon representation.
-    private final Icon lightIcon = resizeIcon(
-        new ImageIcon("src/main/resources/light.png")
-    );
+    private final Icon lightIcon = IconService.icon("light.png", 20);
 
     // The color used for the dark theme.
     private final Color darkColor = new Color(80, 80, 80);
@@ -199,31 +193,4 @@ public class DarkLightSwitchIcon implements AnimatedIcon {
                 lightIcon.getIconHeight())
             + UIScale.scale(iconGap) * 2;
     }
-
-    /**
-     * Resizes the given icon to the specified width and height.
-     *
-     * @param icon the icon to resize
-     * @return the resized icon
-     */
-    private Icon resizeIcon(Icon icon) {
-        BufferedImage resizedImage = new BufferedImage(
-                20,
-                20,
-            BufferedImage.TYPE_INT_ARGB
-        );
-        Graphics2D g2d = resizedImage.createGraphics();
-
-        g2d.drawImage(
-            ((ImageIcon) icon).getImage(),
-            0,
-            0,
-                20,
-                20,
-            null
-        );
-        g2d.dispose();
-
-        return new ImageIcon(resizedImage);
-    }
 }
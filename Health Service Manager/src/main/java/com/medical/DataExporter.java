@@ -0,0 +1,465 @@
+/**
+ * @author : Yuuji
+ * DataExporter.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for channels and file handling
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+
+/**
+ * The DataExporter class writes extracts of a health service for
+ * other systems, such as the nightly balances and procedure lists
+ * finance loads: every patient's balance, or every hospital's
+ * procedures, as CSV or as JSON Lines with one object per row.
+ * <p>
+ * Rows are encoded as UTF-8 straight into a large byte buffer that
+ * is written to a {@link FileChannel} whenever it fills, so no string
+ * is built for a row, let alone for the whole extract; numbers and
+ * amounts are written digit by digit, money as exact dollars and
+ * cents. The extract is written to a temporary file first and then
+ * moved into place, so readers never see half a file.
+ * <p>
+ * Patients and hospitals are taken from a snapshot of the lists when
+ * the export starts. Each row is read as it is written, so a patient
+ * charged during the export shows either balance, never a mix.
+ */
+final class DataExporter {
+    // Bytes collected before they are written to the file
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Rows written between progress reports
+    private static final int PROGRESS_INTERVAL = 1 << 16;
+    // Escapes of the control characters below a space in JSON
+    private static final String[] CONTROL_ESCAPES = new String[' '];
+
+    static {
+        for (int c = 0; c < ' '; c++) {
+            CONTROL_ESCAPES[c] = String.format("\\u%04x", c);
+        }
+        CONTROL_ESCAPES['\b'] = "\\b";
+        CONTROL_ESCAPES['\f'] = "\\f";
+        CONTROL_ESCAPES['\n'] = "\\n";
+        CONTROL_ESCAPES['\r'] = "\\r";
+        CONTROL_ESCAPES['\t'] = "\\t";
+    }
+
+    /**
+     * The extracts the exporter writes.
+     */
+    enum Extract {
+        // One row per patient: id, name, private, balance
+        BALANCES,
+        // One row per procedure: hospitalId, hospital, id, name,
+        // description, elective, cost
+        PROCEDURES
+    }
+
+    /**
+     * The file formats the exporter writes.
+     */
+    enum Format {
+        // Comma-separated values with a header row
+        CSV,
+        // One JSON object per line
+        JSON_LINES;
+
+        /**
+         * Picks the format from the extension of a file name:
+         * JSON Lines for .jsonl, .ndjson and .json, CSV otherwise.
+         *
+         * @param file the file to write
+         * @return the format of the file
+         */
+        static Format of(Path file) {
+            String name = file.getFileName().toString()
+                .toLowerCase(Locale.ROOT);
+            return name.endsWith(".jsonl") || name.endsWith(".ndjson")
+                    || name.endsWith(".json")
+                ? JSON_LINES
+                : CSV;
+        }
+    }
+
+    /**
+     * The rows to include in an extract. The hospital applies to
+     * both extracts: balances of the patients registered at it, or
+     * its procedures. The other conditions only apply to balances.
+     *
+     * @param privateOnly whether to include private patients only
+     * @param balanceAboveCents include only balances above this
+     *        amount in cents, or {@link Long#MIN_VALUE} for all
+     * @param hospital the name of the hospital, or null for all
+     */
+    record Filter(
+        boolean privateOnly,
+        long balanceAboveCents,
+        String hospital
+    ) {
+        // A filter that includes every row
+        static final Filter ALL = new Filter(false, Long.MIN_VALUE, null);
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private DataExporter() {
+    }
+
+    /**
+     * Writes an extract of a health service to a file.
+     *
+     * @param service the health service to export
+     * @param extract the rows to write
+     * @param file the file to write
+     * @param format the format to write
+     * @param filter the rows to include
+     * @param progress receives the percentage written, or null
+     * @return the number of rows written
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the filter names a hospital
+     *         that does not exist
+     */
+    static long export(
+        HealthService service,
+        Extract extract,
+        Path file,
+        Format format,
+        Filter filter,
+        IntConsumer progress
+    ) throws IOException {
+        Hospital hospital = null;
+        if (filter.hospital() != null) {
+            hospital = service.findHospitalByName(filter.hospital());
+            if (hospital == null) {
+                throw new IllegalArgumentException(
+                    "No hospital named " + filter.hospital()
+                );
+            }
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long rows;
+        try (Output out = new Output(FileChannel.open(
+                temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE))) {
+            rows = extract == Extract.BALANCES
+                ? balances(service, out, format, filter, hospital, progress)
+                : procedures(service, out, format, hospital, progress);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        if (progress != null) {
+            progress.accept(100);
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the balances of the patients the filter includes.
+     */
+    private static long balances(
+        HealthService service,
+        Output out,
+        Format format,
+        Filter filter,
+        Hospital hospital,
+        IntConsumer progress
+    ) throws IOException {
+        if (format == Format.CSV) {
+            out.ascii("id,name,private,balance\n");
+        }
+        List<Patient> patients = service.getPatientSnapshot();
+        long rows = 0;
+        for (int i = 0; i < patients.size(); i++) {
+            Patient patient = patients.get(i);
+            // Read the balance once so the filter and row agree
+            long balance = patient.getBalanceCents();
+            if ((filter.privateOnly() && !patient.isPrivate())
+                    || balance <= filter.balanceAboveCents()
+                    || (hospital != null
+                        && !patient.isRegisteredAt(hospital))) {
+                continue;
+            }
+            if (format == Format.CSV) {
+                out.number(patient.getId()).ascii(',');
+                out.csv(patient.getName()).ascii(',');
+                out.ascii(patient.isPrivate() ? "true," : "false,");
+                out.cents(balance).ascii('\n');
+            } else {
+                out.ascii("{\"id\":").number(patient.getId());
+                out.ascii(",\"name\":").json(patient.getName());
+                out.ascii(patient.isPrivate()
+                    ? ",\"private\":true"
+                    : ",\"private\":false");
+                out.ascii(",\"balance\":").cents(balance).ascii("}\n");
+            }
+            rows++;
+            if (progress != null && i % PROGRESS_INTERVAL == 0) {
+                progress.accept((int) (i * 100L / patients.size()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the procedures of every hospital, or of one.
+     */
+    private static long procedures(
+        HealthService service,
+        Output out,
+        Format format,
+        Hospital only,
+        IntConsumer progress
+    ) throws IOException {
+        if (format == Format.CSV) {
+            out.ascii("hospitalId,hospital,id,name,description,elective,"
+                + "cost\n");
+        }
+        List<MedicalFacility> facilities = only != null
+            ? List.of(only)
+            : service.getFacilitySnapshot();
+        long rows = 0;
+        for (int i = 0; i < facilities.size(); i++) {
+            if (!(facilities.get(i) instanceof Hospital hospital)) {
+                continue;
+            }
+            for (Procedure procedure : List.copyOf(hospital.getProcedures())) {
+                if (format == Format.CSV) {
+                    out.number(hospital.getId()).ascii(',');
+                    out.csv(hospital.getName()).ascii(',');
+                    out.number(procedure.getId()).ascii(',');
+                    out.csv(procedure.getName()).ascii(',');
+                    out.csv(procedure.getDescription()).ascii(',');
+                    out.ascii(procedure.isElective() ? "true," : "false,");
+                    out.cents(procedure.getCostCents()).ascii('\n');
+                } else {
+                    out.ascii("{\"hospitalId\":").number(hospital.getId());
+                    out.ascii(",\"hospital\":").json(hospital.getName());
+                    out.ascii(",\"id\":").number(procedure.getId());
+                    out.ascii(",\"name\":").json(procedure.getName());
+                    out.ascii(",\"description\":")
+                        .json(procedure.getDescription());
+                    out.ascii(procedure.isElective()
+                        ? ",\"elective\":true"
+                        : ",\"elective\":false");
+                    out.ascii(",\"cost\":").cents(procedure.getCostCents())
+                        .ascii("}\n");
+                }
+                rows++;
+            }
+            if (progress != null) {
+                progress.accept(i * 100 / facilities.size());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The Output class encodes text as UTF-8 into a byte buffer and
+     * writes the buffer to a channel whenever it is full.
+     */
+    private static final class Output implements Closeable {
+        // Channel of the file being written
+        private final FileChannel channel;
+        // Bytes not yet written to the channel
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+        // Number of bytes in the buffer
+        private int position;
+
+        /**
+         * Constructs an Output writing to a channel.
+         */
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Writes a character that is known to be ASCII.
+         */
+        Output ascii(char c) throws IOException {
+            if (position == bytes.length) {
+                flush();
+            }
+            bytes[position++] = (byte) c;
+            return this;
+        }
+
+        /**
+         * Writes text that is known to be ASCII.
+         */
+        Output ascii(String text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                ascii(text.charAt(i));
+            }
+            return this;
+        }
+
+        /**
+         * Writes a whole number.
+         */
+        Output number(long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                return ascii(Long.toString(value));
+            }
+            if (value < 0) {
+                ascii('-');
+                value = -value;
+            }
+            if (bytes.length - position < 19) {
+                flush();
+            }
+            // Write the digits backwards after counting them
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            for (int i = position + digits - 1; i >= position; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position += digits;
+            return this;
+        }
+
+        /**
+         * Writes an amount in cents as dollars with two decimals.
+         */
+        Output cents(long cents) throws IOException {
+            if (cents < 0) {
+                ascii('-');
+                cents = -cents;
+            }
+            number(cents / 100).ascii('.');
+            long fraction = cents % 100;
+            return ascii((char) ('0' + fraction / 10))
+                .ascii((char) ('0' + fraction % 10));
+        }
+
+        /**
+         * Writes a CSV field, quoted if it holds a separator, quote
+         * or line break, with quotes doubled.
+         */
+        Output csv(String text) throws IOException {
+            if (text == null) {
+                return this;
+            }
+            boolean quote = false;
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                return utf8(text, 0, text.length());
+            }
+            ascii('"');
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    // Write up to and including the quote, then repeat it
+                    utf8(text, start, i + 1);
+                    start = i;
+                }
+            }
+            return utf8(text, start, text.length()).ascii('"');
+        }
+
+        /**
+         * Writes a JSON string, or null, with the characters JSON
+         * requires escaped.
+         */
+        Output json(String text) throws IOException {
+            if (text == null) {
+                return ascii("null");
+            }
+            ascii('"');
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                String escape = c < ' ' ? CONTROL_ESCAPES[c]
+                    : c == '"' ? "\\\""
+                    : c == '\\' ? "\\\\"
+                    : null;
+                if (escape != null) {
+                    // Write the plain run before the escaped character
+                    utf8(text, start, i);
+                    ascii(escape);
+                    start = i + 1;
+                }
+            }
+            return utf8(text, start, text.length()).ascii('"');
+        }
+
+        /**
+         * Encodes part of a string as UTF-8. A surrogate without its
+         * pair is written as a question mark.
+         */
+        private Output utf8(String text, int start, int end)
+                throws IOException {
+            for (int i = start; i < end; i++) {
+                // The longest encoding of a character is four bytes
+                if (bytes.length - position < 4) {
+                    flush();
+                }
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    bytes[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[position++] = (byte) (0xC0 | c >> 6);
+                    bytes[position++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < end
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int code = Character.toCodePoint(c, text.charAt(++i));
+                    bytes[position++] = (byte) (0xF0 | code >> 18);
+                    bytes[position++] = (byte) (0x80 | code >> 12 & 0x3F);
+                    bytes[position++] = (byte) (0x80 | code >> 6 & 0x3F);
+                    bytes[position++] = (byte) (0x80 | code & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    bytes[position++] = '?';
+                } else {
+                    bytes[position++] = (byte) (0xE0 | c >> 12);
+                    bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[position++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Writes the buffered bytes to the channel.
+         */
+        private void flush() throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, position);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            position = 0;
+        }
+
+        /**
+         * Writes the remaining bytes, forces them to disk and closes
+         * the channel.
+         */
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                flush();
+                channel.force(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,413 @@
+/**
+ * @author : Yuuji
+ * DataGenerator.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for parallel generation and file output
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The DataGenerator class creates synthetic health services of any
+ * size for load, scale and benchmark runs, in place of the handful of
+ * facilities the sample data holds.
+ * <p>
+ * Generation is seeded: the same settings always give the same
+ * facilities, procedures and patients, whether the data is built in
+ * memory with {@link #build} or streamed to a snapshot file with
+ * {@link #write}. Patients are generated in chunks, each drawing from
+ * its own stream split off the seed, so chunks are generated in
+ * parallel without changing the result.
+ * <p>
+ * Names and descriptions are put together from word lists with
+ * varying numbers of words, so their lengths spread like real data
+ * instead of all being the same size.
+ */
+final class DataGenerator {
+    // Patients generated by one task
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    // Words for generated names and descriptions
+    private static final String[] FIRST_NAMES = {
+        "Olivia", "Liam", "Emma", "Noah", "Charlotte", "Oliver", "Amelia",
+        "Jack", "Isla", "William", "Mia", "Henry", "Ava", "Leo", "Grace",
+        "Thomas", "Chloe", "Lucas", "Sophie", "James", "Ella", "Ethan",
+        "Zoe", "Mason", "Ruby", "Alexander", "Evelyn", "Harrison", "Aria",
+        "Sebastian", "Matilda", "Hudson", "Harper", "Archie", "Willow",
+        "Jo", "Li", "Maximilian", "Anastasia", "Bartholomew", "Yuki"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Jones", "Williams", "Brown", "Wilson", "Taylor", "Nguyen",
+        "Johnson", "Martin", "White", "Anderson", "Walker", "Thompson",
+        "Thomas", "Lee", "Ryan", "Robinson", "Kelly", "King", "Harris",
+        "Davis", "Wright", "Evans", "Roberts", "Green", "Hall", "Wood",
+        "Jackson", "Clarke", "Patel", "Chen", "Singh", "Kim", "Ng", "Wu",
+        "Papadopoulos", "Fitzgerald", "Konstantinidis", "Tanaka", "Rossi"
+    };
+    private static final String[] TOWNS = {
+        "Northside", "Southbank", "Eastwood", "Westmead", "Riverside",
+        "Hillcrest", "Lakeside", "Bayview", "Greenfield", "Oakleigh",
+        "Maple Grove", "Kingston", "Fairview", "Brookvale", "Ashford",
+        "Stonebridge", "Port Hedland", "Mount Pleasant", "Glenroy", "Elm"
+    };
+    private static final String[] HOSPITAL_KINDS = {
+        "General Hospital", "Memorial Hospital", "Base Hospital",
+        "Regional Medical Centre", "Private Hospital",
+        "Children's Hospital"
+    };
+    private static final String[] CLINIC_KINDS = {
+        "Clinic", "Family Clinic", "Medical Clinic", "Health Centre",
+        "Community Health Clinic", "Walk-in Clinic"
+    };
+    private static final String[] PROCEDURES = {
+        "Knee Replacement", "Appendectomy", "Hip Replacement",
+        "Cataract Surgery", "Heart Bypass", "Tonsillectomy",
+        "Gallbladder Removal", "Hernia Repair", "Colonoscopy",
+        "Mammogram", "MRI Scan", "CT Scan", "Endoscopy", "Angioplasty",
+        "Spinal Fusion", "Carpal Tunnel Release", "Skin Biopsy",
+        "Dental Extraction", "Arthroscopy", "Hysterectomy",
+        "Pacemaker Insertion", "Rotator Cuff Repair", "Dialysis",
+        "Bone Marrow Biopsy", "Laser Eye Surgery", "Blood Transfusion"
+    };
+    private static final String[] ACTIONS = {
+        "Surgical removal of", "Replacement of", "Examination of",
+        "Repair of", "Imaging of", "Screening of", "Reconstruction of",
+        "Biopsy of", "Drainage of", "Treatment of"
+    };
+    private static final String[] PARTS = {
+        "the knee joint", "the hip", "the appendix", "the gallbladder",
+        "the colon", "the heart arteries", "the eye", "the tonsils",
+        "the lower spine", "the shoulder", "the wrist", "the kidneys",
+        "the skin", "the breast tissue", "the bone marrow"
+    };
+    private static final String[] DETAILS = {
+        "under general anaesthetic", "as a day procedure",
+        "with an overnight stay", "using a minimally invasive approach",
+        "followed by a course of physiotherapy", "after a referral",
+        "with imaging guidance", "including a follow-up consultation",
+        "for patients over eighteen", "with a specialist surgical team"
+    };
+
+    /**
+     * The size and seed of a generated data set.
+     *
+     * @param patients the number of patients
+     * @param hospitals the number of hospitals
+     * @param clinics the number of clinics
+     * @param proceduresPerHospital the number of procedures each
+     *        hospital offers
+     * @param seed the seed of all generated values
+     */
+    record Settings(
+        int patients,
+        int hospitals,
+        int clinics,
+        int proceduresPerHospital,
+        long seed
+    ) {
+        /**
+         * Checks the settings.
+         */
+        Settings {
+            if (patients < 0 || hospitals < 0 || clinics < 0
+                    || proceduresPerHospital < 0) {
+                throw new IllegalArgumentException(
+                    "Counts must not be negative"
+                );
+            }
+        }
+    }
+
+    /**
+     * The facilities of a data set, with IDs from 1 in list order.
+     */
+    private record Facilities(List<MedicalFacility> all) {
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private DataGenerator() {
+    }
+
+    /**
+     * Builds a health service holding a generated data set. The
+     * patients are generated in parallel.
+     *
+     * @param settings the size and seed of the data set
+     * @return the new health service
+     */
+    static HealthService build(Settings settings) {
+        SplittableRandom root = new SplittableRandom(settings.seed());
+        Facilities facilities = facilities(settings, root.split());
+        SplittableRandom[] streams = streams(settings, root);
+        HealthService service = new HealthService();
+        for (MedicalFacility facility : facilities.all()) {
+            service.restoreFacility(facility);
+        }
+        // Chunks are generated in parallel and added in ID order
+        List<Patient[]> chunks = IntStream.range(0, streams.length)
+            .parallel()
+            .mapToObj(chunk -> patients(
+                settings, facilities, chunk, streams[chunk]
+            ))
+            .toList();
+        for (Patient[] chunk : chunks) {
+            for (Patient patient : chunk) {
+                service.restorePatient(patient);
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Writes a generated data set straight to a snapshot file without
+     * holding it in memory. Chunks of patients are generated in
+     * parallel a little ahead of the one being written. The file is
+     * written to a temporary file first and then moved into place.
+     *
+     * @param settings the size and seed of the data set
+     * @param file the snapshot file
+     * @param progress receives the percentage of patients written, or
+     *        null
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Settings settings, Path file, IntConsumer progress)
+            throws IOException {
+        SplittableRandom root = new SplittableRandom(settings.seed());
+        Facilities facilities = facilities(settings, root.split());
+        SplittableRandom[] streams = streams(settings, root);
+        int ahead = 2 * Runtime.getRuntime().availableProcessors();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (SnapshotCodec.Writer writer = new SnapshotCodec.Writer(
+                FileChannel.open(
+                    temp,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE))) {
+            writer.header(
+                facilities.all().size() + 1,
+                settings.patients() + 1,
+                ThreadLocalRandom.current().nextLong()
+            );
+            for (MedicalFacility facility : facilities.all()) {
+                writer.facility(facility);
+                if (facility instanceof Hospital hospital) {
+                    for (Procedure procedure : hospital.getProcedures()) {
+                        writer.procedure(hospital.getId(), procedure);
+                    }
+                }
+            }
+
+            Queue<CompletableFuture<Patient[]>> pending = new ArrayDeque<>();
+            int next = 0;
+            for (int chunk = 0; chunk < streams.length; chunk++) {
+                // Keep a few chunks generating while this one is written
+                while (next < streams.length && next < chunk + ahead) {
+                    int index = next++;
+                    pending.add(CompletableFuture.supplyAsync(
+                        () -> patients(
+                            settings, facilities, index, streams[index]
+                        )
+                    ));
+                }
+                for (Patient patient : pending.remove().join()) {
+                    writer.patient(patient);
+                }
+                if (progress != null) {
+                    progress.accept((chunk + 1) * 100 / streams.length);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Splits one stream per chunk of patients off the root, in chunk
+     * order.
+     */
+    private static SplittableRandom[] streams(
+        Settings settings,
+        SplittableRandom root
+    ) {
+        int chunks = (settings.patients() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            streams[i] = root.split();
+        }
+        return streams;
+    }
+
+    /**
+     * Generates the hospitals with their procedures, then the clinics.
+     */
+    private static Facilities facilities(
+        Settings settings,
+        SplittableRandom random
+    ) {
+        List<MedicalFacility> all = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < settings.hospitals(); i++) {
+            Hospital hospital = new Hospital(
+                facilityName(random, HOSPITAL_KINDS, names),
+                // Between 0.20 and 0.90, in steps of 0.05
+                (4 + random.nextInt(15)) / 20.0
+            );
+            for (int k = 0; k < settings.proceduresPerHospital(); k++) {
+                hospital.addProcedure(procedure(random, k));
+            }
+            all.add(hospital);
+        }
+        for (int i = 0; i < settings.clinics(); i++) {
+            all.add(new Clinic(
+                facilityName(random, CLINIC_KINDS, names),
+                // Whole or half dollars between 40 and 150
+                40 + random.nextInt(221) / 2.0,
+                // Up to 25 percent, in half percent steps
+                random.nextInt(51) / 2.0
+            ));
+        }
+        for (int i = 0; i < all.size(); i++) {
+            all.get(i).setId(i + 1);
+        }
+        return new Facilities(List.copyOf(all));
+    }
+
+    /**
+     * Picks an unused facility name, numbering it once the plain
+     * combinations run out.
+     */
+    private static String facilityName(
+        SplittableRandom random,
+        String[] kinds,
+        Set<String> used
+    ) {
+        String base = pick(random, TOWNS) + " " + pick(random, kinds);
+        String name = base;
+        for (int n = 2; !used.add(name); n++) {
+            name = base + " " + n;
+        }
+        return name;
+    }
+
+    /**
+     * Generates the procedure at a position in a hospital's list.
+     */
+    private static Procedure procedure(SplittableRandom random, int k) {
+        String name = PROCEDURES[k % PROCEDURES.length];
+        if (k >= PROCEDURES.length) {
+            // Later rounds of the list are variants of the same names
+            name += " (Variant " + (k / PROCEDURES.length + 1) + ")";
+        }
+        // One to three clauses, so descriptions vary in length
+        StringBuilder description = new StringBuilder(pick(random, ACTIONS))
+            .append(' ')
+            .append(pick(random, PARTS));
+        for (int clauses = random.nextInt(3); clauses > 0; clauses--) {
+            description.append(' ').append(pick(random, DETAILS));
+        }
+        // Roughly log-normal costs between $100 and a few $10,000
+        long costCents = Math.round(
+            Math.exp(7.5 + random.nextGaussian() * 0.8)
+        ) * 100;
+        Procedure procedure = new Procedure(
+            name,
+            description.toString(),
+            random.nextInt(10) < 6,
+            0
+        );
+        procedure.setCostCents(Math.max(10_000, costCents));
+        return procedure;
+    }
+
+    /**
+     * Generates one chunk of patients from its own stream.
+     */
+    private static Patient[] patients(
+        Settings settings,
+        Facilities facilities,
+        int chunk,
+        SplittableRandom random
+    ) {
+        int first = chunk * CHUNK_SIZE;
+        int count = Math.min(CHUNK_SIZE, settings.patients() - first);
+        List<MedicalFacility> all = facilities.all();
+        Patient[] patients = new Patient[count];
+        for (int i = 0; i < count; i++) {
+            Patient patient = new Patient(
+                patientName(random),
+                random.nextInt(100) < 35
+            );
+            patient.setId(first + i + 1);
+            if (!all.isEmpty()) {
+                // Most patients have been to no more than one facility
+                int visited = switch (random.nextInt(20)) {
+                    case 0, 1 -> 3;
+                    case 2, 3, 4 -> 2;
+                    case 5, 6, 7, 8, 9, 10, 11 -> 1;
+                    default -> 0;
+                };
+                MedicalFacility last = null;
+                for (int v = 0; v < visited; v++) {
+                    last = all.get(random.nextInt(all.size()));
+                    patient.registerAt(last);
+                }
+                if (last != null && random.nextBoolean()) {
+                    patient.setCurrentFacility(last);
+                }
+                if (visited > 0) {
+                    // Balances of a few hundred dollars on average
+                    patient.setBalanceCents(Math.round(
+                        -Math.log(1 - random.nextDouble()) * 40_000
+                    ));
+                }
+            }
+            patients[i] = patient;
+        }
+        return patients;
+    }
+
+    /**
+     * Generates a patient name of one to four words.
+     */
+    private static String patientName(SplittableRandom random) {
+        StringBuilder name = new StringBuilder(pick(random, FIRST_NAMES));
+        if (random.nextInt(10) == 0) {
+            // A middle initial
+            name.append(' ')
+                .append(pick(random, FIRST_NAMES).charAt(0))
+                .append('.');
+        }
+        name.append(' ').append(pick(random, LAST_NAMES));
+        if (random.nextInt(12) == 0) {
+            // A double-barrelled surname
+            name.append('-').append(pick(random, LAST_NAMES));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Picks a random word from a list.
+     */
+    private static String pick(SplittableRandom random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
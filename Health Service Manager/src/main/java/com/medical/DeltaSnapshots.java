@@ -0,0 +1,311 @@
+/**
+ * @author : Yuuji
+ * DeltaSnapshots.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for channels and file handling
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The DeltaSnapshots class saves the changes since the last save as
+ * a small delta file next to a snapshot instead of rewriting the
+ * whole snapshot. A delta holds the current state of every entity in
+ * a {@link ChangeSet}, or a removal record for those that are gone,
+ * so writing it takes time in proportion to the entities edited.
+ * <p>
+ * Deltas are numbered {@code <snapshot>.delta.1}, {@code .delta.2}
+ * and so on, and use the journal records of {@link SnapshotCodec}.
+ * Each starts with a base record naming the generation it applies
+ * to, followed by a header with its own generation, so the snapshot
+ * and its deltas form a chain that ends in the generation of the
+ * open {@link Journal}. A delta whose base does not match the chain
+ * is left over from a crash and is skipped.
+ * <p>
+ * {@link #merge} compacts the chain by writing a new snapshot with
+ * the generation of the last delta, so the journal stays valid, and
+ * then deleting the merged deltas.
+ */
+final class DeltaSnapshots {
+    // Magic number at the start of every delta ("HSMD")
+    static final int MAGIC = 0x48534D44;
+
+    private DeltaSnapshots() {
+        // Utility class, not instantiated
+    }
+
+    /**
+     * Returns a delta file belonging to a snapshot file.
+     *
+     * @param snapshot the snapshot file
+     * @param sequence the position of the delta in the chain
+     * @return the delta file next to the snapshot
+     */
+    static Path deltaFile(Path snapshot, int sequence) {
+        return snapshot.resolveSibling(
+            snapshot.getFileName() + ".delta." + sequence
+        );
+    }
+
+    /**
+     * Returns the sequence numbers of the deltas of a snapshot in
+     * chain order.
+     *
+     * @param snapshot the snapshot file
+     * @return the sequence numbers, in increasing order
+     * @throws IOException if the directory cannot be listed
+     */
+    static int[] sequences(Path snapshot) throws IOException {
+        String prefix = snapshot.getFileName() + ".delta.";
+        int[] sequences = new int[8];
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                snapshot.toAbsolutePath().getParent(),
+                file -> file.getFileName().toString().startsWith(prefix))) {
+            for (Path file : files) {
+                String suffix =
+                    file.getFileName().toString().substring(prefix.length());
+                int sequence;
+                try {
+                    sequence = Integer.parseInt(suffix);
+                } catch (NumberFormatException e) {
+                    // A delta still being written
+                    continue;
+                }
+                if (count == sequences.length) {
+                    sequences = Arrays.copyOf(sequences, count * 2);
+                }
+                sequences[count++] = sequence;
+            }
+        }
+        sequences = Arrays.copyOf(sequences, count);
+        Arrays.sort(sequences);
+        return sequences;
+    }
+
+    /**
+     * Writes the entities of a change set as the next delta of a
+     * snapshot. The delta is written to a temporary file first and
+     * then moved into place; the temporary file is deleted if writing
+     * fails.
+     *
+     * @param snapshot the snapshot file
+     * @param parent the generation the delta applies to
+     * @param generation the generation of the state after the delta
+     * @param service the health service holding the entities
+     * @param changes the IDs of the entities to write
+     * @param progress receives the percentage written, or null
+     * @return the delta file
+     * @throws IOException if the delta cannot be written
+     */
+    static Path write(
+        Path snapshot,
+        long parent,
+        long generation,
+        HealthService service,
+        ChangeSet changes,
+        IntConsumer progress
+    ) throws IOException {
+        int[] existing = sequences(snapshot);
+        Path file = deltaFile(
+            snapshot,
+            existing.length == 0 ? 1 : existing[existing.length - 1] + 1
+        );
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int[] facilities = changes.facilities();
+        long[] procedures = changes.procedures();
+        int[] patients = changes.patients();
+        long total = facilities.length + procedures.length + patients.length;
+        long done = 0;
+        int reported = -1;
+        try (SnapshotCodec.Writer writer = new SnapshotCodec.Writer(
+                FileChannel.open(
+                    temp,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE),
+                true)) {
+            writer.preamble(MAGIC);
+            writer.base(parent);
+            writer.header(
+                service.facilityIds().peek(),
+                service.patientIds().peek(),
+                generation
+            );
+            // Facilities first, so procedures and patients can refer to them
+            for (int id : facilities) {
+                MedicalFacility facility = service.findFacility(id);
+                if (facility != null) {
+                    writer.facility(facility);
+                }
+                reported = report(progress, ++done, total, reported);
+            }
+            for (long key : procedures) {
+                // Procedures of a removed hospital go with the hospital
+                if (service.findFacility(ChangeSet.hospitalOf(key))
+                        instanceof Hospital hospital) {
+                    Procedure procedure =
+                        hospital.findProcedure(ChangeSet.procedureOf(key));
+                    if (procedure == null) {
+                        writer.removeProcedure(
+                            hospital.getId(), ChangeSet.procedureOf(key)
+                        );
+                    } else {
+                        writer.procedure(hospital.getId(), procedure);
+                    }
+                }
+                reported = report(progress, ++done, total, reported);
+            }
+            for (int id : patients) {
+                Patient patient = service.findPatient(id);
+                if (patient == null) {
+                    writer.removePatient(id);
+                } else {
+                    writer.patient(patient);
+                }
+                reported = report(progress, ++done, total, reported);
+            }
+            // Facilities last, once no patient refers to them
+            for (int id : facilities) {
+                if (service.findFacility(id) == null) {
+                    writer.removeFacility(id);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Nothing else would ever delete the partial delta
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    /**
+     * Reports the percentage of entities written when it changes.
+     *
+     * @return the percentage reported last
+     */
+    private static int report(
+        IntConsumer progress,
+        long done,
+        long total,
+        int reported
+    ) {
+        int percent = (int) (done * 100 / total);
+        if (progress != null && percent != reported) {
+            progress.accept(percent);
+        }
+        return percent;
+    }
+
+    /**
+     * Applies the deltas of a snapshot, in chain order, to the health
+     * service read from it. Deltas that do not continue the chain are
+     * skipped.
+     *
+     * @param snapshot the snapshot file
+     * @param service the health service read from the snapshot
+     * @param generation the generation of the snapshot
+     * @return the generation at the end of the chain
+     * @throws IOException if a delta cannot be read or is corrupt
+     */
+    static long apply(Path snapshot, HealthService service, long generation)
+            throws IOException {
+        return apply(snapshot, sequences(snapshot), service, generation);
+    }
+
+    /**
+     * Applies the given deltas of a snapshot in order.
+     */
+    private static long apply(
+        Path snapshot,
+        int[] sequences,
+        HealthService service,
+        long generation
+    ) throws IOException {
+        for (int sequence : sequences) {
+            Path file = deltaFile(snapshot, sequence);
+            try (FileChannel channel = FileChannel.open(file)) {
+                SnapshotCodec.Reader reader = new SnapshotCodec.Reader(channel);
+                long valid = reader.replay(service, generation, MAGIC);
+                if (valid < 0) {
+                    System.err.println(
+                        "Skipping delta of another snapshot: " + file
+                    );
+                    continue;
+                }
+                // Deltas are moved into place whole, never torn
+                if (valid != channel.size()) {
+                    throw new IOException("Corrupt delta: " + file);
+                }
+                generation = reader.generation();
+            }
+        }
+        return generation;
+    }
+
+    /**
+     * Merges the deltas of a snapshot into a new snapshot, compressed
+     * like the old one, and deletes them. The new snapshot keeps the
+     * generation at the end of the chain, so the journal of the
+     * snapshot still applies to it; a
+     * crash before the deltas are deleted leaves deltas that no
+     * longer continue the chain and are skipped.
+     *
+     * @param snapshot the snapshot file
+     * @param progress receives the percentage written, or null
+     * @return the number of deltas merged
+     * @throws IOException if the snapshot or a delta cannot be read,
+     *         or the new snapshot cannot be written
+     */
+    static int merge(Path snapshot, IntConsumer progress)
+            throws IOException {
+        int[] sequences = sequences(snapshot);
+        if (sequences.length == 0) {
+            return 0;
+        }
+        HealthService service;
+        long base;
+        try (SnapshotCodec.Reader reader = SnapshotCodec.reader(snapshot)) {
+            service = reader.read();
+            base = reader.generation();
+        }
+        long generation = apply(snapshot, sequences, service, base);
+        if (generation != base) {
+            SnapshotCodec.write(
+                service,
+                snapshot,
+                generation,
+                BlockCompression.codecOf(snapshot),
+                progress
+            );
+        }
+        for (int sequence : sequences) {
+            Files.deleteIfExists(deltaFile(snapshot, sequence));
+        }
+        return sequences.length;
+    }
+
+    /**
+     * Deletes every delta of a snapshot, once a full snapshot holds
+     * their changes.
+     *
+     * @param snapshot the snapshot file
+     * @throws IOException if a delta cannot be deleted
+     */
+    static void discard(Path snapshot) throws IOException {
+        for (int sequence : sequences(snapshot)) {
+            Files.deleteIfExists(deltaFile(snapshot, sequence));
+        }
+    }
+}
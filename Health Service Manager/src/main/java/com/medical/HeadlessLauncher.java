@@ -0,0 +1,506 @@
+/**
+ * @author : Yuuji
+ * HeadlessLauncher.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for console input and file handling
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The HeadlessLauncher class runs the health service without a user
+ * interface, such as on a server. It opens the snapshot named on the
+ * command line, or starts with no data, optionally serves the
+ * {@link HttpApi}, and then reads one command per line from standard
+ * input until "quit".
+ * <p>
+ * It never touches Swing, FlatLaf, fonts or icons, so it starts in
+ * the time it takes to read the snapshot. Run it with
+ * {@code java -cp <classes> com.medical.HeadlessLauncher [snapshot]
+ * [--port <port>]}.
+ */
+public final class HeadlessLauncher {
+    // Commands understood by the launcher
+    private static final String HELP = String.join(
+        System.lineSeparator(),
+        "status                                   show the data size",
+        "facilities                               list the facilities",
+        "patient <id>                             show a patient",
+        "visit <patient> <facility>               record a visit",
+        "procedure <patient> <hospital> <proc>    perform a procedure",
+        "save [file]                              save a snapshot",
+        "compression none|deflate-fast|deflate    compress later saves",
+        "delta                                    save the changes since",
+        "                                         the last save",
+        "merge                                    merge saved changes",
+        "                                         into the snapshot",
+        "load <file>                              load a saved file",
+        "import <file.csv>                        import a CSV file",
+        "export balances|procedures <file>        write a CSV extract,",
+        "  [--private] [--above <amount>]         or JSON Lines for a",
+        "  [--hospital <name>]                    .jsonl file",
+        "generate <file> <patients> [hospitals]   write a generated",
+        "  [clinics] [procedures] [seed]          snapshot, 100",
+        "                                         hospitals, 200 clinics",
+        "                                         and 20 procedures by",
+        "                                         default",
+        "simulate [days] [seed]                   simulate a year, or",
+        "                                         the days given, of",
+        "                                         patient flow on a copy",
+        "scenario <hospital> <probAdmit>          simulate replicas of",
+        "  <replicas>                             a year with another",
+        "                                         admission probability",
+        "quit                                     stop and exit"
+    );
+
+    // Business flows of the loaded data
+    private final ApplicationService application;
+    // Output of the commands
+    private final PrintStream out;
+    // Snapshot saved to when no file is given
+    private Path snapshot;
+
+    /**
+     * Constructs a HeadlessLauncher for an application service.
+     *
+     * @param application the application service
+     * @param snapshot the snapshot to save to by default, or null
+     * @param out the output of the commands
+     */
+    HeadlessLauncher(
+        ApplicationService application,
+        Path snapshot,
+        PrintStream out
+    ) {
+        this.application = application;
+        this.snapshot = snapshot;
+        this.out = out;
+    }
+
+    /**
+     * Starts the headless service. With {@code --port <port>} it also
+     * serves the {@link HttpApi} on that port, and keeps serving after
+     * the end of standard input until it is stopped by a signal.
+     *
+     * @param args an optional snapshot file to open, and an optional
+     *        {@code --port <port>}
+     */
+    public static void main(String[] args) {
+        // Keep AWT from looking for a display if anything loads it
+        System.setProperty("java.awt.headless", "true");
+        long start = System.nanoTime();
+
+        Path snapshot = null;
+        int port = -1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                snapshot = Path.of(args[i]);
+            }
+        }
+
+        ApplicationService application;
+        HttpApi api = null;
+        try {
+            application = snapshot != null && Files.exists(snapshot)
+                ? ApplicationService.open(snapshot, null)
+                : new ApplicationService(new HealthService());
+            if (port >= 0) {
+                api = new HttpApi(application, new InetSocketAddress(port));
+                api.start();
+            }
+        } catch (IOException e) {
+            System.err.println("Error starting: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        // Stop serving and sync the journal however the process ends
+        HttpApi server = api;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (server != null) {
+                server.close();
+            }
+            application.close();
+        }));
+
+        HealthService service = application.getHealthService();
+        System.err.printf(
+            "Ready in %d ms with %d patients and %d facilities%s%n",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            service.getPatients().size(),
+            service.getFacilities().size(),
+            api == null ? "" : ", serving HTTP on port " + api.getPort()
+        );
+
+        HeadlessLauncher launcher =
+            new HeadlessLauncher(application, snapshot, System.out);
+        boolean running = true;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                System.in, StandardCharsets.UTF_8))) {
+            String line;
+            while (running && (line = in.readLine()) != null) {
+                running = launcher.execute(line);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading input: " + e.getMessage());
+        }
+        if (running && api != null) {
+            try {
+                // Without a console, serve until the process is stopped
+                api.awaitStop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Runs one command line, writing its output. Errors in the command
+     * are reported on standard error.
+     *
+     * @param line the command and its arguments
+     * @return false if the command was "quit"
+     */
+    boolean execute(String line) {
+        String[] words = line.trim().split("\\s+");
+        try {
+            switch (words[0]) {
+                case "" -> {
+                    // Ignore blank lines
+                }
+                case "help" -> out.println(HELP);
+                case "status" -> status();
+                case "facilities" -> facilities();
+                case "patient" -> patient(number(words, 1));
+                case "visit" -> out.println(application.visit(
+                    number(words, 1), number(words, 2)
+                ).message());
+                case "procedure" -> out.println(
+                    application.performProcedure(
+                        number(words, 1), number(words, 2), number(words, 3)
+                    ).message()
+                );
+                case "save" -> save(
+                    words.length > 1 ? Path.of(words[1]) : null
+                );
+                case "compression" -> compression(argument(words, 1));
+                case "delta" -> delta();
+                case "merge" -> out.println(
+                    "> Merged " + application.mergeDeltas(null) + " deltas"
+                );
+                case "load" -> load(Path.of(argument(words, 1)));
+                case "import" -> importCsv(Path.of(argument(words, 1)));
+                case "export" -> export(words);
+                case "generate" -> generate(words);
+                case "simulate" -> simulate(words);
+                case "scenario" -> scenario(words);
+                case "quit", "exit" -> {
+                    return false;
+                }
+                default -> System.err.println(
+                    "Unknown command " + words[0] + ", try help"
+                );
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Returns an argument of a command.
+     */
+    private static String argument(String[] words, int index) {
+        if (index >= words.length) {
+            throw new IllegalArgumentException(
+                "Missing argument " + index + " of " + words[0]
+            );
+        }
+        return words[index];
+    }
+
+    /**
+     * Returns a numeric argument of a command.
+     */
+    private static int number(String[] words, int index) {
+        String word = argument(words, index);
+        try {
+            return Integer.parseInt(word);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + word);
+        }
+    }
+
+    /**
+     * Prints the size of the data and whether changes are journaled.
+     */
+    private void status() {
+        HealthService service = application.getHealthService();
+        out.printf(
+            "%d patients, %d facilities, %s, compression: %s%n",
+            service.getPatients().size(),
+            service.getFacilities().size(),
+            application.isJournaled()
+                ? "journaled to " + snapshot
+                : "not saved",
+            application.getCompression()
+        );
+    }
+
+    /**
+     * Prints every facility with its ID.
+     */
+    private void facilities() {
+        for (MedicalFacility facility
+                : application.getHealthService().getFacilitySnapshot()) {
+            out.printf(
+                "%d %s %s%n",
+                facility.getId(),
+                facility instanceof Hospital ? "Hospital" : "Clinic",
+                facility.getName()
+            );
+        }
+    }
+
+    /**
+     * Prints a patient.
+     */
+    private void patient(int id) {
+        Patient patient = application.getHealthService().findPatient(id);
+        out.println(patient == null ? "> Patient not found." : patient);
+    }
+
+    /**
+     * Saves a snapshot to a file, or to the current snapshot.
+     */
+    private void save(Path file) throws IOException {
+        Path target = file != null ? file : snapshot;
+        if (target == null) {
+            throw new IllegalArgumentException("Missing file to save to");
+        }
+        application.save(target, null);
+        snapshot = target;
+        out.println("> Saved to " + target);
+    }
+
+    /**
+     * Selects the codec compressing the snapshots saved from now on.
+     */
+    private void compression(String name) {
+        BlockCompression.Codec codec;
+        try {
+            codec = BlockCompression.Codec.valueOf(
+                name.toUpperCase().replace('-', '_')
+            );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                "Unknown compression " + name + ", try help"
+            );
+        }
+        application.setCompression(codec);
+        out.println("> Snapshots are saved with compression: " + codec);
+    }
+
+    /**
+     * Saves the changes since the last save as a delta of the current
+     * snapshot.
+     */
+    private void delta() throws IOException {
+        long start = System.nanoTime();
+        int changed = application.saveDelta(null);
+        out.printf(
+            "> Saved %,d changed records in %d ms%n",
+            changed,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        );
+    }
+
+    /**
+     * Imports a CSV file and prints how many rows were imported and
+     * the reasons the first rejected rows were skipped.
+     */
+    private void importCsv(Path file) throws IOException {
+        CsvImporter.Summary summary = application.importCsv(file, null);
+        out.println("> " + summary.describe());
+        for (String error : summary.errors()) {
+            out.println("  " + error);
+        }
+    }
+
+    /**
+     * Writes an extract of the balances or procedures. The options
+     * after the file name filter the rows; the hospital name comes
+     * last and may contain spaces.
+     */
+    private void export(String[] words) throws IOException {
+        DataExporter.Extract extract = switch (argument(words, 1)) {
+            case "balances" -> DataExporter.Extract.BALANCES;
+            case "procedures" -> DataExporter.Extract.PROCEDURES;
+            default -> throw new IllegalArgumentException(
+                "Export balances or procedures, not " + words[1]
+            );
+        };
+        Path file = Path.of(argument(words, 2));
+        boolean privateOnly = false;
+        long above = Long.MIN_VALUE;
+        String hospital = null;
+        for (int i = 3; i < words.length && hospital == null; i++) {
+            switch (words[i]) {
+                case "--private" -> privateOnly = true;
+                case "--above" -> above = amount(argument(words, ++i));
+                case "--hospital" -> hospital = String.join(
+                    " ", Arrays.copyOfRange(words, i + 1, words.length)
+                );
+                default -> throw new IllegalArgumentException(
+                    "Unknown option " + words[i]
+                );
+            }
+        }
+        if (hospital != null && hospital.isEmpty()) {
+            throw new IllegalArgumentException("Missing hospital name");
+        }
+        long start = System.nanoTime();
+        long rows = application.export(
+            extract,
+            file,
+            new DataExporter.Filter(privateOnly, above, hospital),
+            null
+        );
+        out.printf(
+            "> Exported %,d rows to %s in %d ms%n",
+            rows, file,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        );
+    }
+
+    /**
+     * Writes a generated data set to a snapshot file without loading
+     * it, as a fixture for load and benchmark runs. The counts after
+     * the number of patients are optional.
+     */
+    private void generate(String[] words) throws IOException {
+        Path file = Path.of(argument(words, 1));
+        DataGenerator.Settings settings = new DataGenerator.Settings(
+            number(words, 2),
+            words.length > 3 ? number(words, 3) : 100,
+            words.length > 4 ? number(words, 4) : 200,
+            words.length > 5 ? number(words, 5) : 20,
+            words.length > 6 ? number(words, 6) : 1
+        );
+        long start = System.nanoTime();
+        DataGenerator.write(settings, file, null);
+        out.printf(
+            "> Generated %,d patients to %s in %d ms%n",
+            settings.patients(), file,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        );
+    }
+
+    /**
+     * Runs a simulation of patient flow on a copy of the data and
+     * prints its report, leaving the data itself unchanged.
+     */
+    private void simulate(String[] words) {
+        Simulation.Settings year = Simulation.Settings.year(
+            words.length > 2 ? number(words, 2) : 1
+        );
+        Simulation.Settings settings = new Simulation.Settings(
+            words.length > 1 ? number(words, 1) : year.days(),
+            year.visitsPerPatientYear(),
+            year.clinicShare(),
+            year.procedureChance(),
+            year.meanStayDays(),
+            year.seed()
+        );
+        long start = System.nanoTime();
+        Simulation.Report report = Simulation.run(
+            application.getHealthService().copy(), settings
+        );
+        out.print(report);
+        out.printf(
+            "> Simulated in %d ms%n",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        );
+    }
+
+    /**
+     * Simulates replicas of a year with a hospital admitting patients
+     * at another probability, and prints the confidence intervals of
+     * every hospital. The hospital is changed on a copy of the data
+     * only.
+     */
+    private void scenario(String[] words) {
+        int id = number(words, 1);
+        double probAdmit = probability(argument(words, 2));
+        int replicas = number(words, 3);
+        HealthService copy = application.getHealthService().copy();
+        if (!(copy.findFacility(id) instanceof Hospital hospital)) {
+            throw new IllegalArgumentException("Not a hospital: " + id);
+        }
+        hospital.setProbAdmit(probAdmit);
+        long start = System.nanoTime();
+        ScenarioRunner.Result result = ScenarioRunner.run(
+            copy, Simulation.Settings.year(1), replicas, 1
+        );
+        out.print(result);
+        out.printf(
+            "> Ran %d replicas in %d ms%n",
+            replicas,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        );
+    }
+
+    /**
+     * Parses a probability between 0 and 1.
+     */
+    private static double probability(String word) {
+        double probability;
+        try {
+            probability = Double.parseDouble(word);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + word);
+        }
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException(
+                "Probability must be between 0 and 1: " + word
+            );
+        }
+        return probability;
+    }
+
+    /**
+     * Parses an amount in dollars as cents.
+     */
+    private static long amount(String word) {
+        try {
+            return Money.cents(Double.parseDouble(word));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not an amount: " + word);
+        }
+    }
+
+    /**
+     * Loads a saved file, which becomes the current snapshot if it
+     * has a journal.
+     */
+    private void load(Path file) throws IOException {
+        application.load(file, null);
+        snapshot = application.isJournaled() ? file : null;
+        status();
+    }
+}
@@ -0,0 +1,591 @@
+/**
+ * @author : Yuuji
+ * HttpApi.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for the embedded HTTP server
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serial;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The HttpApi class serves the health service as JSON over HTTP with
+ * the JDK's built-in server, for kiosks and billing systems that have
+ * no user interface of their own. Every request runs on its own
+ * virtual thread, so slow clients never hold up a thread pool.
+ * <p>
+ * Endpoints:
+ * <ul>
+ * <li>{@code GET /} the number of patients and facilities</li>
+ * <li>{@code GET /patients?offset=&limit=}, {@code GET /patients/{id}}
+ *     and {@code POST /patients} with {@code {"name", "private"}}</li>
+ * <li>{@code GET /facilities?offset=&limit=},
+ *     {@code GET /facilities/{id}},
+ *     {@code GET /facilities/{id}/procedures} and
+ *     {@code GET /facilities/{id}/procedures/{id}}</li>
+ * <li>{@code POST /visits} with {@code {"patientId", "facilityId"}}</li>
+ * <li>{@code POST /treatments} with
+ *     {@code {"patientId", "hospitalId", "procedureId"}}</li>
+ * </ul>
+ * Lists are streamed while they are read from the health service, so
+ * a page reflects changes made while it is sent. Money is written as
+ * exact decimal dollars.
+ */
+final class HttpApi implements Closeable {
+    // Connections waiting to be accepted
+    private static final int BACKLOG = 1024;
+    // Characters buffered before a streamed list is sent
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Largest request body accepted
+    private static final int MAX_BODY = 1 << 16;
+
+    // Business flows the requests run
+    private final ApplicationService application;
+    // Embedded server and the executor running its requests
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // Released when the server is stopped
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    /**
+     * Writes the body of a response.
+     */
+    @FunctionalInterface
+    private interface Body {
+        /**
+         * Writes the body.
+         *
+         * @param json the writer of the body
+         * @throws IOException if the body cannot be written
+         */
+        void write(Json json) throws IOException;
+    }
+
+    /**
+     * Writes one element of a streamed list.
+     */
+    @FunctionalInterface
+    private interface Writes<T> {
+        /**
+         * Writes an element.
+         *
+         * @param json the writer of the list
+         * @param element the element
+         * @throws IOException if the element cannot be written
+         */
+        void write(Json json, T element) throws IOException;
+    }
+
+    /**
+     * Handles one request.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        /**
+         * Handles a request whose path below the endpoint has been
+         * split into segments.
+         *
+         * @param exchange the request and its response
+         * @param path the path segments after the endpoint name
+         * @throws IOException if the response cannot be sent
+         */
+        void handle(HttpExchange exchange, String[] path) throws IOException;
+    }
+
+    /**
+     * The ApiException class is a request that cannot be served, with
+     * the HTTP status to answer it with.
+     */
+    private static final class ApiException extends RuntimeException {
+        @Serial
+        // Unique identifier for serialization
+        private static final long serialVersionUID = 1L;
+        // HTTP status of the response
+        private final int status;
+
+        /**
+         * Constructs an ApiException with a status and message.
+         */
+        ApiException(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Constructs an HttpApi bound to an address. It serves requests
+     * once {@link #start()} is called.
+     *
+     * @param application the application service to serve
+     * @param address the address to listen on; port 0 picks a free one
+     * @throws IOException if the address cannot be bound
+     */
+    HttpApi(ApplicationService application, InetSocketAddress address)
+            throws IOException {
+        this.application = application;
+        server = HttpServer.create(address, BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> serve(exchange, this::status));
+        server.createContext(
+            "/patients", exchange -> serve(exchange, this::patients)
+        );
+        server.createContext(
+            "/facilities", exchange -> serve(exchange, this::facilities)
+        );
+        server.createContext(
+            "/visits", exchange -> serve(exchange, this::visits)
+        );
+        server.createContext(
+            "/treatments", exchange -> serve(exchange, this::treatments)
+        );
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     */
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Waits until the server is stopped by {@link #close()}.
+     *
+     * @throws InterruptedException if the thread is interrupted
+     */
+    void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for running ones
+     * to finish, and releases the executor.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+        stopped.countDown();
+    }
+
+    /**
+     * Runs a handler, answering requests that fail with a JSON error.
+     */
+    private void serve(HttpExchange exchange, Handler handler)
+            throws IOException {
+        try (exchange) {
+            String context = exchange.getHttpContext().getPath();
+            String rest = exchange.getRequestURI().getPath()
+                .substring(context.length());
+            String[] path = rest.isEmpty() || rest.equals("/")
+                ? new String[0]
+                : rest.substring(rest.startsWith("/") ? 1 : 0).split("/");
+            try {
+                handler.handle(exchange, path);
+            } catch (ApiException e) {
+                error(exchange, e.status, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                error(exchange, 400, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Answers GET / with the size of the data.
+     */
+    private void status(HttpExchange exchange, String[] path)
+            throws IOException {
+        if (exchange.getHttpContext().getPath().length()
+                < exchange.getRequestURI().getPath().length()) {
+            throw new ApiException(404, "No such endpoint");
+        }
+        allow(exchange, "GET");
+        HealthService service = application.getHealthService();
+        send(exchange, 200, json -> json.beginObject()
+            .name("patients").value(service.getPatients().size())
+            .name("facilities").value(service.getFacilities().size())
+            .name("journaled").value(application.isJournaled())
+            .endObject());
+    }
+
+    /**
+     * Answers the patient endpoints.
+     */
+    private void patients(HttpExchange exchange, String[] path)
+            throws IOException {
+        HealthService service = application.getHealthService();
+        if (path.length == 0) {
+            if (exchange.getRequestMethod().equals("POST")) {
+                Map<String, Object> body = body(exchange);
+                Patient patient = new Patient(
+                    text(body, "name"),
+                    Boolean.TRUE.equals(body.get("private"))
+                );
+                service.addPatient(patient);
+                send(exchange, 201, json -> patient(json, patient));
+                return;
+            }
+            allow(exchange, "GET", "POST");
+            stream(exchange, service.getPatients(), HttpApi::patient);
+        } else if (path.length == 1) {
+            allow(exchange, "GET");
+            Patient patient = found(
+                service.findPatient(id(path[0])), "patient"
+            );
+            send(exchange, 200, json -> patient(json, patient));
+        } else {
+            throw new ApiException(404, "No such endpoint");
+        }
+    }
+
+    /**
+     * Answers the facility and procedure endpoints.
+     */
+    private void facilities(HttpExchange exchange, String[] path)
+            throws IOException {
+        allow(exchange, "GET");
+        HealthService service = application.getHealthService();
+        if (path.length == 0) {
+            stream(exchange, service.getFacilities(), HttpApi::facility);
+            return;
+        }
+        MedicalFacility facility = found(
+            service.findFacility(id(path[0])), "facility"
+        );
+        if (path.length == 1) {
+            send(exchange, 200, json -> facility(json, facility));
+        } else if (path[1].equals("procedures") && path.length <= 3) {
+            if (!(facility instanceof Hospital hospital)) {
+                throw new ApiException(404, "Facility is not a hospital");
+            }
+            if (path.length == 2) {
+                stream(exchange, hospital.getProcedures(), HttpApi::procedure);
+                return;
+            }
+            Procedure procedure = found(
+                hospital.findProcedure(id(path[2])), "procedure"
+            );
+            send(exchange, 200, json -> procedure(json, procedure));
+        } else {
+            throw new ApiException(404, "No such endpoint");
+        }
+    }
+
+    /**
+     * Answers POST /visits by recording the visit.
+     */
+    private void visits(HttpExchange exchange, String[] path)
+            throws IOException {
+        if (path.length != 0) {
+            throw new ApiException(404, "No such endpoint");
+        }
+        allow(exchange, "POST");
+        Map<String, Object> body = body(exchange);
+        BatchProcessor.Result result = application.visit(
+            number(body, "patientId"),
+            number(body, "facilityId")
+        );
+        sendResult(exchange, result);
+    }
+
+    /**
+     * Answers POST /treatments by performing the procedure.
+     */
+    private void treatments(HttpExchange exchange, String[] path)
+            throws IOException {
+        if (path.length != 0) {
+            throw new ApiException(404, "No such endpoint");
+        }
+        allow(exchange, "POST");
+        Map<String, Object> body = body(exchange);
+        BatchProcessor.Result result = application.performProcedure(
+            number(body, "patientId"),
+            number(body, "hospitalId"),
+            number(body, "procedureId")
+        );
+        sendResult(exchange, result);
+    }
+
+    /**
+     * Sends the result of a visit or procedure, with status 404 if
+     * the patient, facility or procedure does not exist.
+     */
+    private static void sendResult(
+        HttpExchange exchange,
+        BatchProcessor.Result result
+    ) throws IOException {
+        boolean found = result.outcome() != BatchProcessor.Outcome.NOT_FOUND;
+        send(exchange, found ? 200 : 404, json -> {
+            json.beginObject()
+                .name("outcome").value(result.outcome().name())
+                .name("message").value(result.message())
+                .name("charged").value(money(result.chargedCents()));
+            if (found) {
+                json.name("balance")
+                    .value(money(result.patient().getBalanceCents()));
+            }
+            json.endObject();
+        });
+    }
+
+    /**
+     * Writes a patient.
+     */
+    private static void patient(Json json, Patient patient)
+            throws IOException {
+        MedicalFacility current = patient.getCurrentFacility();
+        json.beginObject()
+            .name("id").value(patient.getId())
+            .name("name").value(patient.getName())
+            .name("private").value(patient.isPrivate())
+            .name("balance").value(money(patient.getBalanceCents()))
+            .name("currentFacilityId");
+        if (current == null) {
+            json.nullValue();
+        } else {
+            json.value(current.getId());
+        }
+        json.name("registeredFacilityIds").beginArray();
+        for (MedicalFacility registered
+                : patient.getRegisteredFacilities()) {
+            json.value(registered.getId());
+        }
+        json.endArray().endObject();
+    }
+
+    /**
+     * Writes a hospital or clinic.
+     */
+    private static void facility(Json json, MedicalFacility facility)
+            throws IOException {
+        json.beginObject()
+            .name("id").value(facility.getId())
+            .name("name").value(facility.getName());
+        if (facility instanceof Hospital hospital) {
+            json.name("type").value("hospital")
+                .name("admissionProbability").value(hospital.getProbAdmit());
+        } else if (facility instanceof Clinic clinic) {
+            json.name("type").value("clinic")
+                .name("consultationFee")
+                .value(money(clinic.getConsultationFeeCents()))
+                .name("gapPercent")
+                .value(BigDecimal.valueOf(clinic.getGapBasisPoints(), 2));
+        }
+        json.endObject();
+    }
+
+    /**
+     * Writes a procedure.
+     */
+    private static void procedure(Json json, Procedure procedure)
+            throws IOException {
+        json.beginObject()
+            .name("id").value(procedure.getId())
+            .name("name").value(procedure.getName())
+            .name("description").value(procedure.getDescription())
+            .name("elective").value(procedure.isElective())
+            .name("cost").value(money(procedure.getCostCents()))
+            .endObject();
+    }
+
+    /**
+     * Returns an amount in cents as exact dollars.
+     */
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Answers with status 405 unless the request uses one of the
+     * allowed methods.
+     */
+    private static void allow(HttpExchange exchange, String... methods) {
+        String method = exchange.getRequestMethod();
+        for (String allowed : methods) {
+            if (allowed.equals(method)) {
+                return;
+            }
+        }
+        exchange.getResponseHeaders().set("Allow", String.join(", ", methods));
+        throw new ApiException(405, method + " is not allowed here");
+    }
+
+    /**
+     * Returns an entity, or answers with status 404 if it is null.
+     */
+    private static <T> T found(T entity, String kind) {
+        if (entity == null) {
+            throw new ApiException(404, "No such " + kind);
+        }
+        return entity;
+    }
+
+    /**
+     * Parses an ID from a path segment.
+     */
+    private static int id(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Not an ID: " + segment);
+        }
+    }
+
+    /**
+     * Reads and parses the JSON object in the request body.
+     */
+    private static Map<String, Object> body(HttpExchange exchange)
+            throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY + 1);
+            if (bytes.length > MAX_BODY) {
+                throw new ApiException(413, "Request body too large");
+            }
+            return Json.parseObject(
+                new String(bytes, StandardCharsets.UTF_8)
+            );
+        }
+    }
+
+    /**
+     * Returns a whole number member of a request body as an int.
+     */
+    private static int number(Map<String, Object> body, String name) {
+        if (body.get(name) instanceof Long value
+                && value == value.intValue()) {
+            return value.intValue();
+        }
+        throw new IllegalArgumentException(name + " must be a whole number");
+    }
+
+    /**
+     * Returns a string member of a request body.
+     */
+    private static String text(Map<String, Object> body, String name) {
+        if (body.get(name) instanceof String value && !value.isBlank()) {
+            return value;
+        }
+        throw new IllegalArgumentException(name + " must be a string");
+    }
+
+    /**
+     * Returns an int query parameter, or a default if it is absent.
+     */
+    private static int query(
+        HttpExchange exchange,
+        String name,
+        int defaultValue
+    ) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return defaultValue;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith(name + "=")) {
+                try {
+                    int value = Integer.parseInt(
+                        parameter.substring(name.length() + 1)
+                    );
+                    if (value >= 0) {
+                        return value;
+                    }
+                } catch (NumberFormatException e) {
+                    // Reported below
+                }
+                throw new IllegalArgumentException(
+                    name + " must be a whole number of at least 0"
+                );
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Sends a JSON error message.
+     */
+    private static void error(HttpExchange exchange, int status, String message)
+            throws IOException {
+        send(exchange, status, json -> json.beginObject()
+            .name("error").value(message)
+            .endObject());
+    }
+
+    /**
+     * Sends a small JSON body with its length, so the connection can
+     * be kept open for the next request.
+     */
+    private static void send(HttpExchange exchange, int status, Body body)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (Writer writer = new OutputStreamWriter(
+                bytes, StandardCharsets.UTF_8)) {
+            body.write(new Json(writer));
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.size());
+        bytes.writeTo(exchange.getResponseBody());
+    }
+
+    /**
+     * Streams a page of a list as a JSON array in chunks, reading
+     * each element only when it is written. The page is given by the
+     * offset and limit query parameters.
+     */
+    private static <T> void stream(
+        HttpExchange exchange,
+        List<T> list,
+        Writes<T> writes
+    ) throws IOException {
+        int offset = query(exchange, "offset", 0);
+        int limit = query(exchange, "limit", Integer.MAX_VALUE);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        // A length of 0 sends the body in chunks as it is written
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(
+                    exchange.getResponseBody(), StandardCharsets.UTF_8),
+                BUFFER_SIZE)) {
+            Json json = new Json(writer).beginArray();
+            long end = Math.min((long) offset + limit, list.size());
+            for (int i = offset; i < end; i++) {
+                T element;
+                try {
+                    element = list.get(i);
+                } catch (IndexOutOfBoundsException e) {
+                    // The list shrank while it was being sent
+                    break;
+                }
+                writes.write(json, element);
+            }
+            json.endArray();
+        }
+    }
+}
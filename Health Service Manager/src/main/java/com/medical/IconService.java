@@ -0,0 +1,265 @@
+/**
+ * @author : Yuuji
+ * IconService.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for image loading and caching
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+
+import com.formdev.flatlaf.FlatLaf;
+
+/**
+ * The IconService class loads the application's icons from the
+ * classpath and prepares them for display. Icons are scaled with a
+ * quality Graphics2D pass and optionally recolored in bulk through
+ * the image raster.
+ * <p>
+ * Every prepared icon is cached by its name, size, tint and theme, so
+ * opening the window, building renderers and switching themes reuse
+ * the icons prepared before instead of decoding and scaling again.
+ */
+final class IconService {
+    // Tint of recolored icons in the light theme
+    private static final Color LIGHT_TINT = Color.BLACK;
+    // Tint of recolored icons in the dark theme
+    private static final Color DARK_TINT = new Color(220, 220, 220);
+
+    // Decoded source images by resource name
+    private static final Map<String, BufferedImage> SOURCES =
+        new ConcurrentHashMap<>();
+    // Prepared icons by name, size, tint and theme
+    private static final Map<Key, ImageIcon> ICONS =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Identifies a prepared icon.
+     *
+     * @param name the resource name
+     * @param size the width and height in pixels
+     * @param tint the ARGB tint, or 0 for the original colors
+     * @param dark whether the icon was prepared for the dark theme
+     */
+    private record Key(String name, int size, int tint, boolean dark) {
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private IconService() {
+    }
+
+    /**
+     * Returns an icon in its original colors.
+     *
+     * @param name the resource name, such as "Save.png"
+     * @param size the width and height in pixels
+     * @return the cached icon
+     */
+    static ImageIcon icon(String name, int size) {
+        return ICONS.computeIfAbsent(
+            new Key(name, size, 0, false),
+            key -> new ImageIcon(prepare(key))
+        );
+    }
+
+    /**
+     * Returns an icon recolored with a tint. The alpha channel of
+     * the icon is kept, so only the shape of the icon remains.
+     *
+     * @param name the resource name
+     * @param size the width and height in pixels
+     * @param tint the color to paint the icon in
+     * @param dark whether the icon is meant for the dark theme
+     * @return the cached icon
+     */
+    static ImageIcon tinted(String name, int size, Color tint, boolean dark) {
+        return ICONS.computeIfAbsent(
+            new Key(name, size, tint.getRGB(), dark),
+            key -> new ImageIcon(prepare(key))
+        );
+    }
+
+    /**
+     * Returns an icon recolored to suit the current theme. The
+     * returned icon looks up the variant of the theme it is painted
+     * in, so it stays correct after the theme is switched.
+     *
+     * @param name the resource name
+     * @param size the width and height in pixels
+     * @return the themed icon
+     */
+    static Icon themed(String name, int size) {
+        return new ThemedIcon(name, size);
+    }
+
+    /**
+     * Returns a source image in its original size and colors.
+     *
+     * @param name the resource name
+     * @return the image, or an empty image if it cannot be loaded
+     */
+    static BufferedImage image(String name) {
+        return SOURCES.computeIfAbsent(name, IconService::load);
+    }
+
+    /**
+     * Decodes an image from the classpath.
+     */
+    private static BufferedImage load(String name) {
+        try (InputStream in = IconService.class.getResourceAsStream(
+                "/" + name)) {
+            BufferedImage image = in == null ? null : ImageIO.read(in);
+            if (image != null) {
+                return image;
+            }
+        } catch (IOException e) {
+            // Reported below like a missing icon
+        }
+        System.err.println(
+            "Error: Image " + name + " not loaded correctly. " +
+            "Please check the resources."
+        );
+        return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Scales and recolors the source image of a key.
+     */
+    private static BufferedImage prepare(Key key) {
+        BufferedImage icon = scale(image(key.name()), key.size());
+        if (key.tint() != 0) {
+            tint(icon, key.tint());
+        }
+        return icon;
+    }
+
+    /**
+     * Scales an image to a square of the given size. Large images are
+     * halved in steps first, since a single bicubic pass skips most
+     * source pixels when shrinking by more than half.
+     */
+    private static BufferedImage scale(BufferedImage image, int size) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(width / 2, size);
+            height = Math.max(height / 2, size);
+            if (width <= size * 2 && height <= size * 2) {
+                // Last pass lands on the requested size
+                width = size;
+                height = size;
+            }
+            BufferedImage next = new BufferedImage(
+                width,
+                height,
+                BufferedImage.TYPE_INT_ARGB
+            );
+            Graphics2D g2d = next.createGraphics();
+            g2d.setRenderingHint(
+                RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BICUBIC
+            );
+            g2d.setRenderingHint(
+                RenderingHints.KEY_RENDERING,
+                RenderingHints.VALUE_RENDER_QUALITY
+            );
+            g2d.drawImage(current, 0, 0, width, height, null);
+            g2d.dispose();
+            current = next;
+        } while (width != size || height != size);
+        return current;
+    }
+
+    /**
+     * Replaces the color of every pixel with a tint while keeping
+     * its alpha. The pixels are read and written as one block of the
+     * raster instead of one call per pixel.
+     */
+    private static void tint(BufferedImage image, int tint) {
+        WritableRaster raster = image.getRaster();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        // TYPE_INT_ARGB stores one packed pixel per element
+        int[] pixels = (int[]) raster.getDataElements(
+            0, 0, width, height, null
+        );
+        int rgb = tint & 0x00ffffff;
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (pixels[i] & 0xff000000) | rgb;
+        }
+        raster.setDataElements(0, 0, width, height, pixels);
+    }
+
+    /**
+     * The ThemedIcon class paints the variant of an icon that suits
+     * the theme in use when it is painted. Both variants are resolved
+     * once and kept, so painting does not touch the cache.
+     */
+    private static final class ThemedIcon implements Icon {
+        // Resource name of the icon
+        private final String name;
+        // Width and height in pixels
+        private final int size;
+        // Variant for the light theme, resolved on first use
+        private ImageIcon light;
+        // Variant for the dark theme, resolved on first use
+        private ImageIcon dark;
+
+        /**
+         * Constructs a ThemedIcon for a resource.
+         */
+        ThemedIcon(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        /**
+         * Returns the variant for the current theme.
+         */
+        private ImageIcon current() {
+            if (FlatLaf.isLafDark()) {
+                if (dark == null) {
+                    dark = tinted(name, size, DARK_TINT, true);
+                }
+                return dark;
+            }
+            if (light == null) {
+                light = tinted(name, size, LIGHT_TINT, false);
+            }
+            return light;
+        }
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            current().paintIcon(c, g, x, y);
+        }
+
+        @Override
+        public int getIconWidth() {
+            return size;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return size;
+        }
+    }
+}
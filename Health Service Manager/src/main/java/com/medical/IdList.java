@@ -0,0 +1,315 @@
+/**
+ * @author : Yuuji
+ * IdList.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for lists and bit sets
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.ToIntFunction;
+
+/**
+ * The IdList class is a list of entities ordered by ID that removes
+ * an entity without shifting the ones after it. A removed entity
+ * leaves a tombstone in its slot, and the slots are compacted once a
+ * quarter of them are tombstones, so the shifting costs amortized
+ * constant time per removal instead of a pass over the list.
+ * <p>
+ * Without tombstones a position is a slot and reads are direct. While
+ * there are tombstones, a Fenwick tree counting the live slots maps
+ * positions to slots and back in logarithmic time. The list is not
+ * thread-safe; the health service guards it with its locks.
+ *
+ * @param <T> the type of the entities
+ */
+final class IdList<T> extends AbstractList<T> implements RandomAccess {
+    // Slots before the first append
+    private static final Object[] EMPTY = {};
+    // Function returning the ID of an entity
+    private final ToIntFunction<? super T> idOf;
+    // Entities in ID order, removed ones are kept until compaction
+    private Object[] slots = EMPTY;
+    // Number of slots in use
+    private int end;
+    // Number of slots holding a removed entity
+    private int dead;
+    // Slots holding a removed entity
+    private final BitSet removed = new BitSet();
+    // Fenwick tree of live slots, only kept while dead is not zero
+    private int[] counts;
+
+    /**
+     * Constructs an empty IdList.
+     *
+     * @param idOf function returning the ID of an entity
+     */
+    IdList(ToIntFunction<? super T> idOf) {
+        this.idOf = idOf;
+    }
+
+    @Override
+    public int size() {
+        return end - dead;
+    }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size());
+        // Read once, a reader without the lock may see it change
+        int[] tree = counts;
+        return element(tree == null ? index : select(tree, index));
+    }
+
+    @Override
+    public boolean add(T entity) {
+        if (end > 0 && idOf(element(end - 1)) >= idOf(entity)) {
+            // Not the largest ID, keep the list ordered
+            insert(entity);
+        } else {
+            append(entity);
+        }
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> entities) {
+        ensureCapacity(end + entities.size());
+        for (T entity : entities) {
+            add(entity);
+        }
+        return !entities.isEmpty();
+    }
+
+    /**
+     * Returns the position of the entity with the given ID.
+     *
+     * @param id the ID to look for
+     * @return the position of the entity, or -1 if it is not found
+     */
+    int positionOf(int id) {
+        int slot = slotOf(id);
+        if (slot < 0 || removed.get(slot)) {
+            return -1;
+        }
+        // Live slots before the slot
+        return counts == null ? slot : prefix(slot);
+    }
+
+    /**
+     * Removes the entity with the given ID, leaving a tombstone in its
+     * slot.
+     *
+     * @param id the ID of the entity to remove
+     * @return true if the list held an entity with the ID
+     */
+    boolean removeId(int id) {
+        int slot = slotOf(id);
+        if (slot < 0 || removed.get(slot)) {
+            return false;
+        }
+        removed.set(slot);
+        dead++;
+        modCount++;
+        if (dead > end >> 2) {
+            // Enough tombstones to pay for one pass over the slots
+            compact();
+        } else if (counts == null) {
+            // First tombstone since the last compaction
+            counts = build();
+        } else {
+            // One live slot less from the removed slot on
+            for (int i = slot + 1; i <= end; i += i & -i) {
+                counts[i]--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves the live entities to the front and drops the tombstones,
+     * so positions are slots again. Needed before IDs are renumbered,
+     * as removed entities keep their old IDs.
+     */
+    void compact() {
+        if (dead == 0) {
+            return;
+        }
+        int live = 0;
+        for (int slot = 0; slot < end; slot++) {
+            if (!removed.get(slot)) {
+                slots[live++] = slots[slot];
+            }
+        }
+        // Let the removed entities be collected
+        Arrays.fill(slots, live, end, null);
+        end = live;
+        dead = 0;
+        removed.clear();
+        counts = null;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return toArray(new Object[size()]);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> A[] toArray(A[] array) {
+        int size = size();
+        if (array.length < size) {
+            array = (A[]) Array.newInstance(
+                array.getClass().getComponentType(), size
+            );
+        }
+        if (dead == 0) {
+            System.arraycopy(slots, 0, array, 0, size);
+        } else {
+            int count = 0;
+            for (int slot = 0; slot < end; slot++) {
+                if (!removed.get(slot)) {
+                    array[count++] = (A) slots[slot];
+                }
+            }
+        }
+        if (array.length > size) {
+            array[size] = null;
+        }
+        return array;
+    }
+
+    /**
+     * Appends an entity with a larger ID than any in the list.
+     */
+    private void append(T entity) {
+        ensureCapacity(end + 1);
+        slots[end++] = entity;
+        if (counts != null) {
+            // Count the live slots the new tree node covers
+            int low = end & -end;
+            counts[end] = 1 + prefix(end - 1) - prefix(end - low);
+        }
+    }
+
+    /**
+     * Inserts an entity in ID order. Only used for entities restored
+     * out of order, so it shifts the slots after it.
+     */
+    private void insert(T entity) {
+        compact();
+        int slot = -slotOf(idOf(entity)) - 1;
+        if (slot < 0) {
+            throw new IllegalArgumentException(
+                "Duplicate ID: " + idOf(entity)
+            );
+        }
+        ensureCapacity(end + 1);
+        System.arraycopy(slots, slot, slots, slot + 1, end - slot);
+        slots[slot] = entity;
+        end++;
+    }
+
+    /**
+     * Grows the slots to hold at least the given number of entities.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > slots.length) {
+            slots = Arrays.copyOf(
+                slots, Math.max(capacity, slots.length + (slots.length >> 1))
+            );
+            if (counts != null) {
+                counts = Arrays.copyOf(counts, slots.length + 1);
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of an ID by binary search, counting tombstones,
+     * which keep the IDs of their entities.
+     *
+     * @return the slot, or -(insertion point) - 1 if not found
+     */
+    private int slotOf(int id) {
+        int low = 0;
+        int high = end - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = idOf(element(mid));
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Builds the Fenwick tree of the live slots in one pass.
+     */
+    private int[] build() {
+        int[] tree = new int[slots.length + 1];
+        for (int i = 1; i <= end; i++) {
+            tree[i] += removed.get(i - 1) ? 0 : 1;
+            int parent = i + (i & -i);
+            if (parent <= end) {
+                tree[parent] += tree[i];
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the number of live slots among the first given slots.
+     */
+    private int prefix(int count) {
+        int sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the slot of the live entity at a position by descending
+     * the Fenwick tree.
+     */
+    private int select(int[] tree, int index) {
+        int slot = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(end); step > 0; step >>= 1) {
+            int next = slot + step;
+            if (next <= end && tree[next] < remaining) {
+                slot = next;
+                remaining -= tree[next];
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the entity in a slot.
+     */
+    @SuppressWarnings("unchecked")
+    private T element(int slot) {
+        return (T) slots[slot];
+    }
+
+    /**
+     * Returns the ID of an entity.
+     */
+    private int idOf(T entity) {
+        return idOf.applyAsInt(entity);
+    }
+}
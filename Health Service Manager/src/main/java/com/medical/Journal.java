@@ -0,0 +1,631 @@
+/**
+ * @author : Yuuji
+ * Journal.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for file handling and scheduling
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * The Journal class is a write-ahead log kept next to a snapshot.
+ * It listens to a HealthService and appends one small record per
+ * change, so a crash loses at most the last sync interval instead of
+ * everything since the last full save.
+ * <p>
+ * Records are collected in memory and written and forced to disk by
+ * a background thread every {@value #SYNC_INTERVAL_MS} milliseconds,
+ * so many changes share a single fsync. Changed patients, which
+ * every charge reports, are only noted and written by the next sync,
+ * so a patient charged many times in an interval costs one record
+ * and charging never waits for the journal. On startup the snapshot is
+ * loaded and the journal is replayed on top of it; a record torn by
+ * a crash fails its checksum and is cut off. Saving a new snapshot
+ * with {@link #checkpoint} starts an empty journal.
+ * <p>
+ * A {@link ChangeSet} keeps the IDs of the entities the journal
+ * records, including those replayed on startup. Saving them as a
+ * delta with {@link #beginDelta} and {@link #commitDelta} also starts
+ * an empty journal, chained to the snapshot through
+ * {@link DeltaSnapshots}.
+ */
+final class Journal implements HealthServiceListener, Closeable {
+    // Magic number at the start of every journal ("HSMJ")
+    static final int MAGIC = 0x48534D4A;
+    // Milliseconds between background syncs
+    static final long SYNC_INTERVAL_MS = 100;
+
+    // Health service whose changes are recorded
+    private final HealthService service;
+    // Snapshot file the journal belongs to
+    private final Path snapshot;
+    // Generation number of that snapshot
+    private final long generation;
+    // Channel of the journal file
+    private final FileChannel channel;
+    // Writer appending journal records to the channel
+    private final SnapshotCodec.Writer writer;
+    // Entities changed by the recorded changes
+    private final ChangeSet changes;
+    // Background thread syncing the journal
+    private final ScheduledExecutorService syncer;
+    // Whether records were added since the last sync
+    private boolean dirty;
+    // Whether the journal is in place next to its snapshot
+    private volatile boolean committed;
+    // Patients changed since the last sync, written by the next one
+    private final Set<Patient> changedPatients =
+        ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs a Journal appending to an open journal file and
+     * starts recording the health service's changes.
+     */
+    private Journal(
+        HealthService service,
+        Path snapshot,
+        long generation,
+        FileChannel channel,
+        SnapshotCodec.Writer writer,
+        ChangeSet changes
+    ) {
+        this.service = service;
+        this.snapshot = snapshot;
+        this.generation = generation;
+        this.channel = channel;
+        this.writer = writer;
+        this.changes = changes;
+        syncer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(
+            this::sync,
+            SYNC_INTERVAL_MS,
+            SYNC_INTERVAL_MS,
+            TimeUnit.MILLISECONDS
+        );
+        service.addListener(changes);
+        service.addListener(this);
+    }
+
+    /**
+     * Returns the journal file belonging to a snapshot file.
+     *
+     * @param snapshot the snapshot file
+     * @return the journal file next to it
+     */
+    static Path journalFile(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".journal");
+    }
+
+    /**
+     * Returns the file a new journal is written to while its
+     * snapshot is still being saved.
+     */
+    private static Path pendingFile(Path snapshot) {
+        return snapshot.resolveSibling(
+            snapshot.getFileName() + ".journal.pending"
+        );
+    }
+
+    /**
+     * Loads a snapshot, applies its deltas, replays its journal and
+     * keeps appending to the journal. A journal left over from an
+     * older snapshot is discarded.
+     *
+     * @param snapshot the snapshot file
+     * @return the journal recording further changes
+     * @throws IOException if the snapshot cannot be read
+     */
+    static Journal recover(Path snapshot) throws IOException {
+        return recover(snapshot, null);
+    }
+
+    /**
+     * Loads a snapshot, applies its deltas, replays its journal and
+     * keeps appending to the journal, reporting the progress of
+     * reading the snapshot.
+     *
+     * @param snapshot the snapshot file
+     * @param progress receives the percentage read, or null
+     * @return the journal recording further changes
+     * @throws IOException if the snapshot cannot be read
+     */
+    static Journal recover(Path snapshot, IntConsumer progress)
+            throws IOException {
+        HealthService service;
+        long generation;
+        try (SnapshotCodec.Reader reader = SnapshotCodec.reader(snapshot)) {
+            service = reader.read(progress);
+            generation = reader.generation();
+        }
+        // Deltas continue the chain the journal belongs to
+        generation = DeltaSnapshots.apply(snapshot, service, generation);
+        ChangeSet changes = new ChangeSet();
+        Path file = journalFile(snapshot);
+        /*
+         * A crash right after a save leaves the new journal under
+         * its pending name, so that one is tried first
+         */
+        long valid = -1;
+        for (Path candidate : List.of(pendingFile(snapshot), file)) {
+            if (valid >= 0 || !Files.exists(candidate)) {
+                continue;
+            }
+            int version;
+            try (FileChannel channel = FileChannel.open(candidate)) {
+                SnapshotCodec.Reader reader = new SnapshotCodec.Reader(channel);
+                valid = reader.replay(service, generation, MAGIC, changes);
+                version = reader.version();
+            } catch (IOException e) {
+                System.err.println("Discarding journal: " + e.getMessage());
+                // Save what was recovered and start over
+                return checkpoint(service, snapshot);
+            }
+            if (valid > 0 && version < SnapshotCodec.VERSION) {
+                // Records must not be appended in another format
+                return checkpoint(service, snapshot);
+            }
+            if (valid >= 0 && !candidate.equals(file)) {
+                Files.move(
+                    candidate,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE
+                );
+            }
+        }
+        FileChannel channel = FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE
+        );
+        // Cut off a record torn by a crash, or a stale journal
+        valid = Math.max(valid, 0);
+        channel.truncate(valid);
+        channel.position(valid);
+        SnapshotCodec.Writer writer = new SnapshotCodec.Writer(channel, true);
+        if (valid == 0) {
+            start(channel, writer, generation);
+        }
+        Journal journal = new Journal(
+            service, snapshot, generation, channel, writer, changes
+        );
+        journal.committed = true;
+        return journal;
+    }
+
+    /**
+     * Saves a full snapshot of the health service, compressed like
+     * the snapshot it replaces, and starts an empty journal for it.
+     *
+     * @param service the health service to save
+     * @param snapshot the snapshot file
+     * @return the journal recording further changes
+     * @throws IOException if the snapshot or journal cannot be written
+     */
+    static Journal checkpoint(HealthService service, Path snapshot)
+            throws IOException {
+        BlockCompression.Codec codec = Files.exists(snapshot)
+            ? BlockCompression.codecOf(snapshot)
+            : BlockCompression.Codec.NONE;
+        Journal journal = begin(service, snapshot);
+        try {
+            journal.commit(service, codec, null);
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Starts recording the health service's changes for a snapshot
+     * that is about to be saved with {@link #commit}. Changes made
+     * while the snapshot is written go to this journal. Any journal
+     * still open on the same snapshot must be closed first, and no
+     * delta of it may be in progress, as both use the same pending
+     * file.
+     *
+     * @param service the health service to record
+     * @param snapshot the snapshot file
+     * @return the new journal
+     * @throws IOException if the journal cannot be created
+     */
+    static Journal begin(HealthService service, Path snapshot)
+            throws IOException {
+        long generation = ThreadLocalRandom.current().nextLong();
+        /*
+         * The old journal stays in place until the new snapshot is,
+         * so a crash in between still recovers the old state
+         */
+        FileChannel channel = FileChannel.open(
+            pendingFile(snapshot),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE
+        );
+        SnapshotCodec.Writer writer = new SnapshotCodec.Writer(channel, true);
+        start(channel, writer, generation);
+        return new Journal(
+            service, snapshot, generation, channel, writer, new ChangeSet()
+        );
+    }
+
+    /**
+     * Writes the snapshot this journal belongs to and puts the
+     * journal in place of the previous one. The deltas of the
+     * previous snapshot are deleted. Can be called from any thread.
+     *
+     * @param copy the state of the health service when the journal
+     *        was begun, typically a {@link HealthService#copy()}
+     * @param codec the codec compressing the snapshot
+     * @param progress receives the percentage written, or null
+     * @throws IOException if the snapshot cannot be written
+     */
+    void commit(
+        HealthService copy,
+        BlockCompression.Codec codec,
+        IntConsumer progress
+    ) throws IOException {
+        SnapshotCodec.write(copy, snapshot, generation, codec, progress);
+        Files.move(
+            pendingFile(snapshot),
+            journalFile(snapshot),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE
+        );
+        committed = true;
+        // The new snapshot holds their changes already
+        DeltaSnapshots.discard(snapshot);
+    }
+
+    /**
+     * Stops this journal and starts the one that follows the delta
+     * of its changes, to be written with {@link #commitDelta}.
+     * Changes made while the delta is written go to the new journal.
+     * This journal must have been committed, so the snapshot or delta
+     * it follows is in place and its pending file is free.
+     *
+     * @return the new journal
+     * @throws IOException if the journal cannot be created
+     * @throws IllegalStateException if this journal is not committed
+     */
+    Journal beginDelta() throws IOException {
+        if (!committed) {
+            throw new IllegalStateException(
+                "The snapshot is still being saved"
+            );
+        }
+        // Start the next journal first so no change is missed
+        Journal next = begin(service, snapshot);
+        try {
+            close();
+        } catch (IOException e) {
+            next.close();
+            throw e;
+        }
+        return next;
+    }
+
+    /**
+     * Writes the changes recorded by the previous journal as a delta
+     * of the snapshot and puts this journal in place of the previous
+     * one. Can be called from any thread.
+     *
+     * @param previous the journal this one was begun from with
+     *        {@link #beginDelta}
+     * @param progress receives the percentage written, or null
+     * @throws IOException if the delta cannot be written
+     */
+    void commitDelta(Journal previous, IntConsumer progress)
+            throws IOException {
+        DeltaSnapshots.write(
+            snapshot,
+            previous.generation,
+            generation,
+            service,
+            previous.changes,
+            progress
+        );
+        Files.move(
+            pendingFile(snapshot),
+            journalFile(snapshot),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE
+        );
+        committed = true;
+    }
+
+    /**
+     * Writes the preamble and base record of a new journal and
+     * forces them to disk.
+     */
+    private static void start(
+        FileChannel channel,
+        SnapshotCodec.Writer writer,
+        long generation
+    ) throws IOException {
+        writer.preamble(MAGIC);
+        writer.base(generation);
+        writer.flush();
+        channel.force(false);
+    }
+
+    /**
+     * Returns the health service whose changes are recorded.
+     *
+     * @return the health service
+     */
+    HealthService service() {
+        return service;
+    }
+
+    /**
+     * Returns the snapshot file the journal belongs to.
+     *
+     * @return the snapshot file
+     */
+    Path snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns whether the journal is in place next to its snapshot,
+     * once {@link #commit} or {@link #commitDelta} has returned or it
+     * was recovered.
+     *
+     * @return true if the journal is committed
+     */
+    boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * Returns the number of entities changed by the recorded
+     * changes, which a delta would hold.
+     *
+     * @return the number of changed entities
+     */
+    int changeCount() {
+        return changes.size();
+    }
+
+    /**
+     * Writes the buffered records to the journal file and forces
+     * them to disk.
+     */
+    void sync() {
+        try {
+            synchronized (this) {
+                if (!channel.isOpen()) {
+                    return;
+                }
+                writeChangedPatients();
+                if (!dirty) {
+                    return;
+                }
+                writer.flush();
+                dirty = false;
+            }
+            // Force outside the lock so changes are not held up
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Error syncing journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops recording, syncs the remaining records and closes the
+     * journal file.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        service.removeListener(this);
+        service.removeListener(changes);
+        syncer.shutdown();
+        synchronized (this) {
+            try {
+                writeChangedPatients();
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the current state of the patients changed since the last
+     * sync, skipping those removed since, whose removal is recorded
+     * already. Called with the monitor held.
+     */
+    private void writeChangedPatients() throws IOException {
+        for (Patient patient : changedPatients) {
+            changedPatients.remove(patient);
+            if (service.findPatient(patient.getId()) == patient) {
+                writer.patient(patient);
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Records an added patient.
+     *
+     * @param patient the added patient
+     */
+    @Override
+    public synchronized void patientAdded(Patient patient) {
+        try {
+            writer.patient(patient);
+            dirty = true;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Records a removed patient.
+     *
+     * @param patient the removed patient
+     */
+    @Override
+    public synchronized void patientRemoved(Patient patient) {
+        try {
+            writer.removePatient(patient.getId());
+            dirty = true;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Notes a changed patient, whose state is written by the next
+     * sync. Does not take the monitor, so threads charging patients
+     * do not queue up behind each other or behind a sync.
+     *
+     * @param patient the changed patient
+     */
+    @Override
+    public void patientChanged(Patient patient) {
+        changedPatients.add(patient);
+    }
+
+    /**
+     * Records an added facility, including the procedures of a
+     * hospital.
+     *
+     * @param facility the added facility
+     */
+    @Override
+    public synchronized void facilityAdded(MedicalFacility facility) {
+        try {
+            writer.facility(facility);
+            if (facility instanceof Hospital hospital) {
+                for (Procedure procedure
+                        : hospital.getProcedureSnapshot()) {
+                    writer.procedure(hospital.getId(), procedure);
+                }
+            }
+            dirty = true;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Records a removed facility.
+     *
+     * @param facility the removed facility
+     */
+    @Override
+    public synchronized void facilityRemoved(MedicalFacility facility) {
+        try {
+            writer.removeFacility(facility.getId());
+            dirty = true;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Records the new state of a changed facility.
+     *
+     * @param facility the changed facility
+     */
+    @Override
+    public synchronized void facilityChanged(MedicalFacility facility) {
+        try {
+            writer.facility(facility);
+            dirty = true;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Records a procedure added to a hospital.
+     *
+     * @param hospital the hospital offering the procedure
+     * @param procedure the added procedure
+     */
+    @Override
+    public synchronized void procedureAdded(
+        Hospital hospital,
+        Procedure procedure
+    ) {
+        try {
+            // The hospital record carries the next procedure ID
+            writer.facility(hospital);
+            writer.procedure(hospital.getId(), procedure);
+            dirty = true;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Records a procedure removed from a hospital.
+     *
+     * @param hospital the hospital that offered the procedure
+     * @param procedure the removed procedure
+     */
+    @Override
+    public synchronized void procedureRemoved(
+        Hospital hospital,
+        Procedure procedure
+    ) {
+        try {
+            writer.removeProcedure(hospital.getId(), procedure.getId());
+            dirty = true;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Records the new state of a changed procedure.
+     *
+     * @param hospital the hospital offering the procedure
+     * @param procedure the changed procedure
+     */
+    @Override
+    public synchronized void procedureChanged(
+        Hospital hospital,
+        Procedure procedure
+    ) {
+        try {
+            writer.procedure(hospital.getId(), procedure);
+            dirty = true;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Reports a journal write error. The change stays in memory and
+     * is saved with the next full snapshot.
+     */
+    private void failed(IOException e) {
+        System.err.println("Error writing journal: " + e.getMessage());
+    }
+}
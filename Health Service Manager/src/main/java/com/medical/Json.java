@@ -0,0 +1,431 @@
+/**
+ * @author : Yuuji
+ * Json.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for character output and parsed values
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The Json class writes JSON text straight to a {@link Writer}, value
+ * by value, so that long lists are sent while they are still being
+ * read instead of being built in memory first. It also parses the
+ * small flat objects the HTTP API receives.
+ * <p>
+ * The writer does not check that calls are nested correctly; callers
+ * pair every begin with its end.
+ */
+final class Json {
+    // Escapes of the control characters below a space
+    private static final String[] CONTROL_ESCAPES = new String[' '];
+
+    static {
+        for (int c = 0; c < ' '; c++) {
+            CONTROL_ESCAPES[c] = String.format("\\u%04x", c);
+        }
+        CONTROL_ESCAPES['\b'] = "\\b";
+        CONTROL_ESCAPES['\f'] = "\\f";
+        CONTROL_ESCAPES['\n'] = "\\n";
+        CONTROL_ESCAPES['\r'] = "\\r";
+        CONTROL_ESCAPES['\t'] = "\\t";
+    }
+
+    // Writer the text goes to
+    private final Writer out;
+    // Whether the next value or name needs a comma before it
+    private boolean comma;
+
+    /**
+     * Constructs a Json writer.
+     *
+     * @param out the writer the text goes to
+     */
+    Json(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Starts an object.
+     *
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json beginObject() throws IOException {
+        separate();
+        out.write('{');
+        comma = false;
+        return this;
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json endObject() throws IOException {
+        out.write('}');
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Starts an array.
+     *
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json beginArray() throws IOException {
+        separate();
+        out.write('[');
+        comma = false;
+        return this;
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json endArray() throws IOException {
+        out.write(']');
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Writes the name of the next member of an object.
+     *
+     * @param name the member name
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json name(String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        comma = false;
+        return this;
+    }
+
+    /**
+     * Writes a string, or null.
+     *
+     * @param value the string
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value);
+        }
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Writes a whole number.
+     *
+     * @param value the number
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Writes a number with a fraction.
+     *
+     * @param value the number, which must be finite
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json value(double value) throws IOException {
+        separate();
+        out.write(Double.toString(value));
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Writes an exact decimal number, such as an amount of money.
+     *
+     * @param value the number
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json value(BigDecimal value) throws IOException {
+        separate();
+        out.write(value.toPlainString());
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Writes a boolean.
+     *
+     * @param value the boolean
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Writes null.
+     *
+     * @return this writer
+     * @throws IOException if the text cannot be written
+     */
+    Json nullValue() throws IOException {
+        separate();
+        out.write("null");
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Writes a comma if a value came before at this level.
+     */
+    private void separate() throws IOException {
+        if (comma) {
+            out.write(',');
+        }
+    }
+
+    /**
+     * Writes a quoted string with the characters JSON requires
+     * escaped.
+     */
+    private void string(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = c < ' ' ? CONTROL_ESCAPES[c]
+                : c == '"' ? "\\\""
+                : c == '\\' ? "\\\\"
+                : null;
+            if (escape != null) {
+                // Write the plain run before the escaped character
+                out.write(value, start, i - start);
+                out.write(escape);
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    /**
+     * Parses an object whose members are strings, numbers, booleans
+     * or null. Whole numbers are returned as Long, other numbers as
+     * Double.
+     *
+     * @param text the JSON text
+     * @return the members in the order they appear
+     * @throws IllegalArgumentException if the text is not such an
+     *         object
+     */
+    static Map<String, Object> parseObject(String text) {
+        return new Parser(text).object();
+    }
+
+    /**
+     * The Parser class reads one flat object from a string.
+     */
+    private static final class Parser {
+        // Text being parsed
+        private final String text;
+        // Position of the next character
+        private int position;
+
+        /**
+         * Constructs a Parser for a text.
+         */
+        Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Parses the whole text as an object.
+         */
+        Map<String, Object> object() {
+            Map<String, Object> members = new LinkedHashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                position++;
+            } else {
+                while (true) {
+                    String name = string();
+                    expect(':');
+                    members.put(name, value());
+                    int c = next();
+                    if (c == '}') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            if (peek() != -1) {
+                throw error("Unexpected text after the object");
+            }
+            return members;
+        }
+
+        /**
+         * Parses a string, number, boolean or null.
+         */
+        private Object value() {
+            int c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                return number();
+            }
+            for (String word : new String[] {"true", "false", "null"}) {
+                if (text.startsWith(word, position)) {
+                    position += word.length();
+                    return word.equals("null") ? null : word.equals("true");
+                }
+            }
+            throw error("Expected a string, number, boolean or null");
+        }
+
+        /**
+         * Parses a quoted string.
+         */
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (position >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw error("Truncated escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(
+                                text.substring(position, position + 4), 16
+                            ));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid escape");
+                        }
+                        position += 4;
+                    }
+                    default -> throw error("Invalid escape");
+                }
+            }
+        }
+
+        /**
+         * Parses a number.
+         */
+        private Number number() {
+            int start = position;
+            boolean whole = true;
+            while (position < text.length()) {
+                char c = text.charAt(position);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    whole = false;
+                } else if (c != '-' && c != '+' && (c < '0' || c > '9')) {
+                    break;
+                }
+                position++;
+            }
+            String literal = text.substring(start, position);
+            try {
+                return whole
+                    ? (Number) Long.parseLong(literal)
+                    : (Number) Double.parseDouble(literal);
+            } catch (NumberFormatException e) {
+                throw error("Invalid number " + literal);
+            }
+        }
+
+        /**
+         * Skips whitespace and consumes the expected character.
+         */
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        /**
+         * Skips whitespace and consumes the next character, or returns
+         * -1 at the end of the text.
+         */
+        private int next() {
+            int c = peek();
+            if (c != -1) {
+                position++;
+            }
+            return c;
+        }
+
+        /**
+         * Skips whitespace and returns the next character without
+         * consuming it, or -1 at the end of the text.
+         */
+        private int peek() {
+            while (position < text.length()
+                    && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            return position < text.length() ? text.charAt(position) : -1;
+        }
+
+        /**
+         * Returns the error for invalid text at the current position.
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(
+                message + " at position " + position
+            );
+        }
+    }
+}
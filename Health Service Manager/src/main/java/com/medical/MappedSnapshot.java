@@ -0,0 +1,669 @@
+/**
+ * @author : Yuuji
+ * MappedSnapshot.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for memory mapping and file handling
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The MappedSnapshot class opens a snapshot file read-only by mapping
+ * it into memory instead of decoding it into a HealthService.
+ * <p>
+ * Rows are located through the index written after the end record
+ * (format version 2), so opening does not read the records at all.
+ * Patients, facilities and procedures are returned as lightweight
+ * views that decode their fields from the mapped bytes when asked,
+ * so heap use follows what is actually looked at, not the file size.
+ * Patient records are compact since version 4, so a patient view
+ * decodes its varint fields when it is created and only the name on
+ * demand.
+ * Files written before version 2 have no index and are scanned once
+ * on open instead. Compressed snapshots cannot be mapped and are
+ * refused.
+ * <p>
+ * A MappedSnapshot is meant to be used from a single thread, such as
+ * the Event Dispatch Thread. Views must not be used after it is
+ * closed.
+ */
+final class MappedSnapshot implements Closeable {
+    // Layouts matching the big-endian byte order of snapshot files
+    private static final ValueLayout.OfInt INT =
+        ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG =
+        ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE =
+        ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    // Arena owning the mapping, closing it unmaps the file
+    private final Arena arena;
+    // The mapped snapshot file
+    private final MemorySegment segment;
+    // Whether money is stored in cents, as since format version 3
+    private boolean exact;
+    // Whether patient records are compact, as since format version 4
+    private boolean compact;
+    // Number of facilities in the snapshot
+    private int facilityCount;
+    // Number of patients in the snapshot
+    private int patientCount;
+    // Every how many patients an offset is known
+    private int stride = SnapshotCodec.INDEX_STRIDE;
+    // Position of the facility offsets in the mapped index, or -1
+    private long facilityTable = -1;
+    // Position of the patient offsets in the mapped index, or -1
+    private long patientTable = -1;
+    // Offsets found by scanning files without an index
+    private long[] facilityOffsets;
+    private long[] patientOffsets;
+    // Last patient located, to make sequential access cheap
+    private int lastPatient = -1;
+    private long lastPatientOffset;
+
+    /**
+     * Constructs a MappedSnapshot over a mapped file.
+     */
+    private MappedSnapshot(Arena arena, MemorySegment segment) {
+        this.arena = arena;
+        this.segment = segment;
+    }
+
+    /**
+     * Maps a snapshot file read-only.
+     *
+     * @param file the snapshot file
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be mapped or is not a
+     *         snapshot
+     */
+    static MappedSnapshot open(Path file) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedSnapshot snapshot = new MappedSnapshot(
+                arena,
+                channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size(), arena)
+            );
+            snapshot.readIndex();
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Locates the index through the trailer, or builds one by
+     * scanning the records when the file has no index.
+     */
+    private void readIndex() throws IOException {
+        long size = segment.byteSize();
+        if (size >= 4 && segment.get(INT, 0) == BlockCompression.MAGIC) {
+            throw new IOException(
+                "Compressed snapshots cannot be browsed, load them instead"
+            );
+        }
+        if (size < 8 || segment.get(INT, 0) != SnapshotCodec.MAGIC) {
+            throw new IOException("Not a health service snapshot");
+        }
+        int version = segment.get(INT, 4);
+        if (version < 1 || version > SnapshotCodec.VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        exact = version >= 3;
+        compact = version >= 4;
+        if (version >= 2 && size >= 8 + SnapshotCodec.TRAILER_SIZE
+                && segment.get(INT, size - 4) == SnapshotCodec.MAGIC) {
+            long index = segment.get(LONG, size - SnapshotCodec.TRAILER_SIZE);
+            if (index > 0 && index < size
+                    && segment.get(ValueLayout.JAVA_BYTE, index + 4)
+                        == SnapshotCodec.INDEX) {
+                // Skip the length prefix and record type
+                long position = index + 5;
+                facilityCount = segment.get(INT, position);
+                facilityTable = position + 4;
+                position = facilityTable + 8L * facilityCount;
+                patientCount = segment.get(INT, position);
+                stride = segment.get(INT, position + 4);
+                patientTable = position + 8;
+                return;
+            }
+        }
+        scan();
+    }
+
+    /**
+     * Builds the facility and patient offsets by walking the records
+     * of a file that has no index.
+     */
+    private void scan() throws IOException {
+        facilityOffsets = new long[16];
+        patientOffsets = new long[16];
+        long position = 8;
+        while (position + 5 <= segment.byteSize()) {
+            int length = segment.get(INT, position);
+            byte type = segment.get(ValueLayout.JAVA_BYTE, position + 4);
+            switch (type) {
+                case SnapshotCodec.HOSPITAL, SnapshotCodec.CLINIC -> {
+                    facilityOffsets = store(
+                        facilityOffsets, facilityCount++, position
+                    );
+                }
+                case SnapshotCodec.PATIENT -> {
+                    if (patientCount % stride == 0) {
+                        patientOffsets = store(
+                            patientOffsets, patientCount / stride, position
+                        );
+                    }
+                    patientCount++;
+                }
+                case SnapshotCodec.END -> {
+                    return;
+                }
+                default -> {
+                    // Other records are not indexed
+                }
+            }
+            position += 4L + length;
+        }
+        throw new IOException("Snapshot is truncated");
+    }
+
+    /**
+     * Stores a value at the given index of an array, growing the
+     * array when it is full.
+     */
+    private static long[] store(long[] array, int index, long value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+
+    /**
+     * Returns the number of facilities in the snapshot.
+     *
+     * @return the facility count
+     */
+    int facilityCount() {
+        return facilityCount;
+    }
+
+    /**
+     * Returns the number of patients in the snapshot.
+     *
+     * @return the patient count
+     */
+    int patientCount() {
+        return patientCount;
+    }
+
+    /**
+     * Returns a view of the facility at the given position.
+     *
+     * @param index the position of the facility, from 0
+     * @return the facility view
+     */
+    FacilityView facility(int index) {
+        checkIndex(index, facilityCount);
+        long offset = facilityTable >= 0
+            ? segment.get(LONG, facilityTable + 8L * index)
+            : facilityOffsets[index];
+        return new FacilityView(segment, offset, exact);
+    }
+
+    /**
+     * Returns a view of the patient at the given position. The
+     * nearest indexed patient is looked up and the records after it
+     * are skipped, so at most a few dozen records are touched.
+     *
+     * @param index the position of the patient, from 0
+     * @return the patient view
+     */
+    PatientView patient(int index) {
+        checkIndex(index, patientCount);
+        long offset;
+        int from;
+        if (lastPatient >= 0 && lastPatient <= index
+                && index - lastPatient < stride) {
+            // Continue from the last patient, rows are read in order
+            offset = lastPatientOffset;
+            from = lastPatient;
+        } else {
+            from = index - index % stride;
+            offset = patientTable >= 0
+                ? segment.get(LONG, patientTable + 8L * (from / stride))
+                : patientOffsets[from / stride];
+        }
+        for (int i = from; i < index; i++) {
+            // Skip the length prefix and the record
+            offset += 4L + segment.get(INT, offset);
+        }
+        lastPatient = index;
+        lastPatientOffset = offset;
+        return new PatientView(segment, offset, exact, compact);
+    }
+
+    /**
+     * Returns views of the procedures a hospital offers. They are
+     * the procedure records directly following the hospital record.
+     *
+     * @param hospital the hospital view
+     * @return the procedure views, empty for a clinic
+     */
+    List<ProcedureView> procedures(FacilityView hospital) {
+        List<ProcedureView> procedures = new ArrayList<>();
+        long offset = hospital.offset + 4L + segment.get(INT, hospital.offset);
+        while (offset + 5 <= segment.byteSize()
+                && segment.get(ValueLayout.JAVA_BYTE, offset + 4)
+                    == SnapshotCodec.PROCEDURE) {
+            procedures.add(new ProcedureView(segment, offset, exact));
+            offset += 4L + segment.get(INT, offset);
+        }
+        return procedures;
+    }
+
+    /**
+     * Unmaps the snapshot file.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Checks that a row position lies within the given count.
+     */
+    private static void checkIndex(int index, int count) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(
+                "Index " + index + " out of bounds for length " + count
+            );
+        }
+    }
+
+    /**
+     * Decodes a length-prefixed UTF-8 string at the given position.
+     */
+    private static String string(MemorySegment segment, long position) {
+        int length = segment.get(INT, position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(
+            segment, ValueLayout.JAVA_BYTE, position + 4, bytes, 0, length
+        );
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the unsigned varint at the given position.
+     */
+    private static long varLong(MemorySegment segment, long position) {
+        long value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = segment.get(ValueLayout.JAVA_BYTE, position++);
+            value |= (long) (next & 0x7F) << shift;
+            shift += 7;
+        } while (next < 0);
+        return value;
+    }
+
+    /**
+     * Returns the position just past the varint at the given position.
+     */
+    private static long skipVarLong(MemorySegment segment, long position) {
+        while (segment.get(ValueLayout.JAVA_BYTE, position) < 0) {
+            // The high bit marks another byte
+            position++;
+        }
+        return position + 1;
+    }
+
+    /**
+     * Decodes a UTF-8 string whose length plus one is a varint.
+     */
+    private static String compactString(
+        MemorySegment segment,
+        long position
+    ) {
+        int length = (int) varLong(segment, position) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(
+            segment, ValueLayout.JAVA_BYTE, skipVarLong(segment, position),
+            bytes, 0, length
+        );
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns an amount in dollars stored as cents, or as dollars by
+     * files written before version 3.
+     */
+    private static double dollars(
+        MemorySegment segment,
+        long position,
+        boolean exact
+    ) {
+        return exact
+            ? Money.dollars(segment.get(LONG, position))
+            : segment.get(DOUBLE, position);
+    }
+
+    /**
+     * Returns the position just past a length-prefixed string.
+     */
+    private static long skipString(MemorySegment segment, long position) {
+        return position + 4 + Math.max(0, segment.get(INT, position));
+    }
+
+    /**
+     * A read-only view of a hospital or clinic record.
+     */
+    static final class FacilityView {
+        // The mapped snapshot file
+        private final MemorySegment segment;
+        // Position of the record's length prefix
+        private final long offset;
+        // Position of the first field after the name
+        private final long details;
+        // Whether money is stored in cents
+        private final boolean exact;
+
+        /**
+         * Constructs a FacilityView over the record at the given
+         * position.
+         */
+        private FacilityView(
+            MemorySegment segment,
+            long offset,
+            boolean exact
+        ) {
+            this.segment = segment;
+            this.offset = offset;
+            this.exact = exact;
+            details = skipString(segment, offset + 9);
+        }
+
+        /**
+         * Returns the facility ID.
+         *
+         * @return the facility ID
+         */
+        int getId() {
+            return segment.get(INT, offset + 5);
+        }
+
+        /**
+         * Returns the facility name.
+         *
+         * @return the facility name
+         */
+        String getName() {
+            return string(segment, offset + 9);
+        }
+
+        /**
+         * Returns whether the facility is a hospital.
+         *
+         * @return true for a hospital, false for a clinic
+         */
+        boolean isHospital() {
+            return segment.get(ValueLayout.JAVA_BYTE, offset + 4)
+                == SnapshotCodec.HOSPITAL;
+        }
+
+        /**
+         * Returns the facility type as shown in the facility table.
+         *
+         * @return "Hospital" or "Clinic"
+         */
+        String getType() {
+            return isHospital() ? "Hospital" : "Clinic";
+        }
+
+        /**
+         * Returns the admission probability of a hospital.
+         *
+         * @return the admission probability, 0 for a clinic
+         */
+        double getProbAdmit() {
+            return isHospital() ? segment.get(DOUBLE, details) : 0;
+        }
+
+        /**
+         * Returns the consultation fee of a clinic.
+         *
+         * @return the consultation fee, 0 for a hospital
+         */
+        double getConsultationFee() {
+            return isHospital() ? 0 : dollars(segment, details, exact);
+        }
+
+        /**
+         * Returns the gap percentage of a clinic.
+         *
+         * @return the gap percentage, 0 for a hospital
+         */
+        double getGapPercent() {
+            if (isHospital()) {
+                return 0;
+            }
+            return exact
+                ? Money.percent(segment.get(INT, details + 8))
+                : segment.get(DOUBLE, details + 8);
+        }
+    }
+
+    /**
+     * A read-only view of a patient record.
+     */
+    static final class PatientView {
+        // The mapped snapshot file
+        private final MemorySegment segment;
+        // Position of the patient name
+        private final long name;
+        // Whether the record is compact
+        private final boolean compact;
+        // Fields decoded when the view is created
+        private final int id;
+        private final boolean isPrivate;
+        private final double balance;
+        private final int currentFacilityId;
+        private final int registeredCount;
+
+        /**
+         * Constructs a PatientView over the record at the given
+         * position.
+         */
+        private PatientView(
+            MemorySegment segment,
+            long offset,
+            boolean exact,
+            boolean compact
+        ) {
+            this.segment = segment;
+            this.compact = compact;
+            if (!compact) {
+                // Fixed-size fields around the name
+                id = segment.get(INT, offset + 5);
+                name = offset + 9;
+                long details = skipString(segment, name);
+                isPrivate = segment.get(ValueLayout.JAVA_BYTE, details) != 0;
+                balance = dollars(segment, details + 1, exact);
+                currentFacilityId = segment.get(INT, details + 9);
+                registeredCount = segment.get(INT, details + 13);
+                return;
+            }
+            // Skip the length prefix and record type
+            long position = offset + 5;
+            id = (int) varLong(segment, position);
+            name = skipVarLong(segment, position);
+            long length = varLong(segment, name) - 1;
+            position = skipVarLong(segment, name) + Math.max(0, length);
+            isPrivate = segment.get(ValueLayout.JAVA_BYTE, position++) != 0;
+            balance = Money.dollars(
+                SnapshotCodec.unzigzag(varLong(segment, position))
+            );
+            position = skipVarLong(segment, position);
+            currentFacilityId = (int) varLong(segment, position);
+            position = skipVarLong(segment, position);
+            registeredCount = (int) varLong(segment, position);
+        }
+
+        /**
+         * Returns the patient ID.
+         *
+         * @return the patient ID
+         */
+        int getId() {
+            return id;
+        }
+
+        /**
+         * Returns the patient name.
+         *
+         * @return the patient name
+         */
+        String getName() {
+            return compact
+                ? compactString(segment, name)
+                : string(segment, name);
+        }
+
+        /**
+         * Returns whether the patient is private.
+         *
+         * @return true if the patient is private
+         */
+        boolean isPrivate() {
+            return isPrivate;
+        }
+
+        /**
+         * Returns the patient's balance.
+         *
+         * @return the balance
+         */
+        double getBalance() {
+            return balance;
+        }
+
+        /**
+         * Returns the ID of the patient's current facility.
+         *
+         * @return the facility ID, or 0 if there is none
+         */
+        int getCurrentFacilityId() {
+            return currentFacilityId;
+        }
+
+        /**
+         * Returns the number of facilities the patient is registered at.
+         *
+         * @return the registration count
+         */
+        int getRegisteredCount() {
+            return registeredCount;
+        }
+    }
+
+    /**
+     * A read-only view of a procedure record.
+     */
+    static final class ProcedureView {
+        // The mapped snapshot file
+        private final MemorySegment segment;
+        // Position of the record's length prefix
+        private final long offset;
+        // Whether money is stored in cents
+        private final boolean exact;
+
+        /**
+         * Constructs a ProcedureView over the record at the given
+         * position.
+         */
+        private ProcedureView(
+            MemorySegment segment,
+            long offset,
+            boolean exact
+        ) {
+            this.segment = segment;
+            this.offset = offset;
+            this.exact = exact;
+        }
+
+        /**
+         * Returns the procedure ID.
+         *
+         * @return the procedure ID
+         */
+        int getId() {
+            // Skip the hospital ID
+            return segment.get(INT, offset + 9);
+        }
+
+        /**
+         * Returns the procedure name.
+         *
+         * @return the procedure name
+         */
+        String getName() {
+            return string(segment, offset + 13);
+        }
+
+        /**
+         * Returns the procedure description.
+         *
+         * @return the procedure description
+         */
+        String getDescription() {
+            return string(segment, skipString(segment, offset + 13));
+        }
+
+        /**
+         * Returns whether the procedure is elective.
+         *
+         * @return true if the procedure is elective
+         */
+        boolean isElective() {
+            long position = skipString(
+                segment, skipString(segment, offset + 13)
+            );
+            return segment.get(ValueLayout.JAVA_BYTE, position) != 0;
+        }
+
+        /**
+         * Returns the cost of the procedure.
+         *
+         * @return the procedure cost
+         */
+        double getCost() {
+            long position = skipString(
+                segment, skipString(segment, offset + 13)
+            );
+            return dollars(segment, position + 1, exact);
+        }
+    }
+}
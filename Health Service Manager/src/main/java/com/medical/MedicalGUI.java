@@ -1,7 +1,7 @@
 /**
  * @author: Yuuji
  * MedicalGUI.java
- * Latest Update: 12-25-2024
+ * Latest Update: 10-17-2026
  * <p> 
  * The MedicalGUI class provides a graphical user interface for
  * managing a medical health service. It allows users to manage
@@ -23,26 +23,28 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.EventQueue;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.GridLayout;
-import java.awt.Image;
 import java.awt.Insets;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
-import java.awt.image.BufferedImage;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.prefs.Preferences;
 
-import javax.imageio.ImageIO;
 import javax.swing.AbstractAction;
 import javax.swing.BorderFactory;
 import javax.swing.Icon;
@@ -57,6 +59,7 @@ import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTable;
@@ -68,8 +71,21 @@ import javax.swing.ListCellRenderer;
 import javax.swing.RowSorter;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
+import javax.swing.event.AncestorEvent;
+import javax.swing.event.AncestorListener;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.TableColumnModelEvent;
+import javax.swing.event.TableColumnModelListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
@@ -83,13 +99,24 @@ import com.formdev.flatlaf.FlatLightLaf;
 import com.formdev.flatlaf.extras.FlatAnimatedLafChange;
 
 public class MedicalGUI {
+    // Visits, procedures, saving and loading without Swing
+    private ApplicationService application;
+    // Health service of the application, shown in the tables
     private HealthService healthService;
+    // Progress of the running save or load
+    private JProgressBar fileProgress;
+    // Background worker of the running save or load, if any
+    private SwingWorker<?, ?> fileWorker;
+    // Codec compressing saved snapshots
+    private JComboBox<BlockCompression.Codec> compressionComboBox;
+    // Preferences key of the last saved or loaded snapshot
+    private static final String LAST_SNAPSHOT = "lastSnapshot";
 
     // Main JFrame and Table Models
     private JFrame frame;
-    private DefaultTableModel patientsModel, 
-                               facilitiesModel, 
-                               proceduresModel;
+    private PatientTableModel patientsModel;
+    private FacilityTableModel facilitiesModel;
+    private ProcedureTableModel proceduresModel;
 
     // Declare JTable instances
     private JTable patientsTable, facilitiesTable, proceduresTable;
@@ -100,6 +127,12 @@ public class MedicalGUI {
     private JTextArea textArea; 
     // Declare hospitalComboBox as a class member
     private JComboBox<String> hospitalComboBox; 
+    // Index searched by the patient picker
+    private final PatientIndex patientIndex = new PatientIndex();
+    // Maximum number of patients shown by the patient picker
+    private static final int PICKER_LIMIT = 50;
+    // Milliseconds of pause in typing before the picker searches
+    private static final int PICKER_DELAY_MS = 150;
 
     /**
      * The main method to launch the MedicalGUI application.
@@ -139,11 +172,49 @@ public class MedicalGUI {
      * the health service and UI components.
      */
     public MedicalGUI() {
-        healthService = new HealthService();
-        initializeSampleData(); // Ensure this is called
+        // Reopen the last snapshot, or start with sample data
+        if (!recoverLastSnapshot()) {
+            healthService = new HealthService();
+            application = new ApplicationService(healthService);
+            initializeSampleData(); // Ensure this is called
+        }
         initializeUI();
     }
 
+    /**
+     * Loads the last saved or loaded snapshot and replays the changes
+     * recorded in its journal since it was written.
+     * 
+     * @return true if a snapshot was recovered
+     */
+    private boolean recoverLastSnapshot() {
+        String last = Preferences.userNodeForPackage(MedicalGUI.class)
+            .get(LAST_SNAPSHOT, null);
+        if (last == null || !Files.isRegularFile(Path.of(last))) {
+            return false;
+        }
+        try {
+            application = ApplicationService.open(Path.of(last), null);
+            healthService = application.getHealthService();
+            return true;
+        } catch (IOException e) {
+            System.err.println(
+                "Error recovering " + last + ": " + e.getMessage()
+            );
+            return false;
+        }
+    }
+
+    /**
+     * Remembers the snapshot to reopen on the next start.
+     * 
+     * @param file the snapshot file
+     */
+    private void rememberSnapshot(Path file) {
+        Preferences.userNodeForPackage(MedicalGUI.class)
+            .put(LAST_SNAPSHOT, file.toAbsolutePath().toString());
+    }
+
     /**
      * Initializes the user interface components and sets up 
      * the main application window.
@@ -151,21 +222,18 @@ public class MedicalGUI {
     private void initializeUI() {
         frame = new JFrame("Medical Health Service Management");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Sync the journal before the application exits
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                application.close();
+            }
+        });
         // Increase frame width to accommodate longer tab titles
         frame.setSize(922, 600); 
 
         // Set the application icon
-        try {
-            // Load the application icon image
-            Image appIcon = ImageIO.read(
-                new File("Health Service Manager/src/main/resources/AppIcon.png")
-            );
-            frame.setIconImage(appIcon);
-        } catch (IOException e) {
-            System.err.println(
-                "Error: Icon image not found. Please check the file path."
-            );
-        }
+        frame.setIconImage(IconService.image("AppIcon.png"));
 
         tabbedPane = new JTabbedPane();
         
@@ -174,55 +242,14 @@ public class MedicalGUI {
         Font tabFont = new Font("SansSerif", Font.PLAIN, 16); 
         tabbedPane.setFont(tabFont);
 
-        // Load, resize, and recolor images for tabs
-        ImageIcon patientsIcon = resizeAndRecolorIcon(
-            new ImageIcon(
-                "Health Service Manager/src/main/resources/Patient.png"
-            ), 
-            20, 
-            20, 
-            true
-        );
-        ImageIcon facilitiesIcon = resizeAndRecolorIcon(
-            new ImageIcon(
-                "Health Service Manager/src/main/resources/Facility.png"
-            ), 
-            20, 
-            20, 
-            true
-        );
-        ImageIcon proceduresIcon = resizeAndRecolorIcon(
-            new ImageIcon(
-                "Health Service Manager/src/main/resources/Procedure.png"
-            ), 
-            20, 
-            20, 
-            true
-        );
-        ImageIcon visitProcedureIcon = resizeAndRecolorIcon(
-            new ImageIcon(
-                "Health Service Manager/src/main/resources/VisitProcedure.png"
-            ), 
-            20, 
-            20, 
-            true
-        );
-        ImageIcon fileOperationsIcon = resizeAndRecolorIcon(
-            new ImageIcon(
-                "Health Service Manager/src/main/resources/FileOperation.png"
-            ), 
-            20, 
-            20, 
-            true
-        );
-        ImageIcon tipsIcon = resizeAndRecolorIcon(
-            new ImageIcon(
-                "Health Service Manager/src/main/resources/Lightbulb.png"
-            ), 
-            20, 
-            20, 
-            false
-        ); // No recolor
+        // Load the tab icons, recolored to suit the current theme
+        Icon patientsIcon = IconService.themed("Patient.png", 20);
+        Icon facilitiesIcon = IconService.themed("Facility.png", 20);
+        Icon proceduresIcon = IconService.themed("Procedure.png", 20);
+        Icon visitProcedureIcon =
+            IconService.themed("VisitProcedure.png", 20);
+        Icon fileOperationsIcon = IconService.themed("FileOperation.png", 20);
+        Icon tipsIcon = IconService.icon("Lightbulb.png", 20); // No recolor
 
         tabbedPane.addTab(
             "Manage Patients", 
@@ -323,9 +350,26 @@ public class MedicalGUI {
         // Customize the toggle button to remove highlight
         themeToggleButton.setFocusPainted(false); // Remove focus outline
 
+        /*
+         * Checkbox to switch the ID columns between stable IDs
+         * and compact sequential numbering
+         */
+        JCheckBox compactCheck = new JCheckBox("Sequential IDs");
+        compactCheck.setToolTipText(
+            "Show rows numbered 1..n instead of their stable IDs"
+        );
+        compactCheck.addActionListener(_ -> {
+            boolean compact = compactCheck.isSelected();
+            // Redraw the ID columns with the selected numbering
+            patientsModel.setCompactNumbering(compact);
+            facilitiesModel.setCompactNumbering(compact);
+            proceduresModel.setCompactNumbering(compact);
+        });
+
         // Add the toggle button to the bottom of the frame
         JPanel bottomPanel = new JPanel();
         bottomPanel.add(themeToggleButton);
+        bottomPanel.add(compactCheck);
         return bottomPanel;
     }
 
@@ -573,36 +617,17 @@ public class MedicalGUI {
         // Create main panel with BorderLayout
         JPanel panel = new JPanel(new BorderLayout());
 
-        // Initialize table model with column headers
-        patientsModel = new DefaultTableModel(
-            new String[]{"ID", "Name", "Private", "Balance"}, 
-            0
-        ) {
-            @Override
-            public Class<?> getColumnClass(int column) {
-                // Define data types for each column:
-                // ID -> Integer
-                // Name -> String (default)
-                // Private -> Boolean
-                // Balance -> Double
-                return switch (column) {
-                    case 0 -> Integer.class;
-                    case 2 -> Boolean.class;
-                    case 3 -> Double.class;
-                    default -> String.class;
-                };
-            }
-
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                // Make all cells non-editable
-                return false;
-            }
-        };
+        /*
+         * Initialize the table model, which reads the patients
+         * directly from the health service
+         */
+        patientsModel = new PatientTableModel();
+        patientsModel.setService(healthService);
+        patientIndex.setService(healthService);
         patientsTable = new JTable(patientsModel);
         customizeTable(patientsTable); // Apply customizations
         
-        TableRowSorter<DefaultTableModel> sorter = 
+        TableRowSorter<PatientTableModel> sorter = 
             new TableRowSorter<>(patientsModel);
         patientsTable.setRowSorter(sorter);
         
@@ -726,11 +751,10 @@ public class MedicalGUI {
                     JOptionPane.ERROR_MESSAGE
                 );
             } else {
+                // The table shows the new row by itself
                 healthService.addPatient(
                     new Patient(name, privateCheck.isSelected())
                 );
-                // Refresh the table after adding
-                refreshPatientTable(); 
                 // Exit the loop if input is valid
                 break; 
             }
@@ -741,45 +765,21 @@ public class MedicalGUI {
      * Deletes a selected patient from the health service.
      */
     private void deletePatient() {
-        // Get list of all patients from health service
-        List<Patient> patients = healthService.getPatients();
-        
-        // Create dropdown with patient names
-        JComboBox<String> patientComboBox = new JComboBox<>(
-            patients.stream()
-                    .map(Patient::getName)
-                    .toArray(String[]::new)
-        );
-
         // Show dialog for user to select patient to delete
-        int option = JOptionPane.showConfirmDialog(
-            frame, 
-            patientComboBox, 
-            "Select Patient to Delete", 
-            JOptionPane.OK_CANCEL_OPTION
-        );
-                                                 
-        if (option == JOptionPane.OK_OPTION) {
-            // Get selected patient name from dropdown
-            String selectedName =
-                    (String) patientComboBox.getSelectedItem();
-            
-            // Find matching patient object
-            Patient patient = patients.stream()
-                                      .filter(p -> p.getName()
-                                                     .equals(selectedName))
-                                      .findFirst()
-                                      .orElse(null);
-                                    
-            if (patient != null) {
-                // Remove patient and update UI
-                healthService.removePatient(patient.getId());
-                refreshPatientTable();
-                JOptionPane.showMessageDialog(
-                    frame, 
-                    "Patient deleted."
-                );
-            }
+        int patientId = selectPatientId("Select Patient to Delete");
+        // Exit if no patient is selected
+        if (patientId == -1) return; 
+
+        // Find matching patient object
+        Patient patient = healthService.findPatient(patientId);
+
+        if (patient != null) {
+            // Remove patient, the table drops the row by itself
+            healthService.removePatient(patient.getId());
+            JOptionPane.showMessageDialog(
+                frame, 
+                "Patient deleted."
+            );
         }
     }
 
@@ -787,35 +787,12 @@ public class MedicalGUI {
      * Edits the details of a selected patient.
      */
     private void editPatient() {
-        // Get list of all patients from health service
-        List<Patient> patients = healthService.getPatients();
-        
-        // Create dropdown with patient names
-        JComboBox<String> patientComboBox = new JComboBox<>(
-            patients.stream()
-                    .map(Patient::getName)
-                    .toArray(String[]::new)
-        );
-
         // Show dialog for user to select patient to edit
-        int option = JOptionPane.showConfirmDialog(
-            frame, 
-            patientComboBox, 
-            "Select Patient to Edit", 
-            JOptionPane.OK_CANCEL_OPTION
-        );
+        int patientId = selectPatientId("Select Patient to Edit");
         
-        if (option == JOptionPane.OK_OPTION) {
-            // Get selected patient name from dropdown
-            String selectedName =
-                    (String) patientComboBox.getSelectedItem();
-            
+        if (patientId != -1) {
             // Find matching patient object
-            Patient patient = patients.stream()
-                                      .filter(p -> p.getName()
-                                                     .equals(selectedName))
-                                      .findFirst()
-                                      .orElse(null);
+            Patient patient = healthService.findPatient(patientId);
                                     
             if (patient != null) {
                 /*
@@ -872,9 +849,8 @@ public class MedicalGUI {
                             JOptionPane.ERROR_MESSAGE
                         );
                     } else {
-                        // Update patient name and refresh display
+                        // Update patient name, the row repaints itself
                         patient.setName(newName);
-                        refreshPatientTable();
                         break; // Exit the loop if input is valid
                     }
                 }
@@ -889,20 +865,13 @@ public class MedicalGUI {
 
     /**
      * Refreshes the patient table to reflect the current data.
+     * The table model reads the patients directly and updates single
+     * rows as they change, so this only rebinds it to the current
+     * health service and repaints all rows.
      */
     private void refreshPatientTable() {
-        // Clear existing rows
-        patientsModel.setRowCount(0); 
-        for (Patient patient : healthService.getPatients()) {
-            patientsModel.addRow(new Object[]{
-                patient.getId(),
-                patient.getName(),
-                patient.isPrivate(),
-                patient.getBalance()
-            });
-        }
-        // Center align the ID column
-        centerAlignColumn(patientsTable); 
+        patientsModel.setService(healthService);
+        patientIndex.setService(healthService);
     }
 
     /**
@@ -914,23 +883,12 @@ public class MedicalGUI {
         // Create main panel with BorderLayout
         JPanel panel = new JPanel(new BorderLayout());
 
-        // Create table model with ID, Name and Type columns
-        facilitiesModel = new DefaultTableModel(
-            new String[]{"ID", "Name", "Type"}, 
-            0
-        ) {
-            @Override
-            public Class<?> getColumnClass(int column) {
-                // Return Integer for ID column, String for others
-                return column == 0 ? Integer.class : String.class;
-            }
-
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                // Prevent direct editing of cells
-                return false;
-            }
-        };
+        /*
+         * Create the table model with ID, Name and Type columns,
+         * which reads the facilities directly from the health service
+         */
+        facilitiesModel = new FacilityTableModel();
+        facilitiesModel.setService(healthService);
 
         // Create facilities table with the model
         facilitiesTable = new JTable(facilitiesModel);
@@ -938,7 +896,7 @@ public class MedicalGUI {
         customizeTable(facilitiesTable); 
 
         // Add sorting capability to the table
-        TableRowSorter<DefaultTableModel> sorter = 
+        TableRowSorter<FacilityTableModel> sorter = 
             new TableRowSorter<>(facilitiesModel);
         facilitiesTable.setRowSorter(sorter);
 
@@ -1088,7 +1046,6 @@ public class MedicalGUI {
                                 Double.parseDouble(probAdmitText);
                         Hospital hospital = new Hospital(name, probAdmit);
                         healthService.addFacility(hospital);
-                        refreshFacilityTable();
                         // Refresh the combo box
                         refreshHospitalComboBox();
                         // Exit loop on successful addition
@@ -1161,7 +1118,6 @@ public class MedicalGUI {
                             gapPercent
                         );
                         healthService.addFacility(clinic);
-                        refreshFacilityTable();
                         // Refresh the combo box
                         refreshHospitalComboBox();
                         // Exit loop on successful addition
@@ -1188,11 +1144,7 @@ public class MedicalGUI {
         if (facilityId == -1) return; 
 
         // Find the facility with the given ID
-        MedicalFacility facility = healthService.getFacilities()
-            .stream()
-            .filter(f -> f.getId() == facilityId)
-            .findFirst()
-            .orElse(null);
+        MedicalFacility facility = healthService.findFacility(facilityId);
         
         if (facility != null) {
             // Build confirmation message
@@ -1226,7 +1178,6 @@ public class MedicalGUI {
             if (option == JOptionPane.YES_OPTION) {
                 // Remove facility if user confirms
                 healthService.removeFacility(facilityId);
-                refreshFacilityTable();
                 
                 /*
                  * If deleted facility was a hospital,
@@ -1263,11 +1214,7 @@ public class MedicalGUI {
         if (facilityId == -1) return; 
 
         // Find the facility with the given ID
-        MedicalFacility facility = healthService.getFacilities()
-            .stream()
-            .filter(f -> f.getId() == facilityId)
-            .findFirst()
-            .orElse(null);
+        MedicalFacility facility = healthService.findFacility(facilityId);
         
         if (facility != null) {
             /*
@@ -1341,8 +1288,8 @@ public class MedicalGUI {
                     );
                 } else {
                     try {
-                        // Update facility name
-                        facility.setName(newName);
+                        // Update facility name and its index entry
+                        healthService.renameFacility(facility, newName);
 
                         // Update type-specific fields
                         switch (facility) {
@@ -1362,8 +1309,8 @@ public class MedicalGUI {
                             default -> {
                             }
                         }
-                        // Refresh display and exit loop
-                        refreshFacilityTable();
+                        // Refresh hospital names and exit loop
+                        refreshHospitalComboBox();
                         break;
                     } catch (NumberFormatException e) {
                         // Show error for invalid number format
@@ -1382,19 +1329,11 @@ public class MedicalGUI {
 
     /**
      * Refreshes the facility table to reflect the current data.
+     * The table model reads the facilities directly, so this only
+     * rebinds it to the current health service.
      */
     private void refreshFacilityTable() {
-        // Clear existing rows
-        facilitiesModel.setRowCount(0); 
-        for (MedicalFacility facility : healthService.getFacilities()) {
-            facilitiesModel.addRow(new Object[]{
-                facility.getId(),
-                facility.getName(),
-                facility.getClass().getSimpleName()
-            });
-        }
-        // Center align the ID column
-        centerAlignColumn(facilitiesTable); 
+        facilitiesModel.setService(healthService);
     }
 
     /**
@@ -1439,40 +1378,8 @@ public class MedicalGUI {
         
         // Initialize the table model with columns for procedure details
         // Column order: ID, Name, Description, Elective status, Cost
-        proceduresModel = new DefaultTableModel(
-            new String[] {
-                "ID", 
-                "Name", 
-                "Description", 
-                "Elective", 
-                "Cost"
-            }, 
-            0
-        ) {
-            @Override
-            /*
-              Define data types for each column to enable 
-              proper sorting and rendering
-             */
-            public Class<?> getColumnClass(int column) {
-                return switch (column) {
-                    // ID column
-                    case 0 -> Integer.class;  
-                    // Elective column
-                    case 3 -> Boolean.class;  
-                    // Cost column
-                    case 4 -> Double.class;   
-                    // Name and Description columns
-                    default -> String.class;  
-                };
-            }
-
-            @Override
-            // Prevent direct editing of cells in the table
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        proceduresModel = new ProcedureTableModel();
+        proceduresModel.setService(healthService);
         
         // Create and configure the procedures table
         proceduresTable = new JTable(proceduresModel);
@@ -1480,7 +1387,7 @@ public class MedicalGUI {
         customizeTable(proceduresTable); 
         
         // Add sorting capability to the table
-        TableRowSorter<DefaultTableModel> sorter = 
+        TableRowSorter<ProcedureTableModel> sorter = 
             new TableRowSorter<>(proceduresModel);
         proceduresTable.setRowSorter(sorter);
         
@@ -1493,13 +1400,11 @@ public class MedicalGUI {
          */
         setColumnWidths(proceduresTable, 50, 150, 0, 80, 100);
 
-        // Add word wrap for description column
-        proceduresTable.getColumnModel()
-            .getColumn(2)
-            .setCellRenderer(new WordWrapCellRenderer());
-
-        // Set row height to accommodate wrapped text
-        proceduresTable.setRowHeight(50);
+        /*
+         * Add word wrap for description column, with row heights
+         * that grow to fit the wrapped text
+         */
+        WordWrapCellRenderer.install(proceduresTable, 2, 50);
 
         // Center align the ID column
         centerAlignColumn(proceduresTable);
@@ -1563,30 +1468,19 @@ public class MedicalGUI {
 
     /**
      * Refreshes the procedure table for the specified hospital.
+     * The table model reads the hospital's procedures directly and
+     * updates single rows as they change.
      * 
      * @param hospitalName the name of the hospital whose procedures 
      * are to be displayed
      */
     private void refreshProcedureTable(String hospitalName) {
-        // Clear existing rows
-        proceduresModel.setRowCount(0); 
-        healthService.getFacilities().forEach(facility -> {
-            if (facility instanceof Hospital 
-                && facility.getName().equals(hospitalName)) {
-                for (Procedure procedure : ((Hospital) facility)
-                    .getProcedures()) {
-                    proceduresModel.addRow(new Object[]{
-                        procedure.getId(),
-                        procedure.getName(),
-                        procedure.getDescription(),
-                        procedure.isElective(),
-                        procedure.getCost()
-                    });
-                }
-            }
-        });
-        // Center align the ID column
-        centerAlignColumn(proceduresTable); 
+        if (proceduresModel.getService() != healthService) {
+            proceduresModel.setService(healthService);
+        }
+        proceduresModel.setHospital(
+            healthService.findHospitalByName(hospitalName)
+        );
     }
 
     /**
@@ -1669,15 +1563,9 @@ public class MedicalGUI {
                     String selectedHospitalName = 
                         (String) hospitalComboBox.getSelectedItem();
                     
-                    // Find target hospital from facilities list
-                    Hospital targetHospital = (Hospital) healthService
-                        .getFacilities()
-                        .stream()
-                        .filter(f -> f instanceof Hospital && 
-                                     f.getName().equals
-                                             (selectedHospitalName))
-                        .findFirst()
-                        .orElse(null);
+                    // Find target hospital in the hospital name index
+                    Hospital targetHospital = healthService
+                        .findHospitalByName(selectedHospitalName);
 
                     if (targetHospital != null) {
                         // Add new procedure and refresh display
@@ -1687,8 +1575,6 @@ public class MedicalGUI {
                             electiveCheck.isSelected(), 
                             cost
                         ));
-                        // Refresh the table after adding
-                        refreshProcedureTable(selectedHospitalName); 
                         // Exit the loop if input is valid
                         break; 
                     } else {
@@ -1730,12 +1616,7 @@ public class MedicalGUI {
          * the health service facilities
          */
         Hospital selectedHospital =
-                (Hospital) healthService.getFacilities()
-            .stream()
-            .filter(f -> f instanceof Hospital && 
-                         f.getName().equals(selectedHospitalName))
-            .findFirst()
-            .orElse(null);
+            healthService.findHospitalByName(selectedHospitalName);
 
         if (selectedHospital != null) {
             // Get the ID of the procedure to delete
@@ -1743,10 +1624,8 @@ public class MedicalGUI {
             // Exit if no procedure is selected
             if (procedureId == -1) return; 
 
-            // Remove the procedure and update the UI
+            // Remove the procedure, the table drops the row by itself
             selectedHospital.removeProcedure(procedureId);
-            // Refresh the table with the current hospital's procedures
-            refreshProcedureTable(selectedHospitalName); 
             JOptionPane.showMessageDialog(frame, "Procedure deleted.");
         } else {
             // Show error if hospital not found
@@ -1773,12 +1652,7 @@ public class MedicalGUI {
 
         // Find the selected hospital from the health service facilities
         Hospital selectedHospital =
-                (Hospital) healthService.getFacilities()
-            .stream()
-            .filter(f -> f instanceof Hospital && 
-                         f.getName().equals(selectedHospitalName))
-            .findFirst()
-            .orElse(null);
+            healthService.findHospitalByName(selectedHospitalName);
 
         if (selectedHospital != null) {
             // Get the ID of the procedure to edit
@@ -1888,7 +1762,6 @@ public class MedicalGUI {
                             procedure.setCost(
                                 Double.parseDouble(costText)
                             );
-                            refreshProcedureTable(selectedHospitalName);
                             // Exit the loop if input is valid
                             break; 
                         } catch (NumberFormatException e) {
@@ -2114,30 +1987,20 @@ public class MedicalGUI {
             return;
         }
 
-        // Find selected patient and hospital objects
-        Patient patient = healthService.getPatients().stream()
-            .filter(p -> p.getId() == patientId)
-            .findFirst()
-            .orElse(null);
-        
-        Hospital hospital =
-                (Hospital) healthService.getFacilities().stream()
-            .filter(f -> f instanceof Hospital && 
-                         f.getName().equals
-                                 (localHospitalComboBox.getSelectedItem()))
-            .findFirst()
-            .orElse(null);
-
-        // Attempt to perform procedure and log result
-        if (patient != null && hospital != null) {
-            boolean success = hospital.performProcedure
-                    (patient, selectedProcedure);
-            textArea.append("> Procedure " + selectedProcedure.getName() + 
-                (success ? " performed" : " could not be performed") + 
-                " on patient " + patient.getName() + ".\n");
-        } else {
+        // Find selected hospital object
+        Hospital hospital = healthService.findHospitalByName(
+            (String) localHospitalComboBox.getSelectedItem()
+        );
+        if (hospital == null) {
             textArea.append("> Patient or Hospital not found.\n");
+            return;
         }
+
+        // Attempt to perform procedure and log result
+        BatchProcessor.Result result = application.performProcedure(
+            patientId, hospital.getId(), selectedProcedure.getId()
+        );
+        textArea.append(result.message() + "\n");
     }
 
     /**
@@ -2162,14 +2025,12 @@ public class MedicalGUI {
         procedureListComboBox.removeAllItems(); 
         String selectedHospitalName = 
             (String) localHospitalComboBox.getSelectedItem();
-        healthService.getFacilities().stream()
-            .filter(f -> f instanceof Hospital 
-                && f.getName().equals(selectedHospitalName))
-            .findFirst()
-            .ifPresent(hospital -> 
-                ((Hospital) hospital).getProcedures()
-                    .forEach(procedureListComboBox::addItem)
-            );
+        Hospital hospital =
+            healthService.findHospitalByName(selectedHospitalName);
+        if (hospital != null) {
+            hospital.getProcedures()
+                .forEach(procedureListComboBox::addItem);
+        }
     }
 
     /**
@@ -2254,39 +2115,21 @@ public class MedicalGUI {
                 return;
             }
 
-            // Find patient and facility objects
-            Patient patient = healthService.getPatients().stream()
-                .filter(p -> p.getId() == patientId)
-                .findFirst()
-                .orElse(null);
-                
+            // Find the facility object
             MedicalFacility facility =
-                    healthService.getFacilities().stream()
-                .filter(f -> f.getName().equals(selectedFacilityName))
-                .findFirst()
-                .orElse(null);
-            
-            // Process visit if both patient and facility exist
-            if (patient != null && facility != null) {
-                boolean firstTime = facility.visit(patient);
-                
-                // Display appropriate message based on facility type
-                if (facility instanceof Hospital) {
-                    textArea.append("> Patient " + patient.getName() +
-                        (firstTime ? " was admitted at " : 
-                        " was not admitted at ") + 
-                        facility.getName() + "\n");
-                } else if (facility instanceof Clinic) {
-                    textArea.append("> Patient " + patient.getName() +
-                        (firstTime ? " was admitted at " : 
-                        " was charged for a consultation at ") + 
-                        facility.getName() + "\n");
-                }
-                
+                healthService.findFacilityByName(selectedFacilityName);
+            if (facility == null) {
+                textArea.append("> Patient or Facility not found.\n");
+                return;
+            }
+
+            // Record the visit and display its outcome
+            BatchProcessor.Result result = 
+                application.visit(patientId, facility.getId());
+            textArea.append(result.message() + "\n");
+            if (result.outcome() != BatchProcessor.Outcome.NOT_FOUND) {
                 // Return to Visit & Procedure tab
                 tabbedPane.setSelectedIndex(3); 
-            } else {
-                textArea.append("> Patient or Facility not found.\n");
             }
         });
         return visitButton;
@@ -2361,16 +2204,8 @@ public class MedicalGUI {
         gbc.anchor = GridBagConstraints.CENTER;
 
         // Load and resize icons for buttons
-        ImageIcon saveIcon = resizeIcon(
-            new ImageIcon(
-                "src/main/resources/Save.png"
-            )
-        );
-        ImageIcon loadIcon = resizeIcon(
-            new ImageIcon(
-                "src/main/resources/Load.png"
-            )
-        );
+        ImageIcon saveIcon = IconService.icon("Save.png", 70);
+        ImageIcon loadIcon = IconService.icon("Load.png", 70);
 
         // Create and configure Save button
         JButton saveButton = new JButton();
@@ -2416,39 +2251,83 @@ public class MedicalGUI {
         gbc.gridy = 1;
         panel.add(loadLabel, gbc);
 
-        return panel;
-    }
+        // Add the progress bar of background saves and loads
+        fileProgress = new JProgressBar(0, 100);
+        fileProgress.setStringPainted(true);
+        fileProgress.setVisible(false);
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        gbc.gridwidth = 2;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        panel.add(fileProgress, gbc);
+
+        // Add the button for browsing large snapshots read-only
+        JButton browseButton = new JButton("Browse Snapshot (Read-Only)");
+        browseButton.setFont(labelFont);
+        browseButton.setToolTipText(
+            "Memory-map a snapshot and view it without loading it"
+        );
+        browseButton.addActionListener(_ -> browseSnapshot());
+        gbc.gridy = 3;
+        panel.add(browseButton, gbc);
+
+        // Add the button for bulk imports of CSV files
+        JButton importButton = new JButton("Import CSV");
+        importButton.setFont(labelFont);
+        importButton.setToolTipText(
+            "Add patients, hospitals, clinics or procedures from a CSV file"
+        );
+        importButton.addActionListener(_ -> importCsv());
+        gbc.gridy = 4;
+        panel.add(importButton, gbc);
+
+        // Add the button for saving only what changed since the last save
+        JButton changesButton = new JButton("Save Changes");
+        changesButton.setFont(labelFont);
+        changesButton.setToolTipText(
+            "Save the changes since the last save as a delta of the snapshot"
+        );
+        changesButton.addActionListener(_ -> saveChanges());
+        gbc.gridy = 5;
+        panel.add(changesButton, gbc);
+
+        // Add the choice of compression for saved snapshots
+        compressionComboBox = 
+            new JComboBox<>(BlockCompression.Codec.values());
+        compressionComboBox.setSelectedItem(application.getCompression());
+        compressionComboBox.setToolTipText(
+            "Compress saved snapshots in blocks, using every core"
+        );
+        compressionComboBox.addActionListener(_ -> application.setCompression(
+            (BlockCompression.Codec) compressionComboBox.getSelectedItem()
+        ));
+        JLabel compressionLabel = new JLabel("Compression");
+        compressionLabel.setFont(labelFont);
+        JPanel compressionPanel = new JPanel(new BorderLayout(8, 0));
+        compressionPanel.add(compressionLabel, BorderLayout.WEST);
+        compressionPanel.add(compressionComboBox, BorderLayout.CENTER);
+        gbc.gridy = 6;
+        panel.add(compressionPanel, gbc);
 
-    /**
-     * Resizes an icon to the specified dimensions.
-     * This method takes an ImageIcon and scales it to the given
-     * width and height, ensuring a smooth scaling process.
-     *
-     * @param icon the ImageIcon to be resized
-     * @return a new ImageIcon that has been resized to the
-     * specified dimensions
-     */
-    private ImageIcon resizeIcon(ImageIcon icon) {
-        // Retrieve the image from the ImageIcon
-        Image img = icon.getImage(); 
-        // Scale the image smoothly
-        Image resizedImage = img.getScaledInstance(
-                70,
-                70, 
-            Image.SCALE_SMOOTH
-        ); 
-        // Return the resized ImageIcon
-        return new ImageIcon(resizedImage); 
+        return panel;
     }
 
     /**
      * Saves the current health service data to a file.
      * This method opens a file chooser dialog for the user to specify the 
      * location and name of the file where the data will be saved. If the 
-     * user approves the selection, the health service data is serialized 
-     * and written to the specified file.
+     * user approves the selection, the health service data is written to
+     * the specified file as a binary snapshot, and later changes are
+     * recorded in a journal next to it until the next save. The
+     * snapshot is written in the background from a copy of the data,
+     * so editing can continue while it is saved.
      */
     private void saveData() {
+        // Only one save or load runs at a time
+        if (isFileOperationRunning()) {
+            return;
+        }
+
         // Create a file chooser for saving files
         JFileChooser fileChooser = new JFileChooser(); 
         
@@ -2462,31 +2341,111 @@ public class MedicalGUI {
         if (userSelection == JFileChooser.APPROVE_OPTION) { 
             // Get the selected file
             File fileToSave = fileChooser.getSelectedFile(); 
-            try (ObjectOutputStream oos = new ObjectOutputStream(
-                    new FileOutputStream(fileToSave))) {
-                // Serialize and save the health service data
-                oos.writeObject(healthService); 
-                
-                // Notify user of success
-                JOptionPane.showMessageDialog(frame, 
-                    "Data saved successfully to " + 
-                    fileToSave.getAbsolutePath()); 
+            Path path = fileToSave.toPath();
+
+            ApplicationService.PendingSave pending;
+            try {
+                // Copy the data and start journaling for the new file
+                pending = application.beginSave(path); 
             } catch (IOException e) {
                 // Show error message if saving fails
                 JOptionPane.showMessageDialog(frame, 
                     "Error saving data: " + e.getMessage());
+                return;
             }
+
+            runFileOperation("Saving...", new SwingWorker<Void, Void>() {
+                @Override
+                protected Void doInBackground() throws IOException {
+                    // Write the snapshot and put its journal in place
+                    pending.commit(this::setProgress); 
+                    return null;
+                }
+
+                @Override
+                protected void done() {
+                    try {
+                        get();
+                        rememberSnapshot(path); 
+                        
+                        // Notify user of success
+                        JOptionPane.showMessageDialog(frame, 
+                            "Data saved successfully to " + 
+                            fileToSave.getAbsolutePath()); 
+                    } catch (InterruptedException | ExecutionException e) {
+                        // The journal has no snapshot to belong to
+                        pending.abandon(); 
+                        // Show error message if saving fails
+                        JOptionPane.showMessageDialog(frame, 
+                            "Error saving data: " + causeMessage(e));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Saves the changes made since the last save as a delta of the
+     * current snapshot. Only the patients, facilities and procedures
+     * that changed are written, in the background, so this is quick
+     * however large the data is. Once enough deltas have accumulated
+     * they are merged into the snapshot in the background.
+     */
+    private void saveChanges() {
+        // Only one save or load runs at a time
+        if (isFileOperationRunning()) {
+            return;
         }
+        if (!application.isJournaled()) {
+            // Deltas need a snapshot to build on
+            JOptionPane.showMessageDialog(frame, 
+                "Save the data to a file first; later changes can then "
+                    + "be saved on their own.");
+            return;
+        }
+
+        runFileOperation("Saving changes...", 
+                new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                // Write the changed entities and start a new journal
+                return application.saveDelta(this::setProgress);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    int changed = get();
+                    // Notify user of success
+                    JOptionPane.showMessageDialog(frame, changed == 0
+                        ? "There are no changes to save."
+                        : "Saved changes to " + changed + " records.");
+                } catch (InterruptedException | ExecutionException e) {
+                    // Show error message if saving fails
+                    JOptionPane.showMessageDialog(frame, 
+                        "Error saving changes: " + causeMessage(e));
+                }
+            }
+        });
     }
 
     /**
      * Loads health service data from a file.
      * This method opens a file chooser dialog for the user to select a 
      * file from which to load the health service data. If the user 
-     * approves the selection, the data is deserialized and the relevant 
-     * tables are refreshed to reflect the loaded data.
+     * approves the selection, the data is decoded in the background,
+     * swapped in once complete, and the relevant tables are refreshed
+     * to reflect the loaded data. Binary snapshots and files saved by
+     * earlier versions with Java serialization are both accepted; for
+     * snapshots, the changes recorded in the journal are replayed as
+     * well.
      */
     private void loadData() {
+        // Only one save or load runs at a time
+        if (isFileOperationRunning()) {
+            return;
+        }
+
         // Create a file chooser for loading files
         JFileChooser fileChooser = new JFileChooser(); 
         
@@ -2500,60 +2459,428 @@ public class MedicalGUI {
         if (userSelection == JFileChooser.APPROVE_OPTION) { 
             // Get the selected file
             File fileToLoad = fileChooser.getSelectedFile(); 
-            try (ObjectInputStream ois = new ObjectInputStream(
-                    new FileInputStream(fileToLoad))) {
-                // Deserialize and load the health service data
-                healthService = (HealthService) ois.readObject(); 
-                
-                // Refresh the patient table to show updated data
-                refreshPatientTable(); 
-                
-                // Refresh the facility table to show updated data
-                refreshFacilityTable(); 
-                
-                /*
-                  Use the class member hospitalComboBox directly to 
-                  refresh procedure table
-                 */
-                if (hospitalComboBox.getItemCount() > 0) { 
-                    // Check if there are items in the combo box
-                    refreshProcedureTable(
-                        /*
-                          Refresh procedure table based on the first 
-                          hospital in the hospital combo box
-                         */
-                            hospitalComboBox.getItemAt(0)
-                    ); 
+            Path path = fileToLoad.toPath();
+
+            // Stop recording changes for the current data
+            application.close(); 
+
+            runFileOperation("Loading...", 
+                    new SwingWorker<HealthService, Void>() {
+                @Override
+                protected HealthService doInBackground() throws IOException {
+                    // Decode the file and replay its journal, if any
+                    application.load(path, this::setProgress); 
+                    return application.getHealthService();
                 }
-                
-                // Notify user of success
-                JOptionPane.showMessageDialog(frame, 
-                    "Data loaded successfully from " + 
-                    fileToLoad.getAbsolutePath()); 
-            } catch (IOException | ClassNotFoundException e) {
-                // Show error message if loading fails
-                JOptionPane.showMessageDialog(frame, 
-                    "Error loading data: " + e.getMessage());
-            }
+
+                @Override
+                protected void done() {
+                    try {
+                        // Swap the loaded data in
+                        healthService = get(); 
+                        if (application.isJournaled()) {
+                            rememberSnapshot(path); 
+                        }
+                        // Keep saving as the loaded snapshot was
+                        compressionComboBox.setSelectedItem(
+                            application.getCompression()
+                        );
+                    } catch (InterruptedException | ExecutionException e) {
+                        // Show error message if loading fails
+                        JOptionPane.showMessageDialog(frame, 
+                            "Error loading data: " + causeMessage(e));
+                        return;
+                    }
+
+                    // Refresh the patient table to show updated data
+                    refreshPatientTable(); 
+                    
+                    // Refresh the facility table to show updated data
+                    refreshFacilityTable(); 
+
+                    // Refresh the hospitals offered for procedures
+                    refreshHospitalComboBox(); 
+                    
+                    /*
+                      Use the class member hospitalComboBox directly to 
+                      refresh procedure table
+                     */
+                    if (hospitalComboBox.getItemCount() > 0) { 
+                        // Check if there are items in the combo box
+                        refreshProcedureTable(
+                            /*
+                              Refresh procedure table based on the first 
+                              hospital in the hospital combo box
+                             */
+                                hospitalComboBox.getItemAt(0)
+                        ); 
+                    }
+                    
+                    // Notify user of success
+                    JOptionPane.showMessageDialog(frame, 
+                        "Data loaded successfully from " + 
+                        fileToLoad.getAbsolutePath()); 
+                }
+            });
         }
     }
 
     /**
-     * Sets the preferred and maximum widths for columns in a JTable.
-     * This method iterates through the provided widths and applies 
-     * them to the corresponding columns of the specified JTable.
-     * 
-     * @param table the JTable whose columns are to be resized
-     * @param widths the desired widths for each column
+     * Imports patients, hospitals, clinics or procedures from a CSV
+     * file. The file is read and checked in the background, and
+     * patients and facilities are added there as one batch; the
+     * procedure lists of hospitals are read by the tables without
+     * locking, so procedures are added on the Event Dispatch Thread
+     * once the file has been read. The rows rejected are reported
+     * when the import is done.
      */
-    private void setColumnWidths(JTable table, int... widths) {
-        for (int i = 0; i < widths.length; i++) {
-            // Set the preferred width for the column
-            table.getColumnModel()
-                 .getColumn(i)
-                 .setPreferredWidth(widths[i]);
-            
-            // If width is greater than 0, set the maximum width as well
+    private void importCsv() {
+        // Only one save, load or import runs at a time
+        if (isFileOperationRunning()) {
+            return;
+        }
+
+        // Create a file chooser for selecting the CSV file
+        JFileChooser fileChooser = new JFileChooser(); 
+        fileChooser.setDialogTitle("Select a CSV file to import"); 
+        fileChooser.setFileFilter(
+            new FileNameExtensionFilter("CSV files", "csv")
+        );
+        if (fileChooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = fileChooser.getSelectedFile().toPath();
+        HealthService service = healthService;
+
+        runFileOperation("Importing...", 
+                new SwingWorker<CsvImporter.Batch, Void>() {
+            // Outcome of adding the rows, once they are added
+            private CsvImporter.Summary summary;
+
+            @Override
+            protected CsvImporter.Batch doInBackground() throws IOException {
+                // Read and check every row before adding any
+                CsvImporter.Batch batch = 
+                    CsvImporter.read(service, path, this::setProgress);
+                if (batch.kind() != CsvImporter.Kind.PROCEDURES) {
+                    // The health service locks its own lists
+                    summary = batch.apply(service); 
+                }
+                return batch;
+            }
+
+            @Override
+            protected void done() {
+                CsvImporter.Batch batch;
+                try {
+                    batch = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    // Show error message if importing fails
+                    JOptionPane.showMessageDialog(frame, 
+                        "Error importing data: " + causeMessage(e));
+                    return;
+                }
+                if (summary == null) {
+                    // Add procedures on the Event Dispatch Thread
+                    summary = batch.apply(service); 
+                }
+                if (batch.kind() == CsvImporter.Kind.HOSPITALS) {
+                    // Offer the new hospitals for procedures
+                    refreshHospitalComboBox(); 
+                }
+
+                // Report the outcome with the first rejected rows
+                StringBuilder message = 
+                    new StringBuilder(summary.describe());
+                for (String error : summary.errors()) {
+                    message.append('\n').append(error);
+                }
+                if (summary.rejected() > summary.errors().size()) {
+                    message.append("\n...");
+                }
+                JOptionPane.showMessageDialog(frame, message.toString());
+            }
+        });
+    }
+
+    /**
+     * Opens a snapshot read-only for browsing.
+     * The selected file is memory-mapped rather than loaded, so even
+     * very large snapshots open almost instantly. The rows are shown
+     * in a separate window and decoded only when displayed; the data
+     * managed in the main window is not touched.
+     */
+    private void browseSnapshot() {
+        // Only one save or load runs at a time
+        if (isFileOperationRunning()) {
+            return;
+        }
+
+        // Create a file chooser for selecting the snapshot
+        JFileChooser fileChooser = new JFileChooser(); 
+        fileChooser.setDialogTitle("Select a snapshot to browse"); 
+        if (fileChooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = fileChooser.getSelectedFile().toPath();
+
+        runFileOperation("Opening...", 
+                new SwingWorker<MappedSnapshot, Void>() {
+            @Override
+            protected MappedSnapshot doInBackground() throws IOException {
+                // Map the file; only older files without index are read
+                return MappedSnapshot.open(path); 
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    showSnapshotBrowser(get(), path);
+                } catch (InterruptedException | ExecutionException e) {
+                    // Show error message if opening fails
+                    JOptionPane.showMessageDialog(frame, 
+                        "Error opening snapshot: " + causeMessage(e));
+                }
+            }
+        });
+    }
+
+    /**
+     * Shows a read-only window with the patients, facilities and
+     * procedures of a mapped snapshot. The tables ask the snapshot
+     * for a row only when it is painted, and the file is unmapped
+     * when the window is closed.
+     * 
+     * @param snapshot the mapped snapshot
+     * @param path the snapshot file, shown in the title
+     */
+    private void showSnapshotBrowser(MappedSnapshot snapshot, Path path) {
+        JFrame browser = new JFrame(
+            "Snapshot Browser - " + path.getFileName() + " (read-only)"
+        );
+        browser.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        // Unmap the file once the window is gone
+        browser.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                snapshot.close();
+            }
+        });
+
+        // Patients are read from the mapped file row by row
+        JTable patients = new JTable(new AbstractTableModel() {
+            // Column names matching the patients tab
+            private final String[] columns = {
+                "ID", "Name", "Private", "Balance"
+            };
+
+            @Override
+            public int getRowCount() {
+                return snapshot.patientCount();
+            }
+
+            @Override
+            public int getColumnCount() {
+                return columns.length;
+            }
+
+            @Override
+            public String getColumnName(int column) {
+                return columns[column];
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return switch (column) {
+                    case 0 -> Integer.class;
+                    case 2 -> Boolean.class;
+                    case 3 -> Double.class;
+                    default -> String.class;
+                };
+            }
+
+            @Override
+            public Object getValueAt(int row, int column) {
+                MappedSnapshot.PatientView patient = snapshot.patient(row);
+                return switch (column) {
+                    case 0 -> patient.getId();
+                    case 1 -> patient.getName();
+                    case 2 -> patient.isPrivate();
+                    default -> patient.getBalance();
+                };
+            }
+        });
+        customizeTable(patients);
+        centerAlignColumn(patients);
+
+        // Facilities are read from the mapped file row by row
+        JTable facilities = new JTable(new AbstractTableModel() {
+            // Column names matching the facilities tab
+            private final String[] columns = {"ID", "Name", "Type"};
+
+            @Override
+            public int getRowCount() {
+                return snapshot.facilityCount();
+            }
+
+            @Override
+            public int getColumnCount() {
+                return columns.length;
+            }
+
+            @Override
+            public String getColumnName(int column) {
+                return columns[column];
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? Integer.class : String.class;
+            }
+
+            @Override
+            public Object getValueAt(int row, int column) {
+                MappedSnapshot.FacilityView facility = 
+                    snapshot.facility(row);
+                return switch (column) {
+                    case 0 -> facility.getId();
+                    case 1 -> facility.getName();
+                    default -> facility.getType();
+                };
+            }
+        });
+        customizeTable(facilities);
+        centerAlignColumn(facilities);
+
+        // Procedures are listed for one hospital at a time
+        DefaultTableModel proceduresOfHospital = new DefaultTableModel(
+            new String[]{"ID", "Name", "Description", "Elective", "Cost"}, 
+            0
+        ) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                // The snapshot is read-only
+                return false;
+            }
+        };
+        JTable procedures = new JTable(proceduresOfHospital);
+        customizeTable(procedures);
+        centerAlignColumn(procedures);
+        JComboBox<String> hospitals = new JComboBox<>();
+        List<MappedSnapshot.FacilityView> hospitalViews = new ArrayList<>();
+        for (int i = 0; i < snapshot.facilityCount(); i++) {
+            MappedSnapshot.FacilityView facility = snapshot.facility(i);
+            if (facility.isHospital()) {
+                hospitalViews.add(facility);
+                hospitals.addItem(facility.getName());
+            }
+        }
+        hospitals.addActionListener(_ -> {
+            proceduresOfHospital.setRowCount(0);
+            int selected = hospitals.getSelectedIndex();
+            if (selected < 0) {
+                return;
+            }
+            for (MappedSnapshot.ProcedureView procedure 
+                    : snapshot.procedures(hospitalViews.get(selected))) {
+                proceduresOfHospital.addRow(new Object[]{
+                    procedure.getId(),
+                    procedure.getName(),
+                    procedure.getDescription(),
+                    procedure.isElective(),
+                    procedure.getCost()
+                });
+            }
+        });
+        if (hospitals.getItemCount() > 0) {
+            // Show the procedures of the first hospital
+            hospitals.setSelectedIndex(0);
+        }
+        JPanel proceduresPanel = new JPanel(new BorderLayout());
+        proceduresPanel.add(hospitals, BorderLayout.NORTH);
+        proceduresPanel.add(new JScrollPane(procedures), BorderLayout.CENTER);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Patients (" + snapshot.patientCount() + ")", 
+            new JScrollPane(patients));
+        tabs.addTab("Facilities (" + snapshot.facilityCount() + ")", 
+            new JScrollPane(facilities));
+        tabs.addTab("Procedures", proceduresPanel);
+        browser.add(tabs);
+        browser.setSize(800, 500);
+        browser.setLocationRelativeTo(frame);
+        browser.setVisible(true);
+    }
+
+    /**
+     * Checks whether a save or load is still running in the
+     * background, and tells the user if so.
+     * 
+     * @return true if a file operation is running
+     */
+    private boolean isFileOperationRunning() {
+        if (fileWorker == null || fileWorker.isDone()) {
+            return false;
+        }
+        JOptionPane.showMessageDialog(frame, 
+            "Please wait until the current save or load has finished.");
+        return true;
+    }
+
+    /**
+     * Runs a save or load in the background and shows its progress
+     * in the file operations tab until it is done.
+     * 
+     * @param label the text shown on the progress bar
+     * @param worker the worker performing the file operation
+     */
+    private void runFileOperation(String label, SwingWorker<?, ?> worker) {
+        fileWorker = worker;
+        // Show an indeterminate bar until the first progress arrives
+        fileProgress.setString(label);
+        fileProgress.setIndeterminate(true);
+        fileProgress.setValue(0);
+        fileProgress.setVisible(true);
+        worker.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                fileProgress.setIndeterminate(false);
+                fileProgress.setValue((Integer) event.getNewValue());
+            } else if (worker.isDone()) {
+                // Hide the bar once the worker has finished
+                fileProgress.setVisible(false);
+            }
+        });
+        worker.execute();
+    }
+
+    /**
+     * Returns the message of the exception that made a background
+     * file operation fail.
+     * 
+     * @param e the exception thrown by the worker
+     * @return the message of the underlying cause
+     */
+    private static String causeMessage(Exception e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        return cause.getMessage();
+    }
+
+    /**
+     * Sets the preferred and maximum widths for columns in a JTable.
+     * This method iterates through the provided widths and applies 
+     * them to the corresponding columns of the specified JTable.
+     * 
+     * @param table the JTable whose columns are to be resized
+     * @param widths the desired widths for each column
+     */
+    private void setColumnWidths(JTable table, int... widths) {
+        for (int i = 0; i < widths.length; i++) {
+            // Set the preferred width for the column
+            table.getColumnModel()
+                 .getColumn(i)
+                 .setPreferredWidth(widths[i]);
+            
+            // If width is greater than 0, set the maximum width as well
             if (widths[i] > 0) {
                 table.getColumnModel()
                      .getColumn(i)
@@ -2566,8 +2893,146 @@ public class MedicalGUI {
      * A custom cell renderer for word wrapping in table cells.
      * This renderer allows text to wrap within the cell, improving 
      * readability for long text entries.
+     * <p>
+     * A single component is reused for every cell. The wrapped lines
+     * of each text are cached for the current column width and font,
+     * so repainting a cell that was laid out before allocates nothing.
+     * Row heights are set to fit the wrapped text when the column
+     * width or the table data changes, not while painting.
      */
-    static class WordWrapCellRenderer extends DefaultTableCellRenderer {
+    static class WordWrapCellRenderer extends JComponent 
+            implements TableCellRenderer {
+        // Padding between the grid line and the text
+        private static final int PADDING = 3;
+        // Wrapped lines per text for the current width and font
+        private final Map<String, String[]> layouts = new HashMap<>();
+        // Width and font the cached layouts were made for
+        private int layoutWidth = -1;
+        private Font layoutFont;
+        // Lines and colors of the cell being painted
+        private String[] lines = new String[0];
+        private Color background;
+        private Color foreground;
+        private Color gridColor;
+
+        /**
+         * Installs the renderer on a column of a table and keeps the
+         * table's row heights fitted to the wrapped text.
+         * 
+         * @param table the table
+         * @param column the model index of the wrapped column
+         * @param minHeight the smallest row height
+         */
+        static void install(JTable table, int column, int minHeight) {
+            WordWrapCellRenderer renderer = new WordWrapCellRenderer();
+            table.getColumnModel()
+                .getColumn(table.convertColumnIndexToView(column))
+                .setCellRenderer(renderer);
+            table.setRowHeight(minHeight);
+            // Refit changed rows once the table has processed the change
+            table.getModel().addTableModelListener(e -> {
+                if (e.getType() == TableModelEvent.DELETE) {
+                    // Removed rows take their heights with them
+                    return;
+                }
+                int first = e.getFirstRow();
+                int last = Math.min(
+                    e.getLastRow(), 
+                    table.getModel().getRowCount() - 1
+                );
+                SwingUtilities.invokeLater(() -> {
+                    if (first == TableModelEvent.HEADER_ROW) {
+                        renderer.fitRowHeights(table, column, minHeight);
+                        return;
+                    }
+                    for (int row = first; row <= last; row++) {
+                        renderer.fitRowHeight(
+                            table, 
+                            table.convertRowIndexToView(row), 
+                            column, 
+                            minHeight
+                        );
+                    }
+                });
+            });
+            // Refit rows when the wrapped column is resized
+            table.getColumnModel().addColumnModelListener(
+                new TableColumnModelListener() {
+                    @Override
+                    public void columnMarginChanged(ChangeEvent e) {
+                        int width = table.getColumnModel()
+                            .getColumn(table.convertColumnIndexToView(
+                                column))
+                            .getWidth();
+                        if (width != renderer.layoutWidth) {
+                            renderer.fitRowHeights(table, column, minHeight);
+                        }
+                    }
+
+                    @Override
+                    public void columnAdded(TableColumnModelEvent e) {
+                    }
+
+                    @Override
+                    public void columnRemoved(TableColumnModelEvent e) {
+                    }
+
+                    @Override
+                    public void columnMoved(TableColumnModelEvent e) {
+                    }
+
+                    @Override
+                    public void columnSelectionChanged(
+                            ListSelectionEvent e) {
+                    }
+                }
+            );
+        }
+
+        /**
+         * Sets the height of every row to fit its wrapped text.
+         * Rows whose height is already right are left alone.
+         * 
+         * @param table the table
+         * @param column the model index of the wrapped column
+         * @param minHeight the smallest row height
+         */
+        void fitRowHeights(JTable table, int column, int minHeight) {
+            for (int row = 0; row < table.getRowCount(); row++) {
+                fitRowHeight(table, row, column, minHeight);
+            }
+        }
+
+        /**
+         * Sets the height of one row to fit its wrapped text.
+         * 
+         * @param table the table
+         * @param row the view index of the row
+         * @param column the model index of the wrapped column
+         * @param minHeight the smallest row height
+         */
+        void fitRowHeight(JTable table, int row, int column, int minHeight) {
+            int viewColumn = table.convertColumnIndexToView(column);
+            if (row < 0 || row >= table.getRowCount() || viewColumn < 0) {
+                return;
+            }
+            Object value = table.getValueAt(row, viewColumn);
+            String[] wrapped = layout(
+                value == null ? "" : value.toString(), 
+                table.getColumnModel().getColumn(viewColumn).getWidth(), 
+                table
+            );
+            int height = Math.max(
+                minHeight, 
+                wrapped.length 
+                    * table.getFontMetrics(table.getFont()).getHeight() 
+                    + 2 * PADDING
+            );
+            if (table.getRowHeight(row) != height) {
+                table.setRowHeight(row, height);
+            }
+        }
+
         @Override
         public Component getTableCellRendererComponent(
                 JTable table, 
@@ -2576,94 +3041,177 @@ public class MedicalGUI {
                 boolean hasFocus, 
                 int row, 
                 int column) {
-            
-            JTextArea textArea = new JTextArea();
-            // Enable word wrapping
-            textArea.setWrapStyleWord(true); 
-            // Enable line wrapping
-            textArea.setLineWrap(true); 
-            // Make the text area opaque
-            textArea.setOpaque(true); 
-            // Set the text area content
-            textArea.setText((String) value); 
-            
-            /*
-             * Preferred size to control width based on
-             * the column width
-             */
-            textArea.setSize(
+            setFont(table.getFont());
+            // Look up the wrapped lines, laying them out on a miss
+            lines = layout(
+                value == null ? "" : value.toString(), 
                 table.getColumnModel().getColumn(column).getWidth(), 
-                Short.MAX_VALUE
+                table
             );
-            // Adjust size to preferred size
-            textArea.setSize(textArea.getPreferredSize()); 
             
             /*
              * Set background and foreground colors
              * based on selection state
              */
             if (isSelected) {
-                textArea.setBackground(
-                    table.getSelectionBackground()
-                );
-                textArea.setForeground(
-                    table.getSelectionForeground()
-                );
+                background = table.getSelectionBackground();
+                foreground = table.getSelectionForeground();
             } else {
-                textArea.setBackground(
-                    table.getBackground()
-                );
-                textArea.setForeground(
-                    table.getForeground()
-                );
+                background = table.getBackground();
+                foreground = table.getForeground();
             }
 
-            // Draw the border to simulate grid lines
-            textArea.setBorder(
-                BorderFactory.createMatteBorder(
-                    1, 1, 1, 1, 
-                    table.getGridColor()
-                )
-            );
+            // Remember the color of the simulated grid lines
+            gridColor = table.getGridColor();
             
-            // Return the customized text area
-            return textArea; 
+            // Return the reused component
+            return this; 
+        }
+
+        /**
+         * Paints the cell straight onto the graphics context it is
+         * given. The renderer has no border or children, so the copy
+         * of the context JComponent.paint makes on every cell is not
+         * needed.
+         * 
+         * @param g the graphics context
+         */
+        @Override
+        public void paint(Graphics g) {
+            paintComponent(g);
+        }
+
+        /**
+         * Paints the cached lines of the current cell.
+         * 
+         * @param g the graphics context
+         */
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.setColor(background);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setColor(foreground);
+            g.setFont(getFont());
+            FontMetrics metrics = g.getFontMetrics();
+            int y = PADDING + metrics.getAscent();
+            for (String line : lines) {
+                g.drawString(line, PADDING, y);
+                y += metrics.getHeight();
+            }
+            /*
+             * Draw the border to simulate grid lines; a MatteBorder
+             * would allocate its insets on every paint
+             */
+            g.setColor(gridColor);
+            g.drawRect(0, 0, getWidth() - 1, getHeight() - 1);
+        }
+
+        /**
+         * Returns the wrapped lines of a text for a column width,
+         * from the cache when possible. The cache is cleared when the
+         * width or font changes.
+         */
+        private String[] layout(String text, int width, JTable table) {
+            Font font = table.getFont();
+            if (width != layoutWidth || !font.equals(layoutFont)) {
+                layouts.clear();
+                layoutWidth = width;
+                layoutFont = font;
+            }
+            String[] wrapped = layouts.get(text);
+            if (wrapped == null) {
+                wrapped = wrap(
+                    text, 
+                    width - 2 * PADDING, 
+                    table.getFontMetrics(font)
+                );
+                layouts.put(text, wrapped);
+            }
+            return wrapped;
+        }
+
+        /**
+         * Breaks a text into lines no wider than the given width,
+         * breaking between words where possible.
+         */
+        private static String[] wrap(
+                String text, 
+                int width, 
+                FontMetrics metrics) {
+            List<String> wrapped = new ArrayList<>();
+            for (String paragraph : text.split("\n", -1)) {
+                int start = 0;
+                while (start < paragraph.length()) {
+                    int end = start;
+                    int lastSpace = -1;
+                    int lineWidth = 0;
+                    // Extend the line while it still fits
+                    while (end < paragraph.length()) {
+                        lineWidth += metrics.charWidth(paragraph.charAt(end));
+                        if (lineWidth > width) {
+                            break;
+                        }
+                        if (paragraph.charAt(end) == ' ') {
+                            lastSpace = end;
+                        }
+                        end++;
+                    }
+                    if (end < paragraph.length() && lastSpace > start) {
+                        // Break after the last space that fits
+                        end = lastSpace + 1;
+                    } else if (end == start) {
+                        // A single character wider than the column
+                        end++;
+                    }
+                    wrapped.add(paragraph.substring(start, end).stripTrailing());
+                    start = end;
+                }
+                if (paragraph.isEmpty()) {
+                    wrapped.add("");
+                }
+            }
+            return wrapped.toArray(new String[0]);
         }
     }
 
     /**
      * Selects a patient ID from the list of patients.
-     * This method displays a dialog with a combo box for the 
-     * user to select a patient.
+     * This method displays a dialog with a type-ahead picker for 
+     * the user to search and select a patient.
      * 
      * @return the ID of the selected patient, or -1 if no 
      * selection is made
      */
     private int selectPatientId() {
-        // Retrieve the list of patients
-        List<Patient> patients = healthService.getPatients();
-        
-        // Create a combo box with patients
-        JComboBox<Patient> patientComboBox = new JComboBox<>(
-            patients.toArray(Patient[]::new)
-        );
-        
-        // Set custom renderer for the combo box
-        patientComboBox.setRenderer(new PatientListCellRenderer());
+        return selectPatientId("Select Patient");
+    }
+
+    /**
+     * Selects a patient ID from the list of patients using a
+     * type-ahead picker dialog with the given title.
+     * 
+     * @param title the title of the selection dialog
+     * @return the ID of the selected patient, or -1 if no 
+     * selection is made
+     */
+    private int selectPatientId(String title) {
+        // Create a picker searching the patients as the user types
+        PatientPicker picker = new PatientPicker();
 
         // Show dialog
         int option = JOptionPane.showConfirmDialog(
             frame, 
-            patientComboBox, 
-            "Select Patient", 
+            picker, 
+            title, 
             JOptionPane.OK_CANCEL_OPTION
         );
+        // Stop a search still running in the background
+        picker.stop(); 
         
         // Check if the user approved the selection
         if (option == JOptionPane.OK_OPTION) {
             // Get the selected patient
-            Patient selectedPatient = 
-                (Patient) patientComboBox.getSelectedItem();
+            Patient selectedPatient = picker.getSelectedPatient();
             if (selectedPatient != null) {
                 // Return the selected patient's ID
                 return selectedPatient.getId();
@@ -2674,6 +3222,194 @@ public class MedicalGUI {
         return -1;
     }
 
+    /**
+     * A type-ahead patient picker.
+     * This panel shows a search field above a list of at most 
+     * {@value #PICKER_LIMIT} patients. Typing a name or ID filters 
+     * the list through the patient index once the user pauses, 
+     * with the search running in the background, so opening the 
+     * picker costs the same however many patients there are.
+     */
+    class PatientPicker extends JPanel {
+        // Field the user types the name or ID into
+        private final JTextField searchField; 
+        // List of the matching patients
+        private final JList<Patient> resultList; 
+        // Label describing the shown matches
+        private final JLabel statusLabel; 
+        // Timer starting a search once typing pauses
+        private final Timer debounce; 
+        // Search running in the background, if any
+        private SwingWorker<List<Patient>, Void> search; 
+
+        public PatientPicker() {
+            super(new BorderLayout(0, 5));
+            searchField = new JTextField(24);
+            searchField.setToolTipText("Type a patient name or ID");
+            resultList = new JList<>();
+            resultList.setCellRenderer(new PatientListCellRenderer());
+            resultList.setVisibleRowCount(10);
+            statusLabel = new JLabel();
+
+            // Show the first patients until the user types
+            List<Patient> patients = healthService.getPatients();
+            showMatches(new ArrayList<>(patients.subList(
+                0, 
+                Math.min(PICKER_LIMIT, patients.size())
+            )));
+            // Build the index while the user starts typing
+            patientIndex.prepare(); 
+
+            // Search once the user pauses typing
+            debounce = new Timer(PICKER_DELAY_MS, _ -> startSearch());
+            debounce.setRepeats(false);
+            searchField.getDocument().addDocumentListener(
+                new DocumentListener() {
+                    @Override
+                    public void insertUpdate(DocumentEvent e) {
+                        debounce.restart();
+                    }
+
+                    @Override
+                    public void removeUpdate(DocumentEvent e) {
+                        debounce.restart();
+                    }
+
+                    @Override
+                    public void changedUpdate(DocumentEvent e) {
+                        debounce.restart();
+                    }
+                }
+            );
+
+            // Move through the matches with the arrow keys
+            bindArrow(KeyEvent.VK_UP, -1);
+            bindArrow(KeyEvent.VK_DOWN, 1);
+
+            // Focus the search field when the dialog opens
+            searchField.addAncestorListener(new AncestorListener() {
+                @Override
+                public void ancestorAdded(AncestorEvent e) {
+                    SwingUtilities.invokeLater(
+                        searchField::requestFocusInWindow
+                    );
+                }
+
+                @Override
+                public void ancestorRemoved(AncestorEvent e) {
+                }
+
+                @Override
+                public void ancestorMoved(AncestorEvent e) {
+                }
+            });
+
+            add(searchField, BorderLayout.NORTH);
+            add(new JScrollPane(resultList), BorderLayout.CENTER);
+            add(statusLabel, BorderLayout.SOUTH);
+        }
+
+        /**
+         * Returns the patient selected in the list.
+         * 
+         * @return the selected patient, or null
+         */
+        public Patient getSelectedPatient() {
+            return resultList.getSelectedValue();
+        }
+
+        /**
+         * Stops the pending and running searches.
+         */
+        public void stop() {
+            debounce.stop();
+            if (search != null) {
+                search.cancel(true);
+            }
+        }
+
+        /**
+         * Searches the index for the typed text in the background,
+         * replacing a search that is still running.
+         */
+        private void startSearch() {
+            if (search != null) {
+                search.cancel(true);
+            }
+            String query = searchField.getText();
+            statusLabel.setText("Searching...");
+            search = new SwingWorker<>() {
+                @Override
+                protected List<Patient> doInBackground() {
+                    return patientIndex.search(query, PICKER_LIMIT);
+                }
+
+                @Override
+                protected void done() {
+                    // Ignore searches replaced by a newer one
+                    if (isCancelled() || search != this) {
+                        return;
+                    }
+                    try {
+                        showMatches(get());
+                    } catch (InterruptedException | ExecutionException e) {
+                        statusLabel.setText(
+                            "Search failed: " + causeMessage(e)
+                        );
+                    }
+                }
+            };
+            search.execute();
+        }
+
+        /**
+         * Shows the matching patients and selects the first one.
+         */
+        private void showMatches(List<Patient> matches) {
+            resultList.setListData(matches.toArray(Patient[]::new));
+            if (!matches.isEmpty()) {
+                resultList.setSelectedIndex(0);
+            }
+            if (matches.isEmpty()) {
+                statusLabel.setText("No matching patients");
+            } else if (matches.size() >= PICKER_LIMIT) {
+                statusLabel.setText(
+                    "Showing the first " + PICKER_LIMIT 
+                    + " matches, type to narrow down"
+                );
+            } else {
+                statusLabel.setText(matches.size() + " matching patients");
+            }
+        }
+
+        /**
+         * Binds an arrow key in the search field to moving the
+         * selection of the list.
+         */
+        private void bindArrow(int key, int step) {
+            String name = "move" + step;
+            searchField.getInputMap().put(
+                KeyStroke.getKeyStroke(key, 0), 
+                name
+            );
+            searchField.getActionMap().put(name, new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    int size = resultList.getModel().getSize();
+                    if (size == 0) {
+                        return;
+                    }
+                    int index = Math.floorMod(
+                        resultList.getSelectedIndex() + step, 
+                        size
+                    );
+                    resultList.setSelectedIndex(index);
+                    resultList.ensureIndexIsVisible(index);
+                }
+            });
+        }
+    }
+
     /**
      * A custom list cell renderer for displaying patients 
      * with icons.
@@ -2700,22 +3436,8 @@ public class MedicalGUI {
             iconLabel = new JLabel(); 
             
             // Load and process icons for patient privacy status
-            checkedIcon = resizeAndRecolorIcon(
-                new ImageIcon(
-                    "src/main/resources/Checked.png"
-                ), 
-                16, 
-                16, 
-                true
-            );
-            uncheckedIcon = resizeAndRecolorIcon(
-                new ImageIcon(
-                    "src/main/resources/Unchecked.png"
-                ), 
-                16, 
-                16, 
-                true
-            );
+            checkedIcon = IconService.themed("Checked.png", 16);
+            uncheckedIcon = IconService.themed("Unchecked.png", 16);
 
             // Add text label to the center
             add(textLabel, BorderLayout.CENTER); 
@@ -2798,11 +3520,9 @@ public class MedicalGUI {
             String selectedName = 
                 (String) facilityComboBox.getSelectedItem();
             
-            // Find the facility by name
-            MedicalFacility facility = facilities.stream()
-                .filter(f -> f.getName().equals(selectedName))
-                .findFirst()
-                .orElse(null);
+            // Find the facility in the name index
+            MedicalFacility facility =
+                healthService.findFacilityByName(selectedName);
             
             if (facility != null) {
                 // Return the selected facility's ID
@@ -3094,79 +3814,6 @@ public class MedicalGUI {
         }
     }
 
-    /**
-     * Resizes and optionally recolors an icon.
-     * This method allows for the resizing of icons 
-     * and can change their color if specified.
-     * 
-     * @param icon the ImageIcon to be resized and recolored
-     * @param width the desired width
-     * @param height the desired height
-     * @param recolor whether to recolor the icon
-     * @return a resized and recolored ImageIcon
-     */
-    private ImageIcon resizeAndRecolorIcon(
-        ImageIcon icon, 
-        int width, 
-        int height, 
-        boolean recolor
-    ) {
-        // Get the image from the icon
-        Image img = icon.getImage(); 
-        
-        // Check if the image loaded correctly
-        if (img.getWidth(null) == -1 || 
-            img.getHeight(null) == -1) {
-            System.err.println(
-                "Error: Image not loaded correctly. " +
-                "Please check the file path."
-            );
-            // Return the original icon if loading fails
-            return icon; 
-        }
-
-        // Create a buffered image
-        BufferedImage bufferedImage = new BufferedImage(
-            img.getWidth(null), 
-            img.getHeight(null), 
-            BufferedImage.TYPE_INT_ARGB
-        ); 
-
-        // Draw the image on the buffered image
-        Graphics2D g2d = bufferedImage.createGraphics();
-        g2d.drawImage(img, 0, 0, null);
-        g2d.dispose();
-
-        if (recolor) {
-            // Iterate over each pixel and set it to black
-            for (int y = 0; y < bufferedImage.getHeight(); y++) {
-                for (int x = 0; x < bufferedImage.getWidth(); x++) {
-                    int rgba = bufferedImage.getRGB(x, y);
-                    // Preserve the alpha channel
-                    int alpha = (rgba >> 24) & 0xff; 
-                    // Only change non-transparent pixels
-                    if (alpha != 0) { 
-                        // Set to black with preserved alpha
-                        bufferedImage.setRGB(
-                            x, 
-                            y, 
-                            (alpha << 24) 
-                        ); 
-                    }
-                }
-            }
-        }
-
-        // Resize the image
-        Image resizedImage = bufferedImage.getScaledInstance(
-            width, 
-            height, 
-            Image.SCALE_SMOOTH
-        );
-        // Return the resized icon
-        return new ImageIcon(resizedImage); 
-    }
-
     /**
      * Displays a popup with tips for using the application.
      * This method provides users with helpful information on 
@@ -3230,22 +3877,8 @@ public class MedicalGUI {
             iconLabel = new JLabel(); 
             
             // Load and process icons for procedure elective status
-            checkedIcon = resizeAndRecolorIcon(
-                new ImageIcon(
-                    "src/main/resources/Checked.png"
-                ), 
-                16, 
-                16, 
-                true
-            );
-            uncheckedIcon = resizeAndRecolorIcon(
-                new ImageIcon(
-                    "src/main/resources/Unchecked.png"
-                ), 
-                16, 
-                16, 
-                true
-            );
+            checkedIcon = IconService.themed("Checked.png", 16);
+            uncheckedIcon = IconService.themed("Unchecked.png", 16);
 
             // Add text label to the center
             add(textLabel, BorderLayout.CENTER); 
@@ -0,0 +1,105 @@
+/**
+ * @author : Yuuji
+ * Money.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary class for exact decimal formatting
+import java.math.BigDecimal;
+
+/**
+ * The Money class converts between dollar amounts and the exact
+ * fixed-point values used for fees, costs and balances: amounts in
+ * whole cents held in a long, and percentages in basis points
+ * (hundredths of a percent) held in an int.
+ * <p>
+ * Dollars are converted once, when an amount is entered or restored.
+ * Charges are then computed on the fixed-point values with integer
+ * arithmetic only, so they give the same cents on every run and
+ * allocate nothing.
+ */
+final class Money {
+    // Cents in one dollar
+    static final long CENTS_PER_DOLLAR = 100;
+    // Basis points in one percent
+    static final int BASIS_POINTS_PER_PERCENT = 100;
+    // Basis points in one hundred percent
+    private static final long BASIS_POINTS_PER_WHOLE = 10_000;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private Money() {
+    }
+
+    /**
+     * Converts a dollar amount to cents, rounding to the nearest cent.
+     *
+     * @param dollars the amount in dollars
+     * @return the amount in cents
+     */
+    static long cents(double dollars) {
+        return Math.round(dollars * CENTS_PER_DOLLAR);
+    }
+
+    /**
+     * Converts an amount in cents to dollars.
+     *
+     * @param cents the amount in cents
+     * @return the amount in dollars
+     */
+    static double dollars(long cents) {
+        return (double) cents / CENTS_PER_DOLLAR;
+    }
+
+    /**
+     * Formats an amount in cents as dollars with two decimals, such
+     * as "1250.05", without the exponent a large double would show.
+     *
+     * @param cents the amount in cents
+     * @return the formatted amount
+     */
+    static String format(long cents) {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+
+    /**
+     * Converts a percentage to basis points, rounding to the nearest
+     * hundredth of a percent.
+     *
+     * @param percent the percentage, such as 12.5
+     * @return the percentage in basis points, such as 1250
+     */
+    static int basisPoints(double percent) {
+        return Math.toIntExact(Math.round(percent * BASIS_POINTS_PER_PERCENT));
+    }
+
+    /**
+     * Converts basis points to a percentage.
+     *
+     * @param basisPoints the percentage in basis points
+     * @return the percentage
+     */
+    static double percent(int basisPoints) {
+        return (double) basisPoints / BASIS_POINTS_PER_PERCENT;
+    }
+
+    /**
+     * Returns a percentage of an amount, rounded half up to the cent.
+     *
+     * @param cents the amount in cents
+     * @param basisPoints the percentage in basis points
+     * @return the share of the amount in cents
+     * @throws ArithmeticException if the result does not fit a long
+     */
+    static long percentOf(long cents, int basisPoints) {
+        // Adding half of the divisor first rounds half up
+        long scaled = Math.multiplyExact(cents, basisPoints);
+        return Math.floorDiv(
+            scaled + BASIS_POINTS_PER_WHOLE / 2,
+            BASIS_POINTS_PER_WHOLE
+        );
+    }
+}
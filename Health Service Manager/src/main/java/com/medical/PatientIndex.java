@@ -0,0 +1,358 @@
+/**
+ * @author : Yuuji
+ * PatientIndex.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for concurrent sorted maps
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * The PatientIndex class finds patients by the start of their ID or
+ * of any word of their name, falling back to any part of the name.
+ * It is built in the background the first time it is needed and then
+ * kept up to date by listening to the health service, so a search
+ * costs a lookup in a sorted map instead of a pass over all patients.
+ * <p>
+ * Searches may run on any thread. The index is built from a copy of
+ * the patient list taken by {@link #prepare()}, which must run on the
+ * thread that changes the health service; changes reported while the
+ * index is being built are applied once it is done.
+ */
+final class PatientIndex implements HealthServiceListener {
+    // Patients checked between looks at the interrupt flag
+    private static final int CHECK_INTERVAL = 4096;
+
+    // Health service whose patients are indexed
+    private HealthService service;
+    // Finished index, or null while none is built
+    private Tables tables;
+    // Build in progress or finished, or null if none was started
+    private CompletableFuture<Void> build;
+    // Changes reported while the index is being built
+    private List<Consumer<Tables>> pending;
+
+    /**
+     * An indexed patient with the lowercase name and name words it
+     * was indexed under.
+     *
+     * @param patient the patient
+     * @param name the lowercase name
+     * @param words the distinct words of the name
+     */
+    private record Entry(Patient patient, String name, String[] words) {
+        /**
+         * Returns whether the name contains every query word.
+         */
+        boolean contains(String[] query) {
+            for (String word : query) {
+                if (!name.contains(word)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The Tables class holds the sorted maps of one index. Changes
+     * are made by one thread at a time, searches by any thread.
+     */
+    private static final class Tables {
+        // Entries by patient ID
+        final ConcurrentSkipListMap<Integer, Entry> byId =
+            new ConcurrentSkipListMap<>();
+        /*
+         * Entries by name word, then by patient ID. Keeping the IDs
+         * in a map per word keeps the word map as small as the
+         * number of distinct words
+         */
+        final ConcurrentSkipListMap<String,
+            ConcurrentSkipListMap<Integer, Entry>> byWord =
+                new ConcurrentSkipListMap<>();
+
+        /**
+         * Indexes a patient, replacing its previous entry.
+         */
+        void add(Patient patient) {
+            remove(patient.getId());
+            String name = patient.getName().toLowerCase(Locale.ROOT);
+            Entry entry = new Entry(patient, name, words(name));
+            byId.put(patient.getId(), entry);
+            for (String word : entry.words()) {
+                byWord.computeIfAbsent(
+                    word,
+                    _ -> new ConcurrentSkipListMap<>()
+                ).put(patient.getId(), entry);
+            }
+        }
+
+        /**
+         * Removes the entry of a patient.
+         */
+        void remove(int id) {
+            Entry entry = byId.remove(id);
+            if (entry == null) {
+                return;
+            }
+            for (String word : entry.words()) {
+                Map<Integer, Entry> entries = byWord.get(word);
+                entries.remove(id);
+                if (entries.isEmpty()) {
+                    byWord.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a lowercase name into its distinct words.
+     */
+    private static String[] words(String name) {
+        List<String> words = new ArrayList<>(2);
+        int start = 0;
+        while (start < name.length()) {
+            int end = name.indexOf(' ', start);
+            if (end < 0) {
+                end = name.length();
+            }
+            String word = name.substring(start, end).strip();
+            if (!word.isEmpty() && !words.contains(word)) {
+                words.add(word);
+            }
+            start = end + 1;
+        }
+        return words.toArray(String[]::new);
+    }
+
+    /**
+     * Indexes the patients of another health service. The new index
+     * is built the next time it is prepared or searched.
+     *
+     * @param service the health service, or null
+     */
+    synchronized void setService(HealthService service) {
+        if (this.service == service) {
+            return;
+        }
+        if (this.service != null) {
+            this.service.removeListener(this);
+        }
+        this.service = service;
+        tables = null;
+        build = null;
+        pending = null;
+        if (service != null) {
+            service.addListener(this);
+        }
+    }
+
+    /**
+     * Starts building the index in the background unless it is built
+     * or being built. Copies the patient list, so it must run on the
+     * thread that changes the health service.
+     */
+    synchronized void prepare() {
+        if (build != null || service == null) {
+            return;
+        }
+        HealthService owner = service;
+        Patient[] patients = owner.getPatients().toArray(Patient[]::new);
+        List<Consumer<Tables>> changes = new ArrayList<>();
+        pending = changes;
+        build = CompletableFuture.runAsync(() -> {
+            Tables built = new Tables();
+            for (Patient patient : patients) {
+                built.add(patient);
+            }
+            synchronized (this) {
+                // Skip an index of a health service no longer shown
+                if (service != owner || pending != changes) {
+                    return;
+                }
+                for (Consumer<Tables> change : changes) {
+                    change.accept(built);
+                }
+                pending = null;
+                tables = built;
+            }
+        });
+    }
+
+    /**
+     * Returns the patients matching a query: those whose ID starts
+     * with it, then those with a name word starting with its first
+     * word, then those whose name contains it. Every word of the
+     * query must appear in the name of a name match. Waits for the
+     * index to be built, so it should not be called on the Event
+     * Dispatch Thread.
+     *
+     * @param query the text typed by the user
+     * @param limit the maximum number of patients returned
+     * @return the matching patients, at most limit
+     */
+    List<Patient> search(String query, int limit) {
+        CompletableFuture<Void> started;
+        synchronized (this) {
+            started = build;
+        }
+        if (started == null) {
+            return List.of();
+        }
+        started.join();
+        Tables current;
+        synchronized (this) {
+            current = tables;
+        }
+        if (current == null) {
+            return List.of();
+        }
+
+        String text = query.strip().toLowerCase(Locale.ROOT);
+        Map<Integer, Patient> found = new LinkedHashMap<>();
+        if (text.isEmpty()) {
+            // Without a query the first patients are shown
+            for (Entry entry : current.byId.values()) {
+                if (found.size() >= limit) {
+                    break;
+                }
+                found.put(entry.patient().getId(), entry.patient());
+            }
+            return new ArrayList<>(found.values());
+        }
+        String[] words = text.split("\\s+");
+
+        if (text.chars().allMatch(Character::isDigit) && text.length() < 10) {
+            matchIds(current, Integer.parseInt(text), found, limit);
+        }
+
+        // Names with a word starting with the first query word
+        String first = words[0];
+        for (Map<Integer, Entry> entries : current.byWord.subMap(
+                first, true, first + Character.MAX_VALUE, false).values()) {
+            for (Entry entry : entries.values()) {
+                if (found.size() >= limit) {
+                    return new ArrayList<>(found.values());
+                }
+                if (entry.contains(words)) {
+                    found.putIfAbsent(
+                        entry.patient().getId(),
+                        entry.patient()
+                    );
+                }
+            }
+        }
+
+        // Names containing the query anywhere
+        int checked = 0;
+        for (Entry entry : current.byId.values()) {
+            if (found.size() >= limit
+                || (++checked % CHECK_INTERVAL == 0
+                    && Thread.currentThread().isInterrupted())) {
+                break;
+            }
+            if (entry.contains(words)) {
+                found.putIfAbsent(entry.patient().getId(), entry.patient());
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * Adds the patients whose ID starts with the digits of a prefix,
+     * shortest IDs first: prefix, prefix0..prefix9, and so on.
+     */
+    private static void matchIds(
+        Tables tables,
+        int prefix,
+        Map<Integer, Patient> found,
+        int limit
+    ) {
+        long low = prefix;
+        long high = prefix;
+        while (low <= Integer.MAX_VALUE && found.size() < limit) {
+            for (Entry entry : tables.byId.subMap(
+                    (int) low,
+                    true,
+                    (int) Math.min(high, Integer.MAX_VALUE),
+                    true).values()) {
+                if (found.size() >= limit) {
+                    return;
+                }
+                found.put(entry.patient().getId(), entry.patient());
+            }
+            if (prefix == 0) {
+                // No other ID starts with a zero
+                return;
+            }
+            low = low * 10;
+            high = high * 10 + 9;
+        }
+    }
+
+    /**
+     * Applies a change to the index, or keeps it until the index
+     * being built is done.
+     */
+    private synchronized void apply(Consumer<Tables> change) {
+        if (pending != null) {
+            pending.add(change);
+        } else if (tables != null) {
+            change.accept(tables);
+        }
+    }
+
+    /**
+     * Indexes an added patient.
+     *
+     * @param patient the added patient
+     */
+    @Override
+    public void patientAdded(Patient patient) {
+        apply(tables -> tables.add(patient));
+    }
+
+    /**
+     * Indexes patients added together in one change.
+     *
+     * @param patients the added patients
+     */
+    @Override
+    public void patientsAdded(List<Patient> patients) {
+        apply(tables -> {
+            for (Patient patient : patients) {
+                tables.add(patient);
+            }
+        });
+    }
+
+    /**
+     * Removes a patient from the index.
+     *
+     * @param patient the removed patient
+     */
+    @Override
+    public void patientRemoved(Patient patient) {
+        int id = patient.getId();
+        apply(tables -> tables.remove(id));
+    }
+
+    /**
+     * Indexes a changed patient under its new name.
+     *
+     * @param patient the changed patient
+     */
+    @Override
+    public void patientChanged(Patient patient) {
+        apply(tables -> tables.add(patient));
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * @author : Yuuji
+ * ScenarioRunner.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for fork/join tasks and random streams
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The ScenarioRunner class runs many independent replicas of a
+ * {@link Simulation} of the current health service and summarizes
+ * how admissions and revenue of every hospital vary between them,
+ * such as when tuning the admission probability of a hospital.
+ * <p>
+ * Replicas run as tasks of a fork/join pool. Every replica gets its
+ * own random stream split off the seed in replica order, so the
+ * results do not depend on how many threads run them or in which
+ * order. All replicas share one {@link Simulation.Model}: facilities
+ * and procedures are not copied, and each replica copies only the
+ * patients it visits.
+ * <p>
+ * The health service must not change while the replicas run.
+ * Hospitals should use {@link AdmissionSource#perThread()}; a seeded
+ * source would be shared by all replicas.
+ */
+final class ScenarioRunner {
+    // Two-sided 95% quantile of the standard normal distribution
+    private static final double Z_95 = 1.959963984540054;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private ScenarioRunner() {
+    }
+
+    /**
+     * The mean of a quantity over the replicas with its 95%
+     * confidence interval.
+     *
+     * @param mean the mean over the replicas
+     * @param standardDeviation the sample standard deviation
+     * @param low the lower bound of the confidence interval
+     * @param high the upper bound of the confidence interval
+     */
+    record Estimate(
+        double mean,
+        double standardDeviation,
+        double low,
+        double high
+    ) {
+        /**
+         * Estimates the mean of samples with a normal approximation.
+         *
+         * @param samples one value per replica
+         * @return the estimate
+         */
+        static Estimate of(double[] samples) {
+            int n = samples.length;
+            double mean = 0;
+            double squares = 0;
+            for (int i = 0; i < n; i++) {
+                // Welford's update keeps the variance accurate
+                double delta = samples[i] - mean;
+                mean += delta / (i + 1);
+                squares += delta * (samples[i] - mean);
+            }
+            double deviation = n > 1 ? Math.sqrt(squares / (n - 1)) : 0;
+            double margin = n > 0 ? Z_95 * deviation / Math.sqrt(n) : 0;
+            return new Estimate(
+                mean, deviation, mean - margin, mean + margin
+            );
+        }
+    }
+
+    /**
+     * The estimates of one hospital.
+     *
+     * @param hospital the hospital
+     * @param admissions the number of admissions per replica
+     * @param revenue the revenue per replica in dollars
+     */
+    record HospitalEstimate(
+        Hospital hospital,
+        Estimate admissions,
+        Estimate revenue
+    ) {
+    }
+
+    /**
+     * The results of all replicas.
+     *
+     * @param replicas the number of replicas run
+     * @param hospitals the estimates per hospital, ordered by ID
+     */
+    record Result(int replicas, List<HospitalEstimate> hospitals) {
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format(
+                "%d replicas, means with 95%% confidence intervals%n",
+                replicas
+            ));
+            text.append(String.format(
+                "%-24s %8s %29s %41s%n",
+                "Hospital", "Admit", "Admissions", "Revenue"
+            ));
+            for (HospitalEstimate estimate : hospitals) {
+                Estimate admitted = estimate.admissions();
+                Estimate revenue = estimate.revenue();
+                text.append(String.format(
+                    "%-24.24s %8.3f %10.1f [%7.1f, %7.1f] "
+                        + "%14.2f [%11.2f, %11.2f]%n",
+                    estimate.hospital().getName(),
+                    estimate.hospital().getProbAdmit(),
+                    admitted.mean(),
+                    admitted.low(),
+                    admitted.high(),
+                    revenue.mean(),
+                    revenue.low(),
+                    revenue.high()
+                ));
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Runs replicas on the common fork/join pool.
+     *
+     * @param service the health service to simulate
+     * @param settings the settings of every replica
+     * @param replicas the number of replicas
+     * @param seed the seed the replica streams are split off
+     * @return the estimates per hospital
+     */
+    static Result run(
+        HealthService service,
+        Simulation.Settings settings,
+        int replicas,
+        long seed
+    ) {
+        return run(
+            service, settings, replicas, seed, ForkJoinPool.commonPool()
+        );
+    }
+
+    /**
+     * Runs replicas on the given fork/join pool.
+     *
+     * @param service the health service to simulate
+     * @param settings the settings of every replica
+     * @param replicas the number of replicas
+     * @param seed the seed the replica streams are split off
+     * @param pool the pool running the replicas
+     * @return the estimates per hospital
+     * @throws IllegalArgumentException if replicas is not positive
+     */
+    static Result run(
+        HealthService service,
+        Simulation.Settings settings,
+        int replicas,
+        long seed,
+        ForkJoinPool pool
+    ) {
+        if (replicas <= 0) {
+            throw new IllegalArgumentException(
+                "At least one replica is needed"
+            );
+        }
+        Simulation.Model model = new Simulation.Model(service);
+        SplittableRandom root = new SplittableRandom(seed);
+        List<ForkJoinTask<Simulation.Report>> tasks =
+            new ArrayList<>(replicas);
+        for (int i = 0; i < replicas; i++) {
+            // Split in replica order, so each replica's stream is fixed
+            SplittableRandom stream = root.split();
+            tasks.add(pool.submit(
+                () -> Simulation.replica(model, settings, stream)
+            ));
+        }
+
+        List<Hospital> hospitals = model.hospitals();
+        double[][] admissions = new double[hospitals.size()][replicas];
+        double[][] revenue = new double[hospitals.size()][replicas];
+        for (int i = 0; i < replicas; i++) {
+            List<Simulation.FacilityReport> facilities =
+                tasks.get(i).join().facilities();
+            // Reports list the clinics first, then the hospitals
+            int clinics = facilities.size() - hospitals.size();
+            for (int h = 0; h < hospitals.size(); h++) {
+                Simulation.FacilityReport report =
+                    facilities.get(clinics + h);
+                admissions[h][i] = report.admissions();
+                revenue[h][i] = Money.dollars(report.revenueCents());
+            }
+        }
+
+        List<HospitalEstimate> estimates = new ArrayList<>();
+        for (int h = 0; h < hospitals.size(); h++) {
+            estimates.add(new HospitalEstimate(
+                hospitals.get(h),
+                Estimate.of(admissions[h]),
+                Estimate.of(revenue[h])
+            ));
+        }
+        return new Result(replicas, estimates);
+    }
+}
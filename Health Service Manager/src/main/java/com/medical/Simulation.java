@@ -0,0 +1,631 @@
+/**
+ * @author : Yuuji
+ * Simulation.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for random streams and result lists
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The Simulation class plays synthetic patient flow through the
+ * facilities of a health service in simulated time, for capacity
+ * planning without anyone clicking through visits.
+ * <p>
+ * Visits arrive as one Poisson stream over all patients. A visit goes
+ * to a random clinic or hospital and runs {@link Clinic#visit} or
+ * {@link Hospital#visit}, so fees, gap charges and the admission
+ * probability of each hospital apply as they do in the application.
+ * An admitted patient may have a procedure performed during the stay
+ * and is discharged when it ends. Events wait in a priority queue
+ * ordered by simulated time, and ties run in the order they were
+ * scheduled.
+ * <p>
+ * The simulation changes the patients it runs on, so it is normally
+ * given a {@link HealthService#copy()}, which also has no listeners
+ * to notify of every charge. Facilities and patients must not be
+ * added or removed while it runs. The same settings and seed on the
+ * same data give the same report, as long as the hospitals use
+ * {@link AdmissionSource#perThread()}.
+ * <p>
+ * Visits never change a facility, only the visiting patient, so
+ * several runs can share one {@link Model} of the facilities. A
+ * replica run leaves the patients of the model untouched and works on
+ * copies, made the first time each patient is visited.
+ */
+final class Simulation {
+    // Event kind of a patient arriving for a visit
+    private static final byte ARRIVAL = 0;
+    // Event kind of a procedure during a hospital stay
+    private static final byte PROCEDURE = 1;
+    // Event kind of a patient leaving a hospital
+    private static final byte DISCHARGE = 2;
+
+    // Settings of the run
+    private final Settings settings;
+    // Patients and facilities the run starts from
+    private final Model model;
+    // Patients visiting, indexed by event payload; null until copied
+    private final Patient[] patients;
+    // Clinics visited
+    private final Clinic[] clinics;
+    // Hospitals visited
+    private final Hospital[] hospitals;
+    // Statistics per facility: clinics first, then hospitals
+    private final long[] visits;
+    private final long[] admissions;
+    private final long[] procedures;
+    private final long[] revenueCents;
+    // Stream drawing arrivals, facilities and stays
+    private final SplittableRandom random;
+    // Pending events
+    private final EventQueue queue = new EventQueue();
+
+    /**
+     * The settings of a simulation run.
+     *
+     * @param days the simulated time in days
+     * @param visitsPerPatientYear the mean number of visits a patient
+     *        makes in a year
+     * @param clinicShare the share of visits that go to a clinic
+     * @param procedureChance the chance that an admitted patient has a
+     *        procedure during the stay
+     * @param meanStayDays the mean length of a hospital stay in days
+     * @param seed the seed of the random choices and admissions
+     */
+    record Settings(
+        double days,
+        double visitsPerPatientYear,
+        double clinicShare,
+        double procedureChance,
+        double meanStayDays,
+        long seed
+    ) {
+        /**
+         * Checks the settings.
+         */
+        Settings {
+            if (!(days >= 0) || !(visitsPerPatientYear >= 0)) {
+                throw new IllegalArgumentException(
+                    "Days and visits must not be negative"
+                );
+            }
+            if (!(meanStayDays > 0)) {
+                throw new IllegalArgumentException(
+                    "Hospital stays must be longer than zero"
+                );
+            }
+            if (!(clinicShare >= 0 && clinicShare <= 1)
+                    || !(procedureChance >= 0 && procedureChance <= 1)) {
+                throw new IllegalArgumentException(
+                    "Shares and chances must be between 0 and 1"
+                );
+            }
+        }
+
+        /**
+         * Returns settings for a year of four visits per patient, two
+         * thirds of them at clinics, with a procedure in half of the
+         * hospital stays of three days on average.
+         *
+         * @param seed the seed of the run
+         * @return the settings
+         */
+        static Settings year(long seed) {
+            return new Settings(365, 4, 2.0 / 3, 0.5, 3, seed);
+        }
+    }
+
+    /**
+     * The results of one facility.
+     *
+     * @param facility the facility
+     * @param visits the number of visits
+     * @param admissions the number of admissions to a hospital, or of
+     *        first visits registering at a clinic
+     * @param procedures the number of procedures performed
+     * @param revenueCents the amount charged to patients in cents
+     */
+    record FacilityReport(
+        MedicalFacility facility,
+        long visits,
+        long admissions,
+        long procedures,
+        long revenueCents
+    ) {
+    }
+
+    /**
+     * The results of a run.
+     *
+     * @param settings the settings of the run
+     * @param events the number of events processed
+     * @param facilities the results per facility, clinics first
+     * @param balanceCents the total balance of all patients after the
+     *        run in cents
+     * @param maxBalanceCents the highest balance of a patient in cents
+     */
+    record Report(
+        Settings settings,
+        long events,
+        List<FacilityReport> facilities,
+        long balanceCents,
+        long maxBalanceCents
+    ) {
+        /**
+         * Returns the amount charged by all facilities.
+         *
+         * @return the total revenue in cents
+         */
+        long revenueCents() {
+            long total = 0;
+            for (FacilityReport facility : facilities) {
+                total += facility.revenueCents();
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(
+                "Simulated %.0f days, %d events, revenue $%s, "
+                    + "patient balances $%s (highest $%s)%n",
+                settings.days(),
+                events,
+                Money.format(revenueCents()),
+                Money.format(balanceCents),
+                Money.format(maxBalanceCents)
+            ));
+            text.append(String.format(
+                "%-24s %10s %10s %10s %16s%n",
+                "Facility", "Visits", "Admitted", "Procedures", "Revenue"
+            ));
+            for (FacilityReport facility : facilities) {
+                text.append(String.format(
+                    "%-24.24s %10d %10d %10d %16s%n",
+                    facility.facility().getName(),
+                    facility.visits(),
+                    facility.admissions(),
+                    facility.procedures(),
+                    Money.format(facility.revenueCents())
+                ));
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * The Model class holds the patients and facilities of a health
+     * service as they were when it was made. It is read-only, so any
+     * number of runs may share it.
+     */
+    static final class Model {
+        // Health service the patients and facilities belong to
+        private final HealthService service;
+        // Patients ordered by ID
+        private final Patient[] patients;
+        // Clinics ordered by ID
+        private final Clinic[] clinics;
+        // Hospitals ordered by ID
+        private final Hospital[] hospitals;
+
+        /**
+         * Constructs a Model of the current patients and facilities of
+         * a health service.
+         *
+         * @param service the health service
+         */
+        Model(HealthService service) {
+            this.service = service;
+            patients = service.getPatientSnapshot().toArray(Patient[]::new);
+            List<Clinic> clinicList = new ArrayList<>();
+            List<Hospital> hospitalList = new ArrayList<>();
+            for (MedicalFacility facility : service.getFacilitySnapshot()) {
+                switch (facility) {
+                    case Clinic clinic -> clinicList.add(clinic);
+                    case Hospital hospital -> hospitalList.add(hospital);
+                    default -> {
+                        // Other facilities are not visited
+                    }
+                }
+            }
+            clinics = clinicList.toArray(Clinic[]::new);
+            hospitals = hospitalList.toArray(Hospital[]::new);
+            if (patients.length > 0
+                    && clinics.length + hospitals.length == 0) {
+                throw new IllegalArgumentException("No facilities to visit");
+            }
+        }
+
+        /**
+         * Returns the hospitals, in the order of the hospital reports.
+         *
+         * @return the hospitals ordered by ID
+         */
+        List<Hospital> hospitals() {
+            return List.of(hospitals);
+        }
+    }
+
+    /**
+     * The EventQueue class is a binary min-heap of events kept in
+     * parallel primitive arrays, so scheduling millions of events
+     * allocates nothing once the arrays have grown.
+     */
+    private static final class EventQueue {
+        // Simulated time of each event in days
+        private double[] times = new double[1024];
+        // Scheduling order, breaking ties between equal times
+        private long[] orders = new long[1024];
+        // Kind of each event
+        private byte[] kinds = new byte[1024];
+        // Patient index of each event
+        private int[] patients = new int[1024];
+        // Hospital index of each event, unused for arrivals
+        private int[] hospitals = new int[1024];
+        // Number of events in the heap
+        private int size;
+        // Events scheduled so far
+        private long scheduled;
+
+        // Fields of the event taken last by poll()
+        double time;
+        byte kind;
+        int patient;
+        int hospital;
+
+        /**
+         * Returns whether there are no pending events.
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Adds an event.
+         */
+        void add(double time, byte kind, int patient, int hospital) {
+            if (size == times.length) {
+                int capacity = size * 2;
+                times = Arrays.copyOf(times, capacity);
+                orders = Arrays.copyOf(orders, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                patients = Arrays.copyOf(patients, capacity);
+                hospitals = Arrays.copyOf(hospitals, capacity);
+            }
+            long order = scheduled++;
+            // Move parents down until the new event fits
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(time, order, parent)) {
+                    break;
+                }
+                move(parent, i);
+                i = parent;
+            }
+            set(i, time, order, kind, patient, hospital);
+        }
+
+        /**
+         * Takes the earliest event into the public fields.
+         */
+        void poll() {
+            time = times[0];
+            kind = kinds[0];
+            patient = patients[0];
+            hospital = hospitals[0];
+            int last = --size;
+            if (last == 0) {
+                return;
+            }
+            // Move the last event down from the root until it fits
+            double lastTime = times[last];
+            long lastOrder = orders[last];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= last) {
+                    break;
+                }
+                if (child + 1 < last
+                        && before(times[child + 1], orders[child + 1], child)) {
+                    child++;
+                }
+                if (!before(times[child], orders[child], lastTime, lastOrder)) {
+                    break;
+                }
+                move(child, i);
+                i = child;
+            }
+            set(i, lastTime, lastOrder, kinds[last], patients[last],
+                hospitals[last]);
+        }
+
+        /**
+         * Returns whether an event comes before the event at a slot.
+         */
+        private boolean before(double time, long order, int slot) {
+            return before(time, order, times[slot], orders[slot]);
+        }
+
+        /**
+         * Returns whether one event comes before another.
+         */
+        private static boolean before(
+            double time,
+            long order,
+            double otherTime,
+            long otherOrder
+        ) {
+            return time < otherTime
+                || (time == otherTime && order < otherOrder);
+        }
+
+        /**
+         * Copies the event at one slot to another.
+         */
+        private void move(int from, int to) {
+            set(to, times[from], orders[from], kinds[from], patients[from],
+                hospitals[from]);
+        }
+
+        /**
+         * Stores an event at a slot.
+         */
+        private void set(
+            int slot,
+            double time,
+            long order,
+            byte kind,
+            int patient,
+            int hospital
+        ) {
+            times[slot] = time;
+            orders[slot] = order;
+            kinds[slot] = kind;
+            patients[slot] = patient;
+            hospitals[slot] = hospital;
+        }
+    }
+
+    /**
+     * Constructs a Simulation over a model, either on its patients or
+     * on copies of them.
+     */
+    private Simulation(
+        Model model,
+        Settings settings,
+        SplittableRandom random,
+        boolean replica
+    ) {
+        this.settings = settings;
+        this.model = model;
+        this.random = random;
+        patients = replica
+            ? new Patient[model.patients.length]
+            : model.patients;
+        clinics = model.clinics;
+        hospitals = model.hospitals;
+        int facilities = clinics.length + hospitals.length;
+        visits = new long[facilities];
+        admissions = new long[facilities];
+        procedures = new long[facilities];
+        revenueCents = new long[facilities];
+    }
+
+    /**
+     * Runs a simulation on a health service and reports the results.
+     * The patients of the service are charged and moved between
+     * facilities as the simulation goes.
+     *
+     * @param service the health service, normally a copy
+     * @param settings the settings of the run
+     * @return the report of the run
+     * @throws IllegalArgumentException if the health service has
+     *         patients but no facilities
+     */
+    static Report run(HealthService service, Settings settings) {
+        return new Simulation(
+            new Model(service),
+            settings,
+            new SplittableRandom(settings.seed()),
+            false
+        ).start();
+    }
+
+    /**
+     * Runs a simulation on copies of the patients of a model, leaving
+     * the model unchanged. The seed of the settings is not used; all
+     * random choices come from the given stream instead, so replicas
+     * running at the same time can each be given a stream split off a
+     * common root.
+     *
+     * @param model the patients and facilities to start from
+     * @param settings the settings of the run
+     * @param random the stream of the run
+     * @return the report of the run
+     */
+    static Report replica(
+        Model model,
+        Settings settings,
+        SplittableRandom random
+    ) {
+        return new Simulation(model, settings, random, true).start();
+    }
+
+    /**
+     * Runs the event loop with admissions drawn from a stream of this
+     * run, then collects the report.
+     */
+    private Report start() {
+        long[] events = new long[1];
+        // Admissions draw from a stream of the run on this thread
+        AdmissionSource.PerThread.runWith(
+            random.split(),
+            () -> events[0] = loop()
+        );
+        return report(events[0]);
+    }
+
+    /**
+     * Returns the patient at a position, copying it from the model
+     * the first time a replica visits it.
+     */
+    private Patient patient(int index) {
+        Patient patient = patients[index];
+        if (patient == null) {
+            patient = model.patients[index].copy(model.service);
+            patients[index] = patient;
+        }
+        return patient;
+    }
+
+    /**
+     * Processes events in time order until the simulated time is over.
+     */
+    private long loop() {
+        // Mean days between two visits of any patient
+        double interval = 365 / (settings.visitsPerPatientYear()
+            * patients.length);
+        if (patients.length > 0 && Double.isFinite(interval)) {
+            queue.add(exponential(interval), ARRIVAL, 0, 0);
+        }
+        long events = 0;
+        while (!queue.isEmpty()) {
+            queue.poll();
+            if (queue.time > settings.days()) {
+                break;
+            }
+            events++;
+            switch (queue.kind) {
+                case ARRIVAL -> {
+                    arrive(random.nextInt(patients.length));
+                    queue.add(
+                        queue.time + exponential(interval), ARRIVAL, 0, 0
+                    );
+                }
+                case PROCEDURE -> perform(queue.patient, queue.hospital);
+                case DISCHARGE -> discharge(queue.patient, queue.hospital);
+                default -> throw new IllegalStateException(
+                    "Unknown event kind " + queue.kind
+                );
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Sends an arriving patient to a random clinic or hospital.
+     */
+    private void arrive(int patientIndex) {
+        Patient patient = patient(patientIndex);
+        boolean toClinic = hospitals.length == 0
+            || (clinics.length > 0
+                && random.nextDouble() < settings.clinicShare());
+        if (toClinic) {
+            int index = random.nextInt(clinics.length);
+            Charge charge = clinics[index].chargeVisit(patient);
+            if (charge.result()) {
+                admissions[index]++;
+            }
+            visits[index]++;
+            revenueCents[index] += charge.cents();
+            return;
+        }
+
+        int index = random.nextInt(hospitals.length);
+        int slot = clinics.length + index;
+        visits[slot]++;
+        if (!hospitals[index].visit(patient)) {
+            return;
+        }
+        admissions[slot]++;
+        double stay = exponential(settings.meanStayDays());
+        if (random.nextDouble() < settings.procedureChance()) {
+            queue.add(
+                queue.time + random.nextDouble() * stay,
+                PROCEDURE,
+                patientIndex,
+                index
+            );
+        }
+        queue.add(queue.time + stay, DISCHARGE, patientIndex, index);
+    }
+
+    /**
+     * Performs a random procedure of a hospital on a patient who is
+     * still there.
+     */
+    private void perform(int patientIndex, int hospitalIndex) {
+        Hospital hospital = hospitals[hospitalIndex];
+        List<Procedure> offered = hospital.getProcedures();
+        if (offered.isEmpty()) {
+            return;
+        }
+        Patient patient = patient(patientIndex);
+        Charge charge = hospital.chargeProcedure(
+            patient, offered.get(random.nextInt(offered.size()))
+        );
+        if (charge.result()) {
+            int slot = clinics.length + hospitalIndex;
+            procedures[slot]++;
+            revenueCents[slot] += charge.cents();
+        }
+    }
+
+    /**
+     * Discharges a patient from a hospital unless the patient has
+     * moved on since.
+     */
+    private void discharge(int patientIndex, int hospitalIndex) {
+        Patient patient = patient(patientIndex);
+        if (patient.getCurrentFacility() == hospitals[hospitalIndex]) {
+            patient.setCurrentFacility(null);
+        }
+    }
+
+    /**
+     * Returns an exponentially distributed time with the given mean.
+     */
+    private double exponential(double mean) {
+        // 1 - nextDouble() is never 0, so the logarithm is finite
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    /**
+     * Collects the statistics into a report.
+     */
+    private Report report(long events) {
+        List<FacilityReport> facilities = new ArrayList<>();
+        for (int i = 0; i < visits.length; i++) {
+            MedicalFacility facility = i < clinics.length
+                ? clinics[i]
+                : hospitals[i - clinics.length];
+            facilities.add(new FacilityReport(
+                facility,
+                visits[i],
+                admissions[i],
+                procedures[i],
+                revenueCents[i]
+            ));
+        }
+        long total = 0;
+        long max = 0;
+        for (int i = 0; i < patients.length; i++) {
+            // Patients a replica never visited keep their balance
+            Patient patient = patients[i] != null
+                ? patients[i]
+                : model.patients[i];
+            total += patient.getBalanceCents();
+            max = Math.max(max, patient.getBalanceCents());
+        }
+        return new Report(settings, events, facilities, total, max);
+    }
+}
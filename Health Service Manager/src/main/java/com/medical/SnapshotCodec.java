@@ -0,0 +1,1311 @@
+/**
+ * @author : Yuuji
+ * SnapshotCodec.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for channels, buffers and file handling
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * The SnapshotCodec class reads and writes a HealthService as a
+ * compact, versioned binary snapshot.
+ * <p>
+ * A snapshot starts with a magic number and a format version,
+ * followed by a sequence of records. Every record is prefixed with
+ * its length and a record type, and holds only primitive fields and
+ * length-prefixed UTF-8 strings. Readers skip fields they do not know
+ * at the end of a record and records of unknown type, so fields can
+ * be added without breaking older files.
+ * <p>
+ * Record order: one header, then every facility (each hospital is
+ * followed by its procedures), then every patient, then an end record
+ * holding the counts so that truncated files are detected. The header
+ * carries a random generation number that identifies the snapshot.
+ * <p>
+ * Since version 2 the end record is followed by an index record and a
+ * fixed-size trailer pointing to it. The index holds the offset of
+ * every facility record and of every {@value #INDEX_STRIDE}th patient
+ * record, so a {@link MappedSnapshot} can find any row without reading
+ * the records before it.
+ * <p>
+ * Since version 3 money is stored exactly: fees, costs and balances
+ * as a long number of cents, and the gap percentage of a clinic as an
+ * int number of basis points. Older versions store them as doubles in
+ * dollars and percent, which are rounded when read.
+ * <p>
+ * Since version 4 patient records, which make up nearly all of a
+ * snapshot, are compact: IDs, counts and the name length are varints
+ * of seven bits per byte, and the balance is a zigzag varint, so small
+ * values of either sign take a byte or two. The other records keep
+ * their fixed-size fields.
+ * <p>
+ * The same records are used by the {@link Journal} and by the delta
+ * files of {@link DeltaSnapshots}. In journal mode
+ * every record additionally ends with a CRC32C checksum, removals are
+ * recorded with their own record types, and records are applied on
+ * top of existing data: a record for an existing ID replaces the
+ * stored fields instead of adding a new entity.
+ * <p>
+ * A snapshot can also be saved compressed with a
+ * {@link BlockCompression.Codec}. The same stream of records is then
+ * wrapped in the blocks of {@link BlockCompression}; {@link #reader}
+ * and {@link #isSnapshot} recognize both forms.
+ */
+final class SnapshotCodec {
+    // Magic number at the start of every snapshot ("HSMS")
+    static final int MAGIC = 0x48534D53;
+    // Current format version
+    static final int VERSION = 4;
+
+    // Record type of the header record
+    static final byte HEADER = 1;
+    // Record type of a hospital record
+    static final byte HOSPITAL = 2;
+    // Record type of a clinic record
+    static final byte CLINIC = 3;
+    // Record type of a procedure record
+    static final byte PROCEDURE = 4;
+    // Record type of a patient record
+    static final byte PATIENT = 5;
+    // Record type of the end record
+    static final byte END = 6;
+    // Record type of a patient removal (journal only)
+    static final byte REMOVE_PATIENT = 7;
+    // Record type of a facility removal (journal only)
+    static final byte REMOVE_FACILITY = 8;
+    // Record type of a procedure removal (journal only)
+    static final byte REMOVE_PROCEDURE = 9;
+    // Record type naming the snapshot a journal applies to
+    static final byte BASE = 10;
+    // Record type of the offset index following the end record
+    static final byte INDEX = 11;
+    // Every how many patients the index records an offset
+    static final int INDEX_STRIDE = 64;
+    // Size of the trailer: index offset and magic number
+    static final int TRAILER_SIZE = 12;
+
+    // Size of the smallest compact patient record, with its length
+    private static final int MIN_PATIENT_RECORD = 11;
+    // Size of the I/O buffers, grown on demand for larger records
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private SnapshotCodec() {
+        // Utility class, not instantiated
+    }
+
+    /**
+     * Checks whether a file starts with the snapshot magic number,
+     * plain or compressed. Files saved with Java serialization do not.
+     *
+     * @param file the file to check
+     * @return true if the file is a binary snapshot
+     * @throws IOException if the file cannot be read
+     */
+    static boolean isSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) {
+                    // Too short to hold the magic number
+                    return false;
+                }
+            }
+            return magic.getInt(0) == MAGIC
+                || magic.getInt(0) == BlockCompression.MAGIC;
+        }
+    }
+
+    /**
+     * Opens a Reader on a snapshot file, decompressing it on the
+     * fly if it was saved compressed.
+     *
+     * @param file the snapshot file
+     * @return the reader, to be closed by the caller
+     * @throws IOException if the file cannot be opened
+     */
+    static Reader reader(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file);
+        try {
+            return new Reader(BlockCompression.isCompressed(channel)
+                ? new BlockCompression.Input(channel)
+                : channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the health service to a snapshot file. The data is
+     * written to a temporary file first and then moved into place,
+     * so a failed save never leaves a half-written snapshot behind.
+     *
+     * @param service the health service to write
+     * @param file the snapshot file
+     * @return the generation number stored in the snapshot
+     * @throws IOException if the file cannot be written
+     */
+    static long write(HealthService service, Path file) throws IOException {
+        long generation = ThreadLocalRandom.current().nextLong();
+        write(service, file, generation, null);
+        return generation;
+    }
+
+    /**
+     * Writes the health service to a snapshot file with the given
+     * generation number, reporting progress as it goes.
+     *
+     * @param service the health service to write
+     * @param file the snapshot file
+     * @param generation the generation number to store
+     * @param progress receives the percentage written, or null
+     * @throws IOException if the file cannot be written
+     */
+    static void write(
+        HealthService service,
+        Path file,
+        long generation,
+        IntConsumer progress
+    ) throws IOException {
+        write(service, file, generation, BlockCompression.Codec.NONE, progress);
+    }
+
+    /**
+     * Writes the health service to a snapshot file with the given
+     * generation number, compressed with a codec unless it is
+     * {@link BlockCompression.Codec#NONE}.
+     *
+     * @param service the health service to write
+     * @param file the snapshot file
+     * @param generation the generation number to store
+     * @param codec the codec compressing the snapshot
+     * @param progress receives the percentage written, or null
+     * @throws IOException if the file cannot be written
+     */
+    static void write(
+        HealthService service,
+        Path file,
+        long generation,
+        BlockCompression.Codec codec,
+        IntConsumer progress
+    ) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel channel = FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE
+        );
+        WritableByteChannel target;
+        try {
+            target = codec == BlockCompression.Codec.NONE
+                ? channel
+                : new BlockCompression.Output(channel, codec);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        try (Writer writer = new Writer(target)) {
+            writer.write(service, generation, progress);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a health service from a snapshot file.
+     *
+     * @param file the snapshot file
+     * @return the health service stored in the file
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    static HealthService read(Path file) throws IOException {
+        try (Reader reader = reader(file)) {
+            return reader.read();
+        }
+    }
+
+    /**
+     * Maps a signed amount to an unsigned one for a varint, so small
+     * amounts of either sign stay short: 0, -1, 1, -2 become 0, 1, 2, 3.
+     *
+     * @param value the signed amount
+     * @return the zigzag-encoded amount
+     */
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses {@link #zigzag}.
+     *
+     * @param value the zigzag-encoded amount
+     * @return the signed amount
+     */
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Streams snapshot records to a channel through a reusable buffer.
+     * Entities can be written one at a time, so callers that generate
+     * data do not need to build a HealthService in memory first.
+     */
+    static final class Writer implements Closeable {
+        // Channel the snapshot is written to
+        private final WritableByteChannel channel;
+        // Whether records carry checksums and no end record is written
+        private final boolean journal;
+        // Checksum of journal records
+        private final CRC32C crc = new CRC32C();
+        // Buffer collecting records before they are written
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        // Position of the length prefix of the open record, or -1
+        private int recordStart = -1;
+        // Counts written to the end record
+        private int facilities;
+        private int procedures;
+        private int patients;
+        // Bytes already written to the channel
+        private long written;
+        // Offsets of every facility record
+        private long[] facilityOffsets = new long[16];
+        // Offsets of every INDEX_STRIDE-th patient record
+        private long[] patientOffsets = new long[16];
+
+        /**
+         * Constructs a snapshot Writer and writes the magic number
+         * and version.
+         *
+         * @param channel the channel to write to
+         */
+        Writer(WritableByteChannel channel) {
+            this(channel, false);
+            preamble(MAGIC);
+        }
+
+        /**
+         * Constructs a Writer without writing anything yet. In journal
+         * mode every record ends with a checksum and closing the
+         * writer does not add an end record.
+         *
+         * @param channel the channel to write to
+         * @param journal whether to write journal records
+         */
+        Writer(WritableByteChannel channel, boolean journal) {
+            this.channel = channel;
+            this.journal = journal;
+        }
+
+        /**
+         * Writes a magic number followed by the format version.
+         *
+         * @param magic the magic number identifying the file type
+         */
+        void preamble(int magic) {
+            buffer.putInt(magic);
+            buffer.putInt(VERSION);
+        }
+
+        /**
+         * Writes a whole health service: header, facilities with
+         * their procedures, and patients.
+         *
+         * @param service the health service to write
+         * @param generation the generation number of the snapshot
+         * @param progress receives the percentage written, or null
+         * @throws IOException if writing fails
+         */
+        void write(
+            HealthService service,
+            long generation,
+            IntConsumer progress
+        ) throws IOException {
+            // Iterate copies so a live health service can keep changing
+            List<MedicalFacility> facilities = service.getFacilitySnapshot();
+            List<Patient> patients = service.getPatientSnapshot();
+            long total = facilities.size() + patients.size();
+            long done = 0;
+            int reported = -1;
+            header(
+                service.facilityIds().peek(),
+                service.patientIds().peek(),
+                generation
+            );
+            for (MedicalFacility facility : facilities) {
+                facility(facility);
+                if (facility instanceof Hospital hospital) {
+                    for (Procedure procedure
+                            : hospital.getProcedureSnapshot()) {
+                        procedure(hospital.getId(), procedure);
+                    }
+                }
+                reported = report(progress, ++done, total, reported);
+            }
+            for (Patient patient : patients) {
+                patient(patient);
+                reported = report(progress, ++done, total, reported);
+            }
+        }
+
+        /**
+         * Reports the percentage of entities written when it changes.
+         *
+         * @return the percentage reported last
+         */
+        private static int report(
+            IntConsumer progress,
+            long done,
+            long total,
+            int reported
+        ) {
+            int percent = (int) (done * 100 / total);
+            if (progress != null && percent != reported) {
+                progress.accept(percent);
+            }
+            return percent;
+        }
+
+        /**
+         * Writes the header record.
+         *
+         * @param nextFacilityId the next facility ID to allocate
+         * @param nextPatientId the next patient ID to allocate
+         * @param generation the generation number of the snapshot
+         * @throws IOException if writing fails
+         */
+        void header(int nextFacilityId, int nextPatientId, long generation)
+                throws IOException {
+            begin(HEADER);
+            putInt(nextFacilityId);
+            putInt(nextPatientId);
+            putLong(generation);
+            end();
+        }
+
+        /**
+         * Writes the record naming the snapshot a journal applies to.
+         *
+         * @param generation the generation number of the snapshot
+         * @throws IOException if writing fails
+         */
+        void base(long generation) throws IOException {
+            begin(BASE);
+            putLong(generation);
+            end();
+        }
+
+        /**
+         * Writes a patient removal record.
+         *
+         * @param id the ID of the removed patient
+         * @throws IOException if writing fails
+         */
+        void removePatient(int id) throws IOException {
+            begin(REMOVE_PATIENT);
+            putInt(id);
+            end();
+        }
+
+        /**
+         * Writes a facility removal record.
+         *
+         * @param id the ID of the removed facility
+         * @throws IOException if writing fails
+         */
+        void removeFacility(int id) throws IOException {
+            begin(REMOVE_FACILITY);
+            putInt(id);
+            end();
+        }
+
+        /**
+         * Writes a procedure removal record.
+         *
+         * @param hospitalId the ID of the hospital that offered it
+         * @param id the ID of the removed procedure
+         * @throws IOException if writing fails
+         */
+        void removeProcedure(int hospitalId, int id) throws IOException {
+            begin(REMOVE_PROCEDURE);
+            putInt(hospitalId);
+            putInt(id);
+            end();
+        }
+
+        /**
+         * Writes a hospital or clinic record. Procedures of a hospital
+         * are written separately with {@link #procedure}.
+         *
+         * @param facility the facility to write
+         * @throws IOException if writing fails
+         */
+        void facility(MedicalFacility facility) throws IOException {
+            facilityOffsets = append(
+                facilityOffsets, facilities, position()
+            );
+            switch (facility) {
+                case Hospital hospital -> {
+                    begin(HOSPITAL);
+                    putInt(hospital.getId());
+                    putString(hospital.getName());
+                    putDouble(hospital.getProbAdmit());
+                    putInt(hospital.procedureIds().peek());
+                }
+                case Clinic clinic -> {
+                    begin(CLINIC);
+                    putInt(clinic.getId());
+                    putString(clinic.getName());
+                    putLong(clinic.getConsultationFeeCents());
+                    putInt(clinic.getGapBasisPoints());
+                }
+                default -> throw new IOException(
+                    "Unsupported facility type: "
+                        + facility.getClass().getSimpleName()
+                );
+            }
+            end();
+            facilities++;
+        }
+
+        /**
+         * Writes a procedure record.
+         *
+         * @param hospitalId the ID of the hospital offering it
+         * @param procedure the procedure to write
+         * @throws IOException if writing fails
+         */
+        void procedure(int hospitalId, Procedure procedure)
+                throws IOException {
+            begin(PROCEDURE);
+            putInt(hospitalId);
+            putInt(procedure.getId());
+            putString(procedure.getName());
+            putString(procedure.getDescription());
+            putBoolean(procedure.isElective());
+            putLong(procedure.getCostCents());
+            end();
+            procedures++;
+        }
+
+        /**
+         * Writes a patient record. Facilities are referenced by ID.
+         *
+         * @param patient the patient to write
+         * @throws IOException if writing fails
+         */
+        void patient(Patient patient) throws IOException {
+            if (patients % INDEX_STRIDE == 0) {
+                patientOffsets = append(
+                    patientOffsets, patients / INDEX_STRIDE, position()
+                );
+            }
+            begin(PATIENT);
+            putVarInt(patient.getId());
+            putCompactString(patient.getName());
+            putBoolean(patient.isPrivate());
+            putVarLong(zigzag(patient.getBalanceCents()));
+            MedicalFacility current = patient.getCurrentFacility();
+            // Zero marks a patient without a current facility
+            putVarInt(current == null ? 0 : current.getId());
+            putVarInt(patient.getRegisteredFacilities().size());
+            for (MedicalFacility facility
+                    : patient.getRegisteredFacilities()) {
+                putVarInt(facility.getId());
+            }
+            end();
+            patients++;
+        }
+
+        /**
+         * Writes the end record, index and trailer unless in journal
+         * mode, and flushes the buffer. The channel is forced to
+         * storage and closed.
+         *
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void close() throws IOException {
+            try (var _ = channel) {
+                if (!journal) {
+                    begin(END);
+                    putInt(facilities);
+                    putInt(procedures);
+                    putInt(patients);
+                    end();
+                    index();
+                }
+                flush();
+                if (channel instanceof FileChannel file) {
+                    // Make sure the snapshot reached the disk
+                    file.force(false);
+                }
+            }
+        }
+
+        /**
+         * Writes the index record followed by the trailer pointing
+         * to it.
+         */
+        private void index() throws IOException {
+            long indexOffset = position();
+            begin(INDEX);
+            putInt(facilities);
+            for (int i = 0; i < facilities; i++) {
+                putLong(facilityOffsets[i]);
+            }
+            int checkpoints = (patients + INDEX_STRIDE - 1) / INDEX_STRIDE;
+            putInt(patients);
+            putInt(INDEX_STRIDE);
+            for (int i = 0; i < checkpoints; i++) {
+                putLong(patientOffsets[i]);
+            }
+            end();
+            putLong(indexOffset);
+            putInt(MAGIC);
+        }
+
+        /**
+         * Returns the file offset the next byte will be written at.
+         */
+        private long position() {
+            return written + buffer.position();
+        }
+
+        /**
+         * Stores a value at the given index of an array, growing
+         * the array when it is full.
+         */
+        private static long[] append(long[] array, int index, long value) {
+            if (index == array.length) {
+                array = Arrays.copyOf(array, array.length * 2);
+            }
+            array[index] = value;
+            return array;
+        }
+
+        /**
+         * Opens a record of the given type, leaving room for
+         * its length prefix.
+         */
+        private void begin(byte type) throws IOException {
+            ensure(5);
+            recordStart = buffer.position();
+            buffer.putInt(0);
+            buffer.put(type);
+        }
+
+        /**
+         * Closes the open record by filling in its length prefix.
+         * Journal records are followed by a checksum of the record.
+         */
+        private void end() throws IOException {
+            if (journal) {
+                ensure(4);
+                int position = buffer.position();
+                crc.reset();
+                crc.update(buffer.duplicate()
+                    .position(recordStart + 4)
+                    .limit(position));
+                buffer.putInt((int) crc.getValue());
+            }
+            buffer.putInt(recordStart, buffer.position() - recordStart - 4);
+            recordStart = -1;
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        private void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        private void putBoolean(boolean value) throws IOException {
+            ensure(1);
+            buffer.put(value ? (byte) 1 : (byte) 0);
+        }
+
+        /**
+         * Writes a string as its UTF-8 byte length followed by the
+         * bytes. A length of -1 marks a null string.
+         */
+        private void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Writes a string as its UTF-8 byte length plus one as a
+         * varint, followed by the bytes. Zero marks a null string.
+         */
+        private void putCompactString(String value) throws IOException {
+            if (value == null) {
+                putVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarInt(bytes.length + 1);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Writes an int as an unsigned varint, seven bits per byte
+         * with the high bit set on all but the last byte.
+         */
+        private void putVarInt(int value) throws IOException {
+            putVarLong(Integer.toUnsignedLong(value));
+        }
+
+        /**
+         * Writes a long as an unsigned varint, seven bits per byte
+         * with the high bit set on all but the last byte.
+         */
+        private void putVarLong(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) (value | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Makes room for the given number of bytes. Completed records
+         * are written out first; if the open record alone still does
+         * not fit, the buffer is grown.
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            // Write out everything before the open record
+            int keep = recordStart < 0 ? buffer.position() : recordStart;
+            buffer.flip();
+            int end = buffer.limit();
+            buffer.limit(keep);
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            // Move the open record to the front of the buffer
+            buffer.limit(end);
+            buffer.compact();
+            if (recordStart >= 0) {
+                recordStart = 0;
+            }
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(
+                    Math.max(buffer.capacity() * 2, buffer.position() + bytes)
+                );
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        /**
+         * Writes all buffered bytes to the channel. The channel is not
+         * forced to storage.
+         *
+         * @throws IOException if writing fails
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads snapshot or journal records from a channel through a
+     * reusable buffer and applies them to a health service.
+     */
+    static final class Reader implements Closeable {
+        // Channel the records are read from
+        private final ReadableByteChannel channel;
+        // Buffer holding bytes read from the channel
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        // Checksum of journal records
+        private final CRC32C crc = new CRC32C();
+        // Total number of bytes read from the channel
+        private long bytesRead;
+        // Format version of the file being read
+        private int version;
+        // Generation number of the snapshot being read
+        private long generation;
+        // Receives the percentage read, or null
+        private IntConsumer progress;
+        // Size of the file being read, or 0 if unknown
+        private long size;
+        // Percentage reported last
+        private int reported = -1;
+
+        /**
+         * Constructs a Reader over the given channel.
+         *
+         * @param channel the channel to read from
+         */
+        Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+            // Start with an empty buffer
+            buffer.limit(0);
+        }
+
+        /**
+         * Reads the whole snapshot into a new health service.
+         *
+         * @return the health service stored in the snapshot
+         * @throws IOException if the snapshot is corrupt or truncated
+         */
+        HealthService read() throws IOException {
+            return read(null);
+        }
+
+        /**
+         * Reads the whole snapshot into a new health service,
+         * reporting progress as it goes. Progress is only known when
+         * reading from a file.
+         *
+         * @param progress receives the percentage read, or null
+         * @return the health service stored in the snapshot
+         * @throws IOException if the snapshot is corrupt or truncated
+         */
+        HealthService read(IntConsumer progress) throws IOException {
+            if (channel instanceof FileChannel file) {
+                this.progress = progress;
+                size = file.size();
+            } else if (channel instanceof BlockCompression.Input input) {
+                this.progress = progress;
+                size = input.size();
+            }
+            preamble(MAGIC);
+            HealthService service = null;
+            int facilities = 0;
+            int procedures = 0;
+            int patients = 0;
+            while (true) {
+                int recordEnd = nextRecord(false);
+                int limit = buffer.limit();
+                // Keep decoding inside the record
+                buffer.limit(recordEnd);
+                byte type = buffer.get();
+                if (service == null) {
+                    // The header comes first and sizes the service
+                    service = new HealthService(
+                        type == HEADER ? expectedPatients() : 0
+                    );
+                }
+                try {
+                    switch (type) {
+                        case HOSPITAL, CLINIC -> facilities++;
+                        case PROCEDURE -> procedures++;
+                        case PATIENT -> patients++;
+                        case END -> {
+                            if (buffer.getInt() != facilities
+                                || buffer.getInt() != procedures
+                                || buffer.getInt() != patients) {
+                                throw new IOException(
+                                    "Snapshot record counts do not match"
+                                );
+                            }
+                            return service;
+                        }
+                        default -> {
+                            // Other records are counted nowhere
+                        }
+                    }
+                    apply(type, service);
+                } catch (BufferUnderflowException e) {
+                    throw new IOException("Corrupt snapshot record", e);
+                }
+                // Skip any trailing fields added by newer versions
+                buffer.limit(limit);
+                buffer.position(recordEnd);
+            }
+        }
+
+        /**
+         * Returns how many patients the header record at the buffer
+         * position allows for: one per ID allocated so far, but no
+         * more than the smallest patient records fitting in the file.
+         */
+        private int expectedPatients() {
+            if (buffer.remaining() < 8) {
+                // A corrupt header, reported when it is applied
+                return 0;
+            }
+            // The next patient ID follows the next facility ID
+            long allocated = buffer.getInt(buffer.position() + 4) - 1L;
+            return (int) Math.clamp(
+                allocated, 0, size / MIN_PATIENT_RECORD
+            );
+        }
+
+        /**
+         * Replays journal records on top of a health service. Replay
+         * stops at the end of the journal, or at the first record that
+         * is incomplete or fails its checksum, which is what a crash
+         * in the middle of an append leaves behind.
+         *
+         * @param service the health service loaded from the snapshot
+         * @param generation the generation number of that snapshot
+         * @param magic the magic number of the journal file
+         * @return the length of the valid part of the journal, 0 if
+         *         it holds no valid records, or -1 if it belongs to
+         *         another snapshot and nothing was applied
+         * @throws IOException if the journal cannot be read
+         */
+        long replay(HealthService service, long generation, int magic)
+                throws IOException {
+            return replay(service, generation, magic, null);
+        }
+
+        /**
+         * Replays journal records on top of a health service and marks
+         * every entity they touch as dirty in a change set, so that
+         * the replayed changes are part of the next delta snapshot.
+         *
+         * @param service the health service loaded from the snapshot
+         * @param generation the generation number of that snapshot
+         * @param magic the magic number of the journal file
+         * @param changes receives the IDs of the changed entities, or
+         *        null
+         * @return the length of the valid part of the journal, 0 if
+         *         it holds no valid records, or -1 if it belongs to
+         *         another snapshot and nothing was applied
+         * @throws IOException if the journal cannot be read
+         */
+        long replay(
+            HealthService service,
+            long generation,
+            int magic,
+            ChangeSet changes
+        ) throws IOException {
+            preamble(magic);
+            long valid = bytesRead - buffer.remaining();
+            boolean first = true;
+            while (true) {
+                int recordEnd;
+                try {
+                    recordEnd = nextRecord(true);
+                } catch (EOFException e) {
+                    // End of the journal, possibly with a torn tail
+                    return first ? 0 : valid;
+                }
+                if (recordEnd < 0) {
+                    // Checksum mismatch, ignore the rest
+                    return first ? 0 : valid;
+                }
+                int limit = buffer.limit();
+                // Keep decoding inside the record, before the checksum
+                buffer.limit(recordEnd - 4);
+                byte type = buffer.get();
+                try {
+                    if (first && (type != BASE
+                            || buffer.getLong() != generation)) {
+                        // Written for another snapshot
+                        return -1;
+                    }
+                    first = false;
+                    if (changes != null) {
+                        mark(type, changes);
+                    }
+                    apply(type, service);
+                } catch (BufferUnderflowException
+                        | IndexOutOfBoundsException e) {
+                    throw new IOException("Corrupt journal record", e);
+                }
+                buffer.limit(limit);
+                buffer.position(recordEnd);
+                valid = bytesRead - buffer.remaining();
+            }
+        }
+
+        /**
+         * Returns the format version of the file being read.
+         *
+         * @return the file version
+         */
+        int version() {
+            return version;
+        }
+
+        /**
+         * Returns the generation number found in the snapshot header.
+         *
+         * @return the snapshot generation
+         */
+        long generation() {
+            return generation;
+        }
+
+        /**
+         * Reads and checks the magic number and format version.
+         */
+        private void preamble(int magic) throws IOException {
+            require(8);
+            if (buffer.getInt() != magic) {
+                throw new IOException("Not a health service snapshot");
+            }
+            version = buffer.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException(
+                    "Unsupported snapshot version: " + version
+                );
+            }
+        }
+
+        /**
+         * Buffers the next record and positions the buffer at its
+         * record type.
+         *
+         * @param checksum whether the record ends with a checksum
+         * @return the buffer position just past the record, or -1 if
+         *         the checksum does not match
+         */
+        private int nextRecord(boolean checksum) throws IOException {
+            require(4);
+            int length = buffer.getInt();
+            if (length < (checksum ? 5 : 1)) {
+                throw new IOException("Corrupt record length");
+            }
+            require(length);
+            int recordEnd = buffer.position() + length;
+            if (checksum) {
+                crc.reset();
+                crc.update(buffer.array(),
+                    buffer.arrayOffset() + buffer.position(),
+                    length - 4);
+                if ((int) crc.getValue() != buffer.getInt(recordEnd - 4)) {
+                    return -1;
+                }
+            }
+            return recordEnd;
+        }
+
+        /**
+         * Marks the entity a journal record is about as dirty, without
+         * consuming the record.
+         */
+        private void mark(byte type, ChangeSet changes) {
+            int at = buffer.position();
+            switch (type) {
+                case HOSPITAL, CLINIC, REMOVE_FACILITY ->
+                    changes.markFacility(buffer.getInt(at));
+                case PROCEDURE, REMOVE_PROCEDURE -> changes.markProcedure(
+                    buffer.getInt(at), buffer.getInt(at + 4)
+                );
+                case PATIENT -> {
+                    changes.markPatient(getPacked());
+                    buffer.position(at);
+                }
+                case REMOVE_PATIENT ->
+                    changes.markPatient(buffer.getInt(at));
+                default -> {
+                    // Other records change no entity
+                }
+            }
+        }
+
+        /**
+         * Applies one decoded record to the health service. Records
+         * for an ID that already exists replace the stored fields.
+         */
+        private void apply(byte type, HealthService service)
+                throws IOException {
+            switch (type) {
+                case HEADER -> {
+                    service.facilityIds().reserve(buffer.getInt() - 1);
+                    service.patientIds().reserve(buffer.getInt() - 1);
+                    if (buffer.remaining() >= 8) {
+                        generation = buffer.getLong();
+                    }
+                }
+                case HOSPITAL -> applyHospital(service);
+                case CLINIC -> applyClinic(service);
+                case PROCEDURE -> applyProcedure(service);
+                case PATIENT -> applyPatient(service);
+                case REMOVE_PATIENT -> service.removePatient(buffer.getInt());
+                case REMOVE_FACILITY ->
+                    service.removeFacility(buffer.getInt());
+                case REMOVE_PROCEDURE -> {
+                    MedicalFacility facility =
+                        service.findFacility(buffer.getInt());
+                    int id = buffer.getInt();
+                    if (facility instanceof Hospital hospital) {
+                        hospital.removeProcedure(id);
+                    }
+                }
+                default -> {
+                    // Unknown record types are skipped
+                }
+            }
+        }
+
+        /**
+         * Applies a hospital record, adding or updating the hospital.
+         */
+        private void applyHospital(HealthService service)
+                throws IOException {
+            int id = buffer.getInt();
+            String name = getString();
+            double probAdmit = buffer.getDouble();
+            int nextProcedureId = buffer.getInt();
+            MedicalFacility existing = service.findFacility(id);
+            Hospital hospital;
+            if (existing == null) {
+                hospital = new Hospital(name, probAdmit);
+                hospital.setId(id);
+                service.restoreFacility(hospital);
+            } else if (existing instanceof Hospital stored) {
+                hospital = stored;
+                service.renameFacility(hospital, name);
+                hospital.setProbAdmit(probAdmit);
+            } else {
+                throw new IOException("Facility " + id + " is not a hospital");
+            }
+            hospital.procedureIds().reserve(nextProcedureId - 1);
+        }
+
+        /**
+         * Applies a clinic record, adding or updating the clinic.
+         */
+        private void applyClinic(HealthService service) throws IOException {
+            int id = buffer.getInt();
+            String name = getString();
+            long feeCents = getCents();
+            int gapBasisPoints = version >= 3
+                ? buffer.getInt()
+                : Money.basisPoints(buffer.getDouble());
+            MedicalFacility existing = service.findFacility(id);
+            Clinic clinic;
+            if (existing == null) {
+                clinic = new Clinic(name, 0, 0);
+                clinic.setId(id);
+            } else if (existing instanceof Clinic stored) {
+                clinic = stored;
+                service.renameFacility(clinic, name);
+            } else {
+                throw new IOException("Facility " + id + " is not a clinic");
+            }
+            clinic.setConsultationFeeCents(feeCents);
+            clinic.setGapBasisPoints(gapBasisPoints);
+            if (existing == null) {
+                service.restoreFacility(clinic);
+            }
+        }
+
+        /**
+         * Applies a procedure record to the hospital that offers it.
+         */
+        private void applyProcedure(HealthService service)
+                throws IOException {
+            int hospitalId = buffer.getInt();
+            int id = buffer.getInt();
+            String name = getString();
+            String description = getString();
+            boolean elective = buffer.get() != 0;
+            long costCents = getCents();
+            if (!(service.findFacility(hospitalId)
+                    instanceof Hospital hospital)) {
+                throw new IOException(
+                    "Procedure refers to unknown hospital " + hospitalId
+                );
+            }
+            Procedure procedure = hospital.findProcedure(id);
+            if (procedure == null) {
+                procedure = new Procedure(name, description, elective, 0);
+                procedure.setId(id);
+                procedure.setCostCents(costCents);
+                hospital.restoreProcedure(procedure);
+            } else {
+                procedure.setName(name);
+                procedure.setDescription(description);
+                procedure.setElective(elective);
+                procedure.setCostCents(costCents);
+            }
+        }
+
+        /**
+         * Applies a patient record, adding or updating the patient.
+         */
+        private void applyPatient(HealthService service) {
+            int id = getPacked();
+            String name = version >= 4 ? getCompactString() : getString();
+            boolean isPrivate = buffer.get() != 0;
+            Patient patient = service.findPatient(id);
+            boolean restored = patient == null;
+            if (restored) {
+                patient = new Patient(name, isPrivate);
+                patient.setId(id);
+            } else {
+                patient.setName(name);
+            }
+            patient.setBalanceCents(
+                version >= 4 ? unzigzag(getVarLong()) : getCents()
+            );
+            patient.setCurrentFacility(service.findFacility(getPacked()));
+            int registered = getPacked();
+            for (int i = 0; i < registered; i++) {
+                MedicalFacility facility =
+                    service.findFacility(getPacked());
+                if (facility != null) {
+                    patient.registerAt(facility);
+                }
+            }
+            if (restored) {
+                service.restorePatient(patient);
+            }
+        }
+
+        /**
+         * Reads an amount in cents, converting the dollars stored by
+         * files written before version 3.
+         */
+        private long getCents() {
+            return version >= 3
+                ? buffer.getLong()
+                : Money.cents(buffer.getDouble());
+        }
+
+        /**
+         * Reads an ID or count of a patient record: a varint since
+         * version 4, a fixed-size int before.
+         */
+        private int getPacked() {
+            return version >= 4 ? (int) getVarLong() : buffer.getInt();
+        }
+
+        /**
+         * Reads an unsigned varint written by {@link Writer}.
+         */
+        private long getVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte next;
+            do {
+                next = buffer.get();
+                value |= (long) (next & 0x7F) << shift;
+                shift += 7;
+            } while (next < 0);
+            return value;
+        }
+
+        /**
+         * Reads a length-prefixed UTF-8 string straight from the
+         * buffer's backing array.
+         */
+        private String getString() {
+            return getString(buffer.getInt());
+        }
+
+        /**
+         * Reads a UTF-8 string whose length plus one is a varint.
+         */
+        private String getCompactString() {
+            return getString((int) getVarLong() - 1);
+        }
+
+        /**
+         * Reads a UTF-8 string of the given length straight from the
+         * buffer's backing array. A negative length means null.
+         */
+        private String getString(int length) {
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            String value = new String(
+                buffer.array(),
+                buffer.arrayOffset() + buffer.position(),
+                length,
+                StandardCharsets.UTF_8
+            );
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+
+        /**
+         * Makes sure at least the given number of bytes is buffered,
+         * reading from the channel and growing the buffer as needed.
+         */
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            if (buffer.capacity() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(
+                    Math.max(buffer.capacity() * 2, bytes)
+                );
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    // Leave the partial bytes for the caller to ignore
+                    buffer.flip();
+                    throw new EOFException("Snapshot is truncated");
+                }
+                bytesRead += read;
+                if (progress != null && size > 0) {
+                    int percent = (int) (bytesRead * 100 / size);
+                    if (percent != reported) {
+                        reported = percent;
+                        progress.accept(percent);
+                    }
+                }
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Closes the underlying channel.
+         *
+         * @throws IOException if closing fails
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,476 @@
+/**
+ * @author : Yuuji
+ * TableModels.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary Swing and utility classes
+import java.io.Serial;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The EntityTableModel class is a table model that reads its rows
+ * straight from a list of the health service instead of copying them.
+ * It listens to the health service and fires an event for just the
+ * rows that changed, so a single edit costs a lookup rather than a
+ * rebuild of the whole table.
+ * <p>
+ * Rows are kept in the order of the underlying list, which is ordered
+ * by ID, so the row of an entity is found by binary search. Events
+ * are expected on the Event Dispatch Thread; changes made elsewhere
+ * are reported as a full refresh on the Event Dispatch Thread, and
+ * a burst of such changes shares a single refresh.
+ *
+ * @param <T> the type of entity shown in each row
+ */
+abstract class EntityTableModel<T> extends AbstractTableModel
+        implements HealthServiceListener {
+    @Serial
+    // Unique identifier for serialization
+    private static final long serialVersionUID = 1L;
+    // Column names, the first column always shows the ID
+    private final String[] columns;
+    // Column classes used for rendering and sorting
+    private final Class<?>[] types;
+    // Health service the rows are read from
+    private HealthService service;
+    // Whether the ID column shows row numbers 1..n instead of IDs
+    private boolean compactNumbering;
+    // Whether a full refresh is already queued on the Event Dispatch Thread
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    /**
+     * Constructs an EntityTableModel with the given columns.
+     *
+     * @param columns the column names
+     * @param types the column classes
+     */
+    EntityTableModel(String[] columns, Class<?>[] types) {
+        this.columns = columns;
+        this.types = types;
+    }
+
+    /**
+     * Returns the live list the rows are read from.
+     *
+     * @return the entities shown, ordered by ID
+     */
+    abstract List<T> rows();
+
+    /**
+     * Returns the stable ID of an entity.
+     *
+     * @param entity the entity
+     * @return its ID
+     */
+    abstract int idOf(T entity);
+
+    /**
+     * Returns the value of a column other than the ID column.
+     *
+     * @param entity the entity shown in the row
+     * @param column the column, from 1
+     * @return the value to display
+     */
+    abstract Object valueOf(T entity, int column);
+
+    /**
+     * Shows the rows of another health service, or refreshes all
+     * rows when it is the same one.
+     *
+     * @param service the health service to read from
+     */
+    void setService(HealthService service) {
+        if (this.service != service) {
+            if (this.service != null) {
+                this.service.removeListener(this);
+            }
+            this.service = service;
+            if (service != null) {
+                service.addListener(this);
+            }
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Returns the health service the rows are read from.
+     *
+     * @return the health service, or null
+     */
+    HealthService getService() {
+        return service;
+    }
+
+    /**
+     * Switches the ID column between stable IDs and row numbers.
+     *
+     * @param compactNumbering true to show rows numbered 1..n
+     */
+    void setCompactNumbering(boolean compactNumbering) {
+        this.compactNumbering = compactNumbering;
+        if (getRowCount() > 0) {
+            // Only the ID column changes
+            fireTableRowsUpdated(0, getRowCount() - 1);
+        }
+    }
+
+    /**
+     * Returns the entity shown in a row of the model.
+     *
+     * @param row the model row
+     * @return the entity
+     */
+    T entityAt(int row) {
+        return rows().get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return service == null ? 0 : rows().size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return types[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        // Make all cells non-editable
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T entity = rows().get(row);
+        if (column == 0) {
+            // Row numbers start from 1
+            return compactNumbering ? row + 1 : idOf(entity);
+        }
+        return valueOf(entity, column);
+    }
+
+    /**
+     * Fires an insert event for an entity that was just added.
+     *
+     * @param entity the added entity
+     */
+    void inserted(T entity) {
+        int row = rowOf(entity);
+        if (!SwingUtilities.isEventDispatchThread() || row < 0) {
+            refreshLater();
+            return;
+        }
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Fires one insert event for entities that were just added
+     * together. They are appended with new IDs, so their rows are
+     * contiguous.
+     *
+     * @param entities the added entities, in ID order
+     */
+    void inserted(List<? extends T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        int first = rowOf(entities.get(0));
+        int last = rowOf(entities.get(entities.size() - 1));
+        if (!SwingUtilities.isEventDispatchThread() || first < 0
+                || last < first) {
+            refreshLater();
+            return;
+        }
+        fireTableRowsInserted(first, last);
+    }
+
+    /**
+     * Fires an update event for an entity that changed.
+     *
+     * @param entity the changed entity
+     */
+    void updated(T entity) {
+        int row = rowOf(entity);
+        if (!SwingUtilities.isEventDispatchThread() || row < 0) {
+            refreshLater();
+            return;
+        }
+        fireTableRowsUpdated(row, row);
+    }
+
+    /**
+     * Fires a delete event for an entity that was just removed.
+     * The entity is no longer in the list, so its former row is the
+     * position where its ID would be inserted.
+     *
+     * @param entity the removed entity
+     */
+    void deleted(T entity) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            refreshLater();
+            return;
+        }
+        int row = insertionPoint(idOf(entity));
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * Returns the row of an entity in the list.
+     */
+    private int rowOf(T entity) {
+        return IdAllocator.positionOf(rows(), idOf(entity), this::idOf);
+    }
+
+    /**
+     * Returns the first position whose ID is not less than the given
+     * ID.
+     */
+    private int insertionPoint(int id) {
+        List<T> rows = rows();
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (idOf(rows.get(mid)) < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Refreshes all rows on the Event Dispatch Thread, unless a
+     * refresh is already queued that has not run yet.
+     */
+    private void refreshLater() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                // Changes after this point queue another refresh
+                refreshQueued.set(false);
+                fireTableDataChanged();
+            });
+        }
+    }
+}
+
+/**
+ * The PatientTableModel class shows the patients of a health service
+ * with their ID, name, privacy status and balance.
+ */
+final class PatientTableModel extends EntityTableModel<Patient> {
+    @Serial
+    // Unique identifier for serialization
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs an empty PatientTableModel.
+     */
+    PatientTableModel() {
+        super(
+            new String[]{"ID", "Name", "Private", "Balance"},
+            new Class<?>[]{
+                Integer.class, String.class, Boolean.class, Double.class
+            }
+        );
+    }
+
+    @Override
+    List<Patient> rows() {
+        return getService().getPatients();
+    }
+
+    @Override
+    int idOf(Patient patient) {
+        return patient.getId();
+    }
+
+    @Override
+    Object valueOf(Patient patient, int column) {
+        return switch (column) {
+            case 1 -> patient.getName();
+            case 2 -> patient.isPrivate();
+            default -> patient.getBalance();
+        };
+    }
+
+    @Override
+    public void patientAdded(Patient patient) {
+        inserted(patient);
+    }
+
+    @Override
+    public void patientsAdded(List<Patient> patients) {
+        inserted(patients);
+    }
+
+    @Override
+    public void patientRemoved(Patient patient) {
+        deleted(patient);
+    }
+
+    @Override
+    public void patientChanged(Patient patient) {
+        updated(patient);
+    }
+}
+
+/**
+ * The FacilityTableModel class shows the facilities of a health
+ * service with their ID, name and type.
+ */
+final class FacilityTableModel extends EntityTableModel<MedicalFacility> {
+    @Serial
+    // Unique identifier for serialization
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs an empty FacilityTableModel.
+     */
+    FacilityTableModel() {
+        super(
+            new String[]{"ID", "Name", "Type"},
+            new Class<?>[]{Integer.class, String.class, String.class}
+        );
+    }
+
+    @Override
+    List<MedicalFacility> rows() {
+        return getService().getFacilities();
+    }
+
+    @Override
+    int idOf(MedicalFacility facility) {
+        return facility.getId();
+    }
+
+    @Override
+    Object valueOf(MedicalFacility facility, int column) {
+        return column == 1
+            ? facility.getName()
+            : facility.getClass().getSimpleName();
+    }
+
+    @Override
+    public void facilityAdded(MedicalFacility facility) {
+        inserted(facility);
+    }
+
+    @Override
+    public void facilitiesAdded(List<MedicalFacility> facilities) {
+        inserted(facilities);
+    }
+
+    @Override
+    public void facilityRemoved(MedicalFacility facility) {
+        deleted(facility);
+    }
+
+    @Override
+    public void facilityChanged(MedicalFacility facility) {
+        updated(facility);
+    }
+}
+
+/**
+ * The ProcedureTableModel class shows the procedures of one hospital
+ * with their ID, name, description, elective status and cost.
+ */
+final class ProcedureTableModel extends EntityTableModel<Procedure> {
+    @Serial
+    // Unique identifier for serialization
+    private static final long serialVersionUID = 1L;
+    // Hospital whose procedures are shown, or null
+    private Hospital hospital;
+
+    /**
+     * Constructs an empty ProcedureTableModel.
+     */
+    ProcedureTableModel() {
+        super(
+            new String[]{"ID", "Name", "Description", "Elective", "Cost"},
+            new Class<?>[]{
+                Integer.class, String.class, String.class,
+                Boolean.class, Double.class
+            }
+        );
+    }
+
+    /**
+     * Shows the procedures of another hospital.
+     *
+     * @param hospital the hospital, or null to show no procedures
+     */
+    void setHospital(Hospital hospital) {
+        this.hospital = hospital;
+        fireTableDataChanged();
+    }
+
+    @Override
+    List<Procedure> rows() {
+        return hospital == null ? List.of() : hospital.getProcedures();
+    }
+
+    @Override
+    int idOf(Procedure procedure) {
+        return procedure.getId();
+    }
+
+    @Override
+    Object valueOf(Procedure procedure, int column) {
+        return switch (column) {
+            case 1 -> procedure.getName();
+            case 2 -> procedure.getDescription();
+            case 3 -> procedure.isElective();
+            default -> procedure.getCost();
+        };
+    }
+
+    @Override
+    public void facilityRemoved(MedicalFacility facility) {
+        if (facility == hospital) {
+            // The shown hospital no longer exists
+            setHospital(null);
+        }
+    }
+
+    @Override
+    public void procedureAdded(Hospital hospital, Procedure procedure) {
+        if (hospital == this.hospital) {
+            inserted(procedure);
+        }
+    }
+
+    @Override
+    public void procedureRemoved(Hospital hospital, Procedure procedure) {
+        if (hospital == this.hospital) {
+            deleted(procedure);
+        }
+    }
+
+    @Override
+    public void procedureChanged(Hospital hospital, Procedure procedure) {
+        if (hospital == this.hospital) {
+            updated(procedure);
+        }
+    }
+}
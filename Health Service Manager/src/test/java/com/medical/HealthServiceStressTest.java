@@ -0,0 +1,314 @@
+/**
+ * @author : Yuuji
+ * HealthServiceStressTest.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary utilities for threads and assertions
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Stress tests for the health service under concurrent readers and
+ * writers. Writer threads add, remove, charge and rename while reader
+ * threads walk the views and look entities up, and the tests check
+ * afterwards that no update was lost and every list is still ordered.
+ */
+class HealthServiceStressTest {
+    // Writer threads per test
+    private static final int WRITERS = 4;
+    // Reader threads per test
+    private static final int READERS = 4;
+    // Operations per writer thread
+    private static final int OPERATIONS = 20_000;
+
+    /**
+     * Adds and removes patients from several threads while others read
+     * the patients, and checks that exactly the patients that were not
+     * removed are left, in ID order.
+     */
+    @Test
+    @Timeout(60)
+    void patientsAddedAndRemovedConcurrently() throws Exception {
+        HealthService service = new HealthService();
+        ConcurrentLinkedQueue<Integer> kept = new ConcurrentLinkedQueue<>();
+        AtomicInteger removed = new AtomicInteger();
+        run(
+            writer -> {
+                List<Patient> own = new ArrayList<>();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    Patient patient =
+                        new Patient("P" + writer + "-" + i, false);
+                    service.addPatient(patient);
+                    own.add(patient);
+                    if (i % 3 == 0) {
+                        // Remove an earlier patient of this writer
+                        Patient gone = own.remove(own.size() / 2);
+                        service.removePatient(gone.getId());
+                        removed.incrementAndGet();
+                    }
+                }
+                for (Patient patient : own) {
+                    kept.add(patient.getId());
+                }
+            },
+            () -> {
+                // Copies made through the view are consistent
+                assertOrdered(List.of(service.getPatients().toArray()));
+                assertOrdered(service.getPatientSnapshot());
+            }
+        );
+        assertEquals(WRITERS * OPERATIONS - removed.get(), kept.size());
+        assertEquals(kept.size(), service.getPatients().size());
+        for (int id : kept) {
+            assertNotNull(service.findPatient(id));
+        }
+        assertOrdered(service.getPatients());
+    }
+
+    /**
+     * Sends a few shared patients to a clinic and a hospital from
+     * several threads, through the visit and procedure charges the
+     * application uses, while others read their balances. Checks that
+     * the charges reported add up to the balances, so none was lost,
+     * and that every patient registered at the clinic exactly once.
+     */
+    @Test
+    @Timeout(60)
+    void chargesAreNotLost() throws Exception {
+        HealthService service = new HealthService();
+        Clinic clinic = new Clinic("Clinic", 50, 10);
+        // Admits every visiting patient
+        Hospital hospital = new Hospital("Hospital", 1.0);
+        service.addFacility(clinic);
+        service.addFacility(hospital);
+        Procedure procedure = new Procedure("Scan", "Test", true, 100);
+        hospital.addProcedure(procedure);
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Patient patient = new Patient("P" + i, i % 2 == 0);
+            service.addPatient(patient);
+            patients.add(patient);
+        }
+        AtomicLong charged = new AtomicLong();
+        AtomicInteger registrations = new AtomicInteger();
+        run(
+            writer -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    Patient patient = patients.get(i % patients.size());
+                    Charge charge = switch (i % 3) {
+                        case 0 -> clinic.chargeVisit(patient);
+                        case 1 -> hospital.chargeVisit(patient);
+                        default -> hospital.chargeProcedure(
+                            patient, procedure
+                        );
+                    };
+                    if (i % 3 == 0 && charge.result()) {
+                        // A first visit registers the patient
+                        registrations.incrementAndGet();
+                    }
+                    charged.addAndGet(charge.cents());
+                }
+            },
+            () -> {
+                for (Patient patient : service.getPatients()) {
+                    assertTrue(patient.getBalanceCents() >= 0);
+                }
+            }
+        );
+        long total = 0;
+        for (Patient patient : patients) {
+            total += patient.getBalanceCents();
+            assertEquals(Set.of(clinic), patient.getRegisteredFacilities());
+        }
+        assertTrue(total > 0);
+        assertEquals(charged.get(), total);
+        assertEquals(patients.size(), registrations.get());
+    }
+
+    /**
+     * Renames facilities from several threads while a listener reads
+     * the facilities on every change, as the table models do, and
+     * checks that the name index follows the last rename.
+     */
+    @Test
+    @Timeout(60)
+    void facilitiesRenamedWhileListenersRead() throws Exception {
+        HealthService service = new HealthService();
+        List<MedicalFacility> facilities = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            Clinic clinic = new Clinic("Clinic " + i, 50, 10);
+            service.addFacility(clinic);
+            facilities.add(clinic);
+        }
+        AtomicInteger changes = new AtomicInteger();
+        service.addListener(new HealthServiceListener() {
+            @Override
+            public void facilityChanged(MedicalFacility facility) {
+                // Reads the facilities like EntityTableModel.updated
+                int row = IdAllocator.positionOf(
+                    service.getFacilities(),
+                    facility.getId(),
+                    MedicalFacility::getId
+                );
+                assertTrue(row >= 0);
+                changes.incrementAndGet();
+            }
+        });
+        run(
+            writer -> {
+                MedicalFacility facility = facilities.get(writer);
+                for (int i = 0; i < OPERATIONS; i++) {
+                    service.renameFacility(
+                        facility, "Clinic " + writer + "-" + i
+                    );
+                }
+            },
+            () -> service.findFacilityByName("Clinic 0-" + OPERATIONS / 2)
+        );
+        assertEquals(WRITERS * OPERATIONS, changes.get());
+        for (int i = 0; i < WRITERS; i++) {
+            String name = "Clinic " + i + "-" + (OPERATIONS - 1);
+            assertEquals(facilities.get(i), service.findFacilityByName(name));
+        }
+    }
+
+    /**
+     * Adds and removes procedures of one hospital from several threads
+     * while others look them up and walk the list, and checks that the
+     * procedures left are the ones that were not removed, in ID order.
+     */
+    @Test
+    @Timeout(60)
+    void proceduresAddedAndRemovedConcurrently() throws Exception {
+        HealthService service = new HealthService();
+        Hospital hospital = new Hospital("Hospital", 0.5);
+        service.addFacility(hospital);
+        ConcurrentLinkedQueue<Integer> kept = new ConcurrentLinkedQueue<>();
+        run(
+            writer -> {
+                for (int i = 0; i < OPERATIONS / 4; i++) {
+                    Procedure procedure =
+                        new Procedure("X" + i, "Test", i % 2 == 0, 100);
+                    hospital.addProcedure(procedure);
+                    if (i % 2 == 0) {
+                        hospital.removeProcedure(procedure.getId());
+                    } else {
+                        kept.add(procedure.getId());
+                    }
+                }
+            },
+            () -> {
+                for (int id : kept) {
+                    assertNotNull(hospital.findProcedure(id));
+                }
+                assertOrdered(List.of(hospital.getProcedures().toArray()));
+                assertOrdered(hospital.getProcedureSnapshot());
+            }
+        );
+        assertEquals(kept.size(), hospital.getProcedures().size());
+        assertOrdered(hospital.getProcedures());
+    }
+
+    /**
+     * The work of one writer thread.
+     */
+    private interface Writer {
+        /**
+         * Runs the writes of one thread.
+         *
+         * @param writer the number of the thread, from 0
+         */
+        void write(int writer) throws Exception;
+    }
+
+    /**
+     * The work of one read by a reader thread.
+     */
+    private interface Reader {
+        /**
+         * Runs one read.
+         */
+        void read() throws Exception;
+    }
+
+    /**
+     * Runs the writers once each, and the readers over and over until
+     * the writers are done, then rethrows the first failure.
+     */
+    private static void run(Writer writer, Reader reader) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                readers.add(pool.submit(() -> {
+                    start.await();
+                    while (!done.get()) {
+                        reader.read();
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                int number = i;
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    writer.write(number);
+                    return null;
+                }));
+            }
+            start.countDown();
+            try {
+                for (Future<?> future : writers) {
+                    future.get();
+                }
+            } finally {
+                done.set(true);
+            }
+            for (Future<?> future : readers) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Checks that a list of entities is in increasing ID order.
+     */
+    private static void assertOrdered(List<?> entities) {
+        int last = 0;
+        for (Object entity : entities) {
+            int id = switch (entity) {
+                case Patient patient -> patient.getId();
+                case MedicalFacility facility -> facility.getId();
+                case Procedure procedure -> procedure.getId();
+                default -> throw new AssertionError(entity);
+            };
+            assertTrue(id > last, "IDs out of order at " + id);
+            last = id;
+        }
+    }
+}
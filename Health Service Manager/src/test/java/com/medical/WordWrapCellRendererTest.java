@@ -0,0 +1,92 @@
+/**
+ * @author : Yuuji
+ * WordWrapCellRendererTest.java
+ * Latest Update: 10-17-2026
+ */
+
+package com.medical;
+
+// Importing necessary classes for tables, images and allocation counts
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the word-wrap renderer of the procedure descriptions. The
+ * table is headless and only used by the test thread.
+ */
+class WordWrapCellRendererTest {
+    // Rows in the table
+    private static final int ROWS = 100;
+    // Width of the description column
+    private static final int WIDTH = 300;
+    // Cells painted before and while allocations are counted
+    private static final int PAINTS = 20_000;
+
+    static {
+        // Keep AWT from looking for a display
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    /**
+     * Paints cells whose lines are cached, as during scrolling, and
+     * checks that looking the renderer up, preparing it and painting
+     * allocate nothing once warmed up. The graphics copy the table UI
+     * makes for every cell is Swing's and is not counted.
+     */
+    @Test
+    void paintingCachedCellsAllocatesNothing() {
+        // Per-thread allocation counts are a HotSpot extension
+        if (!(ManagementFactory.getThreadMXBean()
+                instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        DefaultTableModel model = new DefaultTableModel(
+            new Object[] {"Description"}, 0
+        );
+        for (int i = 0; i < ROWS; i++) {
+            model.addRow(new Object[] {
+                "Replacement of the knee joint under general anaesthetic"
+                    + " with an overnight stay, case " + i
+            });
+        }
+        JTable table = new JTable(model);
+        table.getColumnModel().getColumn(0).setWidth(WIDTH);
+        MedicalGUI.WordWrapCellRenderer.install(table, 0, 50);
+        BufferedImage image =
+            new BufferedImage(WIDTH, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            // Lay out every row and warm the paths up
+            paint(table, graphics, PAINTS);
+            long before = threads.getCurrentThreadAllocatedBytes();
+            paint(table, graphics, PAINTS);
+            long allocated =
+                threads.getCurrentThreadAllocatedBytes() - before;
+            assertEquals(0, allocated, "Bytes allocated painting cells");
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Prepares and paints cells of the table in turn.
+     */
+    private static void paint(JTable table, Graphics2D graphics, int count) {
+        for (int i = 0; i < count; i++) {
+            int row = i % ROWS;
+            Component cell = table.prepareRenderer(
+                table.getCellRenderer(row, 0), row, 0
+            );
+            cell.setBounds(0, 0, WIDTH, table.getRowHeight(row));
+            cell.paint(graphics);
+        }
+    }
+}